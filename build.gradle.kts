@@ -19,6 +19,7 @@ plugins {
     alias(libs.plugins.kotlin.parcelize) apply false
     alias(libs.plugins.android.test) apply false
     alias(libs.plugins.baselineprofile) apply false
+    alias(libs.plugins.jmh) apply false
 }
 
 dependencies {
@@ -56,6 +57,7 @@ tasks.register<io.gitlab.arturbosch.detekt.Detekt>("detektAll") {
         "**/test/**/*.kt",
         "**/testDefaults/**/*.kt",
         "**/testCustomEntitlementComputation/**/*.kt",
+        "**/jmh/**/*.kt",
     )
     config.setFrom(files("$rootDir/config/detekt/detekt.yml"))
     baseline.set(file("$rootDir/config/detekt/detekt-baseline.xml"))
@@ -81,5 +83,6 @@ tasks.register<io.gitlab.arturbosch.detekt.DetektCreateBaselineTask>("detektAllB
         "**/test/**/*.kt",
         "**/testDefaults/**/*.kt",
         "**/testCustomEntitlementComputation/**/*.kt",
+        "**/jmh/**/*.kt",
     )
 }
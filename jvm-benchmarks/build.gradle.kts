@@ -0,0 +1,60 @@
+import org.jetbrains.kotlin.gradle.tasks.KotlinCompile
+
+// JMH benchmarks for JVM-side hot paths of :purchases. They run on a plain JVM, without a device, emulator or
+// Robolectric sandbox:
+//
+//   ./gradlew :jvm-benchmarks:jmh
+//   ./gradlew :jvm-benchmarks:jmh -PjmhIncludes=RulesEngineBenchmark
+//
+// Runs include the GC profiler (`-prof gc`), so results report the bytes allocated per operation as
+// `gc.alloc.rate.norm` next to the timings.
+//
+// The benchmarks compile against the classes jar of the `defaults` release variant :purchases publishes, declared as
+// a friend module so they can reach its internal API. The Android framework classes those code paths use (org.json,
+// Uri, Base64...) come from Robolectric's android-all jar, which contains their real implementations.
+plugins {
+    alias(libs.plugins.kotlin.jvm)
+    alias(libs.plugins.jmh)
+}
+
+// Only the classes of :purchases itself: its dependencies are AARs, which a JVM module can't consume, so the ones the
+// benchmarks need are declared below.
+val purchasesRuntime by configurations.creating {
+    isCanBeConsumed = false
+    isTransitive = false
+}
+val purchasesClasses = purchasesRuntime.incoming.artifactView {
+    attributes {
+        attribute(Attribute.of("artifactType", String::class.java), "android-classes-jar")
+    }
+}.files
+
+kotlin {
+    jvmToolchain(17)
+    compilerOptions {
+        optIn.add("com.revenuecat.purchases.InternalRevenueCatAPI")
+    }
+}
+
+tasks.named<KotlinCompile>("compileJmhKotlin") {
+    friendPaths.from(purchasesClasses)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    includes.addAll(providers.gradleProperty("jmhIncludes").map { listOf(it) }.orElse(emptyList()))
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.add("gc")
+}
+
+dependencies {
+    purchasesRuntime(project(path = ":purchases", configuration = "defaultsReleaseRuntimeElements"))
+
+    jmhImplementation(purchasesClasses)
+    jmhImplementation(libs.robolectric.androidAll)
+    jmhImplementation(libs.kotlinx.serialization.json)
+    jmhImplementation(libs.tink)
+    jmhImplementation(libs.mockk)
+}
@@ -0,0 +1,129 @@
+package com.revenuecat.purchases.benchmarks
+
+import android.content.ContextWrapper
+import android.content.SharedPreferences
+import com.revenuecat.purchases.LogHandler
+import com.revenuecat.purchases.common.Delay
+import com.revenuecat.purchases.common.Dispatcher
+import com.revenuecat.purchases.common.currentLogHandler
+import java.io.File
+import java.util.concurrent.Executors
+
+internal object Fixtures {
+    fun bytes(name: String): ByteArray {
+        val stream = Fixtures::class.java.getResourceAsStream("/fixtures/$name")
+            ?: error("Missing benchmark fixture $name")
+        return stream.use { it.readBytes() }
+    }
+
+    fun text(name: String): String = bytes(name).toString(Charsets.UTF_8)
+}
+
+/**
+ * android.util.Log is native in android-all, so SDK logs are dropped instead of reaching it.
+ */
+internal fun silenceSdkLogs() {
+    currentLogHandler = object : LogHandler {
+        override fun v(tag: String, msg: String) = Unit
+        override fun d(tag: String, msg: String) = Unit
+        override fun i(tag: String, msg: String) = Unit
+        override fun w(tag: String, msg: String) = Unit
+        override fun e(tag: String, msg: String, throwable: Throwable?) = Unit
+    }
+}
+
+/**
+ * Context whose storage directories all point to [directory]. Nothing else is implemented.
+ */
+internal class DirectoryContext(private val directory: File) : ContextWrapper(null) {
+    override fun getFilesDir(): File = directory
+    override fun getCacheDir(): File = directory
+    override fun getNoBackupFilesDir(): File = directory
+    override fun getApplicationContext() = this
+}
+
+/**
+ * Runs every command on the calling thread, so the measured time includes it.
+ */
+internal class InlineDispatcher : Dispatcher(Executors.newSingleThreadExecutor(), mainHandler = null) {
+    override fun enqueue(command: Runnable, delay: Delay) {
+        command.run()
+    }
+}
+
+internal fun createTempDirectory(prefix: String): File {
+    return kotlin.io.path.createTempDirectory(prefix).toFile()
+}
+
+/**
+ * Map-backed [SharedPreferences]. The platform implementation needs a real Context, and its disk writes are measured
+ * separately where they matter.
+ */
+@Suppress("TooManyFunctions")
+internal class InMemorySharedPreferences : SharedPreferences {
+    private val values = HashMap<String, Any?>()
+
+    @Synchronized
+    override fun getAll(): Map<String, *> = HashMap(values)
+
+    @Synchronized
+    override fun getString(key: String, defValue: String?): String? = values[key] as String? ?: defValue
+
+    @Suppress("UNCHECKED_CAST")
+    @Synchronized
+    override fun getStringSet(key: String, defValues: Set<String>?): Set<String>? =
+        values[key] as Set<String>? ?: defValues
+
+    @Synchronized
+    override fun getInt(key: String, defValue: Int): Int = values[key] as Int? ?: defValue
+
+    @Synchronized
+    override fun getLong(key: String, defValue: Long): Long = values[key] as Long? ?: defValue
+
+    @Synchronized
+    override fun getFloat(key: String, defValue: Float): Float = values[key] as Float? ?: defValue
+
+    @Synchronized
+    override fun getBoolean(key: String, defValue: Boolean): Boolean = values[key] as Boolean? ?: defValue
+
+    @Synchronized
+    override fun contains(key: String): Boolean = values.containsKey(key)
+
+    override fun edit(): SharedPreferences.Editor = Editor()
+
+    override fun registerOnSharedPreferenceChangeListener(
+        listener: SharedPreferences.OnSharedPreferenceChangeListener,
+    ) = Unit
+
+    override fun unregisterOnSharedPreferenceChangeListener(
+        listener: SharedPreferences.OnSharedPreferenceChangeListener,
+    ) = Unit
+
+    private inner class Editor : SharedPreferences.Editor {
+        private val changes = HashMap<String, Any?>()
+        private var clear = false
+
+        override fun putString(key: String, value: String?) = apply { changes[key] = value }
+        override fun putStringSet(key: String, values: Set<String>?) = apply { changes[key] = values?.toSet() }
+        override fun putInt(key: String, value: Int) = apply { changes[key] = value }
+        override fun putLong(key: String, value: Long) = apply { changes[key] = value }
+        override fun putFloat(key: String, value: Float) = apply { changes[key] = value }
+        override fun putBoolean(key: String, value: Boolean) = apply { changes[key] = value }
+
+        // The platform implementation also treats a removal as a null value.
+        override fun remove(key: String) = apply { changes[key] = null }
+        override fun clear() = apply { clear = true }
+
+        override fun commit(): Boolean {
+            synchronized(this@InMemorySharedPreferences) {
+                if (clear) values.clear()
+                changes.forEach { (key, value) -> if (value == null) values.remove(key) else values[key] = value }
+            }
+            return true
+        }
+
+        override fun apply() {
+            commit()
+        }
+    }
+}
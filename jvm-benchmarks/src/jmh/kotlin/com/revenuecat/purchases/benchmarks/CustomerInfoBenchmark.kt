@@ -0,0 +1,41 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.VerificationResult
+import com.revenuecat.purchases.common.CustomerInfoFactory
+import com.revenuecat.purchases.common.caching.CustomerInfoSnapshot
+import org.json.JSONObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Loading a cached CustomerInfo: parsing the raw JSON and building it, against decoding its binary snapshot.
+ */
+@State(Scope.Benchmark)
+open class CustomerInfoBenchmark {
+
+    private lateinit var rawJSON: String
+    private lateinit var snapshot: ByteArray
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        rawJSON = JSONObject(Fixtures.text("customer_info.json")).toString()
+        snapshot = CustomerInfoSnapshot.encode(buildFromJSON(), rawJSON)
+    }
+
+    @Benchmark
+    fun buildFromJSON(): Any = CustomerInfoFactory.buildCustomerInfo(
+        JSONObject(rawJSON),
+        overrideRequestDate = null,
+        verificationResult = VerificationResult.NOT_REQUESTED,
+    )
+
+    @Benchmark
+    fun decodeSnapshot(): Any? = CustomerInfoSnapshot.decode(snapshot, rawJSON) { JSONObject(it) }
+
+    @Benchmark
+    fun decodeSnapshotAndActiveEntitlements(): Any? =
+        CustomerInfoSnapshot.decode(snapshot, rawJSON) { JSONObject(it) }?.entitlements?.active
+}
@@ -0,0 +1,68 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.VerificationResult
+import com.revenuecat.purchases.common.networking.ETagManager
+import com.revenuecat.purchases.common.networking.ETagPayloadStore
+import com.revenuecat.purchases.common.networking.HTTPResult
+import org.json.JSONObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.io.File
+import java.util.Date
+
+/**
+ * ETag cache operations done around every request: building the request headers, serving a 304 from disk and storing
+ * a 200.
+ */
+@State(Scope.Benchmark)
+open class ETagManagerBenchmark {
+
+    private lateinit var directory: File
+    private lateinit var eTagManager: ETagManager
+    private lateinit var result: HTTPResult
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        directory = createTempDirectory("etag-benchmark")
+        val preferences = InMemorySharedPreferences()
+        eTagManager = ETagManager(
+            DirectoryContext(directory),
+            prefs = lazy { preferences },
+            payloadStore = ETagPayloadStore(File(directory, "etags")),
+        )
+        result = HTTPResult(
+            200,
+            JSONObject(Fixtures.text("customer_info.json")).toString(),
+            HTTPResult.Origin.BACKEND,
+            Date(),
+            VerificationResult.NOT_REQUESTED,
+            isLoadShedderResponse = false,
+            isFallbackURL = false,
+        )
+        eTagManager.storeBackendResultIfNoError(URL, result, "etag")
+    }
+
+    @TearDown
+    fun tearDown() {
+        directory.deleteRecursively()
+    }
+
+    @Benchmark
+    fun getETagHeaders(): Any = eTagManager.getETagHeaders(URL, verificationRequested = false)
+
+    @Benchmark
+    fun getStoredResult(): Any? = eTagManager.getStoredResult(URL)
+
+    @Benchmark
+    fun storeResult() {
+        eTagManager.storeBackendResultIfNoError(URL, result, "etag")
+    }
+
+    private companion object {
+        const val URL = "https://api.revenuecat.com/v1/subscribers/benchmark_user"
+    }
+}
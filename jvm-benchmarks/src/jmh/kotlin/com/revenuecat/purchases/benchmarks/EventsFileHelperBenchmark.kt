@@ -0,0 +1,75 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.FileHelper
+import com.revenuecat.purchases.utils.Event
+import com.revenuecat.purchases.utils.EventsFileHelper
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.OperationsPerInvocation
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.infra.Blackhole
+import java.io.File
+
+/**
+ * Event log operations: appending events one by one against appending them as one batch, reading them back and
+ * clearing the ones that were flushed.
+ */
+@State(Scope.Thread)
+open class EventsFileHelperBenchmark {
+
+    private lateinit var directory: File
+    private lateinit var eventsFileHelper: EventsFileHelper<BenchmarkEvent>
+    private val batch = List(BATCH_SIZE) { BenchmarkEvent(it) }
+
+    @Setup(Level.Invocation)
+    fun setUp() {
+        silenceSdkLogs()
+        directory = createTempDirectory("events-benchmark")
+        eventsFileHelper = EventsFileHelper(
+            FileHelper(DirectoryContext(directory)),
+            "RevenueCat/benchmark_events/events.jsonl",
+            eventSerializer = { it.toString() },
+            eventDeserializer = { BenchmarkEvent(it.substringAfter(':').substringBefore(',').toInt()) },
+        )
+        eventsFileHelper.appendEvents(List(STORED_EVENTS) { BenchmarkEvent(it) })
+    }
+
+    @TearDown(Level.Invocation)
+    fun tearDown() {
+        directory.deleteRecursively()
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    fun appendEventsOneByOne() {
+        batch.forEach { eventsFileHelper.appendEvent(it) }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    fun appendEventsAsBatch() {
+        eventsFileHelper.appendEvents(batch)
+    }
+
+    @Benchmark
+    fun readEvents(blackhole: Blackhole) {
+        eventsFileHelper.readFile { events -> events.forEach { blackhole.consume(it) } }
+    }
+
+    @Benchmark
+    fun clearFlushedEvents() {
+        eventsFileHelper.clear(STORED_EVENTS / 2)
+    }
+
+    private class BenchmarkEvent(private val index: Int) : Event {
+        override fun toString(): String = """{"index":$index,"type":"paywall_impression","offering_id":"default"}"""
+    }
+
+    private companion object {
+        const val BATCH_SIZE = 20
+        const val STORED_EVENTS = 500
+    }
+}
@@ -0,0 +1,62 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.HTTPClient
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.io.InputStream
+
+/**
+ * Reading a response body of a known Content-Length into one exact-size array, against growing a buffer.
+ *
+ * Bodies are read from a stream behaving like a socket's: [InputStream.available] returns 0 and reads return at most
+ * one chunk, so `readBytes()` can't size its buffer up front. Compare the `gc.alloc.rate.norm` of both, reported by
+ * the GC profiler the `jmh` task runs with (`-prof gc` when running the JMH jar directly).
+ */
+@State(Scope.Benchmark)
+open class HTTPBodyReadBenchmark {
+
+    @Param("4096", "262144", "4194304")
+    var size: Int = 0
+
+    private lateinit var body: ByteArray
+
+    @Setup
+    fun setUp() {
+        body = ByteArray(size) { (it % Byte.MAX_VALUE).toByte() }
+    }
+
+    @Benchmark
+    fun readBytes(): ByteArray = SocketLikeInputStream(body).readBytes()
+
+    @Benchmark
+    fun readBytesFullyWithContentLength(): ByteArray =
+        HTTPClient.readBytesFully(SocketLikeInputStream(body), size.toLong())
+
+    /**
+     * Stream over [bytes] returning at most [SOCKET_READ_SIZE] bytes per read, and nothing from [available].
+     */
+    private class SocketLikeInputStream(private val bytes: ByteArray) : InputStream() {
+        private var position = 0
+
+        override fun read(): Int = if (position < bytes.size) bytes[position++].toInt() and 0xFF else -1
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            if (len == 0) return 0
+            if (position >= bytes.size) return -1
+            val count = minOf(len, SOCKET_READ_SIZE, bytes.size - position)
+            System.arraycopy(bytes, position, b, off, count)
+            position += count
+            return count
+        }
+
+        override fun available(): Int = 0
+    }
+
+    private companion object {
+        // A typical TCP receive buffer drain.
+        const val SOCKET_READ_SIZE = 16 * 1024
+    }
+}
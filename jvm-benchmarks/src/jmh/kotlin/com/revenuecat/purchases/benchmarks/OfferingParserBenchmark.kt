@@ -0,0 +1,43 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.GoogleOfferingParser
+import com.revenuecat.purchases.models.Price
+import com.revenuecat.purchases.models.StoreProduct
+import com.revenuecat.purchases.models.TestStoreProduct
+import org.json.JSONObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+@State(Scope.Benchmark)
+open class OfferingParserBenchmark {
+
+    private val parser = GoogleOfferingParser()
+    private lateinit var offeringsJSON: String
+    private lateinit var productsById: Map<String, List<StoreProduct>>
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        offeringsJSON = Fixtures.text("offerings.json")
+        val offerings = JSONObject(offeringsJSON).getJSONArray("offerings")
+        productsById = (0 until offerings.length()).flatMap { index ->
+            val packages = offerings.getJSONObject(index).getJSONArray("packages")
+            (0 until packages.length()).map { packages.getJSONObject(it).getString("platform_product_identifier") }
+        }.associateWith { productId ->
+            listOf(
+                TestStoreProduct(
+                    productId,
+                    productId,
+                    productId,
+                    "Benchmark product",
+                    Price("$4.99", 4_990_000L, "USD"),
+                ),
+            )
+        }
+    }
+
+    @Benchmark
+    fun createOfferings(): Any = parser.createOfferings(JSONObject(offeringsJSON), productsById)
+}
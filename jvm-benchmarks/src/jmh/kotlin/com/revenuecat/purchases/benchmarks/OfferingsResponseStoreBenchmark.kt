@@ -0,0 +1,85 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.caching.DeviceCache
+import com.revenuecat.purchases.common.networking.ETagPayloadStore
+import com.revenuecat.purchases.common.offerings.OfferingsResponseStore
+import org.json.JSONObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.io.File
+import java.io.FileOutputStream
+
+/**
+ * Caching the offerings response in its own file, against keeping it in SharedPreferences.
+ *
+ * The platform SharedPreferences implementation isn't available on the JVM, so the prefs side writes what its
+ * `commit()` does: the whole preferences map, offerings response included, rewritten to one file and synced. That
+ * happens on every commit, even of unrelated keys.
+ */
+@State(Scope.Benchmark)
+open class OfferingsResponseStoreBenchmark {
+
+    @Param("1", "16")
+    var responseCopies: Int = 0
+
+    private lateinit var directory: File
+    private lateinit var payload: String
+    private lateinit var store: OfferingsResponseStore
+    private lateinit var prefsFile: File
+    private lateinit var otherPrefs: String
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        directory = createTempDirectory("offerings-benchmark")
+        val offerings = JSONObject(Fixtures.text("offerings.json"))
+        // Large offerings responses mostly come from paywall data, repeated here to grow the payload.
+        offerings.put("padding", List(responseCopies) { Fixtures.text("offerings.json") }.joinToString())
+        payload = offerings.toString()
+        store = OfferingsResponseStore(
+            DeviceCache(InMemorySharedPreferences(), "api_key"),
+            ETagPayloadStore(File(directory, "offerings_response")),
+            InlineDispatcher(),
+        )
+        store.write(payload)
+        prefsFile = File(directory, "prefs.xml")
+        otherPrefs = List(OTHER_PREFERENCES) { "<string name=\"key_$it\">value_$it</string>" }.joinToString("\n")
+        commitPrefsWithResponse()
+    }
+
+    @TearDown
+    fun tearDown() {
+        directory.deleteRecursively()
+    }
+
+    @Benchmark
+    fun writeToStore() {
+        store.write(payload)
+    }
+
+    @Benchmark
+    fun readFromStore(): Any? = store.read()
+
+    @Benchmark
+    fun commitPrefsWithResponse() {
+        FileOutputStream(prefsFile).use { output ->
+            output.write(otherPrefs.toByteArray())
+            output.write(payload.toByteArray())
+            output.fd.sync()
+        }
+    }
+
+    @Benchmark
+    fun readPrefsWithResponse(): Any {
+        // Loading preferences reads every value, even when only the offerings response is needed.
+        return JSONObject(prefsFile.readText().substring(otherPrefs.length))
+    }
+
+    private companion object {
+        const val OTHER_PREFERENCES = 50
+    }
+}
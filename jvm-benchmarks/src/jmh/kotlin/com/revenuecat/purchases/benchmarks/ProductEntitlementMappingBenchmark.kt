@@ -0,0 +1,60 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.caching.DeviceCache
+import com.revenuecat.purchases.common.offlineentitlements.ProductEntitlementMapping
+import org.json.JSONObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Getting the cached product entitlement mapping and the entitlements of a purchase, as every offline customer info
+ * computation does, against parsing the mapping from its cached JSON each time.
+ */
+@State(Scope.Benchmark)
+open class ProductEntitlementMappingBenchmark {
+
+    @Param("100", "5000")
+    var mappedProducts: Int = 0
+
+    private lateinit var deviceCache: DeviceCache
+    private lateinit var mappingJSON: String
+    private lateinit var purchasedProductIds: List<String>
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        val mapping = ProductEntitlementMapping(
+            List(mappedProducts) { product ->
+                "product_$product" to ProductEntitlementMapping.Mapping(
+                    productIdentifier = "product_$product",
+                    basePlanId = "p1m",
+                    entitlements = List(ENTITLEMENTS_PER_PRODUCT) { "entitlement_${(product + it) % 50}" },
+                )
+            }.toMap(),
+        )
+        deviceCache = DeviceCache(InMemorySharedPreferences(), "api_key")
+        deviceCache.cacheProductEntitlementMapping(mapping)
+        mappingJSON = mapping.toJson().toString()
+        purchasedProductIds = List(PURCHASED_PRODUCTS) { "product_${it * (mappedProducts / PURCHASED_PRODUCTS)}" }
+    }
+
+    @Benchmark
+    fun entitlementsFromCachedMapping(): Int {
+        val mapping = deviceCache.getProductEntitlementMapping() ?: return 0
+        return purchasedProductIds.sumOf { mapping.mappings[it]?.entitlements?.size ?: 0 }
+    }
+
+    @Benchmark
+    fun entitlementsFromParsedMapping(): Int {
+        val mapping = ProductEntitlementMapping.fromJson(JSONObject(mappingJSON), loadedFromCache = true)
+        return purchasedProductIds.sumOf { mapping.mappings[it]?.entitlements?.size ?: 0 }
+    }
+
+    private companion object {
+        const val ENTITLEMENTS_PER_PRODUCT = 3
+        const val PURCHASED_PRODUCTS = 4
+    }
+}
@@ -0,0 +1,45 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.networking.RCContainer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.io.OutputStream
+
+/**
+ * Parsing a container, and decoding its content elements either into fresh arrays or streamed to an output the way
+ * inline blobs are written to the blob store.
+ */
+@State(Scope.Benchmark)
+open class RCContainerBenchmark {
+
+    @Param("v1_multiple_elements.bin", "v1_gzip_element.bin")
+    var fixture: String = ""
+
+    private lateinit var bytes: ByteArray
+    private lateinit var container: RCContainer
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        bytes = Fixtures.bytes(fixture)
+        container = RCContainer.parse(bytes)
+    }
+
+    @Benchmark
+    fun parse(): Any = RCContainer.parse(bytes)
+
+    @Benchmark
+    fun decodeContentElements(): Int = container.contentElements.sumOf { it.decode().size }
+
+    @Benchmark
+    fun decodeContentElementsToStream(): Long = container.contentElements.sumOf { it.decodeTo(DiscardingOutputStream) }
+
+    private object DiscardingOutputStream : OutputStream() {
+        override fun write(b: Int) = Unit
+
+        override fun write(b: ByteArray, off: Int, len: Int) = Unit
+    }
+}
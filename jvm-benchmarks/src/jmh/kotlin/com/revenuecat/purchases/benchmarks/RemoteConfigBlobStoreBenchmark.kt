@@ -0,0 +1,72 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.JsonProvider
+import com.revenuecat.purchases.common.asInputStream
+import com.revenuecat.purchases.common.remoteconfig.DecodedBlobCache
+import com.revenuecat.purchases.common.remoteconfig.RemoteConfigBlobStore
+import com.revenuecat.purchases.common.remoteconfig.RemoteConfigUtils
+import kotlinx.serialization.ExperimentalSerializationApi
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.decodeFromStream
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.io.File
+import kotlin.reflect.typeOf
+
+/**
+ * Reading a cached remote config blob and parsing it as JSON, from the memory-mapped file against the heap copy of
+ * the whole file that reads used to make, and against the decoded value kept in memory by ref.
+ */
+@OptIn(ExperimentalSerializationApi::class)
+@State(Scope.Benchmark)
+open class RemoteConfigBlobStoreBenchmark {
+
+    @Param("100", "5000")
+    var items: Int = 0
+
+    private lateinit var directory: File
+    private lateinit var blobStore: RemoteConfigBlobStore
+    private lateinit var ref: String
+    private var blobSize = 0L
+    private val decodedBlobs = DecodedBlobCache()
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        directory = createTempDirectory("blob-store-benchmark")
+        blobStore = RemoteConfigBlobStore(DirectoryContext(directory))
+        val blob = List(items) { """"item_$it":{"id":"$it","title":"Item $it","enabled":true}""" }
+            .joinToString(prefix = "{", postfix = "}", separator = ",")
+            .toByteArray()
+        ref = RemoteConfigUtils.contentAddressRef(blob)
+        blobSize = blob.size.toLong()
+        blobStore.write(ref, blob)
+    }
+
+    @TearDown
+    fun tearDown() {
+        directory.deleteRecursively()
+    }
+
+    @Benchmark
+    fun parseMappedBlob(): JsonElement? = blobStore.readMapped(ref)?.let {
+        JsonProvider.defaultJson.decodeFromStream(JsonElement.serializer(), it.asInputStream())
+    }
+
+    @Benchmark
+    fun decodedBlob(): JsonElement? = decodedBlobs.get(ref, JSON_ELEMENT_TYPE) as JsonElement?
+        ?: parseMappedBlob()?.also { decodedBlobs.put(ref, JSON_ELEMENT_TYPE, it, weightBytes = blobSize) }
+
+    @Benchmark
+    fun parseBlobCopy(): JsonElement? = File(File(File(directory, "RevenueCat"), "blobs"), ref).readBytes().let {
+        JsonProvider.defaultJson.parseToJsonElement(it.decodeToString())
+    }
+
+    private companion object {
+        val JSON_ELEMENT_TYPE = typeOf<JsonElement>()
+    }
+}
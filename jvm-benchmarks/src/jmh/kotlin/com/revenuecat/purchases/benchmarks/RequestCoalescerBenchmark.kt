@@ -0,0 +1,27 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.RequestCoalescer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Threads
+
+/**
+ * Callers racing to join the in-flight request for the same key, then completing it.
+ */
+@State(Scope.Benchmark)
+open class RequestCoalescerBenchmark {
+
+    private val coalescer = RequestCoalescer<String, Runnable>()
+    private val callback = Runnable { }
+
+    @Benchmark
+    @Threads(4)
+    fun addAndComplete(): Any? {
+        return if (coalescer.add(KEY, callback)) coalescer.remove(KEY) else null
+    }
+
+    private companion object {
+        const val KEY = "GET /v1/subscribers/benchmark_user"
+    }
+}
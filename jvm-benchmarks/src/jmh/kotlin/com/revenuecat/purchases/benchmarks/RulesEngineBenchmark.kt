@@ -0,0 +1,59 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.rules.CompiledPredicate
+import com.revenuecat.purchases.rules.Evaluator
+import com.revenuecat.purchases.rules.RulesEngine
+import com.revenuecat.purchases.rules.Value
+import com.revenuecat.purchases.rules.ValueJson
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Evaluating the same predicate repeatedly: parsing and compiling it every time, going through the engine's
+ * compiled predicate cache, and running an already compiled predicate.
+ */
+@State(Scope.Benchmark)
+open class RulesEngineBenchmark {
+
+    private lateinit var variables: Map<String, Value>
+    private lateinit var compiled: CompiledPredicate
+
+    @Setup
+    fun setUp() {
+        variables = mapOf(
+            "subscriber" to Value.ObjectValue(
+                mapOf(
+                    "country" to Value.StringValue("US"),
+                    "app_version" to Value.StringValue("4.2.0"),
+                    "days_since_install" to Value.IntValue(12),
+                    "active_entitlements" to Value.ArrayValue(
+                        listOf(Value.StringValue("premium"), Value.StringValue("extras")),
+                    ),
+                ),
+            ),
+        )
+        compiled = Evaluator.compile(ValueJson.parse(PREDICATE))
+    }
+
+    @Benchmark
+    fun parseAndEvaluate(): Boolean = Evaluator.evaluate(ValueJson.parse(PREDICATE), variables)
+
+    @Benchmark
+    fun rulesEngineEvaluate(): Boolean = RulesEngine.evaluate(PREDICATE, variables).getOrThrow()
+
+    @Benchmark
+    fun compiledMatches(): Boolean = compiled.matches(variables)
+
+    private companion object {
+        const val PREDICATE = """
+            {"and": [
+                {"in": [{"var": "subscriber.country"}, ["US", "CA", "GB", "DE"]]},
+                {">=": [{"var": "subscriber.days_since_install"}, 7]},
+                {"some": [{"var": "subscriber.active_entitlements"}, {"==": [{"var": ""}, "premium"]}]},
+                {"!": {"missing": ["subscriber.app_version"]}}
+            ]}
+        """
+    }
+}
@@ -0,0 +1,60 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.AppConfig
+import com.revenuecat.purchases.common.verification.DefaultSignatureVerifier
+import com.revenuecat.purchases.common.verification.IntermediateSignatureHelper
+import com.revenuecat.purchases.common.verification.SignatureVerificationMode
+import com.revenuecat.purchases.common.verification.SigningManager
+import io.mockk.every
+import io.mockk.mockk
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Verifying a signed response, including the intermediate key check. Uses the real signature from SigningManagerTest.
+ */
+@State(Scope.Benchmark)
+open class SigningManagerBenchmark {
+
+    private lateinit var signingManager: SigningManager
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        val appConfig = mockk<AppConfig> {
+            every { forceSigningErrors } returns false
+        }
+        val rootVerifier = DefaultSignatureVerifier("yg2wZGAr8Af+Unt9RImQDbL7qA81txk+ga0I+ylmcyo=")
+        signingManager = SigningManager(
+            SignatureVerificationMode.Informational(IntermediateSignatureHelper(rootVerifier)),
+            appConfig,
+            "test-api-key",
+        )
+    }
+
+    @Benchmark
+    fun verifyResponse(): Any = signingManager.verifyResponse(
+        urlPath = "test-url-path",
+        signatureString = SIGNATURE,
+        nonce = "MTIzNDU2Nzg5MGFi",
+        bodyBytes = BODY,
+        requestTime = "1677005916012",
+        eTag = null,
+        postFieldsToSignHeader = null,
+    )
+
+    private companion object {
+        const val SIGNATURE = "xoDYyUeHnIlSIAeOOzmvdNPOlbNSKK+xE0fE/ufS1fsAAMNQ1HiPDL34Vx0Uy74KPV5mztuk3DHBpucT/rSYVlk" +
+            "xIa3ModYmPfYZ20lnlbSB1UiP6oJHwAA2pXlS6AQ5eLSuAt3A7Zq9dAGTs3BUhkDsuHE0AqCL5aklRXCGA59RoXPpLkcXDvNGGoC0u0e" +
+            "lbxac/Y3kECzXLhawDOD9NEtSDXFw5Eh92U32YV6VHirQKwAO"
+        val BODY = (
+            "{\"request_date\":\"2023-02-21T18:58:36Z\",\"request_date_ms\":1677005916011,\"subscriber\":{" +
+                "\"entitlements\":{},\"first_seen\":\"2023-02-21T18:58:35Z\",\"last_seen\":\"2023-02-21T18:58:35Z\"," +
+                "\"management_url\":null,\"non_subscriptions\":{},\"original_app_user_id\":\"login\"," +
+                "\"original_application_version\":null,\"original_purchase_date\":null,\"other_purchases\":{}," +
+                "\"subscriptions\":{}}}\n"
+            ).toByteArray()
+    }
+}
@@ -0,0 +1,68 @@
+package com.revenuecat.purchases.benchmarks
+
+import com.revenuecat.purchases.common.caching.DeviceCache
+import com.revenuecat.purchases.subscriberattributes.SubscriberAttribute
+import com.revenuecat.purchases.subscriberattributes.buildSubscriberAttributesMapPerUser
+import com.revenuecat.purchases.subscriberattributes.caching.SubscriberAttributesCache
+import com.revenuecat.purchases.subscriberattributes.caching.toJSONObject
+import org.json.JSONObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.Date
+
+/**
+ * Setting one user's attributes with hundreds of users stored, against the single record for all users that
+ * previous versions read, parsed and rewrote on every set.
+ */
+@State(Scope.Benchmark)
+open class SubscriberAttributesCacheBenchmark {
+
+    @Param("10", "500")
+    var storedUsers: Int = 0
+
+    private lateinit var cache: SubscriberAttributesCache
+    private lateinit var singleRecordCache: DeviceCache
+    private lateinit var singleRecordKey: String
+    private val attributesToBeSet = mapOf("\$email" to SubscriberAttribute("\$email", "user@example.com"))
+
+    @Setup
+    fun setUp() {
+        silenceSdkLogs()
+        val attributesByUser = List(storedUsers) { user ->
+            "user_$user" to List(ATTRIBUTES_PER_USER) { attribute ->
+                "attribute_$attribute" to SubscriberAttribute("attribute_$attribute", "value_$user", setTime = Date(1))
+            }.toMap()
+        }.toMap()
+
+        cache = SubscriberAttributesCache(DeviceCache(InMemorySharedPreferences(), "api_key"))
+        attributesByUser.forEach { (appUserID, attributes) -> cache.setAttributes(appUserID, attributes) }
+
+        singleRecordCache = DeviceCache(InMemorySharedPreferences(), "api_key")
+        singleRecordKey = singleRecordCache.newKey("subscriberAttributes")
+        singleRecordCache.putString(singleRecordKey, attributesByUser.toJSONObject().toString())
+    }
+
+    @Benchmark
+    fun setAttributes() {
+        cache.setAttributes(APP_USER_ID, attributesToBeSet)
+    }
+
+    @Benchmark
+    fun setAttributesInSingleRecord() {
+        val attributesForAllUsers = singleRecordCache.getJSONObjectOrNull(singleRecordKey)
+            ?.buildSubscriberAttributesMapPerUser() ?: emptyMap()
+        val updatedAttributesForUser = (attributesForAllUsers[APP_USER_ID] ?: emptyMap()) + attributesToBeSet
+        singleRecordCache.putString(
+            singleRecordKey,
+            (attributesForAllUsers + mapOf(APP_USER_ID to updatedAttributesForUser)).toJSONObject().toString(),
+        )
+    }
+
+    private companion object {
+        const val APP_USER_ID = "user_0"
+        const val ATTRIBUTES_PER_USER = 8
+    }
+}
@@ -12,7 +12,8 @@ import com.revenuecat.purchases.common.errorLog
 import com.revenuecat.purchases.models.RawDataContainer
 import com.revenuecat.purchases.models.Transaction
 import com.revenuecat.purchases.utils.DateHelper
-import com.revenuecat.purchases.utils.JSONObjectParceler
+import com.revenuecat.purchases.utils.LazyJSONObject
+import com.revenuecat.purchases.utils.LazyJSONObjectParceler
 import dev.drewhamilton.poko.Poko
 import kotlinx.parcelize.IgnoredOnParcel
 import kotlinx.parcelize.Parcelize
@@ -68,7 +69,7 @@ internal enum class CustomerInfoOriginalSource {
  * Use this for grandfathering users when migrating to subscriptions. This can be null, see -Purchases.restorePurchases
  */
 @Parcelize
-@TypeParceler<JSONObject, JSONObjectParceler>()
+@TypeParceler<LazyJSONObject, LazyJSONObjectParceler>()
 @Poko
 public class CustomerInfo internal constructor(
     public val entitlements: EntitlementInfos,
@@ -80,7 +81,7 @@ public class CustomerInfo internal constructor(
     public val originalAppUserId: String,
     public val managementURL: Uri?,
     public val originalPurchaseDate: Date?,
-    private val jsonObject: JSONObject,
+    private val lazyJsonObject: LazyJSONObject,
     internal val originalSource: CustomerInfoOriginalSource = CustomerInfoOriginalSource.DEFAULT,
     internal val loadedFromCache: Boolean = false,
 ) : Parcelable, RawDataContainer<JSONObject> {
@@ -106,7 +107,7 @@ public class CustomerInfo internal constructor(
         originalAppUserId = originalAppUserId,
         managementURL = managementURL,
         originalPurchaseDate = originalPurchaseDate,
-        jsonObject = jsonObject,
+        lazyJsonObject = LazyJSONObject(jsonObject),
         originalSource = CustomerInfoOriginalSource.DEFAULT,
         loadedFromCache = true,
     )
@@ -249,7 +250,7 @@ public class CustomerInfo internal constructor(
 
     @IgnoredOnParcel
     override val rawData: JSONObject
-        get() = jsonObject
+        get() = lazyJsonObject.value
 
     private fun activeIdentifiers(expirations: Map<String, Date?>): Set<String> {
         return expirations.filterValues {
@@ -258,8 +259,9 @@ public class CustomerInfo internal constructor(
         }.keys
     }
 
+    // Only parsed when the transaction history is accessed, since it might be decoded from a cached snapshot.
     @IgnoredOnParcel
-    private val subscriberJSONObject = jsonObject.getJSONObject("subscriber")
+    private val subscriberJSONObject: JSONObject by lazy { rawData.getJSONObject("subscriber") }
 
     /**
      * @hide
@@ -17,8 +17,10 @@ import com.revenuecat.purchases.common.HTTPClient
 import com.revenuecat.purchases.common.LogIntent
 import com.revenuecat.purchases.common.PlatformInfo
 import com.revenuecat.purchases.common.SharedPreferencesManager
+import com.revenuecat.purchases.common.caching.CustomerInfoSnapshotStore
 import com.revenuecat.purchases.common.caching.DeviceCache
 import com.revenuecat.purchases.common.caching.LocalTransactionMetadataStore
+import com.revenuecat.purchases.common.caching.StoreProductCache
 import com.revenuecat.purchases.common.checkpoints.CheckpointsConfigProvider
 import com.revenuecat.purchases.common.debugLog
 import com.revenuecat.purchases.common.diagnostics.DiagnosticsFileHelper
@@ -38,6 +40,7 @@ import com.revenuecat.purchases.common.networking.SourceHealthChecker
 import com.revenuecat.purchases.common.offerings.OfferingsCache
 import com.revenuecat.purchases.common.offerings.OfferingsFactory
 import com.revenuecat.purchases.common.offerings.OfferingsManager
+import com.revenuecat.purchases.common.offerings.OfferingsResponseStore
 import com.revenuecat.purchases.common.offlineentitlements.OfflineCustomerInfoCalculator
 import com.revenuecat.purchases.common.offlineentitlements.OfflineEntitlementsManager
 import com.revenuecat.purchases.common.offlineentitlements.PurchasedProductsFetcher
@@ -164,6 +167,12 @@ internal class PurchasesFactory(
                 service ?: createDefaultExecutor(),
                 runningIntegrationTests = runningIntegrationTests,
             )
+            // Receipt posts run on their own lane so they never hold up the user-critical reads on
+            // `backendDispatcher`. Kept separate even when the app supplied its own `service`.
+            val receiptsDispatcher = Dispatcher(
+                createReceiptsExecutor(),
+                runningIntegrationTests = runningIntegrationTests,
+            )
             val eventsDispatcher = Dispatcher(
                 createEventsExecutor(),
                 runningIntegrationTests = runningIntegrationTests,
@@ -191,6 +200,11 @@ internal class PurchasesFactory(
             } else if (shouldInitializeDiagnostics(diagnosticsEnabled, appConfig.uiPreviewMode)) {
                 warnLog { "Diagnostics are only supported on Android N or newer." }
             }
+            diagnosticsTracker?.let { tracker ->
+                backendDispatcher.queueWaitListener = { tracker.trackDispatcherQueueWait("backend", it) }
+                receiptsDispatcher.queueWaitListener = { tracker.trackDispatcherQueueWait("receipts", it) }
+                remoteConfigDispatcher.queueWaitListener = { tracker.trackDispatcherQueueWait("remote_config", it) }
+            }
 
             val signatureVerificationMode = try {
                 SignatureVerificationMode.fromEntitlementVerificationMode(
@@ -204,7 +218,7 @@ internal class PurchasesFactory(
             }
             val signingManager = SigningManager(signatureVerificationMode, appConfig, apiKey)
 
-            val cache = DeviceCache(prefs, apiKey)
+            val cache = DeviceCache(prefs, apiKey, CustomerInfoSnapshotStore(contextForStorage, dispatcher))
 
             val localeProvider = DefaultLocaleProvider()
 
@@ -244,6 +258,7 @@ internal class PurchasesFactory(
                 httpClient,
                 backendHelper,
                 remoteConfigDispatcher,
+                receiptsDispatcher,
             )
             val coilImageDownloader = CoilImageDownloader(application)
             val fileRepository = DefaultFileRepository(application)
@@ -268,6 +283,13 @@ internal class PurchasesFactory(
                 backend,
             )
 
+            // Product details depend on the storefront, so cached ones are dropped whenever it changes.
+            val storeProductCache = StoreProductCache(
+                billing,
+                diagnosticsTrackerIfEnabled = diagnosticsTracker.takeIf { finalStore == Store.PLAY_STORE },
+            )
+            cache.addStorefrontChangeListener { storeProductCache.invalidate() }
+
             val subscriberAttributesPoster = SubscriberAttributesPoster(backendHelper)
 
             val attributionFetcher = AttributionFetcherFactory.createAttributionFetcher(store, backendDispatcher)
@@ -296,7 +318,7 @@ internal class PurchasesFactory(
             )
 
             val offeringsCache = OfferingsCache(
-                deviceCache = cache,
+                responseStore = OfferingsResponseStore(contextForStorage, cache, dispatcher),
                 localeProvider = localeProvider,
             )
 
@@ -308,7 +330,12 @@ internal class PurchasesFactory(
                     blobStore = remoteConfigBlobStore,
                     topicStore = remoteConfigTopicStore,
                     sourceProvider = apiSourceProvider,
-                    blobFetcher = RemoteConfigBlobFetcher(remoteConfigBlobStore, apiSourceProvider, timeoutManager),
+                    blobFetcher = RemoteConfigBlobFetcher(
+                        remoteConfigBlobStore,
+                        apiSourceProvider,
+                        timeoutManager,
+                        diagnosticsTracker = diagnosticsTracker,
+                    ),
                     // Bootstrap source for a cold on-demand read's self-triggered sync (see blobData()); after
                     // the first identity change the manager syncs for the user clearCache() binds instead.
                     appUserIDProvider = { cache.getCachedAppUserID() },
@@ -470,7 +497,7 @@ internal class PurchasesFactory(
             val offeringsManager = OfferingsManager(
                 offeringsCache,
                 backend,
-                OfferingsFactory(billing, offeringParser, dispatcher, appConfig),
+                OfferingsFactory(billing, offeringParser, dispatcher, appConfig, storeProductCache),
                 OfferingImagePreDownloader(
                     coilImageDownloader = coilImageDownloader,
                     paywallComponentsImagePreDownloader = paywallComponentsImagePreDownloader,
@@ -551,6 +578,7 @@ internal class PurchasesFactory(
                 uiConfigProvider = uiConfigProvider,
                 workflowsConfigProvider = workflowsConfigProvider,
                 checkpointsConfigProvider = checkpointsConfigProvider,
+                storeProductCache = storeProductCache,
             )
 
             return Purchases(purchasesOrchestrator)
@@ -629,6 +657,11 @@ internal class PurchasesFactory(
         return Executors.newSingleThreadScheduledExecutor()
     }
 
+    private fun createReceiptsExecutor(): ExecutorService {
+        // Single-threaded so receipts are posted in the order they were enqueued.
+        return Executors.newSingleThreadScheduledExecutor()
+    }
+
     private fun createEventsExecutor(): ExecutorService {
         return Executors.newSingleThreadScheduledExecutor(LowPriorityThreadFactory("revenuecat-events-thread"))
     }
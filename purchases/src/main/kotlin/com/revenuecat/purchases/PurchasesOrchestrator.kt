@@ -39,6 +39,7 @@ import com.revenuecat.purchases.common.ReceiptInfo
 import com.revenuecat.purchases.common.ReplaceProductInfo
 import com.revenuecat.purchases.common.between
 import com.revenuecat.purchases.common.caching.DeviceCache
+import com.revenuecat.purchases.common.caching.StoreProductCache
 import com.revenuecat.purchases.common.checkpoints.CheckpointsConfigProvider
 import com.revenuecat.purchases.common.currentLogHandler
 import com.revenuecat.purchases.common.debugLog
@@ -185,6 +186,7 @@ internal class PurchasesOrchestrator(
         checkpointsConfigProvider = checkpointsConfigProvider,
         getOfferings = { Purchases.sharedInstance.awaitOfferings() },
     ),
+    private val storeProductCache: StoreProductCache = StoreProductCache(billing, diagnosticsTrackerIfEnabled = null),
 ) : LifecycleDelegate, CustomActivityLifecycleHandler {
 
     internal var state: PurchasesState
@@ -274,6 +276,9 @@ internal class PurchasesOrchestrator(
     @SuppressWarnings("MagicNumber")
     private val preferredLocaleOverrideRateLimiter = RateLimiter(2, 60.seconds)
 
+    // Whether a debounced subscriber attributes sync is scheduled, see synchronizeSubscriberAttributesIfNeeded.
+    private val subscriberAttributesSyncScheduled = AtomicBoolean(false)
+
     var storefrontCountryCode: String? = null
         private set
 
@@ -397,7 +402,7 @@ internal class PurchasesOrchestrator(
             }
             offeringsManager.onAppForeground(identityManager.currentAppUserID)
             postPendingTransactionsHelper.syncPendingPurchaseQueue(allowSharingPlayStoreAccount)
-            synchronizeSubscriberAttributesIfNeeded()
+            synchronizeSubscriberAttributesIfNeeded(debounce = true)
             offlineEntitlementsManager.updateProductEntitlementMappingCacheIfStale()
             flushEvents(Delay.DEFAULT)
             if (firstTimeInForeground && isAndroidNOrNewer()) {
@@ -524,7 +529,11 @@ internal class PurchasesOrchestrator(
         syncPurchasesHelper.syncPurchases(
             isRestore = this.allowSharingPlayStoreAccount,
             appInBackground = this.state.appInBackground,
-            onSuccess = { listener?.onSuccess(it) },
+            onSuccess = {
+                // Offer eligibility may have changed with the synced purchases.
+                storeProductCache.invalidate()
+                listener?.onSuccess(it)
+            },
             onError = { listener?.onError(it) },
         )
     }
@@ -835,6 +844,7 @@ internal class PurchasesOrchestrator(
                                     onSuccess = { _, info ->
                                         log(LogIntent.DEBUG) { RestoreStrings.PURCHASE_RESTORED.format(purchase) }
                                         if (sortedByTime.last() == purchase) {
+                                            storeProductCache.invalidate()
                                             dispatch { callbackWithTracking.onReceived(info) }
                                         }
                                     },
@@ -876,6 +886,7 @@ internal class PurchasesOrchestrator(
                             newAppUserID,
                             RemoteConfigFetchContext.IdentityChange,
                         )
+                        storeProductCache.invalidate()
                         offeringsManager.fetchAndCacheOfferings(newAppUserID, state.appInBackground)
                         backupManager.dataChanged()
                     },
@@ -909,6 +920,7 @@ internal class PurchasesOrchestrator(
                 synchronized(this@PurchasesOrchestrator) {
                     state = state.copy(purchaseCallbacksByProductId = Collections.emptyMap())
                 }
+                storeProductCache.invalidate()
                 updateAllCaches(
                     identityManager.currentAppUserID,
                     RemoteConfigFetchContext.IdentityChange,
@@ -980,11 +992,25 @@ internal class PurchasesOrchestrator(
         callback: GetStoreProductsCallback,
     ) {
         val validTypes = types.filter { it != ProductType.UNKNOWN }.toSet()
-        getProductsOfTypes(
+        trackGetProductsStarted(productIds)
+        val startTime = dateProvider.now
+        storeProductCache.queryProductDetailsOfTypesAsync(
+            productTypes = validTypes,
             productIds = productIds,
-            types = validTypes,
-            collectedStoreProducts = emptyList(),
-            callback = callback,
+            onReceive = { productsByType ->
+                dispatch {
+                    val storeProducts = productsByType.values.flatten()
+                    val notFoundProductIds = productIds - storeProducts.map { it.id }.toSet()
+                    trackGetProductsResult(startTime, productIds, notFoundProductIds, null)
+                    callback.onReceived(storeProducts)
+                }
+            },
+            onError = {
+                dispatch {
+                    trackGetProductsResult(startTime, productIds, productIds, it)
+                    callback.onError(it)
+                }
+            },
         )
     }
 
@@ -1389,6 +1415,7 @@ internal class PurchasesOrchestrator(
 
         identityManager.switchUser(newAppUserID)
 
+        storeProductCache.invalidate()
         offeringsManager.fetchAndCacheOfferings(newAppUserID, state.appInBackground)
         remoteConfigManager?.refreshRemoteConfig(
             state.appInBackground,
@@ -1421,50 +1448,6 @@ internal class PurchasesOrchestrator(
             (firstTimeInForeground || deviceCache.isCustomerInfoCacheStale(appUserID, appInBackground = false))
     }
 
-    private fun getProductsOfTypes(
-        productIds: Set<String>,
-        types: Set<ProductType>,
-        collectedStoreProducts: List<StoreProduct>,
-        startTime: Date? = null,
-        callback: GetStoreProductsCallback,
-    ) {
-        val nonNullStartTime = startTime ?: run {
-            trackGetProductsStarted(productIds)
-            dateProvider.now
-        }
-
-        val typesRemaining = types.toMutableSet()
-        val type = typesRemaining.firstOrNull()?.also { typesRemaining.remove(it) }
-
-        type?.let {
-            billing.queryProductDetailsAsync(
-                productType = it,
-                productIds = productIds,
-                onReceive = { storeProducts ->
-                    dispatch {
-                        getProductsOfTypes(
-                            productIds,
-                            typesRemaining,
-                            collectedStoreProducts + storeProducts,
-                            nonNullStartTime,
-                            callback,
-                        )
-                    }
-                },
-                onError = {
-                    dispatch {
-                        trackGetProductsResult(nonNullStartTime, productIds, productIds, it)
-                        callback.onError(it)
-                    }
-                },
-            )
-        } ?: run {
-            val notFoundProductIds = productIds - collectedStoreProducts.map { it.id }.toSet()
-            trackGetProductsResult(nonNullStartTime, productIds, notFoundProductIds, null)
-            callback.onReceived(collectedStoreProducts)
-        }
-    }
-
     private fun updateAllCaches(
         appUserID: String,
         fetchContext: RemoteConfigFetchContext,
@@ -1536,7 +1519,11 @@ internal class PurchasesOrchestrator(
                     appUserID,
                     PostReceiptInitiationSource.PURCHASE,
                     sdkOriginated = sdkOriginated,
-                    transactionPostSuccess = callbackPair.first,
+                    transactionPostSuccess = { storeTransaction, info ->
+                        // Offer eligibility depends on the purchases of the user, so cached offers may be stale now.
+                        storeProductCache.invalidate()
+                        callbackPair.first(storeTransaction, info)
+                    },
                     transactionPostError = callbackPair.second,
                 )
 
@@ -1822,9 +1809,24 @@ internal class PurchasesOrchestrator(
         )
     }
 
-    private fun synchronizeSubscriberAttributesIfNeeded() {
+    /**
+     * @param debounce when true, the sync runs after a [Delay.GROUP_COMMIT] window instead of right away. Attributes
+     * set within that window, e.g. by the app as it comes to the foreground, are posted with it, and further debounced
+     * requests within it are merged into it.
+     */
+    private fun synchronizeSubscriberAttributesIfNeeded(debounce: Boolean = false) {
         if (appConfig.uiPreviewMode) return
-        subscriberAttributesManager.synchronizeSubscriberAttributesForAllUsers(appUserID)
+        if (!debounce) {
+            subscriberAttributesManager.synchronizeSubscriberAttributesForAllUsers(appUserID)
+        } else if (subscriberAttributesSyncScheduled.compareAndSet(false, true)) {
+            dispatcher.enqueue(
+                {
+                    subscriberAttributesSyncScheduled.set(false)
+                    subscriberAttributesManager.synchronizeSubscriberAttributesForAllUsers(appUserID)
+                },
+                Delay.GROUP_COMMIT,
+            )
+        }
     }
 
     private fun flushEvents(delay: Delay) {
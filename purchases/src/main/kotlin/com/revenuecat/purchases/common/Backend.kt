@@ -154,6 +154,9 @@ internal class Backend(
     private val httpClient: HTTPClient,
     private val backendHelper: BackendHelper,
     private val remoteConfigDispatcher: Dispatcher = dispatcher,
+    // Receipt posts get their own lane so a slow `postReceiptData` doesn't block user-facing reads like
+    // `getOfferings` or `getCustomerInfo` queued behind it on `dispatcher`.
+    private val receiptsDispatcher: Dispatcher = dispatcher,
 ) {
     companion object {
         private const val APP_USER_ID = "app_user_id"
@@ -175,62 +178,45 @@ internal class Backend(
     val verificationMode: SignatureVerificationMode
         get() = httpClient.signingManager.signatureVerificationMode
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var callbacks = mutableMapOf<BackgroundAwareCallbackCacheKey, MutableList<CustomerInfoCallback>>()
+    val callbacks = RequestCoalescer<BackgroundAwareCallbackCacheKey, CustomerInfoCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var postReceiptCallbacks = mutableMapOf<CallbackCacheKey, MutableList<PostReceiptCallback>>()
+    val postReceiptCallbacks = RequestCoalescer<CallbackCacheKey, PostReceiptCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var offeringsCallbacks =
-        mutableMapOf<BackgroundAwareCallbackCacheKey, MutableList<OfferingsCallback>>()
+    val offeringsCallbacks = RequestCoalescer<BackgroundAwareCallbackCacheKey, OfferingsCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var identifyCallbacks = mutableMapOf<CallbackCacheKey, MutableList<IdentifyCallback>>()
+    val identifyCallbacks = RequestCoalescer<CallbackCacheKey, IdentifyCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var aliasCallbacks = mutableMapOf<CallbackCacheKey, MutableList<AliasCallback>>()
+    val aliasCallbacks = RequestCoalescer<CallbackCacheKey, AliasCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var diagnosticsCallbacks = mutableMapOf<CallbackCacheKey, MutableList<DiagnosticsCallback>>()
+    val diagnosticsCallbacks = RequestCoalescer<CallbackCacheKey, DiagnosticsCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var paywallEventsCallbacks = mutableMapOf<CallbackCacheKey, MutableList<PaywallEventsCallback>>()
+    val paywallEventsCallbacks = RequestCoalescer<CallbackCacheKey, PaywallEventsCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var productEntitlementCallbacks = mutableMapOf<String, MutableList<ProductEntitlementCallback>>()
+    val productEntitlementCallbacks = RequestCoalescer<String, ProductEntitlementCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var customerCenterCallbacks = mutableMapOf<String, MutableList<CustomerCenterCallback>>()
+    val customerCenterCallbacks = RequestCoalescer<String, CustomerCenterCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var createSupportTicketCallbacks = mutableMapOf<String, MutableList<CreateSupportTicketCallback>>()
+    val createSupportTicketCallbacks = RequestCoalescer<String, CreateSupportTicketCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var redeemWebPurchaseCallbacks = mutableMapOf<String, MutableList<RedeemWebPurchaseCallback>>()
+    val redeemWebPurchaseCallbacks = RequestCoalescer<String, RedeemWebPurchaseCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var virtualCurrenciesCallbacks =
-        mutableMapOf<BackgroundAwareCallbackCacheKey, MutableList<VirtualCurrenciesCallback>>()
+    val virtualCurrenciesCallbacks =
+        RequestCoalescer<BackgroundAwareCallbackCacheKey, VirtualCurrenciesCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var webBillingProductsCallbacks = mutableMapOf<String, MutableList<WebBillingProductsCallback>>()
+    val webBillingProductsCallbacks = RequestCoalescer<String, WebBillingProductsCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var rewardVerificationResultCallbacks =
-        mutableMapOf<BackgroundAwareCallbackCacheKey, MutableList<RewardVerificationResultCallback>>()
+    val rewardVerificationResultCallbacks =
+        RequestCoalescer<BackgroundAwareCallbackCacheKey, RewardVerificationResultCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var remoteConfigCallbacks =
-        mutableMapOf<BackgroundAwareCallbackCacheKey, MutableList<RemoteConfigCallback>>()
+    val remoteConfigCallbacks = RequestCoalescer<BackgroundAwareCallbackCacheKey, RemoteConfigCallback>()
 
-    @get:Synchronized @set:Synchronized
-    @Volatile var remoteConfigFallbackCallbacks =
-        mutableMapOf<BackgroundAwareCallbackCacheKey, MutableList<RemoteConfigFallbackCallback>>()
+    val remoteConfigFallbackCallbacks =
+        RequestCoalescer<BackgroundAwareCallbackCacheKey, RemoteConfigFallbackCallback>()
 
     fun close() {
         this.dispatcher.close()
         this.remoteConfigDispatcher.close()
+        this.receiptsDispatcher.close()
     }
 
     fun getCustomerInfo(
@@ -241,16 +227,16 @@ internal class Backend(
     ) {
         val endpoint = Endpoint.GetCustomerInfo(appUserID)
         val path = endpoint.getPath()
-        val cacheKey = synchronized(this@Backend) {
-            // If there is any enqueued `postReceiptData` we don't want this new
-            // `getCustomerInfo` to share the same cache key.
-            // If it did, future `getCustomerInfo` would receive a cached value
-            // instead of an up-to-date `CustomerInfo` after those post receipt operations finish.
-            if (postReceiptCallbacks.isEmpty()) {
-                BackgroundAwareCallbackCacheKey(listOf(path), appInBackground)
-            } else {
-                BackgroundAwareCallbackCacheKey(listOf(path) + "${callbacks.count()}", appInBackground)
-            }
+        // If there is any enqueued `postReceiptData` we don't want this new
+        // `getCustomerInfo` to share the same cache key.
+        // If it did, future `getCustomerInfo` would receive a cached value
+        // instead of an up-to-date `CustomerInfo` after those post receipt operations finish.
+        // For the same reason, it is queued behind them on the receipts lane instead of overtaking them.
+        val (cacheKey, customerInfoDispatcher) = if (postReceiptCallbacks.isEmpty()) {
+            BackgroundAwareCallbackCacheKey(listOf(path), appInBackground) to dispatcher
+        } else {
+            BackgroundAwareCallbackCacheKey(listOf(path) + "${callbacks.size}", appInBackground) to
+                receiptsDispatcher
         }
         val call = object : Dispatcher.AsyncCall() {
 
@@ -266,9 +252,7 @@ internal class Backend(
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    callbacks.remove(cacheKey)
-                }?.forEach { (onSuccess, onError) ->
+                callbacks.remove(cacheKey)?.forEach { (onSuccess, onError) ->
                     try {
                         if (result.isSuccessful()) {
                             onSuccess(CustomerInfoFactory.buildCustomerInfo(result))
@@ -287,17 +271,13 @@ internal class Backend(
 
             override fun onError(error: PurchasesError) {
                 val isServerError = false
-                synchronized(this@Backend) {
-                    callbacks.remove(cacheKey)
-                }?.forEach { (_, onError) ->
+                callbacks.remove(cacheKey)?.forEach { (_, onError) ->
                     onError(error, isServerError)
                 }
             }
         }
-        synchronized(this@Backend) {
-            val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
-            callbacks.addBackgroundAwareCallback(call, dispatcher, cacheKey, onSuccess to onError, delay)
-        }
+        val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
+        callbacks.addBackgroundAwareCallback(call, customerInfoDispatcher, cacheKey, onSuccess to onError, delay)
     }
 
     @SuppressWarnings("LongParameterList", "ForbiddenComment")
@@ -378,9 +358,7 @@ internal class Backend(
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    postReceiptCallbacks.remove(cacheKey)
-                }?.forEach { (onSuccess, onError) ->
+                postReceiptCallbacks.remove(cacheKey)?.forEach { (onSuccess, onError) ->
                     try {
                         if (result.isSuccessful()) {
                             onSuccess(buildPostReceiptResponse(result))
@@ -407,9 +385,7 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    postReceiptCallbacks.remove(cacheKey)
-                }?.forEach { (_, onError) ->
+                postReceiptCallbacks.remove(cacheKey)?.forEach { (_, onError) ->
                     onError(
                         error,
                         PostReceiptErrorHandlingBehavior.SHOULD_NOT_CONSUME,
@@ -418,9 +394,7 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            postReceiptCallbacks.addCallback(call, dispatcher, cacheKey, onSuccess to onError)
-        }
+        postReceiptCallbacks.addCallback(call, receiptsDispatcher, cacheKey, onSuccess to onError)
     }
 
     fun getOfferings(
@@ -445,17 +419,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    offeringsCallbacks.remove(cacheKey)
-                }?.forEach { (_, onError) ->
+                offeringsCallbacks.remove(cacheKey)?.forEach { (_, onError) ->
                     onError(error, GetOfferingsErrorHandlingBehavior.SHOULD_FALLBACK_TO_CACHED_OFFERINGS)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    offeringsCallbacks.remove(cacheKey)
-                }?.forEach { (onSuccess, onError) ->
+                offeringsCallbacks.remove(cacheKey)?.forEach { (onSuccess, onError) ->
                     if (result.isSuccessful()) {
                         try {
                             onSuccess(result.body, result.originalDataSource, result.payloadText)
@@ -477,10 +447,8 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
-            offeringsCallbacks.addBackgroundAwareCallback(call, dispatcher, cacheKey, onSuccess to onError, delay)
-        }
+        val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
+        offeringsCallbacks.addBackgroundAwareCallback(call, dispatcher, cacheKey, onSuccess to onError, delay)
     }
 
     fun logIn(
@@ -514,18 +482,14 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    identifyCallbacks.remove(cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                identifyCallbacks.remove(cacheKey)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
                 if (result.isSuccessful()) {
-                    synchronized(this@Backend) {
-                        identifyCallbacks.remove(cacheKey)
-                    }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                    identifyCallbacks.remove(cacheKey)?.forEach { (onSuccessHandler, onErrorHandler) ->
                         val created = result.responseCode == RCHTTPStatusCodes.CREATED
                         if (result.body.length() > 0) {
                             val customerInfo = CustomerInfoFactory.buildCustomerInfo(result)
@@ -542,9 +506,7 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            identifyCallbacks.addCallback(call, dispatcher, cacheKey, onSuccessHandler to onErrorHandler)
-        }
+        identifyCallbacks.addCallback(call, dispatcher, cacheKey, onSuccessHandler to onErrorHandler)
     }
 
     fun aliasUsers(
@@ -574,18 +536,14 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    aliasCallbacks.remove(cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                aliasCallbacks.remove(cacheKey)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
                 if (result.isSuccessful()) {
-                    synchronized(this@Backend) {
-                        aliasCallbacks.remove(cacheKey)
-                    }?.forEach { (onSuccessHandler, _) ->
+                    aliasCallbacks.remove(cacheKey)?.forEach { (onSuccessHandler, _) ->
                         onSuccessHandler()
                     }
                 } else {
@@ -593,9 +551,7 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            aliasCallbacks.addCallback(call, dispatcher, cacheKey, onSuccessHandler to onErrorHandler)
-        }
+        aliasCallbacks.addCallback(call, dispatcher, cacheKey, onSuccessHandler to onErrorHandler)
     }
 
     fun postDiagnostics(
@@ -619,17 +575,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    diagnosticsCallbacks.remove(cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                diagnosticsCallbacks.remove(cacheKey)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error, error.code == PurchasesErrorCode.NetworkError)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    diagnosticsCallbacks.remove(cacheKey)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                diagnosticsCallbacks.remove(cacheKey)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         onSuccessHandler(result.body)
                     } else {
@@ -641,15 +593,13 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            diagnosticsCallbacks.addCallback(
-                call,
-                eventsDispatcher,
-                cacheKey,
-                onSuccessHandler to onErrorHandler,
-                Delay.LONG,
-            )
-        }
+        diagnosticsCallbacks.addCallback(
+            call,
+            eventsDispatcher,
+            cacheKey,
+            onSuccessHandler to onErrorHandler,
+            Delay.LONG,
+        )
     }
 
     fun postEvents(
@@ -683,34 +633,29 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    paywallEventsCallbacks.remove(paywallEventRequest.cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                paywallEventsCallbacks.remove(paywallEventRequest.cacheKey)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error, false)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    paywallEventsCallbacks.remove(paywallEventRequest.cacheKey)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
-                    if (result.isSuccessful()) {
-                        onSuccessHandler()
-                    } else {
-                        onErrorHandler(result.toPurchasesError(), RCHTTPStatusCodes.isSynced(result.responseCode))
+                paywallEventsCallbacks.remove(paywallEventRequest.cacheKey)
+                    ?.forEach { (onSuccessHandler, onErrorHandler) ->
+                        if (result.isSuccessful()) {
+                            onSuccessHandler()
+                        } else {
+                            onErrorHandler(result.toPurchasesError(), RCHTTPStatusCodes.isSynced(result.responseCode))
+                        }
                     }
-                }
             }
         }
-        synchronized(this@Backend) {
-            paywallEventsCallbacks.addCallback(
-                call,
-                eventsDispatcher,
-                paywallEventRequest.cacheKey,
-                onSuccessHandler to onErrorHandler,
-                delay,
-            )
-        }
+        paywallEventsCallbacks.addCallback(
+            call,
+            eventsDispatcher,
+            paywallEventRequest.cacheKey,
+            onSuccessHandler to onErrorHandler,
+            delay,
+        )
     }
 
     fun getProductEntitlementMapping(
@@ -732,17 +677,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    productEntitlementCallbacks.remove(path)
-                }?.forEach { (_, onError) ->
+                productEntitlementCallbacks.remove(path)?.forEach { (_, onError) ->
                     onError(error)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    productEntitlementCallbacks.remove(path)
-                }?.forEach { (onSuccess, onError) ->
+                productEntitlementCallbacks.remove(path)?.forEach { (onSuccess, onError) ->
                     if (result.isSuccessful()) {
                         try {
                             onSuccess(ProductEntitlementMapping.fromNetwork(result.body, result))
@@ -755,15 +696,13 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            productEntitlementCallbacks.addCallback(
-                call,
-                dispatcher,
-                path,
-                onSuccessHandler to onErrorHandler,
-                Delay.LONG,
-            )
-        }
+        productEntitlementCallbacks.addCallback(
+            call,
+            dispatcher,
+            path,
+            onSuccessHandler to onErrorHandler,
+            Delay.LONG,
+        )
     }
 
     fun getCustomerCenterConfig(
@@ -786,17 +725,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    customerCenterCallbacks.remove(path)
-                }?.forEach { (_, onErrorHandler) ->
+                customerCenterCallbacks.remove(path)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    customerCenterCallbacks.remove(path)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                customerCenterCallbacks.remove(path)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         try {
                             val customerCenterRoot = json.decodeFromString<CustomerCenterRoot>(
@@ -814,15 +749,13 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            customerCenterCallbacks.addCallback(
-                call,
-                dispatcher,
-                path,
-                onSuccessHandler to onErrorHandler,
-                Delay.NONE,
-            )
-        }
+        customerCenterCallbacks.addCallback(
+            call,
+            dispatcher,
+            path,
+            onSuccessHandler to onErrorHandler,
+            Delay.NONE,
+        )
     }
 
     fun postCreateSupportTicket(
@@ -852,17 +785,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    createSupportTicketCallbacks.remove(path)
-                }?.forEach { (_, onErrorHandler) ->
+                createSupportTicketCallbacks.remove(path)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    createSupportTicketCallbacks.remove(path)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                createSupportTicketCallbacks.remove(path)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         try {
                             val wasSent = result.body.optBoolean("sent", false)
@@ -878,15 +807,13 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            createSupportTicketCallbacks.addCallback(
-                call,
-                dispatcher,
-                path,
-                onSuccessHandler to onErrorHandler,
-                Delay.NONE,
-            )
-        }
+        createSupportTicketCallbacks.addCallback(
+            call,
+            dispatcher,
+            path,
+            onSuccessHandler to onErrorHandler,
+            Delay.NONE,
+        )
     }
 
     @Suppress("NestedBlockDepth")
@@ -911,17 +838,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    redeemWebPurchaseCallbacks.remove(path)
-                }?.forEach { callback ->
+                redeemWebPurchaseCallbacks.remove(path)?.forEach { callback ->
                     callback(RedeemWebPurchaseListener.Result.Error(error))
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    redeemWebPurchaseCallbacks.remove(path)
-                }?.forEach { callback ->
+                redeemWebPurchaseCallbacks.remove(path)?.forEach { callback ->
                     if (result.isSuccessful()) {
                         callback(
                             RedeemWebPurchaseListener.Result.Success(CustomerInfoFactory.buildCustomerInfo(result)),
@@ -953,15 +876,13 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            redeemWebPurchaseCallbacks.addCallback(
-                call,
-                dispatcher,
-                path,
-                onResultHandler,
-                Delay.NONE,
-            )
-        }
+        redeemWebPurchaseCallbacks.addCallback(
+            call,
+            dispatcher,
+            path,
+            onResultHandler,
+            Delay.NONE,
+        )
     }
 
     fun getVirtualCurrencies(
@@ -987,17 +908,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    virtualCurrenciesCallbacks.remove(cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                virtualCurrenciesCallbacks.remove(cacheKey)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    virtualCurrenciesCallbacks.remove(cacheKey)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                virtualCurrenciesCallbacks.remove(cacheKey)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         try {
                             val virtualCurrencies = VirtualCurrenciesFactory.buildVirtualCurrencies(
@@ -1018,16 +935,14 @@ internal class Backend(
             }
         }
 
-        synchronized(this@Backend) {
-            val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
-            virtualCurrenciesCallbacks.addBackgroundAwareCallback(
-                call,
-                dispatcher,
-                cacheKey,
-                onSuccess to onError,
-                delay,
-            )
-        }
+        val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
+        virtualCurrenciesCallbacks.addBackgroundAwareCallback(
+            call,
+            dispatcher,
+            cacheKey,
+            onSuccess to onError,
+            delay,
+        )
     }
 
     fun getWebBillingProducts(
@@ -1051,17 +966,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    webBillingProductsCallbacks.remove(path)
-                }?.forEach { (_, onErrorHandler) ->
+                webBillingProductsCallbacks.remove(path)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(error)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    webBillingProductsCallbacks.remove(path)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                webBillingProductsCallbacks.remove(path)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         try {
                             val productsResponse = json.decodeFromString<WebBillingProductsResponse>(
@@ -1079,15 +990,13 @@ internal class Backend(
                 }
             }
         }
-        synchronized(this@Backend) {
-            webBillingProductsCallbacks.addCallback(
-                call,
-                dispatcher,
-                path,
-                onSuccess to onError,
-                Delay.NONE,
-            )
-        }
+        webBillingProductsCallbacks.addCallback(
+            call,
+            dispatcher,
+            path,
+            onSuccess to onError,
+            Delay.NONE,
+        )
     }
 
     fun getRewardVerificationResult(
@@ -1115,17 +1024,13 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    rewardVerificationResultCallbacks.remove(cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                rewardVerificationResultCallbacks.remove(cacheKey)?.forEach { (_, onErrorHandler) ->
                     onErrorHandler(RewardVerificationError(error, isServerError = false))
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    rewardVerificationResultCallbacks.remove(cacheKey)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                rewardVerificationResultCallbacks.remove(cacheKey)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         try {
                             val response = json.decodeFromString<RewardVerificationResponse>(
@@ -1153,15 +1058,13 @@ internal class Backend(
             }
         }
 
-        synchronized(this@Backend) {
-            rewardVerificationResultCallbacks.addBackgroundAwareCallback(
-                call,
-                dispatcher,
-                cacheKey,
-                onSuccess to onError,
-                Delay.NONE,
-            )
-        }
+        rewardVerificationResultCallbacks.addBackgroundAwareCallback(
+            call,
+            dispatcher,
+            cacheKey,
+            onSuccess to onError,
+            Delay.NONE,
+        )
     }
 
     @Suppress("LongParameterList")
@@ -1173,6 +1076,8 @@ internal class Backend(
         manifest: String?,
         lastRefreshTime: Date?,
         prefetchedBlobs: List<String>,
+        // Content hash of each topic held locally (see ConfigTopic.contentHash), keyed by topic name.
+        topicHashes: Map<String, String>,
         // The server's own request time, so the caller can replay it rather than a device-clock value.
         onSuccess: (RCContainer?, Date?, VerificationResult) -> Unit,
         onError: (PurchasesError, GetRemoteConfigErrorHandlingBehavior) -> Unit,
@@ -1190,6 +1095,8 @@ internal class Backend(
             put("fetch_context", fetchContext.wireName)
             manifest?.let { put("manifest", it) }
             put("prefetched_blobs", prefetchedBlobs)
+            // Lets the server leave out topics whose content the client already holds; omitted when none are held.
+            if (topicHashes.isNotEmpty()) put("topic_hashes", topicHashes)
         }
         // This endpoint is not ETag-cached, but the header the ETag path uses carries exactly what the server needs
         // here, so it is reused verbatim: epoch millis, omitted entirely when there has been no successful refresh.
@@ -1210,18 +1117,14 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    remoteConfigCallbacks.remove(cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                remoteConfigCallbacks.remove(cacheKey)?.forEach { (_, onErrorHandler) ->
                     // Transport/IO failure: no HTTP status, the endpoint may recover on a future sync.
                     onErrorHandler(error, GetRemoteConfigErrorHandlingBehavior.SHOULD_RETRY)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    remoteConfigCallbacks.remove(cacheKey)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                remoteConfigCallbacks.remove(cacheKey)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         if (result.responseCode == RCHTTPStatusCodes.NO_CONTENT) {
                             // 204: nothing changed, no container to parse.
@@ -1269,16 +1172,14 @@ internal class Backend(
             }
         }
 
-        synchronized(this@Backend) {
-            val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
-            remoteConfigCallbacks.addBackgroundAwareCallback(
-                call,
-                remoteConfigDispatcher,
-                cacheKey,
-                onSuccess to onError,
-                delay,
-            )
-        }
+        val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
+        remoteConfigCallbacks.addBackgroundAwareCallback(
+            call,
+            remoteConfigDispatcher,
+            cacheKey,
+            onSuccess to onError,
+            delay,
+        )
     }
 
     fun getRemoteConfigFallback(
@@ -1314,18 +1215,14 @@ internal class Backend(
             }
 
             override fun onError(error: PurchasesError) {
-                synchronized(this@Backend) {
-                    remoteConfigFallbackCallbacks.remove(cacheKey)
-                }?.forEach { (_, onErrorHandler) ->
+                remoteConfigFallbackCallbacks.remove(cacheKey)?.forEach { (_, onErrorHandler) ->
                     // Transport/IO failure: no HTTP status, the endpoint may recover on a future sync.
                     onErrorHandler(error, GetRemoteConfigErrorHandlingBehavior.SHOULD_RETRY)
                 }
             }
 
             override fun onCompletion(result: HTTPResult) {
-                synchronized(this@Backend) {
-                    remoteConfigFallbackCallbacks.remove(cacheKey)
-                }?.forEach { (onSuccessHandler, onErrorHandler) ->
+                remoteConfigFallbackCallbacks.remove(cacheKey)?.forEach { (onSuccessHandler, onErrorHandler) ->
                     if (result.isSuccessful()) {
                         try {
                             onSuccessHandler(
@@ -1355,16 +1252,14 @@ internal class Backend(
             }
         }
 
-        synchronized(this@Backend) {
-            val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
-            remoteConfigFallbackCallbacks.addBackgroundAwareCallback(
-                call,
-                remoteConfigDispatcher,
-                cacheKey,
-                onSuccess to onError,
-                delay,
-            )
-        }
+        val delay = if (appInBackground) Delay.DEFAULT else Delay.NONE
+        remoteConfigFallbackCallbacks.addBackgroundAwareCallback(
+            call,
+            remoteConfigDispatcher,
+            cacheKey,
+            onSuccess to onError,
+            delay,
+        )
     }
 
     fun clearCaches() {
@@ -1382,8 +1277,7 @@ internal class Backend(
         PostReceiptErrorHandlingBehavior.SHOULD_BE_MARKED_SYNCED
     }
 
-    @Synchronized
-    private fun <S, E> MutableMap<BackgroundAwareCallbackCacheKey, MutableList<Pair<S, E>>>.addBackgroundAwareCallback(
+    private fun <S, E> RequestCoalescer<BackgroundAwareCallbackCacheKey, Pair<S, E>>.addBackgroundAwareCallback(
         call: Dispatcher.AsyncCall,
         dispatcher: Dispatcher,
         cacheKey: BackgroundAwareCallbackCacheKey,
@@ -1391,43 +1285,36 @@ internal class Backend(
         delay: Delay = Delay.NONE,
     ) {
         val foregroundCacheKey = cacheKey.copy(appInBackground = false)
-        val foregroundCallAlreadyInPlace = containsKey(foregroundCacheKey)
-        val cacheKeyToUse = if (cacheKey.appInBackground && foregroundCallAlreadyInPlace) {
+        if (cacheKey.appInBackground && addIfInFlight(foregroundCacheKey, listOf(functions))) {
             debugLog { NetworkStrings.SAME_CALL_SCHEDULED_WITHOUT_JITTER.format(foregroundCacheKey) }
-            foregroundCacheKey
-        } else {
-            cacheKey
+            return
         }
-        addCallback(call, dispatcher, cacheKeyToUse, functions, delay)
+        addCallback(call, dispatcher, cacheKey, functions, delay)
         // In case we have a request with a jittered delay queued, and we perform the same request without
         // jittered delay, we want to call the callback using the unjittered request
-        val backgroundedCacheKey = cacheKey.copy(appInBackground = true)
-        val backgroundCallAlreadyInPlace = containsKey(foregroundCacheKey)
-        if (!cacheKey.appInBackground && backgroundCallAlreadyInPlace) {
-            debugLog { NetworkStrings.SAME_CALL_SCHEDULED_WITH_JITTER.format(foregroundCacheKey) }
+        if (!cacheKey.appInBackground) {
+            val backgroundedCacheKey = cacheKey.copy(appInBackground = true)
             remove(backgroundedCacheKey)?.takeIf { it.isNotEmpty() }?.let { backgroundedCallbacks ->
-                if (containsKey(cacheKey)) {
-                    this[cacheKey]?.addAll(backgroundedCallbacks)
-                } else {
-                    this[cacheKey] = backgroundedCallbacks
+                debugLog { NetworkStrings.SAME_CALL_SCHEDULED_WITH_JITTER.format(foregroundCacheKey) }
+                if (!addIfInFlight(cacheKey, backgroundedCallbacks)) {
+                    // The unjittered request already completed, so perform it again for the moved callbacks.
+                    backgroundedCallbacks.forEach { addCallback(call, dispatcher, cacheKey, it) }
                 }
             }
         }
     }
 
-    private fun <K, F> MutableMap<K, MutableList<F>>.addCallback(
+    private fun <K : Any, F : Any> RequestCoalescer<K, F>.addCallback(
         call: Dispatcher.AsyncCall,
         dispatcher: Dispatcher,
         cacheKey: K,
         functions: F,
         delay: Delay = Delay.NONE,
     ) {
-        if (!containsKey(cacheKey)) {
-            this[cacheKey] = mutableListOf(functions)
+        if (add(cacheKey, functions)) {
             backendHelper.enqueue(call, dispatcher, delay)
         } else {
             debugLog { String.format(NetworkStrings.SAME_CALL_ALREADY_IN_PROGRESS, cacheKey) }
-            this[cacheKey]!!.add(functions)
         }
     }
 }
@@ -13,6 +13,7 @@ import com.revenuecat.purchases.common.responses.CustomerInfoResponseJsonKeys
 import com.revenuecat.purchases.common.responses.ProductResponseJsonKeys
 import com.revenuecat.purchases.common.responses.SubscriptionInfoResponse
 import com.revenuecat.purchases.utils.Iso8601Utils
+import com.revenuecat.purchases.utils.LazyJSONObject
 import com.revenuecat.purchases.utils.SerializationException
 import com.revenuecat.purchases.utils.optDate
 import com.revenuecat.purchases.utils.optNullableString
@@ -100,7 +101,7 @@ internal object CustomerInfoFactory {
             allExpirationDatesByProduct = expirationDatesByProduct,
             allPurchaseDatesByProduct = purchaseDatesByProduct,
             requestDate = requestDate,
-            jsonObject = body,
+            lazyJsonObject = LazyJSONObject(body),
             schemaVersion = body.optInt("schema_version", CUSTOMER_INFO_SCHEMA_VERSION),
             firstSeen = firstSeen,
             originalAppUserId = subscriber.optString(CustomerInfoResponseJsonKeys.ORIGINAL_APP_USER_ID),
@@ -17,6 +17,7 @@ import java.io.IOException
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.ScheduledExecutorService
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
 
@@ -24,17 +25,56 @@ internal enum class Delay(val minDelay: Duration, val maxDelay: Duration) {
     NONE(0.milliseconds, 0.milliseconds),
     DEFAULT(0.milliseconds, DispatcherConstants.jitterDelay),
     LONG(DispatcherConstants.jitterDelay, DispatcherConstants.jitterLongDelay),
+
+    // Fixed window used to batch local writes, not to spread requests over time.
+    GROUP_COMMIT(DispatcherConstants.groupCommitDelay, DispatcherConstants.groupCommitDelay),
 }
 
+/**
+ * Runs commands on [executorService]. Each dispatcher is one lane: commands on different dispatchers never wait for
+ * each other, so a slow request on one lane doesn't block the requests of another.
+ */
+@OptIn(InternalRevenueCatAPI::class)
 internal open class Dispatcher(
     private val executorService: ExecutorService,
     private val mainHandler: Handler? = Handler(Looper.getMainLooper()),
     private val runningIntegrationTests: Boolean = false,
+    private val dateProvider: DateProvider = DefaultDateProvider(),
 ) {
     private companion object {
         const val INTEGRATION_TEST_DELAY_PERCENTAGE: Double = .01
     }
 
+    /**
+     * Snapshot of the commands waiting on this dispatcher.
+     * @param queueDepth Commands enqueued that haven't started running yet, including delayed ones.
+     * @param lastWaitTime How long the last started command waited past its scheduled time for a free thread.
+     * @param maxWaitTime The longest such wait since this dispatcher was created.
+     */
+    data class QueueStats(
+        val queueDepth: Int,
+        val lastWaitTime: Duration,
+        val maxWaitTime: Duration,
+    )
+
+    private val queueDepth = AtomicInteger(0)
+    private val waitTimeLock = Any()
+    private var lastWaitTimeMillis = 0L
+    private var maxWaitTimeMillis = 0L
+
+    open val queueStats: QueueStats
+        get() = synchronized(waitTimeLock) {
+            QueueStats(queueDepth.get(), lastWaitTimeMillis.milliseconds, maxWaitTimeMillis.milliseconds)
+        }
+
+    /**
+     * Called on the running thread with this dispatcher's [queueStats] when a command waited at least
+     * [DispatcherConstants.queueWaitReportThreshold] for a free thread, so head-of-line blocking on a lane can be
+     * reported.
+     */
+    @Volatile
+    var queueWaitListener: ((QueueStats) -> Unit)? = null
+
     @OptIn(InternalRevenueCatAPI::class)
     abstract class AsyncCall : Runnable {
         @Throws(JSONException::class, IOException::class)
@@ -67,7 +107,17 @@ internal open class Dispatcher(
     ) {
         synchronized(this.executorService) {
             if (!executorService.isShutdown) {
+                var delayToApply = 0L
+                if (delay != Delay.NONE && executorService is ScheduledExecutorService) {
+                    delayToApply = (delay.minDelay.inWholeMilliseconds..delay.maxDelay.inWholeMilliseconds).random()
+                    if (runningIntegrationTests) {
+                        delayToApply = (delayToApply * INTEGRATION_TEST_DELAY_PERCENTAGE).toLong()
+                    }
+                }
+                val scheduledTimeMillis = dateProvider.now.time + delayToApply
+                queueDepth.incrementAndGet()
                 val commandHandlingExceptions = Runnable {
+                    onCommandStarted(scheduledTimeMillis)
                     try {
                         command.run()
                     } catch (@Suppress("TooGenericExceptionCaught") e: Throwable) {
@@ -79,10 +129,6 @@ internal open class Dispatcher(
                     }
                 }
                 if (delay != Delay.NONE && executorService is ScheduledExecutorService) {
-                    var delayToApply = (delay.minDelay.inWholeMilliseconds..delay.maxDelay.inWholeMilliseconds).random()
-                    if (runningIntegrationTests) {
-                        delayToApply = (delayToApply * INTEGRATION_TEST_DELAY_PERCENTAGE).toLong()
-                    }
                     executorService.schedule(commandHandlingExceptions, delayToApply, TimeUnit.MILLISECONDS)
                 } else {
                     executorService.submit(commandHandlingExceptions)
@@ -91,6 +137,18 @@ internal open class Dispatcher(
         }
     }
 
+    private fun onCommandStarted(scheduledTimeMillis: Long) {
+        queueDepth.decrementAndGet()
+        val waitTimeMillis = (dateProvider.now.time - scheduledTimeMillis).coerceAtLeast(0L)
+        synchronized(waitTimeLock) {
+            lastWaitTimeMillis = waitTimeMillis
+            maxWaitTimeMillis = maxOf(maxWaitTimeMillis, waitTimeMillis)
+        }
+        if (waitTimeMillis >= DispatcherConstants.queueWaitReportThreshold.inWholeMilliseconds) {
+            queueWaitListener?.invoke(queueStats)
+        }
+    }
+
     open fun close() {
         synchronized(this.executorService) {
             this.executorService.shutdownNow()
@@ -5,4 +5,6 @@ import kotlin.time.Duration.Companion.milliseconds
 internal object DispatcherConstants {
     val jitterDelay = 5000L.milliseconds
     val jitterLongDelay = 10000L.milliseconds
+    val groupCommitDelay = 500L.milliseconds
+    val queueWaitReportThreshold = 1000L.milliseconds
 }
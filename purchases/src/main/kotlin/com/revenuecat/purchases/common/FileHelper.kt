@@ -1,14 +1,21 @@
 package com.revenuecat.purchases.common
 
 import android.content.Context
+import com.revenuecat.purchases.utils.sizeInBytes
 import com.revenuecat.purchases.utils.sizeInKB
 import java.io.BufferedReader
 import java.io.File
 import java.io.FileInputStream
 import java.io.FileNotFoundException
 import java.io.FileOutputStream
+import java.io.IOException
 import java.io.InputStreamReader
+import java.io.RandomAccessFile
 
+private const val NEWLINE = 0x0A // '\n'
+private const val SCAN_BUFFER_SIZE = 8 * 1024
+
+@Suppress("TooManyFunctions")
 internal class FileHelper(
     private val applicationContext: Context,
 ) {
@@ -17,14 +24,19 @@ internal class FileHelper(
         return file.sizeInKB
     }
 
-    fun appendToFile(filePath: String, contentToAppend: String) {
+    /**
+     * @return The number of bytes appended.
+     */
+    fun appendToFile(filePath: String, contentToAppend: String): Int {
         val file = getFileInFilesDir(filePath)
         file.parentFile?.mkdirs()
         val shouldAppend = true
         val outputStream = FileOutputStream(file, shouldAppend)
+        val bytesToAppend = contentToAppend.toByteArray()
         outputStream.use {
-            outputStream.write(contentToAppend.toByteArray())
+            outputStream.write(bytesToAppend)
         }
+        return bytesToAppend.size
     }
 
     fun deleteFile(filePath: String): Boolean {
@@ -41,30 +53,103 @@ internal class FileHelper(
         }
     }
 
-    fun removeFirstLinesFromFile(
-        filePath: String,
-        numberOfLinesToRemove: Int,
-        onException: ((Throwable) -> Unit)? = null,
-    ) {
+    /**
+     * Reads the lines of each of [files], in order, as a single sequence. Each file is read starting at the byte
+     * offset it's paired with, and only opened once the sequence reaches it. Files that don't exist are skipped.
+     * As with [readFilePerLines], the sequence must be consumed synchronously within [block].
+     */
+    fun readFilesPerLines(files: List<Pair<String, Long>>, block: ((Sequence<String>) -> Unit)) {
+        val openedReaders = mutableListOf<BufferedReader>()
         try {
-            val textToAppend = StringBuilder()
-            readFilePerLines(filePath) { sequence ->
-                sequence.drop(numberOfLinesToRemove).forEach { line ->
-                    textToAppend.append(line).append("\n")
-                }
+            block(
+                files.asSequence().flatMap { (filePath, startOffset) ->
+                    openBufferedReaderAt(filePath, startOffset)
+                        ?.also { openedReaders.add(it) }
+                        ?.lineSequence()
+                        ?: emptySequence()
+                },
+            )
+        } finally {
+            openedReaders.forEach { it.close() }
+        }
+    }
+
+    /**
+     * Scans [filePath] from [startOffset] past up to [maxLines] newline-terminated lines, without decoding them.
+     * @return The number of bytes and the number of lines skipped.
+     */
+    fun skipLines(filePath: String, startOffset: Long, maxLines: Int): Pair<Long, Int> {
+        val file = getFileInFilesDir(filePath)
+        if (!file.exists() || maxLines <= 0) return 0L to 0
+        var bytesSkipped = 0L
+        var linesSkipped = 0
+        FileInputStream(file).use { inputStream ->
+            inputStream.skipFully(startOffset)
+            val buffer = ByteArray(SCAN_BUFFER_SIZE)
+            while (linesSkipped < maxLines) {
+                val bytesRead = inputStream.read(buffer)
+                if (bytesRead == -1) break
+                val (bytesScanned, linesScanned) = buffer.scanLines(bytesRead, maxLines - linesSkipped)
+                bytesSkipped += bytesScanned
+                linesSkipped += linesScanned
             }
-            deleteFile(filePath)
-            appendToFile(filePath, textToAppend.toString())
-        } catch (e: FileNotFoundException) {
-            onException?.invoke(e)
-            errorLog(
-                e,
-            ) { "FileHelper: file not found when trying to remove first lines from file: $filePath. Ignoring." }
-        } catch (@Suppress("TooGenericExceptionCaught") e: Throwable) {
-            onException?.invoke(e)
-            errorLog(e) { "FileHelper: error removing first lines from file: $filePath. Ignoring." }
-            throw e
         }
+        return bytesSkipped to linesSkipped
+    }
+
+    /**
+     * Drops a trailing line that isn't newline-terminated, left behind by a write that was interrupted.
+     * @return Whether the file was truncated.
+     */
+    fun truncatePartialLastLine(filePath: String): Boolean {
+        val file = getFileInFilesDir(filePath)
+        if (!file.exists() || file.length() == 0L) return false
+        return RandomAccessFile(file, "rw").use { randomAccessFile ->
+            val length = randomAccessFile.length()
+            val lastLineEnd = randomAccessFile.positionAfterLastNewline(length)
+            if (lastLineEnd < length) {
+                randomAccessFile.setLength(lastLineEnd)
+            }
+            lastLineEnd < length
+        }
+    }
+
+    fun fileSizeInBytes(filePath: String): Long {
+        return getFileInFilesDir(filePath).sizeInBytes
+    }
+
+    fun fileExists(filePath: String): Boolean {
+        return getFileInFilesDir(filePath).exists()
+    }
+
+    /**
+     * @return The names of the files directly inside [directoryPath], or an empty list if it doesn't exist.
+     */
+    fun listFileNames(directoryPath: String): List<String> {
+        return getFileInFilesDir(directoryPath).list()?.toList() ?: emptyList()
+    }
+
+    fun renameFile(fromFilePath: String, toFilePath: String): Boolean {
+        val toFile = getFileInFilesDir(toFilePath)
+        toFile.parentFile?.mkdirs()
+        return getFileInFilesDir(fromFilePath).renameTo(toFile)
+    }
+
+    /**
+     * Replaces the contents of [filePath] with [contents]. The new contents are written to a temporary file first,
+     * so readers never see a partially written file.
+     */
+    fun writeToFile(filePath: String, contents: String) {
+        val temporaryFilePath = "$filePath.tmp"
+        deleteFile(temporaryFilePath)
+        appendToFile(temporaryFilePath, contents)
+        if (!renameFile(temporaryFilePath, filePath)) {
+            throw IOException("Failed to replace $filePath")
+        }
+    }
+
+    fun deleteDirectory(directoryPath: String): Boolean {
+        return getFileInFilesDir(directoryPath).deleteRecursively()
     }
 
     /**
@@ -91,6 +176,65 @@ internal class FileHelper(
         }
     }
 
+    private fun openBufferedReaderAt(filePath: String, startOffset: Long): BufferedReader? {
+        val fileInputStream = try {
+            FileInputStream(getFileInFilesDir(filePath))
+        } catch (_: FileNotFoundException) {
+            debugLog { "FileHelper: file not found when trying to read: $filePath. Treating as empty." }
+            return null
+        }
+        return try {
+            fileInputStream.skipFully(startOffset)
+            BufferedReader(InputStreamReader(fileInputStream))
+        } catch (e: IOException) {
+            fileInputStream.close()
+            throw e
+        }
+    }
+
+    private fun FileInputStream.skipFully(byteCount: Long) {
+        var remaining = byteCount
+        while (remaining > 0) {
+            val skipped = skip(remaining)
+            if (skipped <= 0) break
+            remaining -= skipped
+        }
+    }
+
+    /**
+     * Scans the first [length] bytes up to and including the [maxLines]th newline.
+     * @return The number of bytes and the number of lines scanned.
+     */
+    private fun ByteArray.scanLines(length: Int, maxLines: Int): Pair<Int, Int> {
+        var lines = 0
+        var index = 0
+        while (index < length && lines < maxLines) {
+            if (this[index].toInt() == NEWLINE) lines++
+            index++
+        }
+        return index to lines
+    }
+
+    /**
+     * Reads the file backwards from [length] in [SCAN_BUFFER_SIZE] chunks.
+     * @return The position right after its last newline, or 0 if it has none.
+     */
+    private fun RandomAccessFile.positionAfterLastNewline(length: Long): Long {
+        val buffer = ByteArray(SCAN_BUFFER_SIZE)
+        var chunkEnd = length
+        while (chunkEnd > 0) {
+            val chunkStart = maxOf(0L, chunkEnd - buffer.size)
+            val chunkLength = (chunkEnd - chunkStart).toInt()
+            seek(chunkStart)
+            readFully(buffer, 0, chunkLength)
+            for (index in chunkLength - 1 downTo 0) {
+                if (buffer[index].toInt() == NEWLINE) return chunkStart + index + 1
+            }
+            chunkEnd = chunkStart
+        }
+        return 0L
+    }
+
     private fun getFileInFilesDir(filePath: String): File {
         return File(getFilesDir(), filePath)
     }
@@ -20,8 +20,10 @@ import com.revenuecat.purchases.common.networking.Endpoint
 import com.revenuecat.purchases.common.networking.HTTPRequest
 import com.revenuecat.purchases.common.networking.HTTPResult
 import com.revenuecat.purchases.common.networking.HTTPTimeoutManager
+import com.revenuecat.purchases.common.networking.HTTPTransport
 import com.revenuecat.purchases.common.networking.MapConverter
 import com.revenuecat.purchases.common.networking.NullPointerReadingErrorStreamException
+import com.revenuecat.purchases.common.networking.PooledHTTPTransport
 import com.revenuecat.purchases.common.networking.RCContainer
 import com.revenuecat.purchases.common.networking.RCContainerFormatException
 import com.revenuecat.purchases.common.networking.RCHTTPStatusCodes
@@ -32,11 +34,8 @@ import com.revenuecat.purchases.interfaces.StorefrontProvider
 import com.revenuecat.purchases.strings.NetworkStrings
 import com.revenuecat.purchases.utils.filterNotNullValues
 import org.json.JSONException
-import java.io.BufferedWriter
 import java.io.IOException
 import java.io.InputStream
-import java.io.OutputStream
-import java.io.OutputStreamWriter
 import java.net.HttpURLConnection
 import java.net.MalformedURLException
 import java.net.SocketTimeoutException
@@ -78,6 +77,7 @@ internal class HTTPClient(
     private val forceServerErrorStrategy: ForceServerErrorStrategy? = null,
     private val requestResponseListener: RequestResponseListener? = null,
     private val timeoutManager: HTTPTimeoutManager = HTTPTimeoutManager(appConfig, dateProvider),
+    private val transport: HTTPTransport = PooledHTTPTransport(dateProvider),
 ) {
     @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
     internal companion object {
@@ -98,18 +98,41 @@ internal class HTTPClient(
         // Defensive cap on API source attempts within one request, in case the source list is re-armed
         // (topic rebuild or interval restart) while a request is walking it.
         const val MAX_API_SOURCE_ATTEMPTS = 5
-    }
-
-    private val enableExtraRequestLogging = BuildConfig.ENABLE_EXTRA_REQUEST_LOGGING && appConfig.isDebugBuild
 
-    private fun buffer(outputStream: OutputStream): BufferedWriter {
-        return BufferedWriter(OutputStreamWriter(outputStream))
+        // Upper bound for trusting a Content-Length header to pre-size the response buffer.
+        const val MAX_PRESIZED_BODY_BYTES = 64L * 1024 * 1024 // 64 MB
+
+        /**
+         * Reads the whole response body. When the server announced its [contentLength], the body is read straight into
+         * an array of that size, avoiding the doubling buffer and final trimming copy of [InputStream.readBytes], which
+         * can hold up to three copies of large responses (e.g. offerings with paywall components) at once.
+         */
+        @Suppress("ReturnCount")
+        @Throws(IOException::class)
+        fun readBytesFully(inputStream: InputStream, contentLength: Long): ByteArray {
+            if (contentLength !in 0..MAX_PRESIZED_BODY_BYTES) {
+                return inputStream.readBytes()
+            }
+            val bytes = ByteArray(contentLength.toInt())
+            var offset = 0
+            while (offset < bytes.size) {
+                val read = inputStream.read(bytes, offset, bytes.size - offset)
+                if (read < 0) {
+                    // Fewer bytes than announced, e.g. when the platform transparently decompressed the body.
+                    return bytes.copyOf(offset)
+                }
+                offset += read
+            }
+            val next = inputStream.read()
+            if (next < 0) {
+                return bytes
+            }
+            // More bytes than announced: fall back to accumulating the remainder.
+            return bytes + next.toByte() + inputStream.readBytes()
+        }
     }
 
-    @Throws(IOException::class)
-    private fun readBytesFully(inputStream: InputStream): ByteArray {
-        return inputStream.readBytes()
-    }
+    private val enableExtraRequestLogging = BuildConfig.ENABLE_EXTRA_REQUEST_LOGGING && appConfig.isDebugBuild
 
     /** A human-readable rendering of a response body for logging: byte size for RC Format, text otherwise. */
     private fun ByteArray.describeForLogging(endpoint: Endpoint, responseCode: Int): String =
@@ -145,12 +168,6 @@ internal class HTTPClient(
         }
     }
 
-    @Throws(IOException::class)
-    private fun writeFully(writer: BufferedWriter, body: String) {
-        writer.write(body)
-        writer.flush()
-    }
-
     /** Performs a synchronous web request to the RevenueCat API
      * @param baseURL The server URL used to perform the request
      * @param endpoint Endpoint being used for the request
@@ -306,6 +323,7 @@ internal class HTTPClient(
         var requestResult: HTTPTimeoutManager.RequestResult = HTTPTimeoutManager.RequestResult.OTHER_RESULT
         var exceptionHit: IOException? = null
         var responseCode: Int? = null
+        var connectionLikelyReused: Boolean? = null
 
         try {
             callResult = performCall(
@@ -316,6 +334,7 @@ internal class HTTPClient(
                 postFieldsToSign,
                 requestHeaders,
                 refreshETag,
+                onConnectionOpened = { connectionLikelyReused = it },
                 onResponseReceived = { responseCode = it },
             )
             callSuccessful = true
@@ -345,6 +364,7 @@ internal class HTTPClient(
                 callResult,
                 isRetry = refreshETag,
                 connectionException = exceptionHit,
+                connectionLikelyReused = connectionLikelyReused,
             )
         }
         return exceptionHit?.let { AttemptOutcome.Failed(it) } ?: AttemptOutcome.Completed(callResult)
@@ -380,11 +400,12 @@ internal class HTTPClient(
         postFieldsToSign: List<Pair<String, String>>?,
         requestHeaders: Map<String, String>,
         refreshETag: Boolean,
+        onConnectionOpened: (isLikelyReused: Boolean) -> Unit,
         onResponseReceived: (responseCode: Int) -> Unit,
     ): HTTPResult? {
         val jsonBody = body?.let { mapConverter.convertToJSON(it) }
         val path = endpoint.getPath(useFallback = isFallbackURL)
-        val connection: HttpURLConnection
+        val transportConnection: HTTPTransport.Connection
         val shouldSignResponse = signingManager.shouldVerifyEndpoint(endpoint)
         val shouldAddNonce = shouldSignResponse && endpoint.needsNonceToPerformSigning
         val nonce: String?
@@ -442,19 +463,28 @@ internal class HTTPClient(
                 reTieredTimeoutsEnabled = appConfig.usesRemoteConfigAPISources,
             )
 
-            connection = getConnection(httpRequest, timeout)
+            transportConnection = transport.open(httpRequest, timeout)
+            onConnectionOpened(transportConnection.isLikelyReused)
         } catch (e: MalformedURLException) {
             throw RuntimeException(e)
         }
+        val connection = transportConnection.urlConnection
 
-        val inputStream = getInputStream(connection)
+        val inputStream = try {
+            getInputStream(connection)
+        } catch (@Suppress("TooGenericExceptionCaught") e: Throwable) {
+            transport.release(transportConnection, responseFullyRead = false)
+            throw e
+        }
 
         val payloadBytes: ByteArray?
         val responseCode: Int
+        var responseFullyRead = false
         try {
             debugLog { NetworkStrings.API_REQUEST_STARTED.format(connection.requestMethod, path) }
             responseCode = connection.responseCode
-            payloadBytes = inputStream?.let { readBytesFully(it) }
+            payloadBytes = inputStream?.let { readBytesFully(it, connection.contentLength.toLong()) }
+            responseFullyRead = true
             if (enableExtraRequestLogging) {
                 debugLog {
                     "HTTP response:\\n  status code: $responseCode \\n  " +
@@ -468,7 +498,9 @@ internal class HTTPClient(
             throw e
         } finally {
             inputStream?.close()
-            connection.disconnect()
+            // Connections whose response was fully consumed go back to the transport's pool instead of being
+            // disconnected, so the next request to the same host can skip the TCP and TLS handshakes.
+            transport.release(transportConnection, responseFullyRead)
         }
 
         debugLog { NetworkStrings.API_REQUEST_COMPLETED.format(connection.requestMethod, path, responseCode) }
@@ -542,7 +574,7 @@ internal class HTTPClient(
                     verifyRCFormatResponse(path, connection, bodyBytes, nonce)
                 }
             } else {
-                verifyResponse(path, connection, payloadText, nonce, postFieldsToSignHeader)
+                verifyResponse(path, connection, bodyBytes, nonce, postFieldsToSignHeader)
             }
         } else {
             VerificationResult.NOT_REQUESTED
@@ -605,6 +637,7 @@ internal class HTTPClient(
         return builder.toString()
     }
 
+    @Suppress("LongParameterList")
     private fun trackHttpRequestPerformedIfNeeded(
         baseURL: URL,
         endpoint: Endpoint,
@@ -613,6 +646,7 @@ internal class HTTPClient(
         callResult: HTTPResult?,
         isRetry: Boolean,
         connectionException: IOException?,
+        connectionLikelyReused: Boolean?,
     ) {
         diagnosticsTrackerIfEnabled?.let { tracker ->
             val responseTime = Duration.between(requestStartTime, dateProvider.now)
@@ -638,6 +672,8 @@ internal class HTTPClient(
                 verificationResult,
                 isRetry,
                 connectionErrorReason,
+                connectionLikelyReused,
+                transport.estimatedConnectionReuseRate,
             )
         }
     }
@@ -698,22 +734,6 @@ internal class HTTPClient(
             .filterNotNullValues()
     }
 
-    private fun getConnection(request: HTTPRequest, timeoutMs: Long): HttpURLConnection {
-        return (request.fullURL.openConnection() as HttpURLConnection).apply {
-            connectTimeout = timeoutMs.toInt()
-            // We leave the read timeout to the default (readTimeout = 0), which means infinite.
-            request.headers.forEach { (key, value) ->
-                addRequestProperty(key, value)
-            }
-            request.body?.let { body ->
-                doOutput = true
-                requestMethod = "POST"
-                val os = outputStream
-                writeFully(buffer(os), body.toString())
-            }
-        }
-    }
-
     private fun getXPlatformHeader() = when (appConfig.store) {
         Store.AMAZON -> "amazon"
         else -> "android"
@@ -722,15 +742,16 @@ internal class HTTPClient(
     private fun verifyResponse(
         urlPath: String,
         connection: URLConnection,
-        payload: String?,
+        payloadBytes: ByteArray,
         nonce: String?,
         postFieldsToSignHeader: String?,
     ): VerificationResult {
+        // Verifies the bytes as received, instead of re-encoding the decoded text into yet another copy of the body.
         return signingManager.verifyResponse(
             urlPath = urlPath,
             signatureString = connection.getHeaderField(HTTPResult.SIGNATURE_HEADER_NAME),
             nonce = nonce,
-            bodyBytes = payload?.toByteArray(),
+            bodyBytes = payloadBytes,
             requestTime = getRequestTimeHeader(connection),
             eTag = getETagHeader(connection),
             postFieldsToSignHeader = postFieldsToSignHeader,
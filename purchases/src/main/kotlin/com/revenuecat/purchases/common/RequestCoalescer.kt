@@ -0,0 +1,70 @@
+package com.revenuecat.purchases.common
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Keyed single-flight registry of the callbacks waiting on in-flight requests. The first caller for a key starts
+ * the request; later callers for the same key join it, and all of them are handed back when the request completes.
+ *
+ * Registrations and completions for different keys never contend: each in-flight request only holds its own
+ * monitor for the length of a list append, and a registration racing a completion for the same key either makes it
+ * into the completed batch or starts a new request.
+ */
+internal class RequestCoalescer<K : Any, F : Any> {
+
+    private class InFlightRequest<F>(first: List<F>) {
+        // Null once the request completed and its callbacks were handed out.
+        private var callbacks: MutableList<F>? = first.toMutableList()
+
+        @Synchronized
+        fun tryAdd(newCallbacks: List<F>): Boolean {
+            val current = callbacks ?: return false
+            current.addAll(newCallbacks)
+            return true
+        }
+
+        @Synchronized
+        fun complete(): List<F>? = callbacks.also { callbacks = null }
+    }
+
+    private val inFlight = ConcurrentHashMap<K, InFlightRequest<F>>()
+
+    val size: Int
+        get() = inFlight.size
+
+    fun isEmpty(): Boolean = inFlight.isEmpty()
+
+    /**
+     * Registers [callback] for [key].
+     * @return true when there was no request in flight for [key], meaning the caller must now perform it.
+     */
+    fun add(key: K, callback: F): Boolean {
+        val newCallbacks = listOf(callback)
+        while (true) {
+            val existing = inFlight[key]
+            if (existing == null) {
+                if (inFlight.putIfAbsent(key, InFlightRequest(newCallbacks)) == null) {
+                    return true
+                }
+            } else if (existing.tryAdd(newCallbacks)) {
+                return false
+            } else {
+                // Completed while we were joining it. Drop it, if still mapped, and retry.
+                inFlight.remove(key, existing)
+            }
+        }
+    }
+
+    /**
+     * Adds [callbacks] to the request in flight for [key], if any.
+     * @return false when there's no request in flight for [key], leaving [callbacks] unregistered.
+     */
+    fun addIfInFlight(key: K, callbacks: List<F>): Boolean {
+        return inFlight[key]?.tryAdd(callbacks) == true
+    }
+
+    /**
+     * Completes the request in flight for [key], returning the callbacks waiting on it, or null if there was none.
+     */
+    fun remove(key: K): List<F>? = inFlight.remove(key)?.complete()
+}
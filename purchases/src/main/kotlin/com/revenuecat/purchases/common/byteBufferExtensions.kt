@@ -0,0 +1,44 @@
+package com.revenuecat.purchases.common
+
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * An [InputStream] over this buffer's remaining bytes, reading them in place (no copy of the buffer is made), so a
+ * read-only or memory-mapped view can be handed to stream-based decoders. The stream reads a duplicate: this
+ * buffer's position is left untouched.
+ */
+internal fun ByteBuffer.asInputStream(): InputStream = ByteBufferInputStream(duplicate())
+
+/** Copies this buffer's remaining bytes into a new array, leaving its position untouched. */
+internal fun ByteBuffer.copyToByteArray(): ByteArray {
+    val view = duplicate()
+    val bytes = ByteArray(view.remaining())
+    view.get(bytes)
+    return bytes
+}
+
+private class ByteBufferInputStream(private val buffer: ByteBuffer) : InputStream() {
+    override fun read(): Int =
+        if (buffer.hasRemaining()) buffer.get().toInt() and BYTE_MASK else -1
+
+    override fun read(bytes: ByteArray, offset: Int, length: Int): Int {
+        if (length == 0) return 0
+        if (!buffer.hasRemaining()) return -1
+        val count = minOf(length, buffer.remaining())
+        buffer.get(bytes, offset, count)
+        return count
+    }
+
+    override fun skip(n: Long): Long {
+        val skipped = minOf(n.coerceAtLeast(0), buffer.remaining().toLong()).toInt()
+        buffer.position(buffer.position() + skipped)
+        return skipped.toLong()
+    }
+
+    override fun available(): Int = buffer.remaining()
+
+    private companion object {
+        private const val BYTE_MASK = 0xFF
+    }
+}
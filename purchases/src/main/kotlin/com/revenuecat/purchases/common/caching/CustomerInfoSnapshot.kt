@@ -0,0 +1,219 @@
+package com.revenuecat.purchases.common.caching
+
+import android.net.Uri
+import com.revenuecat.purchases.CustomerInfo
+import com.revenuecat.purchases.CustomerInfoOriginalSource
+import com.revenuecat.purchases.EntitlementInfo
+import com.revenuecat.purchases.EntitlementInfos
+import com.revenuecat.purchases.OwnershipType
+import com.revenuecat.purchases.PeriodType
+import com.revenuecat.purchases.Store
+import com.revenuecat.purchases.VerificationResult
+import com.revenuecat.purchases.common.debugLog
+import com.revenuecat.purchases.utils.DateHelper
+import com.revenuecat.purchases.utils.LazyJSONObject
+import org.json.JSONException
+import org.json.JSONObject
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.IOException
+import java.util.Date
+
+/**
+ * Versioned binary encoding of the fields of a cached [CustomerInfo], stored next to its raw JSON so reading the cache
+ * doesn't require parsing the whole customer JSON.
+ *
+ * Entitlements, expiration and purchase dates are decoded eagerly. Whether an entitlement is active depends on the
+ * current time, so it isn't part of the snapshot and is computed again on decode, like parsing the JSON does. The raw
+ * JSON, which backs [CustomerInfo.rawData], the non-subscription transactions and the subscription infos, is not part
+ * of the snapshot: it's parsed from the JSON cache entry the first time it's accessed. A snapshot is only valid for the
+ * JSON it was encoded with, which is checked on decode with the JSON's length and hash code.
+ */
+internal object CustomerInfoSnapshot {
+
+    const val FORMAT_VERSION = 2
+
+    fun encode(customerInfo: CustomerInfo, rawJSON: String): ByteArray {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { output ->
+            output.writeInt(FORMAT_VERSION)
+            output.writeInt(rawJSON.length)
+            output.writeInt(rawJSON.hashCode())
+            // Same as the schema version stamped on the cached JSON.
+            output.writeInt(CUSTOMER_INFO_SCHEMA_VERSION)
+            output.writeLong(customerInfo.requestDate.time)
+            output.writeString(customerInfo.entitlements.verification.name)
+            output.writeString(customerInfo.originalSource.name)
+            output.writeLong(customerInfo.firstSeen.time)
+            output.writeString(customerInfo.originalAppUserId)
+            output.writeNullableString(customerInfo.managementURL?.toString())
+            output.writeNullableDate(customerInfo.originalPurchaseDate)
+            output.writeDates(customerInfo.allExpirationDatesByProduct)
+            output.writeDates(customerInfo.allPurchaseDatesByProduct)
+            output.writeInt(customerInfo.entitlements.all.size)
+            customerInfo.entitlements.all.values.forEach { output.writeEntitlementInfo(it) }
+        }
+        return bytes.toByteArray()
+    }
+
+    /**
+     * @param rawJSON The JSON cache entry the snapshot was stored with.
+     * @param parseRawJSON Builds [CustomerInfo.rawData] from [rawJSON]. Only called when it's accessed.
+     * @return null if the snapshot was written by a different format version, doesn't match [rawJSON] or can't be
+     * decoded, in which case the JSON cache entry should be used instead.
+     */
+    @Suppress("SwallowedException")
+    fun decode(
+        snapshot: ByteArray,
+        rawJSON: String,
+        parseRawJSON: (String) -> JSONObject,
+    ): CustomerInfo? {
+        return try {
+            DataInputStream(ByteArrayInputStream(snapshot)).use { input ->
+                if (input.readInt() == FORMAT_VERSION &&
+                    input.readInt() == rawJSON.length &&
+                    input.readInt() == rawJSON.hashCode()
+                ) {
+                    input.readCustomerInfo(LazyJSONObject { parseRawJSON(rawJSON) })
+                } else {
+                    null
+                }
+            }
+        } catch (e: IOException) {
+            debugLog { "Couldn't decode cached CustomerInfo snapshot: $e" }
+            null
+        } catch (e: IllegalArgumentException) {
+            debugLog { "Couldn't decode cached CustomerInfo snapshot: $e" }
+            null
+        } catch (e: JSONException) {
+            debugLog { "Couldn't decode cached CustomerInfo snapshot: $e" }
+            null
+        }
+    }
+
+    private fun DataInputStream.readCustomerInfo(lazyJsonObject: LazyJSONObject): CustomerInfo {
+        val schemaVersion = readInt()
+        val requestDate = Date(readLong())
+        val verification = VerificationResult.valueOf(readString())
+        val originalSource = CustomerInfoOriginalSource.valueOf(readString())
+        val firstSeen = Date(readLong())
+        val originalAppUserId = readString()
+        val managementURL = readNullableString()?.let { Uri.parse(it) }
+        val originalPurchaseDate = readNullableDate()
+        val expirationDatesByProduct = readDates()
+        val purchaseDatesByProduct = readDates()
+        val entitlements = (0 until readInt()).associate {
+            val entitlementInfo = readEntitlementInfo(requestDate, verification)
+            entitlementInfo.identifier to entitlementInfo
+        }
+        return CustomerInfo(
+            entitlements = EntitlementInfos(entitlements, verification),
+            allExpirationDatesByProduct = expirationDatesByProduct,
+            allPurchaseDatesByProduct = purchaseDatesByProduct,
+            requestDate = requestDate,
+            schemaVersion = schemaVersion,
+            firstSeen = firstSeen,
+            originalAppUserId = originalAppUserId,
+            managementURL = managementURL,
+            originalPurchaseDate = originalPurchaseDate,
+            lazyJsonObject = lazyJsonObject,
+            originalSource = originalSource,
+            loadedFromCache = true,
+        )
+    }
+
+    private fun DataOutputStream.writeEntitlementInfo(entitlementInfo: EntitlementInfo) {
+        writeString(entitlementInfo.identifier)
+        writeBoolean(entitlementInfo.willRenew)
+        writeString(entitlementInfo.periodType.name)
+        writeLong(entitlementInfo.latestPurchaseDate.time)
+        writeLong(entitlementInfo.originalPurchaseDate.time)
+        writeNullableDate(entitlementInfo.expirationDate)
+        writeString(entitlementInfo.store.name)
+        writeString(entitlementInfo.productIdentifier)
+        writeNullableString(entitlementInfo.productPlanIdentifier)
+        writeBoolean(entitlementInfo.isSandbox)
+        writeNullableDate(entitlementInfo.unsubscribeDetectedAt)
+        writeNullableDate(entitlementInfo.billingIssueDetectedAt)
+        writeString(entitlementInfo.ownershipType.name)
+        writeString(entitlementInfo.rawData.toString())
+    }
+
+    private fun DataInputStream.readEntitlementInfo(
+        requestDate: Date,
+        verification: VerificationResult,
+    ): EntitlementInfo {
+        val identifier = readString()
+        val willRenew = readBoolean()
+        val periodType = PeriodType.valueOf(readString())
+        val latestPurchaseDate = Date(readLong())
+        val originalPurchaseDate = Date(readLong())
+        val expirationDate = readNullableDate()
+        return EntitlementInfo(
+            identifier = identifier,
+            isActive = DateHelper.isDateActive(expirationDate, requestDate).isActive,
+            willRenew = willRenew,
+            periodType = periodType,
+            latestPurchaseDate = latestPurchaseDate,
+            originalPurchaseDate = originalPurchaseDate,
+            expirationDate = expirationDate,
+            store = Store.valueOf(readString()),
+            productIdentifier = readString(),
+            productPlanIdentifier = readNullableString(),
+            isSandbox = readBoolean(),
+            unsubscribeDetectedAt = readNullableDate(),
+            billingIssueDetectedAt = readNullableDate(),
+            ownershipType = OwnershipType.valueOf(readString()),
+            jsonObject = JSONObject(readString()),
+            verification = verification,
+        )
+    }
+
+    private fun DataOutputStream.writeDates(dates: Map<String, Date?>) {
+        writeInt(dates.size)
+        dates.forEach { (productId, date) ->
+            writeString(productId)
+            writeNullableDate(date)
+        }
+    }
+
+    private fun DataInputStream.readDates(): Map<String, Date?> {
+        val dates = HashMap<String, Date?>()
+        repeat(readInt()) { dates[readString()] = readNullableDate() }
+        return dates
+    }
+
+    // Strings are length-prefixed UTF-8 instead of using writeUTF, which is limited to 64 KB.
+    private fun DataOutputStream.writeString(value: String) {
+        val bytes = value.toByteArray(Charsets.UTF_8)
+        writeInt(bytes.size)
+        write(bytes)
+    }
+
+    private fun DataInputStream.readString(): String {
+        val size = readInt()
+        if (size < 0 || size > available()) {
+            throw EOFException("Invalid string size $size")
+        }
+        val bytes = ByteArray(size)
+        readFully(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    private fun DataOutputStream.writeNullableString(value: String?) {
+        writeBoolean(value != null)
+        value?.let { writeString(it) }
+    }
+
+    private fun DataInputStream.readNullableString(): String? = if (readBoolean()) readString() else null
+
+    private fun DataOutputStream.writeNullableDate(value: Date?) {
+        writeBoolean(value != null)
+        value?.let { writeLong(it.time) }
+    }
+
+    private fun DataInputStream.readNullableDate(): Date? = if (readBoolean()) Date(readLong()) else null
+}
@@ -0,0 +1,76 @@
+package com.revenuecat.purchases.common.caching
+
+import android.content.Context
+import com.revenuecat.purchases.common.Dispatcher
+import com.revenuecat.purchases.common.errorLog
+import com.revenuecat.purchases.models.Checksum
+import java.io.File
+import java.io.FileNotFoundException
+import java.io.IOException
+
+/**
+ * Disk store of the binary [CustomerInfoSnapshot] of each app user ID's cached customer info, one file per app user
+ * ID. Kept out of SharedPreferences, where its Base64 encoding next to the customer info JSON roughly doubled the
+ * customer info footprint of a file that is loaded whole and rewritten on every `apply()`.
+ *
+ * Writes and deletes run on [dispatcher], like the `apply()` they replace, and writes go to a temp file committed by
+ * atomic rename. A snapshot is only decoded against the JSON it was encoded with, so one left stale by a write that is
+ * still queued, or that failed, reads back as a miss and the customer info is parsed from its JSON instead.
+ */
+internal class CustomerInfoSnapshotStore(
+    private val directory: File,
+    private val dispatcher: Dispatcher,
+) {
+    constructor(context: Context, dispatcher: Dispatcher) : this(
+        File(File(context.noBackupFilesDir, VENDOR_DIRECTORY), DIRECTORY_NAME),
+        dispatcher,
+    )
+
+    fun read(appUserID: String): ByteArray? {
+        return try {
+            fileFor(appUserID).readBytes()
+        } catch (@Suppress("SwallowedException") e: FileNotFoundException) {
+            // No snapshot for this user: a plain cache miss, not an error.
+            null
+        } catch (e: IOException) {
+            errorLog(e) { "Failed to read customer info snapshot from disk." }
+            null
+        }
+    }
+
+    fun write(appUserID: String, snapshot: ByteArray) {
+        dispatcher.enqueue({ writeNow(appUserID, snapshot) })
+    }
+
+    fun delete(appUserID: String) {
+        dispatcher.enqueue({ fileFor(appUserID).delete() })
+    }
+
+    private fun writeNow(appUserID: String, snapshot: ByteArray) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            errorLog { "Failed to create customer info snapshot directory: $directory" }
+            return
+        }
+        val file = fileFor(appUserID)
+        // Never opened by readers; a crash mid-write leaves one orphan that the next write overwrites.
+        val tempFile = File(directory, file.name + TEMP_SUFFIX)
+        try {
+            tempFile.writeBytes(snapshot)
+            if (!tempFile.renameTo(file)) {
+                errorLog { "Failed to move customer info snapshot into place." }
+            }
+        } catch (e: IOException) {
+            errorLog(e) { "Failed to persist customer info snapshot to disk." }
+        }
+    }
+
+    private fun fileFor(appUserID: String): File {
+        return File(directory, Checksum.generate(appUserID.toByteArray(), Checksum.Algorithm.SHA256).value)
+    }
+
+    private companion object {
+        const val VENDOR_DIRECTORY = "RevenueCat"
+        const val DIRECTORY_NAME = "customer_info_snapshots"
+        const val TEMP_SUFFIX = ".tmp"
+    }
+}
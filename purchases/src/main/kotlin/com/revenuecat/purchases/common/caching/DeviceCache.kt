@@ -38,6 +38,7 @@ import kotlinx.serialization.json.Json
 import org.json.JSONException
 import org.json.JSONObject
 import java.util.Date
+import java.util.concurrent.CopyOnWriteArrayList
 import kotlin.time.Duration.Companion.hours
 
 private val PRODUCT_ENTITLEMENT_MAPPING_CACHE_REFRESH_PERIOD = 25.hours
@@ -68,6 +69,21 @@ public open class DeviceCache(
         private const val CUSTOMER_INFO_ORIGINAL_SOURCE_KEY = "customer_info_original_source"
     }
 
+    internal constructor(
+        preferences: SharedPreferences,
+        apiKey: String,
+        customerInfoSnapshotStore: CustomerInfoSnapshotStore?,
+        dateProvider: DateProvider = DefaultDateProvider(),
+    ) : this(preferences, apiKey, dateProvider) {
+        this.customerInfoSnapshotStore = customerInfoSnapshotStore
+    }
+
+    /**
+     * Binary snapshots of the cached customer info, decoded instead of parsing the JSON. Without a store, the JSON is
+     * always parsed.
+     */
+    private var customerInfoSnapshotStore: CustomerInfoSnapshotStore? = null
+
     private val apiKeyPrefix: String by lazy { "$SHARED_PREFERENCES_PREFIX$apiKey" }
 
     @VisibleForTesting
@@ -110,9 +126,26 @@ public open class DeviceCache(
      */
     private var tokenMapCache: Map<String, TokenCacheEntry>? = null
 
+    /**
+     * Decoded customer info of each app user ID, written through by [cacheCustomerInfo] and invalidated whenever the
+     * customer info cache is cleared.
+     */
+    private val customerInfoMemoryCache = InMemoryCustomerInfoCache(dateProvider)
+
+    /**
+     * The cached [ProductEntitlementMapping], kept in memory when it's cached or first read so computing offline
+     * customer info doesn't parse it from preferences every time.
+     */
+    private var productEntitlementMappingCache: ProductEntitlementMapping? = null
+
     @VisibleForTesting
     internal val storefrontCacheKey: String by lazy { "storefrontCacheKey" }
 
+    /**
+     * Notified with the new country code whenever [setStorefront] caches a storefront different from the cached one.
+     */
+    private val storefrontChangeListeners = CopyOnWriteArrayList<(String) -> Unit>()
+
     private val productEntitlementMappingCacheKey: String by lazy {
         "$apiKeyPrefix.productEntitlementMapping"
     }
@@ -133,6 +166,7 @@ public open class DeviceCache(
     }
 
     private val offeringsResponseCacheKey: String by lazy { "$apiKeyPrefix.offeringsResponse" }
+    private val offeringsResponseChecksumCacheKey: String by lazy { "$apiKeyPrefix.offeringsResponseChecksum" }
 
     internal fun startEditing(): SharedPreferences.Editor {
         return preferences.edit()
@@ -168,14 +202,17 @@ public open class DeviceCache(
             .clearVirtualCurrenciesCacheTimestamp(appUserID)
             .clearVirtualCurrenciesCache(appUserID)
             .apply()
+        customerInfoMemoryCache.invalidate()
     }
 
     private fun SharedPreferences.Editor.clearCustomerInfo(): SharedPreferences.Editor {
         getCachedAppUserID()?.let {
             remove(customerInfoCacheKey(it))
+            customerInfoSnapshotStore?.delete(it)
         }
         getLegacyCachedAppUserID()?.let {
             remove(customerInfoCacheKey(it))
+            customerInfoSnapshotStore?.delete(it)
         }
         return this
     }
@@ -201,57 +238,99 @@ public open class DeviceCache(
     internal fun customerInfoLastUpdatedCacheKey(appUserID: String) =
         "$customerInfoCachesLastUpdatedCacheBaseKey.$appUserID"
 
-    @Suppress
+    /**
+     * Returns the customer info decoded by a previous call or written by [cacheCustomerInfo] while it's still current.
+     * Otherwise, decodes the cached snapshot when there's one matching the cached JSON, falling back to parsing the
+     * JSON.
+     */
     internal fun getCachedCustomerInfo(appUserID: String): CustomerInfo? {
+        return customerInfoMemoryCache.get(appUserID) ?: run {
+            val generation = customerInfoMemoryCache.currentGeneration(appUserID)
+            decodeCachedCustomerInfo(appUserID)?.also {
+                customerInfoMemoryCache.cacheDecodedInstance(appUserID, it, generation)
+            }
+        }
+    }
+
+    private fun decodeCachedCustomerInfo(appUserID: String): CustomerInfo? {
         return preferences.getString(customerInfoCacheKey(appUserID), null)
             ?.let { json ->
-                try {
-                    val cachedJSONObject = JSONObject(json)
-                    val schemaVersion = cachedJSONObject.optInt(CUSTOMER_INFO_SCHEMA_VERSION_KEY)
-                    val verificationResultString = if (cachedJSONObject.has(CUSTOMER_INFO_VERIFICATION_RESULT_KEY)) {
-                        cachedJSONObject.getString(CUSTOMER_INFO_VERIFICATION_RESULT_KEY)
-                    } else {
-                        VerificationResult.NOT_REQUESTED.name
-                    }
-                    val requestDate = cachedJSONObject.optLong(CUSTOMER_INFO_REQUEST_DATE_KEY).takeIf { it > 0 }?.let {
-                        Date(it)
-                    }
-                    val originalSourceString = cachedJSONObject.optNullableString(CUSTOMER_INFO_ORIGINAL_SOURCE_KEY)
-                    val originalSource = CustomerInfoOriginalSource.fromString(originalSourceString)
-                    cachedJSONObject.remove(CUSTOMER_INFO_VERIFICATION_RESULT_KEY)
-                    cachedJSONObject.remove(CUSTOMER_INFO_REQUEST_DATE_KEY)
-                    cachedJSONObject.remove(CUSTOMER_INFO_ORIGINAL_SOURCE_KEY)
-                    val verificationResult = VerificationResult.valueOf(verificationResultString)
-                    return if (schemaVersion == CUSTOMER_INFO_SCHEMA_VERSION) {
-                        CustomerInfoFactory.buildCustomerInfo(
-                            cachedJSONObject,
-                            requestDate,
-                            verificationResult,
-                            originalSource,
-                            loadedFromCache = true,
-                        )
-                    } else {
-                        null
-                    }
-                } catch (e: JSONException) {
-                    null
-                }
+                getCachedCustomerInfoSnapshot(appUserID, json) ?: parseCachedCustomerInfo(json)
+            }
+    }
+
+    private fun getCachedCustomerInfoSnapshot(appUserID: String, json: String): CustomerInfo? {
+        return customerInfoSnapshotStore?.read(appUserID)
+            ?.let { CustomerInfoSnapshot.decode(it, json, ::parseCachedCustomerInfoJSON) }
+            ?.takeIf { it.schemaVersion == CUSTOMER_INFO_SCHEMA_VERSION }
+    }
+
+    @Suppress
+    private fun parseCachedCustomerInfo(json: String): CustomerInfo? {
+        return try {
+            val cachedJSONObject = JSONObject(json)
+            val schemaVersion = cachedJSONObject.optInt(CUSTOMER_INFO_SCHEMA_VERSION_KEY)
+            val verificationResultString = if (cachedJSONObject.has(CUSTOMER_INFO_VERIFICATION_RESULT_KEY)) {
+                cachedJSONObject.getString(CUSTOMER_INFO_VERIFICATION_RESULT_KEY)
+            } else {
+                VerificationResult.NOT_REQUESTED.name
+            }
+            val requestDate = cachedJSONObject.optLong(CUSTOMER_INFO_REQUEST_DATE_KEY).takeIf { it > 0 }?.let {
+                Date(it)
             }
+            val originalSourceString = cachedJSONObject.optNullableString(CUSTOMER_INFO_ORIGINAL_SOURCE_KEY)
+            val originalSource = CustomerInfoOriginalSource.fromString(originalSourceString)
+            removeCustomerInfoMetadata(cachedJSONObject)
+            val verificationResult = VerificationResult.valueOf(verificationResultString)
+            if (schemaVersion == CUSTOMER_INFO_SCHEMA_VERSION) {
+                CustomerInfoFactory.buildCustomerInfo(
+                    cachedJSONObject,
+                    requestDate,
+                    verificationResult,
+                    originalSource,
+                    loadedFromCache = true,
+                )
+            } else {
+                null
+            }
+        } catch (e: JSONException) {
+            null
+        }
+    }
+
+    private fun parseCachedCustomerInfoJSON(json: String): JSONObject {
+        return JSONObject(json).also { removeCustomerInfoMetadata(it) }
+    }
+
+    private fun removeCustomerInfoMetadata(jsonObject: JSONObject) {
+        jsonObject.remove(CUSTOMER_INFO_VERIFICATION_RESULT_KEY)
+        jsonObject.remove(CUSTOMER_INFO_REQUEST_DATE_KEY)
+        jsonObject.remove(CUSTOMER_INFO_ORIGINAL_SOURCE_KEY)
     }
 
     @Synchronized
     internal fun cacheCustomerInfo(appUserID: String, info: CustomerInfo) {
-        val jsonObject = info.rawData.also {
+        // Metadata goes on a shallow copy: rawData is the instance callers of this customer info read.
+        val rawData = info.rawData
+        val jsonObject = JSONObject(rawData, rawData.keys().asSequence().toList().toTypedArray()).also {
             it.put(CUSTOMER_INFO_SCHEMA_VERSION_KEY, CUSTOMER_INFO_SCHEMA_VERSION)
             it.put(CUSTOMER_INFO_VERIFICATION_RESULT_KEY, info.entitlements.verification.name)
             it.put(CUSTOMER_INFO_REQUEST_DATE_KEY, info.requestDate.time)
             it.put(CUSTOMER_INFO_ORIGINAL_SOURCE_KEY, info.originalSource.name)
         }
+        val json = jsonObject.toString()
+        val snapshot = CustomerInfoSnapshot.encode(info, json)
+        // The JSON is still written so it can back the snapshot's raw data and be read by previous versions.
         preferences.edit()
             .putString(
                 customerInfoCacheKey(appUserID),
-                jsonObject.toString(),
+                json,
             ).apply()
+        customerInfoSnapshotStore?.write(appUserID, snapshot)
+        // Decoding the snapshot gives the same instance a read of the cache would, without parsing the JSON.
+        CustomerInfoSnapshot.decode(snapshot, json, ::parseCachedCustomerInfoJSON)
+            ?.let { customerInfoMemoryCache.cacheInstance(appUserID, it) }
+            ?: customerInfoMemoryCache.invalidate(appUserID)
 
         setCustomerInfoCacheTimestampToNow(appUserID)
     }
@@ -270,6 +349,8 @@ public open class DeviceCache(
         val editor = preferences.edit()
         clearCustomerInfoCache(appUserID, editor)
         editor.apply()
+        // Invalidated again once applied, so a read between the two can't keep the removed customer info.
+        customerInfoMemoryCache.invalidate(appUserID)
     }
 
     @Synchronized
@@ -279,6 +360,8 @@ public open class DeviceCache(
     ) {
         editor.clearCustomerInfoCacheTimestamp(appUserID)
         editor.remove(customerInfoCacheKey(appUserID))
+        customerInfoSnapshotStore?.delete(appUserID)
+        customerInfoMemoryCache.invalidate(appUserID)
     }
 
     @Synchronized
@@ -295,7 +378,15 @@ public open class DeviceCache(
     @Synchronized
     internal fun setStorefront(countryCode: String) {
         verboseLog { BillingStrings.BILLING_STOREFRONT_CACHING.format(countryCode) }
+        val previousCountryCode = preferences.getString(storefrontCacheKey, null)
         preferences.edit().putString(storefrontCacheKey, countryCode).apply()
+        if (countryCode != previousCountryCode) {
+            storefrontChangeListeners.forEach { it(countryCode) }
+        }
+    }
+
+    internal fun addStorefrontChangeListener(listener: (String) -> Unit) {
+        storefrontChangeListeners.add(listener)
     }
 
     @Synchronized
@@ -588,25 +679,42 @@ public open class DeviceCache(
 
     // region offerings response
 
+    /**
+     * The offerings response itself is stored by [com.revenuecat.purchases.common.offerings.OfferingsResponseStore],
+     * which only keeps the response's checksum here. Previous versions stored the whole response under
+     * [offeringsResponseCacheKey].
+     */
+    @Synchronized
+    internal fun getLegacyOfferingsResponse(): String? {
+        return preferences.getString(offeringsResponseCacheKey, null)
+    }
+
     @Synchronized
-    internal fun getOfferingsResponseCache(): JSONObject? {
-        return getJSONObjectOrNull(offeringsResponseCacheKey)
+    internal fun getOfferingsResponseChecksum(): Long? {
+        return if (preferences.contains(offeringsResponseChecksumCacheKey)) {
+            preferences.getLong(offeringsResponseChecksumCacheKey, 0L)
+        } else {
+            null
+        }
     }
 
     /**
-     * Serializing a [JSONObject] here instead of storing [offeringsResponse] as received would cost a
-     * contiguous allocation of several times the response size, which OOMs on low-heap devices.
+     * Also removes the response stored by previous versions, which the checksummed response replaces.
      */
     @Synchronized
-    internal fun cacheOfferingsResponse(offeringsResponse: String) {
+    internal fun cacheOfferingsResponseChecksum(checksum: Long) {
         preferences.edit()
-            .putString(offeringsResponseCacheKey, offeringsResponse)
+            .putLong(offeringsResponseChecksumCacheKey, checksum)
+            .remove(offeringsResponseCacheKey)
             .apply()
     }
 
     @Synchronized
     internal fun clearOfferingsResponseCache() {
-        preferences.edit().remove(offeringsResponseCacheKey).apply()
+        preferences.edit()
+            .remove(offeringsResponseCacheKey)
+            .remove(offeringsResponseChecksumCacheKey)
+            .apply()
     }
 
     // endregion
@@ -622,6 +730,8 @@ public open class DeviceCache(
                 json.toString(),
             )
             .apply()
+        // Same as reading it back from preferences.
+        productEntitlementMappingCache = productEntitlementMapping.copy(originalSource = null, loadedFromCache = true)
 
         setProductEntitlementMappingCacheTimestampToNow()
     }
@@ -644,9 +754,14 @@ public open class DeviceCache(
         )
     }
 
-    @Suppress("NestedBlockDepth")
     @Synchronized
     internal fun getProductEntitlementMapping(): ProductEntitlementMapping? {
+        return productEntitlementMappingCache
+            ?: readProductEntitlementMapping()?.also { productEntitlementMappingCache = it }
+    }
+
+    @Suppress("NestedBlockDepth")
+    private fun readProductEntitlementMapping(): ProductEntitlementMapping? {
         return preferences.getString(productEntitlementMappingCacheKey, null)?.let { jsonString ->
             return try {
                 val jsonObject = JSONObject(jsonString)
@@ -699,6 +814,10 @@ public open class DeviceCache(
         preferences.edit().remove(cacheKey).apply()
     }
 
+    internal fun contains(
+        cacheKey: String,
+    ): Boolean = preferences.contains(cacheKey)
+
     internal fun findKeysThatStartWith(
         cacheKey: String,
     ): Set<String> {
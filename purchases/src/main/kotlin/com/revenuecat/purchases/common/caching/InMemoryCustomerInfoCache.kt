@@ -0,0 +1,85 @@
+package com.revenuecat.purchases.common.caching
+
+import com.revenuecat.purchases.CustomerInfo
+import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.DefaultDateProvider
+import com.revenuecat.purchases.utils.DateHelper
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Memory tier in front of the customer info cached in [DeviceCache], holding the decoded [CustomerInfo] of each app
+ * user ID so reads don't decode the cached entry again.
+ *
+ * Entries are tagged with the generation of their app user ID they were stored in, and only served while it's still
+ * that app user ID's current one. Writes and clears move the app user ID to a new generation, which invalidates its
+ * entry without locking readers or touching the entries of other app user IDs. A value decoded from the persisted
+ * cache is stored with the generation read before decoding, so if that app user ID's cache was written or cleared in
+ * the meantime, that value is never served.
+ *
+ * Entitlements are only active as of the request date of their customer info during the grace period that follows it.
+ * Past it, they're checked against the current date when decoded, so entries are no longer served then and every read
+ * decodes the cached entry again.
+ */
+internal class InMemoryCustomerInfoCache(
+    private val dateProvider: DateProvider = DefaultDateProvider(),
+) {
+
+    private class Entry(val customerInfo: CustomerInfo, val generation: Long)
+
+    private val generations = ConcurrentHashMap<String, AtomicLong>()
+    private val entries = ConcurrentHashMap<String, Entry>()
+
+    /**
+     * Generation to pass to [cacheDecodedInstance] for a value of [appUserID] about to be decoded from the persisted
+     * cache.
+     */
+    fun currentGeneration(appUserID: String): Long = generationOf(appUserID).get()
+
+    fun get(appUserID: String): CustomerInfo? {
+        return entries[appUserID]
+            ?.takeIf { it.generation == currentGeneration(appUserID) }
+            ?.customerInfo
+            ?.takeIf { isInGracePeriod(it) }
+    }
+
+    /**
+     * Stores [customerInfo], which was just written to the persisted cache.
+     */
+    fun cacheInstance(appUserID: String, customerInfo: CustomerInfo) {
+        entries[appUserID] = Entry(customerInfo, generationOf(appUserID).incrementAndGet())
+    }
+
+    /**
+     * Stores [customerInfo], decoded from the persisted cache when it was at [decodedAtGeneration].
+     */
+    fun cacheDecodedInstance(appUserID: String, customerInfo: CustomerInfo, decodedAtGeneration: Long) {
+        // Losing a race with a write here only leaves an entry of an older generation, which is never served.
+        if (decodedAtGeneration == currentGeneration(appUserID)) {
+            entries[appUserID] = Entry(customerInfo, decodedAtGeneration)
+        }
+    }
+
+    fun invalidate(appUserID: String) {
+        generationOf(appUserID).incrementAndGet()
+        entries.remove(appUserID)
+    }
+
+    /**
+     * Invalidates the entries of every app user ID.
+     */
+    fun invalidate() {
+        // Counters are created before a decode reads them, so every decode in flight sees its generation move.
+        generations.values.forEach { it.incrementAndGet() }
+        entries.clear()
+    }
+
+    private fun isInGracePeriod(customerInfo: CustomerInfo): Boolean {
+        return dateProvider.now.time - customerInfo.requestDate.time <=
+            DateHelper.ENTITLEMENT_GRACE_PERIOD.inWholeMilliseconds
+    }
+
+    private fun generationOf(appUserID: String): AtomicLong {
+        return generations.getOrPut(appUserID) { AtomicLong(0) }
+    }
+}
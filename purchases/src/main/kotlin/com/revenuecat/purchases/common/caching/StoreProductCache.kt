@@ -0,0 +1,309 @@
+package com.revenuecat.purchases.common.caching
+
+import com.android.billingclient.api.BillingClient
+import com.revenuecat.purchases.InternalRevenueCatAPI
+import com.revenuecat.purchases.ProductType
+import com.revenuecat.purchases.PurchasesError
+import com.revenuecat.purchases.PurchasesErrorCallback
+import com.revenuecat.purchases.common.BillingAbstract
+import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.DefaultDateProvider
+import com.revenuecat.purchases.common.LogIntent
+import com.revenuecat.purchases.common.StoreProductsCallback
+import com.revenuecat.purchases.common.between
+import com.revenuecat.purchases.common.diagnostics.DiagnosticsTracker
+import com.revenuecat.purchases.common.log
+import com.revenuecat.purchases.google.toGoogleProductType
+import com.revenuecat.purchases.models.StoreProduct
+import com.revenuecat.purchases.strings.OfferingStrings
+import java.util.Date
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.hours
+
+/**
+ * Product details cache in front of [BillingAbstract.queryProductDetailsAsync], shared by offerings and `getProducts`
+ * so neither queries the store again for products it returned recently.
+ *
+ * The products of each product ID and type are cached for [timeToLive], including the absence of any, so querying
+ * subscriptions for a one-time product doesn't reach the store again either. The subscription offers returned depend on
+ * the eligibility of the signed in user, so the cache is invalidated after purchases, restores, syncs and user changes.
+ * [timeToLive] outlasts the offerings cache, so refreshing stale offerings doesn't query the store again. A query only
+ * asks the store for the IDs that are neither cached nor already being queried, and waits on the queries in flight for
+ * the others. [invalidate] drops every entry, and products returned by queries issued before it are handed to their
+ * callers but never cached.
+ *
+ * IDs served from the cache are tracked as product details requests flagged as cache hits.
+ *
+ * [queryProductDetailsOfTypesAsync] queries several product types at once. The type the store last returned products
+ * of for each ID is remembered, even across [invalidate], so IDs seen before are only queried as that type.
+ */
+@OptIn(InternalRevenueCatAPI::class)
+internal class StoreProductCache(
+    private val billing: BillingAbstract,
+    private val diagnosticsTrackerIfEnabled: DiagnosticsTracker?,
+    private val dateProvider: DateProvider = DefaultDateProvider(),
+    private val timeToLive: Duration = DEFAULT_TIME_TO_LIVE,
+) {
+
+    private data class Key(val productId: String, val type: ProductType)
+
+    private class Entry(val storeProducts: List<StoreProduct>, val cachedAt: Date)
+
+    private class InFlightQuery(val generation: Long) {
+        val waiters = mutableListOf<PendingQuery>()
+    }
+
+    /**
+     * A caller's query, completed once every store query it waits on returned.
+     */
+    private class PendingQuery(
+        val productIds: Set<String>,
+        cachedProducts: List<StoreProduct>,
+        val onReceive: StoreProductsCallback,
+        val onError: PurchasesErrorCallback,
+    ) {
+        private val collectedProducts = cachedProducts.toMutableList()
+        private var completed = false
+        var remainingQueries = 0
+
+        /**
+         * Adds the products of a store query it waited on, returning every product once that was the last one.
+         */
+        @Synchronized
+        fun addResult(storeProducts: List<StoreProduct>): List<StoreProduct>? {
+            if (completed) return null
+            collectedProducts.addAll(storeProducts)
+            remainingQueries--
+            completed = remainingQueries == 0
+            return collectedProducts.toList().takeIf { completed }
+        }
+
+        /**
+         * Whether the caller should be notified of a failed store query it waited on.
+         */
+        @Synchronized
+        fun fail(): Boolean {
+            val shouldNotify = !completed
+            completed = true
+            return shouldNotify
+        }
+    }
+
+    /**
+     * A caller's query of several product types, completed once the store query of every type returned.
+     */
+    private class TypesQuery(
+        private val productTypes: Set<ProductType>,
+        val onReceive: (Map<ProductType, List<StoreProduct>>) -> Unit,
+        val onError: PurchasesErrorCallback,
+    ) {
+        private val productsByType = mutableMapOf<ProductType, List<StoreProduct>>()
+        private var failed = false
+
+        /**
+         * Adds the products of one type, returning the products of every type once that was the last one.
+         */
+        @Synchronized
+        fun addResult(
+            productType: ProductType,
+            storeProducts: List<StoreProduct>,
+        ): Map<ProductType, List<StoreProduct>>? {
+            if (failed) return null
+            productsByType[productType] = storeProducts
+            return productTypes
+                .takeIf { productsByType.keys.containsAll(it) }
+                ?.associateWith { productsByType.getValue(it) }
+        }
+
+        /**
+         * Whether the caller should be notified of a failed store query.
+         */
+        @Synchronized
+        fun fail(): Boolean {
+            val shouldNotify = !failed
+            failed = true
+            return shouldNotify
+        }
+    }
+
+    private val lock = Any()
+    private val entries = mutableMapOf<Key, Entry>()
+    private val inFlightQueries = mutableMapOf<Key, InFlightQuery>()
+    private val productTypesById = mutableMapOf<String, ProductType>()
+    private var generation = 0L
+
+    fun queryProductDetailsAsync(
+        productType: ProductType,
+        productIds: Set<String>,
+        onReceive: StoreProductsCallback,
+        onError: PurchasesErrorCallback,
+    ) {
+        if (productIds.isEmpty()) {
+            billing.queryProductDetailsAsync(productType, productIds, onReceive, onError)
+            return
+        }
+        val now = dateProvider.now
+        val cachedProductIds = mutableSetOf<String>()
+        val cachedProducts = mutableListOf<StoreProduct>()
+        val productIdsToQuery = mutableSetOf<String>()
+        val queriesToJoin = mutableSetOf<InFlightQuery>()
+        val newQuery: InFlightQuery?
+        synchronized(lock) {
+            productIds.forEach { productId ->
+                val key = Key(productId, productType)
+                val entry = entries[key]?.takeIf { Duration.between(it.cachedAt, now) < timeToLive }
+                val inFlightQuery = inFlightQueries[key]
+                when {
+                    entry != null -> {
+                        cachedProductIds.add(productId)
+                        cachedProducts.addAll(entry.storeProducts)
+                    }
+                    inFlightQuery != null -> queriesToJoin.add(inFlightQuery)
+                    else -> productIdsToQuery.add(productId)
+                }
+            }
+            newQuery = productIdsToQuery.takeIf { it.isNotEmpty() }?.let { idsToQuery ->
+                InFlightQuery(generation).also { query ->
+                    idsToQuery.forEach { inFlightQueries[Key(it, productType)] = query }
+                }
+            }
+            val pendingQuery = PendingQuery(productIds, cachedProducts, onReceive, onError)
+            val awaitedQueries = queriesToJoin + listOfNotNull(newQuery)
+            pendingQuery.remainingQueries = awaitedQueries.size
+            awaitedQueries.forEach { it.waiters.add(pendingQuery) }
+        }
+
+        if (cachedProductIds.isNotEmpty()) {
+            log(LogIntent.DEBUG) { OfferingStrings.VENDING_CACHED_PRODUCTS.format(cachedProductIds.joinToString()) }
+            trackCacheHit(productType, cachedProductIds)
+        }
+        if (newQuery != null) {
+            queryStore(productType, productIdsToQuery, newQuery)
+        } else if (queriesToJoin.isEmpty()) {
+            onReceive(cachedProducts)
+        }
+    }
+
+    /**
+     * Queries [productIds] as every type in [productTypes] concurrently, except IDs the store returned products of one
+     * of those types for before, which are only queried as that type. [onReceive] gets the products of each type, in
+     * the order of [productTypes].
+     */
+    fun queryProductDetailsOfTypesAsync(
+        productTypes: Set<ProductType>,
+        productIds: Set<String>,
+        onReceive: (Map<ProductType, List<StoreProduct>>) -> Unit,
+        onError: PurchasesErrorCallback,
+    ) {
+        val productIdsByType = synchronized(lock) {
+            productTypes.associateWith { productType ->
+                productIds.filter { productId ->
+                    val knownProductType = productTypesById[productId]?.takeIf { it in productTypes }
+                    knownProductType == null || knownProductType == productType
+                }.toSet()
+            }
+        }.filterValues { it.isNotEmpty() }
+        if (productIdsByType.isEmpty()) {
+            onReceive(productTypes.associateWith { emptyList() })
+            return
+        }
+        val typesQuery = TypesQuery(productIdsByType.keys, onReceive, onError)
+        productIdsByType.forEach { (productType, productIdsOfType) ->
+            queryProductDetailsAsync(
+                productType = productType,
+                productIds = productIdsOfType,
+                onReceive = { storeProducts ->
+                    typesQuery.addResult(productType, storeProducts)?.let { productsByType ->
+                        onReceive(productTypes.associateWith { productsByType[it].orEmpty() })
+                    }
+                },
+                onError = { error -> if (typesQuery.fail()) onError(error) },
+            )
+        }
+    }
+
+    fun invalidate() {
+        log(LogIntent.DEBUG) { OfferingStrings.CLEARING_CACHED_PRODUCTS }
+        synchronized(lock) {
+            generation++
+            entries.clear()
+            inFlightQueries.clear()
+        }
+    }
+
+    private fun queryStore(productType: ProductType, productIds: Set<String>, query: InFlightQuery) {
+        billing.queryProductDetailsAsync(
+            productType = productType,
+            productIds = productIds,
+            onReceive = { storeProducts -> onStoreProductsReceived(productType, productIds, query, storeProducts) },
+            onError = { error -> onStoreProductsError(productType, productIds, query, error) },
+        )
+    }
+
+    private fun onStoreProductsReceived(
+        productType: ProductType,
+        productIds: Set<String>,
+        query: InFlightQuery,
+        storeProducts: List<StoreProduct>,
+    ) {
+        val now = dateProvider.now
+        // Products listed under an ID that wasn't queried can't be told apart per ID, so such responses aren't cached.
+        val cacheable = storeProducts.all { it.purchasingData.productId in productIds }
+        val productsById = storeProducts.groupBy { it.purchasingData.productId }
+        val waiters = synchronized(lock) {
+            productsById.keys.forEach { productTypesById[it] = productType }
+            if (cacheable && query.generation == generation) {
+                productIds.forEach { entries[Key(it, productType)] = Entry(productsById[it].orEmpty(), now) }
+            }
+            finishQuery(productType, productIds, query)
+        }
+        waiters.forEachIndexed { index, waiter ->
+            // The first waiter issued the query, and gets the store's response as is.
+            val waiterProducts = if (index == 0) {
+                storeProducts
+            } else {
+                storeProducts.filter { it.purchasingData.productId in waiter.productIds }
+            }
+            waiter.addResult(waiterProducts)?.let { waiter.onReceive(it) }
+        }
+    }
+
+    private fun onStoreProductsError(
+        productType: ProductType,
+        productIds: Set<String>,
+        query: InFlightQuery,
+        error: PurchasesError,
+    ) {
+        val waiters = synchronized(lock) { finishQuery(productType, productIds, query) }
+        waiters.filter { it.fail() }.forEach { it.onError(error) }
+    }
+
+    private fun finishQuery(
+        productType: ProductType,
+        productIds: Set<String>,
+        query: InFlightQuery,
+    ): List<PendingQuery> {
+        productIds.forEach { productId ->
+            val key = Key(productId, productType)
+            if (inFlightQueries[key] === query) {
+                inFlightQueries.remove(key)
+            }
+        }
+        return query.waiters.toList()
+    }
+
+    private fun trackCacheHit(productType: ProductType, productIds: Set<String>) {
+        diagnosticsTrackerIfEnabled?.trackGoogleQueryProductDetailsRequest(
+            requestedProductIds = productIds,
+            productType = productType.toGoogleProductType() ?: BillingClient.ProductType.INAPP,
+            billingResponseCode = BillingClient.BillingResponseCode.OK,
+            billingDebugMessage = "",
+            responseTime = Duration.ZERO,
+            cacheHit = true,
+        )
+    }
+
+    private companion object {
+        val DEFAULT_TIME_TO_LIVE = 1.hours
+    }
+}
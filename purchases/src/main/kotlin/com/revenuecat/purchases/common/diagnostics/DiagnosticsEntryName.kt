@@ -32,4 +32,6 @@ internal enum class DiagnosticsEntryName {
     RESTORE_PURCHASES_RESULT,
     GET_CUSTOMER_INFO_STARTED,
     GET_CUSTOMER_INFO_RESULT,
+    REMOTE_CONFIG_BLOB_DOWNLOAD,
+    DISPATCHER_QUEUE_WAIT,
 }
@@ -7,7 +7,7 @@ import com.revenuecat.purchases.utils.EventsFileHelper
  * All methods in this file should be executed within the diagnostics thread to ensure there are no threading issues.
  */
 internal class DiagnosticsFileHelper(
-    private val fileHelper: FileHelper,
+    fileHelper: FileHelper,
 ) : EventsFileHelper<DiagnosticsEntry>(fileHelper, DIAGNOSTICS_FILE_PATH, null) {
     companion object {
         const val DIAGNOSTICS_FILE_PATH = "RevenueCat/diagnostics/diagnostic_entries.jsonl"
@@ -26,6 +26,6 @@ internal class DiagnosticsFileHelper(
     }
 
     private fun diagnosticsFileSize(): Double {
-        return fileHelper.fileSizeInKB(DIAGNOSTICS_FILE_PATH)
+        return fileSizeInKB()
     }
 }
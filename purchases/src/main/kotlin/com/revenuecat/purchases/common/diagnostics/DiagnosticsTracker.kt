@@ -47,6 +47,7 @@ internal class DiagnosticsTracker(
         const val RESPONSE_CODE_KEY = "response_code"
         const val BACKEND_ERROR_CODE_KEY = "backend_error_code"
         const val ETAG_HIT_KEY = "etag_hit"
+        const val CACHE_HIT_KEY = "cache_hit"
         const val VERIFICATION_RESULT_KEY = "verification_result"
         const val RESPONSE_TIME_MILLIS_KEY = "response_time_millis"
         const val PRODUCT_TYPE_QUERIED_KEY = "product_type_queried"
@@ -71,6 +72,17 @@ internal class DiagnosticsTracker(
         const val IS_RETRY = "is_retry"
         const val REQUEST_STATUS_KEY = "request_status"
         const val CONNECTION_ERROR_REASON_KEY = "connection_error_reason"
+        const val CONNECTION_LIKELY_REUSED_KEY = "connection_likely_reused"
+        const val ESTIMATED_CONNECTION_REUSE_RATE_KEY = "estimated_connection_reuse_rate"
+        const val ON_DEMAND_KEY = "on_demand"
+        const val DOWNLOADED_BYTES_KEY = "downloaded_bytes"
+        const val QUEUE_WAIT_TIME_MILLIS_KEY = "queue_wait_time_millis"
+        const val DOWNLOAD_TIME_MILLIS_KEY = "download_time_millis"
+        const val THROUGHPUT_BYTES_PER_SECOND_KEY = "throughput_bytes_per_second"
+        const val LANE_KEY = "lane"
+        const val QUEUE_DEPTH_KEY = "queue_depth"
+        const val MAX_QUEUE_WAIT_TIME_MILLIS_KEY = "max_queue_wait_time_millis"
+        const val MILLIS_PER_SECOND = 1000L
     }
 
     private val commonProperties = if (appConfig.store == Store.PLAY_STORE) {
@@ -96,6 +108,8 @@ internal class DiagnosticsTracker(
         verificationResult: VerificationResult,
         isRetry: Boolean,
         connectionErrorReason: ConnectionErrorReason?,
+        connectionLikelyReused: Boolean?,
+        estimatedConnectionReuseRate: Double,
     ) {
         val eTagHit = resultOrigin == HTTPResult.Origin.CACHE
         trackEvent(
@@ -111,18 +125,22 @@ internal class DiagnosticsTracker(
                 VERIFICATION_RESULT_KEY to verificationResult.name,
                 IS_RETRY to isRetry,
                 CONNECTION_ERROR_REASON_KEY to connectionErrorReason?.name,
+                CONNECTION_LIKELY_REUSED_KEY to connectionLikelyReused,
+                ESTIMATED_CONNECTION_REUSE_RATE_KEY to estimatedConnectionReuseRate,
             ).filterNotNullValues(),
         )
     }
 
     // region Google
 
+    @Suppress("LongParameterList")
     fun trackGoogleQueryProductDetailsRequest(
         requestedProductIds: Set<String>,
         productType: String,
         billingResponseCode: Int,
         billingDebugMessage: String,
         responseTime: Duration,
+        cacheHit: Boolean = false,
     ) {
         trackEvent(
             eventName = DiagnosticsEntryName.GOOGLE_QUERY_PRODUCT_DETAILS_REQUEST,
@@ -132,6 +150,7 @@ internal class DiagnosticsTracker(
                 BILLING_RESPONSE_CODE to billingResponseCode,
                 BILLING_DEBUG_MESSAGE to billingDebugMessage,
                 RESPONSE_TIME_MILLIS_KEY to responseTime.inWholeMilliseconds,
+                CACHE_HIT_KEY to cacheHit,
             ),
         )
     }
@@ -572,6 +591,49 @@ internal class DiagnosticsTracker(
 
     // endregion Purchase
 
+    // region Remote config
+
+    fun trackRemoteConfigBlobDownload(
+        successful: Boolean,
+        onDemand: Boolean,
+        downloadedBytes: Int,
+        queueWaitTime: Duration,
+        downloadTime: Duration,
+    ) {
+        val downloadTimeMillis = downloadTime.inWholeMilliseconds
+        trackEvent(
+            eventName = DiagnosticsEntryName.REMOTE_CONFIG_BLOB_DOWNLOAD,
+            properties = mapOf(
+                SUCCESSFUL_KEY to successful,
+                ON_DEMAND_KEY to onDemand,
+                DOWNLOADED_BYTES_KEY to downloadedBytes,
+                QUEUE_WAIT_TIME_MILLIS_KEY to queueWaitTime.inWholeMilliseconds,
+                DOWNLOAD_TIME_MILLIS_KEY to downloadTimeMillis,
+                THROUGHPUT_BYTES_PER_SECOND_KEY to downloadTimeMillis.takeIf { it > 0 }?.let {
+                    downloadedBytes * MILLIS_PER_SECOND / it
+                },
+            ).filterNotNullValues(),
+        )
+    }
+
+    // endregion Remote config
+
+    // region Dispatcher
+
+    fun trackDispatcherQueueWait(lane: String, queueStats: Dispatcher.QueueStats) {
+        trackEvent(
+            eventName = DiagnosticsEntryName.DISPATCHER_QUEUE_WAIT,
+            properties = mapOf(
+                LANE_KEY to lane,
+                QUEUE_DEPTH_KEY to queueStats.queueDepth,
+                QUEUE_WAIT_TIME_MILLIS_KEY to queueStats.lastWaitTime.inWholeMilliseconds,
+                MAX_QUEUE_WAIT_TIME_MILLIS_KEY to queueStats.maxWaitTime.inWholeMilliseconds,
+            ),
+        )
+    }
+
+    // endregion Dispatcher
+
     private fun trackEvent(eventName: DiagnosticsEntryName, properties: Map<String, Any>) {
         trackEvent(
             DiagnosticsEntry(
@@ -64,6 +64,10 @@ internal class EventsManager(
 
     companion object {
         private const val FLUSH_COUNT = 50
+
+        // Tracked events are written to the events file in batches of at most this many events, or whatever was
+        // tracked within Delay.GROUP_COMMIT of the first one, whichever comes first.
+        private const val GROUP_COMMIT_MAX_EVENTS = 20
         private const val MAX_FLUSH_BATCHES = 10
         private const val PAYWALL_EVENTS_FILE_PATH = "RevenueCat/paywall_event_store/paywall_event_store.jsonl"
         internal const val EVENTS_FILE_PATH_NEW = "RevenueCat/event_store/event_store.jsonl"
@@ -166,6 +170,11 @@ internal class EventsManager(
     @set:Synchronized
     private var legacyFlushTriggered = false
 
+    // Events tracked but not written to the events file yet, and whether a write for them is scheduled.
+    // Only accessed from within enqueued blocks, which all run on the events dispatcher.
+    private val pendingEvents = mutableListOf<BackendStoredEvent>()
+    private var pendingEventsCommitScheduled = false
+
     /**
      * Checks if the event file size exceeds the limit and clears oldest events if needed.
      */
@@ -181,7 +190,8 @@ internal class EventsManager(
     }
 
     /**
-     * Tracks an event and stores it in the event file for future syncing.
+     * Tracks an event and stores it in the event file for future syncing. Events are buffered and written in
+     * batches, see [GROUP_COMMIT_MAX_EVENTS].
      *
      * @param event The event to be tracked.
      */
@@ -234,8 +244,7 @@ internal class EventsManager(
             }
 
             if (backendEvent != null) {
-                checkFileSizeAndClearIfNeeded()
-                fileHelper.appendEvent(backendEvent)
+                addPendingEvent(backendEvent)
                 if (event.isPriorityEvent) {
                     performPriorityFlush()
                 }
@@ -246,11 +255,43 @@ internal class EventsManager(
     }
 
     /**
-     * Initiates flushing of stored events to the backend.
+     * Buffers [event] until the current batch is written to the event file.
+     *
+     * Must be called from within an enqueue block.
+     */
+    private fun addPendingEvent(event: BackendStoredEvent) {
+        pendingEvents.add(event)
+        if (pendingEvents.size >= GROUP_COMMIT_MAX_EVENTS) {
+            commitPendingEvents()
+        } else if (!pendingEventsCommitScheduled) {
+            pendingEventsCommitScheduled = true
+            enqueue(Delay.GROUP_COMMIT) { commitPendingEvents() }
+        }
+    }
+
+    /**
+     * Writes the buffered events to the event file with a single append.
+     *
+     * Must be called from within an enqueue block.
+     */
+    private fun commitPendingEvents() {
+        pendingEventsCommitScheduled = false
+        if (pendingEvents.isEmpty()) return
+        val events = pendingEvents.toList()
+        pendingEvents.clear()
+        checkFileSizeAndClearIfNeeded()
+        fileHelper.appendEvents(events)
+    }
+
+    /**
+     * Writes any buffered events to the event file and initiates flushing of stored events to the backend.
+     * This is the flush point used when the app is backgrounded, so buffered events aren't lost if the process
+     * is killed afterwards.
      */
     @Synchronized
     fun flushEvents(delay: Delay = Delay.DEFAULT) {
         enqueue {
+            commitPendingEvents()
             if (flushInProgress.getAndSet(true)) {
                 debugLog { "Flush already in progress." }
                 return@enqueue
@@ -282,6 +323,7 @@ internal class EventsManager(
         }
 
         val batchStartTimeMillis = System.currentTimeMillis()
+        commitPendingEvents()
         val storedEventsWithNullValues = getStoredEvents()
         val storedEvents = storedEventsWithNullValues.filterNotNull()
 
@@ -2,17 +2,18 @@ package com.revenuecat.purchases.common.networking
 
 import android.content.Context
 import com.revenuecat.purchases.InternalRevenueCatAPI
+import com.revenuecat.purchases.common.copyToByteArray
 import com.revenuecat.purchases.common.errorLog
 import com.revenuecat.purchases.models.Checksum
-import java.io.DataInputStream
 import java.io.File
-import java.io.FileInputStream
 import java.io.FileNotFoundException
 import java.io.FileOutputStream
 import java.io.IOException
 import java.io.OutputStream
+import java.io.RandomAccessFile
 import java.nio.ByteBuffer
 import java.nio.CharBuffer
+import java.nio.channels.FileChannel
 import java.nio.charset.CoderResult
 import java.nio.charset.CodingErrorAction
 import java.util.zip.CRC32
@@ -28,11 +29,16 @@ import java.util.zip.CheckedOutputStream
  * returns on [read] instead, so a file truncated by power loss, left stale by an interrupted rename,
  * or corrupted in place all read back as misses.
  *
- * A [read] costs ~2x the payload size in heap (`ByteArray` plus `String`), which is structural rather
- * than a tuning choice: [HTTPResult.Payload.Text] holds a `String`, so one has to exist.
+ * Reads map the file and verify the checksum over the mapped region before anything is copied onto
+ * the heap. A [read] still costs ~2x the payload size in heap (`ByteArray` plus `String`), which is
+ * structural rather than a tuning choice: [HTTPResult.Payload.Text] holds a `String`, so one has to
+ * exist.
  *
  * `null` reads are cache misses that self-heal via [ETagManager]'s refresh retry; the OS may purge
  * [Context.getCacheDir]. No eviction beyond overwrite and [clear], at parity with the prefs store.
+ *
+ * Also stores the offerings response for
+ * [com.revenuecat.purchases.common.offerings.OfferingsResponseStore], in its own directory.
  */
 @OptIn(InternalRevenueCatAPI::class)
 internal class ETagPayloadStore(
@@ -69,19 +75,26 @@ internal class ETagPayloadStore(
      * Returns the payload, or `null` for a miss: no file, or bytes not matching [expectedChecksum],
      * the value [write] returned. Required, not optional: a failing payload decodes to U+FFFD garbage.
      */
-    @Suppress("SwallowedException", "ReturnCount")
     fun read(urlString: String, expectedChecksum: Long): String? {
+        // Lenient decoding, which the checksum makes safe. CharsetDecoder.decode would allocate a
+        // payload-sized char[] on top of the bytes, OOMing on multi-MB responses.
+        return readMapped(urlString, expectedChecksum)?.let { String(it.copyToByteArray(), Charsets.UTF_8) }
+    }
+
+    /**
+     * Returns a read-only view of the payload file mapped into memory, or `null` for a miss (see
+     * [read]). The checksum runs over the mapped region, so a stale or corrupt file is rejected without
+     * copying it onto the heap.
+     */
+    @Suppress("SwallowedException", "ReturnCount")
+    private fun readMapped(urlString: String, expectedChecksum: Long): ByteBuffer? {
         return try {
-            FileInputStream(fileFor(urlString)).use { input ->
-                val sizeBytes = input.channel.size()
-                // Not an integrity check: ByteArray would throw past the IOException catch below.
+            RandomAccessFile(fileFor(urlString), "r").use { file ->
+                val sizeBytes = file.length()
+                // Not an integrity check: a mapping is limited to Int.MAX_VALUE bytes.
                 if (sizeBytes > Int.MAX_VALUE) return null
-                val bytes = ByteArray(sizeBytes.toInt())
-                DataInputStream(input).readFully(bytes)
-                if (crc32Of(bytes) != expectedChecksum) return null
-                // Lenient decoding, which the checksum above makes safe. CharsetDecoder.decode would
-                // allocate a payload-sized char[] on top of `bytes`, OOMing on multi-MB responses.
-                String(bytes, Charsets.UTF_8)
+                val mapped = file.channel.map(FileChannel.MapMode.READ_ONLY, 0, sizeBytes).asReadOnlyBuffer()
+                mapped.takeIf { crc32Of(it) == expectedChecksum }
             }
         } catch (e: FileNotFoundException) {
             // No payload for this URL: a plain cache miss, not an error.
@@ -112,7 +125,21 @@ internal class ETagPayloadStore(
         return File(directory, Checksum.generate(urlString.toByteArray(), Checksum.Algorithm.SHA256).value)
     }
 
-    private fun crc32Of(bytes: ByteArray): Long = CRC32().apply { update(bytes) }.value
+    /**
+     * CRC32 of [buffer]'s remaining bytes, read through a bounded chunk: `CRC32.update(ByteBuffer)`
+     * needs API 26, and copying the whole view would defeat the mapping.
+     */
+    private fun crc32Of(buffer: ByteBuffer): Long {
+        val checksum = CRC32()
+        val view = buffer.duplicate()
+        val chunk = ByteArray(minOf(READ_CHUNK_BYTES, view.remaining()))
+        while (view.hasRemaining()) {
+            val length = minOf(chunk.size, view.remaining())
+            view.get(chunk, 0, length)
+            checksum.update(chunk, 0, length)
+        }
+        return checksum.value
+    }
 
     /**
      * Streams [payload] to [rawOut] via a `char[]` chunk, returning the CRC32 of the bytes written:
@@ -169,5 +196,6 @@ internal class ETagPayloadStore(
         const val TRASH_SUFFIX = ".trash"
         const val CHUNK_CHARS = 64 * 1024
         const val WRITE_BUFFER_BYTES = 256 * 1024
+        const val READ_CHUNK_BYTES = 64 * 1024
     }
 }
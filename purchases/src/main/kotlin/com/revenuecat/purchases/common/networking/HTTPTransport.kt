@@ -0,0 +1,60 @@
+package com.revenuecat.purchases.common.networking
+
+import java.io.BufferedWriter
+import java.io.IOException
+import java.io.OutputStreamWriter
+import java.net.HttpURLConnection
+
+/**
+ * Opens and releases the connections [com.revenuecat.purchases.common.HTTPClient] performs its calls on.
+ */
+internal interface HTTPTransport {
+
+    /**
+     * A connection opened for a single request.
+     * @param isLikelyReused Whether the request is expected to run on a pooled connection that was kept alive from
+     * a previous request to the same host, instead of paying a fresh TCP and TLS handshake. This is an estimate:
+     * `HttpURLConnection` doesn't expose which socket it picked.
+     */
+    class Connection(
+        val urlConnection: HttpURLConnection,
+        val isLikelyReused: Boolean,
+    )
+
+    /**
+     * Opens a connection for [request] and writes its body, if any.
+     */
+    @Throws(IOException::class)
+    fun open(request: HTTPRequest, connectTimeoutMs: Long): Connection
+
+    /**
+     * Releases [connection] once the caller is done with it. When [responseFullyRead] is true, the response stream
+     * was read to the end and closed, so the underlying socket can go back to the pool for the next request.
+     */
+    fun release(connection: Connection, responseFullyRead: Boolean)
+
+    /**
+     * The estimated share of the requests opened so far that ran on a reused connection, between 0 and 1.
+     */
+    val estimatedConnectionReuseRate: Double
+}
+
+/**
+ * Applies the connect timeout and headers of [request] and writes its body, if any, turning the call into a POST.
+ */
+@Throws(IOException::class)
+internal fun HttpURLConnection.configure(request: HTTPRequest, connectTimeoutMs: Long) {
+    connectTimeout = connectTimeoutMs.toInt()
+    // We leave the read timeout to the default (readTimeout = 0), which means infinite.
+    request.headers.forEach { (key, value) ->
+        addRequestProperty(key, value)
+    }
+    request.body?.let { body ->
+        doOutput = true
+        requestMethod = "POST"
+        BufferedWriter(OutputStreamWriter(outputStream)).apply {
+            write(body.toString())
+            flush()
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.revenuecat.purchases.common.networking
+
+import com.revenuecat.purchases.InternalRevenueCatAPI
+import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.DefaultDateProvider
+import java.io.IOException
+import java.net.HttpURLConnection
+import java.net.URL
+
+/**
+ * Default [HTTPTransport]. Connections whose response was read to the end are not disconnected, so the platform's
+ * keep-alive pool can hand the same socket to the next request for that host instead of paying a new TCP and TLS
+ * handshake. HTTP/2 multiplexing is used whenever the platform's `HttpURLConnection` negotiates it.
+ *
+ * `HttpURLConnection` doesn't expose whether a pooled socket was picked, so this class mirrors the pool: it keeps
+ * the release times of the connections handed back per host and assumes one of them is picked up when a request
+ * to the same host opens within [keepAliveMs].
+ */
+@OptIn(InternalRevenueCatAPI::class)
+internal class PooledHTTPTransport(
+    private val dateProvider: DateProvider = DefaultDateProvider(),
+    private val keepAliveMs: Long = DEFAULT_KEEP_ALIVE_MS,
+    private val maxIdleConnectionsPerHost: Int = DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST,
+) : HTTPTransport {
+
+    companion object {
+        // Matches the default keep-alive duration of Android's HttpURLConnection pool.
+        const val DEFAULT_KEEP_ALIVE_MS = 300_000L // 5 minutes
+
+        // Matches the default `http.maxConnections` of HttpURLConnection.
+        const val DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST = 5
+
+        private const val CONNECTION_HEADER_NAME = "Connection"
+        private const val CONNECTION_CLOSE = "close"
+    }
+
+    // Release times of the idle connections kept alive per host, most recent last.
+    private val idleConnectionsByHost = mutableMapOf<String, ArrayDeque<Long>>()
+    private var openedConnectionCount = 0L
+    private var reusedConnectionCount = 0L
+
+    override val estimatedConnectionReuseRate: Double
+        @Synchronized get() = if (openedConnectionCount == 0L) {
+            0.0
+        } else {
+            reusedConnectionCount.toDouble() / openedConnectionCount
+        }
+
+    override fun open(request: HTTPRequest, connectTimeoutMs: Long): HTTPTransport.Connection {
+        val isLikelyReused = takeIdleConnection(request.fullURL.poolKey)
+        val urlConnection = request.fullURL.openConnection() as HttpURLConnection
+        try {
+            urlConnection.configure(request, connectTimeoutMs)
+        } catch (e: IOException) {
+            urlConnection.disconnect()
+            throw e
+        }
+        return HTTPTransport.Connection(urlConnection, isLikelyReused)
+    }
+
+    override fun release(connection: HTTPTransport.Connection, responseFullyRead: Boolean) {
+        val urlConnection = connection.urlConnection
+        // Only look at the headers of a connection that may be kept alive: one whose response wasn't read to the end
+        // is discarded anyway.
+        val keepAlive = responseFullyRead && urlConnection.getHeaderField(CONNECTION_HEADER_NAME)
+            ?.equals(CONNECTION_CLOSE, ignoreCase = true) != true
+        if (keepAlive) {
+            returnIdleConnection(urlConnection.url.poolKey)
+        } else {
+            urlConnection.disconnect()
+        }
+    }
+
+    @Synchronized
+    private fun takeIdleConnection(poolKey: String): Boolean {
+        openedConnectionCount++
+        val idleConnections = idleConnectionsByHost[poolKey] ?: return false
+        val oldestAlive = dateProvider.now.time - keepAliveMs
+        idleConnections.removeAll { it < oldestAlive }
+        val reused = idleConnections.removeLastOrNull() != null
+        if (idleConnections.isEmpty()) {
+            idleConnectionsByHost.remove(poolKey)
+        }
+        if (reused) {
+            reusedConnectionCount++
+        }
+        return reused
+    }
+
+    @Synchronized
+    private fun returnIdleConnection(poolKey: String) {
+        val idleConnections = idleConnectionsByHost.getOrPut(poolKey) { ArrayDeque() }
+        idleConnections.addLast(dateProvider.now.time)
+        while (idleConnections.size > maxIdleConnectionsPerHost) {
+            idleConnections.removeFirst()
+        }
+    }
+
+    private val URL.poolKey: String
+        get() = "$protocol://$host:${if (port == -1) defaultPort else port}"
+}
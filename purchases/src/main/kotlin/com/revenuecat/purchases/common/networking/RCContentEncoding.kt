@@ -1,7 +1,8 @@
 package com.revenuecat.purchases.common.networking
 
-import java.io.ByteArrayInputStream
+import com.revenuecat.purchases.common.asInputStream
 import java.io.IOException
+import java.io.OutputStream
 import java.nio.ByteBuffer
 import java.util.zip.GZIPInputStream
 
@@ -11,7 +12,7 @@ import java.util.zip.GZIPInputStream
  * The backend compresses each element body independently and stores the codec id in one of the element
  * header's reserved bytes. `element_size` is the **on-wire (compressed)** length, while the element checksum
  * always covers the **uncompressed** bytes, so a blob's content address (its ref) is stable across codec/level
- * changes: callers must [decode] before verifying the checksum or consuming the content.
+ * changes: callers must decode (see [decodeTo]) before verifying the checksum or consuming the content.
  *
  * Android intentionally supports only [NONE] and [GZIP] (no extra dependencies) and advertises this with an
  * `Accept-RC-Element-Encoding` request header so the server never selects a codec it cannot decode.
@@ -30,33 +31,55 @@ internal enum class RCContentEncoding(val id: Int) {
         fun fromId(id: Int): RCContentEncoding? = values().firstOrNull { it.id == id }
 
         /**
-         * The uncompressed bytes of [source] for the given [codecId], as a fresh [ByteArray] detached from
-         * [source]'s backing buffer. [NONE] copies the bytes out; [GZIP] inflates into a new array. Any other
-         * codec (including the known-but-unsupported [BROTLI]/[ZSTD]) or a corrupt gzip stream throws
-         * [RCContainerFormatException]; callers treat that as a verification/decode failure.
+         * Writes the uncompressed bytes of [source] for the given [codecId] to [output], in chunks of at most
+         * [CHUNK_SIZE] bytes, without materializing the element: [NONE] copies the view through, [GZIP] inflates
+         * it as it is read. [source] is read from its start and its position is left untouched. Any other codec
+         * (including the known-but-unsupported [BROTLI]/[ZSTD]) or a corrupt gzip stream throws
+         * [RCContainerFormatException]; callers treat that as a verification/decode failure. Failures writing to
+         * [output] propagate as-is.
          */
-        fun decode(source: ByteBuffer, codecId: Int): ByteArray = when (fromId(codecId)) {
-            NONE -> source.toByteArray()
-            GZIP -> gunzip(source)
-            BROTLI, ZSTD, null ->
-                throw RCContainerFormatException("Unsupported content encoding id $codecId.")
+        fun decodeTo(source: ByteBuffer, codecId: Int, output: OutputStream) {
+            when (fromId(codecId)) {
+                NONE -> copyTo(source, output)
+                GZIP -> gunzipTo(source, output)
+                BROTLI, ZSTD, null ->
+                    throw RCContainerFormatException("Unsupported content encoding id $codecId.")
+            }
+        }
+
+        private fun copyTo(source: ByteBuffer, output: OutputStream) {
+            val view = source.fromStart()
+            val chunk = ByteArray(minOf(CHUNK_SIZE, view.remaining()))
+            while (view.hasRemaining()) {
+                val length = minOf(chunk.size, view.remaining())
+                view.get(chunk, 0, length)
+                output.write(chunk, 0, length)
+            }
         }
 
-        private fun gunzip(source: ByteBuffer): ByteArray {
-            val compressed = source.toByteArray()
-            return try {
-                GZIPInputStream(ByteArrayInputStream(compressed)).use { it.readBytes() }
-            } catch (e: IOException) {
-                throw RCContainerFormatException("Failed to gzip-decode element.", e)
+        private fun gunzipTo(source: ByteBuffer, output: OutputStream) {
+            val chunk = ByteArray(CHUNK_SIZE)
+            // The input side reads from memory, so any IOException it raises means a corrupt stream; only writes
+            // to [output] can fail for other reasons, and those are kept outside the catch.
+            val input = inflating { GZIPInputStream(source.fromStart().asInputStream(), CHUNK_SIZE) }
+            input.use {
+                while (true) {
+                    val read = inflating { input.read(chunk) }
+                    if (read < 0) break
+                    output.write(chunk, 0, read)
+                }
             }
         }
 
-        /** Copies the remaining bytes of a duplicate, leaving [this]'s position untouched. */
-        private fun ByteBuffer.toByteArray(): ByteArray {
-            val view = duplicate().apply { rewind() }
-            val bytes = ByteArray(view.remaining())
-            view.get(bytes)
-            return bytes
+        private inline fun <T> inflating(block: () -> T): T = try {
+            block()
+        } catch (e: IOException) {
+            throw RCContainerFormatException("Failed to gzip-decode element.", e)
         }
+
+        /** A duplicate over the whole view, leaving [this]'s position untouched. */
+        private fun ByteBuffer.fromStart(): ByteBuffer = duplicate().apply { rewind() }
+
+        private const val CHUNK_SIZE = 8 * 1024
     }
 }
@@ -1,18 +1,22 @@
 package com.revenuecat.purchases.common.networking
 
 import android.util.Base64
+import java.io.ByteArrayOutputStream
+import java.io.OutputStream
 import java.nio.ByteBuffer
+import java.security.DigestOutputStream
 import java.security.MessageDigest
 
 /**
  * A single element within an [RCContainer].
  *
  * [data] is a zero-copy, read-only view over the container's backing buffer — the potentially large payload
- * is never copied during parsing. It holds the **on-wire** bytes, which may be compressed per [codec]; [decode]
- * yields the uncompressed content as a fresh [ByteArray] (detached from the backing buffer), hashing it against
- * [checksum] before returning. Decoding is therefore inseparable from verification: there is no way to obtain
- * decoded bytes that don't match the element's content address. [checksum] is the small (24-byte) content
- * address, copied out during parsing since it is always needed (as a ref and for verification).
+ * is never copied during parsing. It holds the **on-wire** bytes, which may be compressed per [codec]; [decodeTo]
+ * streams the uncompressed content to an [OutputStream], hashing it against [checksum] as it goes, and [decode]
+ * yields it as a fresh [ByteArray] (detached from the backing buffer). Decoding is therefore inseparable from
+ * verification: there is no way to obtain decoded bytes that don't match the element's content address, short
+ * of a stream that [decodeTo] reports as failed. [checksum] is the small (24-byte) content address, copied out
+ * during parsing since it is always needed (as a ref and for verification).
  */
 internal class RCElement(
     /** The stored SHA-256 of the **uncompressed** content, truncated to 192 bits (24 bytes). */
@@ -23,24 +27,34 @@ internal class RCElement(
     val codec: Int = RCContentEncoding.NONE.id,
 ) {
     /**
-     * The uncompressed, integrity-verified content as a fresh [ByteArray] detached from the backing buffer:
-     * decodes per [codec], then hashes the result against [checksum] before returning it, so decoded bytes
-     * always match the element's content address (and holding them doesn't pin the request buffer alive).
-     * Throws [RCContainerFormatException] for an unsupported codec, a corrupt stream, or a checksum mismatch.
+     * The uncompressed, integrity-verified content as a fresh [ByteArray] detached from the backing buffer, so
+     * holding it doesn't pin the request buffer alive. Prefer [decodeTo] when the content is headed for a
+     * stream, which never holds the whole element uncompressed. Throws [RCContainerFormatException] for an
+     * unsupported codec, a corrupt stream, or a checksum mismatch.
      */
     fun decode(): ByteArray {
-        val decoded = RCContentEncoding.decode(data, codec)
-        if (!matchesChecksum(decoded)) {
-            throw RCContainerFormatException("RC element checksum verification failed.")
-        }
-        return decoded
+        val output = ByteArrayOutputStream(data.remaining())
+        decodeTo(output)
+        return output.toByteArray()
     }
 
-    /** The verification step baked into [decode]: does [content] hash to the stored (truncated) [checksum]? */
-    private fun matchesChecksum(content: ByteArray): Boolean {
-        val computed = MessageDigest.getInstance(SHA_256_ALGORITHM).digest(content)
+    /**
+     * Streams the uncompressed content to [output] (decoding per [codec]), hashing it as it is written, and
+     * returns the number of bytes written. The content is only known to match [checksum] once this returns:
+     * on an unsupported codec, a corrupt stream, or a checksum mismatch it throws
+     * [RCContainerFormatException] after part of the content may already have been written, so [output] must be
+     * discarded then (as an atomic file write does when it is not finished). [java.io.IOException]s writing to
+     * [output] propagate as-is.
+     */
+    fun decodeTo(output: OutputStream): Long {
+        val digest = MessageDigest.getInstance(SHA_256_ALGORITHM)
+        val counting = CountingDigestOutputStream(output, digest)
+        RCContentEncoding.decodeTo(data, codec, counting)
         // [checksum] is the SHA-256 truncated to 192 bits, so compare against that many leading digest bytes.
-        return computed.copyOf(checksum.size).contentEquals(checksum)
+        if (!digest.digest().copyOf(checksum.size).contentEquals(checksum)) {
+            throw RCContainerFormatException("RC element checksum verification failed.")
+        }
+        return counting.count
     }
 
     /**
@@ -50,6 +64,25 @@ internal class RCElement(
     fun checksumBase64(): String =
         Base64.encodeToString(checksum, Base64.URL_SAFE or Base64.NO_PADDING or Base64.NO_WRAP)
 
+    /** Hashes what passes through to [output] and counts it, without buffering. */
+    private class CountingDigestOutputStream(
+        output: OutputStream,
+        digest: MessageDigest,
+    ) : DigestOutputStream(output, digest) {
+        var count = 0L
+            private set
+
+        override fun write(b: Int) {
+            super.write(b)
+            count++
+        }
+
+        override fun write(b: ByteArray, off: Int, len: Int) {
+            super.write(b, off, len)
+            count += len
+        }
+    }
+
     private companion object {
         private const val SHA_256_ALGORITHM = "SHA-256"
     }
@@ -5,14 +5,13 @@ import com.revenuecat.purchases.Offerings
 import com.revenuecat.purchases.common.DateProvider
 import com.revenuecat.purchases.common.DefaultDateProvider
 import com.revenuecat.purchases.common.LocaleProvider
-import com.revenuecat.purchases.common.caching.DeviceCache
 import com.revenuecat.purchases.common.caching.InMemoryCachedObject
 import com.revenuecat.purchases.common.caching.isCacheStale
 import org.json.JSONObject
 
 @OptIn(InternalRevenueCatAPI::class)
 internal class OfferingsCache(
-    private val deviceCache: DeviceCache,
+    private val responseStore: OfferingsResponseStore,
     private val dateProvider: DateProvider = DefaultDateProvider(),
     private val offeringsCachedObject: InMemoryCachedObject<Offerings> = InMemoryCachedObject(
         dateProvider = dateProvider,
@@ -24,7 +23,7 @@ internal class OfferingsCache(
     @Synchronized
     fun clearCache() {
         offeringsCachedObject.clearCache()
-        deviceCache.clearOfferingsResponseCache()
+        responseStore.clear()
         cachedLanguageTags = null
     }
 
@@ -35,7 +34,7 @@ internal class OfferingsCache(
     @Synchronized
     fun cacheOfferings(offerings: Offerings, responsePayload: String?) {
         offeringsCachedObject.cacheInstance(offerings)
-        responsePayload?.let { deviceCache.cacheOfferingsResponse(it) }
+        responsePayload?.let { responseStore.write(it) }
         offeringsCachedObject.updateCacheTimestamp(dateProvider.now)
         cachedLanguageTags = String(localeProvider.currentLocalesLanguageTags.toCharArray())
     }
@@ -71,7 +70,7 @@ internal class OfferingsCache(
 
     val cachedOfferingsResponse: JSONObject?
         @Synchronized
-        get() = deviceCache.getOfferingsResponseCache()
+        get() = responseStore.read()
 
     // endregion Offerings response cache
 }
@@ -11,6 +11,7 @@ import com.revenuecat.purchases.common.Dispatcher
 import com.revenuecat.purchases.common.HTTPResponseOriginalSource
 import com.revenuecat.purchases.common.LogIntent
 import com.revenuecat.purchases.common.OfferingParser
+import com.revenuecat.purchases.common.caching.StoreProductCache
 import com.revenuecat.purchases.common.log
 import com.revenuecat.purchases.common.verboseLog
 import com.revenuecat.purchases.models.StoreProduct
@@ -21,10 +22,11 @@ import org.json.JSONObject
 
 @OptIn(InternalRevenueCatAPI::class)
 internal class OfferingsFactory(
-    private val billing: BillingAbstract,
+    billing: BillingAbstract,
     private val offeringParser: OfferingParser,
     private val dispatcher: Dispatcher,
     private val appConfig: AppConfig,
+    private val storeProductCache: StoreProductCache = StoreProductCache(billing, diagnosticsTrackerIfEnabled = null),
 ) {
 
     @SuppressWarnings("TooGenericExceptionCaught", "LongMethod")
@@ -147,34 +149,20 @@ internal class OfferingsFactory(
         onCompleted: (Map<String, List<StoreProduct>>) -> Unit,
         onError: (PurchasesError) -> Unit,
     ) {
-        billing.queryProductDetailsAsync(
-            productType = ProductType.SUBS,
+        storeProductCache.queryProductDetailsOfTypesAsync(
+            productTypes = setOf(ProductType.SUBS, ProductType.INAPP),
             productIds = productIds,
-            onReceive = { subscriptionProducts ->
+            onReceive = { productsByType ->
                 dispatcher.enqueue(command = {
-                    val productsById = subscriptionProducts
+                    val productsById = productsByType[ProductType.SUBS].orEmpty()
                         .groupBy { subProduct -> subProduct.purchasingData.productId }
                         .toMutableMap()
-                    val subscriptionIds = productsById.keys
+                    val subscriptionIds = productsById.keys.toSet()
 
-                    val inAppProductIds = productIds - subscriptionIds
-                    if (inAppProductIds.isNotEmpty()) {
-                        billing.queryProductDetailsAsync(
-                            productType = ProductType.INAPP,
-                            productIds = inAppProductIds,
-                            onReceive = { inAppProducts ->
-                                dispatcher.enqueue(command = {
-                                    productsById.putAll(inAppProducts.map { it.purchasingData.productId to listOf(it) })
-                                    onCompleted(productsById)
-                                })
-                            },
-                            onError = {
-                                onError(it)
-                            },
-                        )
-                    } else {
-                        onCompleted(productsById)
-                    }
+                    val inAppProducts = productsByType[ProductType.INAPP].orEmpty()
+                        .filterNot { it.purchasingData.productId in subscriptionIds }
+                    productsById.putAll(inAppProducts.map { it.purchasingData.productId to listOf(it) })
+                    onCompleted(productsById)
                 })
             },
             onError = {
@@ -0,0 +1,92 @@
+package com.revenuecat.purchases.common.offerings
+
+import android.content.Context
+import com.revenuecat.purchases.InternalRevenueCatAPI
+import com.revenuecat.purchases.common.Dispatcher
+import com.revenuecat.purchases.common.caching.DeviceCache
+import com.revenuecat.purchases.common.debugLog
+import com.revenuecat.purchases.common.networking.ETagPayloadStore
+import com.revenuecat.purchases.common.verboseLog
+import org.json.JSONException
+import org.json.JSONObject
+import java.io.File
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Disk cache of the last `/offerings` response, used as a fallback when fetching offerings fails.
+ *
+ * The response can be several MB with paywall components, so it's kept in its own file through an
+ * [ETagPayloadStore] (streamed write, atomic rename) instead of SharedPreferences, where it was loaded into memory
+ * with every other preference and rewritten on every unrelated `apply()`. Only its CRC32 is kept in [DeviceCache],
+ * and a payload that doesn't match it reads back as a miss.
+ *
+ * Responses cached by previous versions in SharedPreferences are moved to the file on the next write or read.
+ */
+@OptIn(InternalRevenueCatAPI::class)
+internal class OfferingsResponseStore(
+    private val deviceCache: DeviceCache,
+    private val payloadStore: ETagPayloadStore,
+    private val dispatcher: Dispatcher,
+) {
+    constructor(context: Context, deviceCache: DeviceCache, dispatcher: Dispatcher) : this(
+        deviceCache,
+        ETagPayloadStore(File(File(context.noBackupFilesDir, VENDOR_DIRECTORY), DIRECTORY_NAME)),
+        dispatcher,
+    )
+
+    private val payloadKey = deviceCache.newKey(PAYLOAD_KEY)
+
+    // Bumped by clear() so writes enqueued before it don't bring the cleared response back.
+    private val generation = AtomicInteger(0)
+
+    /**
+     * Writes [payload] in the background, like the SharedPreferences `apply()` it replaces.
+     */
+    fun write(payload: String) {
+        val writeGeneration = generation.get()
+        dispatcher.enqueue({ writeNow(payload, writeGeneration) })
+    }
+
+    fun read(): JSONObject? {
+        val payload = readPayload() ?: migrateLegacyResponse()
+        return try {
+            payload?.let { JSONObject(it) }
+        } catch (e: JSONException) {
+            debugLog { "Cached offerings response is not valid JSON: $e" }
+            null
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        generation.incrementAndGet()
+        payloadStore.clear()
+        deviceCache.clearOfferingsResponseCache()
+    }
+
+    private fun readPayload(): String? {
+        return deviceCache.getOfferingsResponseChecksum()?.let { payloadStore.read(payloadKey, it) }
+    }
+
+    private fun migrateLegacyResponse(): String? {
+        return deviceCache.getLegacyOfferingsResponse()?.also { legacyPayload ->
+            verboseLog { "Moving offerings response cached in SharedPreferences to disk." }
+            writeNow(legacyPayload, generation.get())
+        }
+    }
+
+    @Synchronized
+    private fun writeNow(payload: String, writeGeneration: Int) {
+        if (writeGeneration != generation.get()) return
+        // On failure the previous file and checksum are left in place, so the previous response stays readable.
+        payloadStore.write(payloadKey, payload)?.let { checksum ->
+            deviceCache.cacheOfferingsResponseChecksum(checksum)
+        }
+    }
+
+    private companion object {
+        const val VENDOR_DIRECTORY = "RevenueCat"
+        const val DIRECTORY_NAME = "offerings_response"
+        const val PAYLOAD_KEY = "offeringsResponse"
+    }
+}
@@ -1,18 +1,23 @@
 package com.revenuecat.purchases.common.offlineentitlements
 
+import android.net.Uri
 import com.google.gson.internal.bind.util.ISO8601Utils
 import com.revenuecat.purchases.CustomerInfo
 import com.revenuecat.purchases.CustomerInfoOriginalSource
+import com.revenuecat.purchases.EntitlementInfo
+import com.revenuecat.purchases.EntitlementInfos
 import com.revenuecat.purchases.InternalRevenueCatAPI
+import com.revenuecat.purchases.OwnershipType
 import com.revenuecat.purchases.PeriodType
 import com.revenuecat.purchases.ProductType
 import com.revenuecat.purchases.PurchasesError
 import com.revenuecat.purchases.PurchasesErrorCode
 import com.revenuecat.purchases.VerificationResult
 import com.revenuecat.purchases.common.AppConfig
-import com.revenuecat.purchases.common.CustomerInfoFactory
+import com.revenuecat.purchases.common.Constants
 import com.revenuecat.purchases.common.DateProvider
 import com.revenuecat.purchases.common.DefaultDateProvider
+import com.revenuecat.purchases.common.caching.CUSTOMER_INFO_SCHEMA_VERSION
 import com.revenuecat.purchases.common.diagnostics.DiagnosticsTracker
 import com.revenuecat.purchases.common.errorLog
 import com.revenuecat.purchases.common.responses.CustomerInfoResponseJsonKeys
@@ -20,7 +25,10 @@ import com.revenuecat.purchases.common.responses.EntitlementsResponseJsonKeys
 import com.revenuecat.purchases.common.responses.ProductResponseJsonKeys
 import com.revenuecat.purchases.strings.CustomerInfoStrings.COMPUTING_OFFLINE_CUSTOMER_INFO_FAILED
 import com.revenuecat.purchases.strings.OfflineEntitlementsStrings
+import com.revenuecat.purchases.utils.DateHelper
+import com.revenuecat.purchases.utils.EntitlementInfoHelper
 import com.revenuecat.purchases.utils.Iso8601Utils
+import com.revenuecat.purchases.utils.LazyJSONObject
 import org.json.JSONObject
 import java.util.Date
 
@@ -71,12 +79,54 @@ internal class OfflineCustomerInfoCalculator(
         )
     }
 
+    /**
+     * Builds the customer info directly from [purchasedProducts]. Its raw data, the JSON the backend would return for
+     * it, is only built if it's accessed.
+     */
     private fun buildCustomerInfoUsingListOfPurchases(
         appUserID: String,
         purchasedProducts: List<PurchasedProduct>,
     ): CustomerInfo {
-        val jsonObject = JSONObject()
         val requestDate = dateProvider.now
+        val entitlementInfos = EntitlementInfos(
+            buildEntitlementInfos(purchasedProducts, requestDate),
+            VerificationResult.VERIFIED_ON_DEVICE,
+        )
+        val expirationDatesByProduct = HashMap<String, Date?>()
+        val purchaseDatesByProduct = HashMap<String, Date?>()
+        purchasedProducts.forEach { product ->
+            val productKey = product.basePlanId?.takeIf { it.isNotEmpty() }
+                ?.let { "${product.productIdentifier}${Constants.SUBS_ID_BASE_PLAN_ID_SEPARATOR}$it" }
+                ?: product.productIdentifier
+            expirationDatesByProduct[productKey] = product.expiresDate
+            purchaseDatesByProduct[productKey] = Date(product.storeTransaction.purchaseTime)
+        }
+
+        return CustomerInfo(
+            entitlements = entitlementInfos,
+            allExpirationDatesByProduct = expirationDatesByProduct,
+            allPurchaseDatesByProduct = purchaseDatesByProduct,
+            requestDate = requestDate,
+            schemaVersion = CUSTOMER_INFO_SCHEMA_VERSION,
+            firstSeen = requestDate,
+            originalAppUserId = appUserID,
+            managementURL = appConfig.store.managementUrl?.let { Uri.parse(it) },
+            originalPurchaseDate = calculateOriginalPurchaseDate(purchasedProducts)?.let { Iso8601Utils.parse(it) },
+            lazyJsonObject = LazyJSONObject {
+                buildCustomerInfoJSON(appUserID, purchasedProducts, entitlementInfos, requestDate)
+            },
+            originalSource = CustomerInfoOriginalSource.OFFLINE_ENTITLEMENTS,
+            loadedFromCache = false,
+        )
+    }
+
+    private fun buildCustomerInfoJSON(
+        appUserID: String,
+        purchasedProducts: List<PurchasedProduct>,
+        entitlementInfos: EntitlementInfos,
+        requestDate: Date,
+    ): JSONObject {
+        val jsonObject = JSONObject()
         jsonObject.apply {
             val formattedDate = Iso8601Utils.format(requestDate)
             put(CustomerInfoResponseJsonKeys.REQUEST_DATE, formattedDate)
@@ -86,7 +136,10 @@ internal class OfflineCustomerInfoCalculator(
                 JSONObject().apply {
                     put(CustomerInfoResponseJsonKeys.ORIGINAL_APP_USER_ID, appUserID)
                     put(CustomerInfoResponseJsonKeys.ORIGINAL_APPLICATION_VERSION, "1.0")
-                    put(CustomerInfoResponseJsonKeys.ENTITLEMENTS, generateEntitlementsResponse(purchasedProducts))
+                    put(
+                        CustomerInfoResponseJsonKeys.ENTITLEMENTS,
+                        JSONObject(entitlementInfos.all.mapValues { (_, entitlementInfo) -> entitlementInfo.rawData }),
+                    )
                     put(CustomerInfoResponseJsonKeys.FIRST_SEEN, formattedDate)
                     val originalPurchaseDate = calculateOriginalPurchaseDate(purchasedProducts)
                     put(CustomerInfoResponseJsonKeys.ORIGINAL_PURCHASE_DATE, originalPurchaseDate)
@@ -96,14 +149,7 @@ internal class OfflineCustomerInfoCalculator(
                 },
             )
         }
-
-        return CustomerInfoFactory.buildCustomerInfo(
-            jsonObject,
-            requestDate,
-            VerificationResult.VERIFIED_ON_DEVICE,
-            CustomerInfoOriginalSource.OFFLINE_ENTITLEMENTS,
-            loadedFromCache = false,
-        )
+        return jsonObject
     }
 
     private fun determineManagementURL(): Any = appConfig.store.managementUrl ?: JSONObject.NULL
@@ -146,7 +192,10 @@ internal class OfflineCustomerInfoCalculator(
         return subscriptions
     }
 
-    private fun generateEntitlementsResponse(purchasedProducts: List<PurchasedProduct>): JSONObject {
+    private fun buildEntitlementInfos(
+        purchasedProducts: List<PurchasedProduct>,
+        requestDate: Date,
+    ): Map<String, EntitlementInfo> {
         val mapOfEntitlementsToProducts: Map<String, PurchasedProduct> = purchasedProducts
             // transform into a list of pairs of entitlement to product
             .flatMap { product -> product.entitlements.map { it to product } }
@@ -157,20 +206,40 @@ internal class OfflineCustomerInfoCalculator(
                 products.maxByOrNull { it.expiresDate?.time ?: Long.MAX_VALUE } ?: products.first()
             }
 
-        val entitlements = JSONObject()
-
-        mapOfEntitlementsToProducts.forEach { (entitlement, product) ->
+        return mapOfEntitlementsToProducts.mapValues { (entitlement, product) ->
+            val purchaseDate = Date(product.storeTransaction.purchaseTime)
             val entitlementDetails = JSONObject().apply {
                 put(EntitlementsResponseJsonKeys.EXPIRES_DATE, product.expiresDate?.let { Iso8601Utils.format(it) })
                 put(EntitlementsResponseJsonKeys.PRODUCT_IDENTIFIER, product.productIdentifier)
-                val purchaseDate = Date(product.storeTransaction.purchaseTime)
                 put(EntitlementsResponseJsonKeys.PURCHASE_DATE, Iso8601Utils.format(purchaseDate))
                 product.basePlanId?.let {
                     put(EntitlementsResponseJsonKeys.PRODUCT_PLAN_IDENTIFIER, it)
                 }
             }
-            entitlements.put(entitlement, entitlementDetails)
+            EntitlementInfo(
+                identifier = entitlement,
+                isActive = DateHelper.isDateActive(product.expiresDate, requestDate).isActive,
+                willRenew = EntitlementInfoHelper.getWillRenew(
+                    store = appConfig.store,
+                    expirationDate = product.expiresDate,
+                    unsubscribeDetectedAt = null,
+                    billingIssueDetectedAt = null,
+                    periodType = PeriodType.NORMAL,
+                ),
+                periodType = PeriodType.NORMAL,
+                latestPurchaseDate = purchaseDate,
+                originalPurchaseDate = purchaseDate,
+                expirationDate = product.expiresDate,
+                store = appConfig.store,
+                productIdentifier = product.productIdentifier,
+                productPlanIdentifier = product.basePlanId,
+                isSandbox = false,
+                unsubscribeDetectedAt = null,
+                billingIssueDetectedAt = null,
+                ownershipType = OwnershipType.UNKNOWN,
+                jsonObject = entitlementDetails,
+                verification = VerificationResult.VERIFIED_ON_DEVICE,
+            )
         }
-        return entitlements
     }
 }
@@ -0,0 +1,87 @@
+package com.revenuecat.purchases.common.remoteconfig
+
+import kotlin.reflect.KType
+
+/**
+ * Bounded in-memory cache of values decoded from remote-config blobs, keyed by blob ref and the type the blob was
+ * decoded into, so reading the same blob again skips the JSON decoding.
+ *
+ * Refs are content addresses (see [RemoteConfigUtils.contentAddressRef]): a ref's bytes never change, so a value
+ * decoded from them stays valid for as long as the ref is wanted, and can be shared between callers as long as
+ * decoded values are treated as immutable. Entries are dropped together with their blob: [retainOnly] mirrors
+ * [RemoteConfigBlobStore.retainOnly], and [clear] mirrors [RemoteConfigBlobStore.clear].
+ *
+ * Entries are weighted by the encoded size of their blob, as a proxy for the decoded size. The cache holds at most
+ * [maxWeightBytes] in total, evicting the least recently used entries; a single blob heavier than that is never
+ * cached. [toString] reports the hit and miss counts along with the cache's size, and is logged on every committed
+ * config.
+ */
+internal class DecodedBlobCache(private val maxWeightBytes: Long = DEFAULT_MAX_WEIGHT_BYTES) {
+
+    private data class Key(val ref: String, val type: KType)
+
+    private class Entry(val value: Any, val weightBytes: Long)
+
+    private val entries = LinkedHashMap<Key, Entry>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+    private var totalWeightBytes = 0L
+
+    /** Lookups that returned a cached value. */
+    var hitCount: Long = 0L
+        @Synchronized get
+        private set
+
+    /** Lookups that found nothing cached, so the caller decoded the blob. */
+    var missCount: Long = 0L
+        @Synchronized get
+        private set
+
+    /** The value decoded from [ref] into [type], or `null` (counted as a miss) when it isn't cached. */
+    @Synchronized
+    fun get(ref: String, type: KType): Any? {
+        val value = entries[Key(ref, type)]?.value
+        if (value != null) hitCount++ else missCount++
+        return value
+    }
+
+    /** Caches [value], decoded into [type] from the [weightBytes]-long blob [ref]. */
+    @Synchronized
+    fun put(ref: String, type: KType, value: Any, weightBytes: Long) {
+        if (weightBytes > maxWeightBytes) return
+        entries.put(Key(ref, type), Entry(value, weightBytes))?.let { totalWeightBytes -= it.weightBytes }
+        totalWeightBytes += weightBytes
+        val iterator = entries.values.iterator()
+        while (totalWeightBytes > maxWeightBytes && iterator.hasNext()) {
+            totalWeightBytes -= iterator.next().weightBytes
+            iterator.remove()
+        }
+    }
+
+    /** Drops every value decoded from a ref not in [refs]. */
+    @Synchronized
+    fun retainOnly(refs: Set<String>) {
+        val iterator = entries.entries.iterator()
+        while (iterator.hasNext()) {
+            val (key, entry) = iterator.next()
+            if (key.ref !in refs) {
+                totalWeightBytes -= entry.weightBytes
+                iterator.remove()
+            }
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+        totalWeightBytes = 0L
+    }
+
+    @Synchronized
+    override fun toString(): String = "DecodedBlobCache(hits=$hitCount, misses=$missCount, entries=${entries.size}, " +
+        "weightBytes=$totalWeightBytes)"
+
+    private companion object {
+        const val DEFAULT_MAX_WEIGHT_BYTES = 4L * 1024 * 1024
+        const val INITIAL_CAPACITY = 16
+        const val LOAD_FACTOR = 0.75f
+    }
+}
@@ -1,5 +1,9 @@
 package com.revenuecat.purchases.common.remoteconfig
 
+import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.DefaultDateProvider
+import com.revenuecat.purchases.common.between
+import com.revenuecat.purchases.common.diagnostics.DiagnosticsTracker
 import com.revenuecat.purchases.common.errorLog
 import com.revenuecat.purchases.common.networking.HTTPTimeoutManager
 import com.revenuecat.purchases.common.remoteconfig.RemoteConfigSourceHandle.Purpose
@@ -16,12 +20,16 @@ import kotlinx.coroutines.awaitAll
 import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
 import java.io.IOException
 import java.net.HttpURLConnection
 import java.net.MalformedURLException
 import java.net.SocketTimeoutException
 import java.net.URL
+import java.util.Date
 import java.util.PriorityQueue
+import kotlin.time.Duration
 
 /** The placeholder a blob source URL template carries; substituted with the blob ref before download. */
 private const val BLOB_REF_PLACEHOLDER = "{blob_ref}"
@@ -31,11 +39,15 @@ private const val BLOB_REF_PLACEHOLDER = "{blob_ref}"
  * inline blobs use ([RemoteConfigBlobStore]). It is the single primitive behind both background prefetch and
  * on-demand reads:
  *
- * - **Bounded concurrency**: a fixed pool of [MAX_CONCURRENT_DOWNLOADS] worker coroutines downloads at most that
- *   many blobs at once — the worker count *is* the cap (no semaphore needed).
+ * - **Bounded concurrency**: a pool of `maxConcurrentDownloads` worker coroutines downloads at most that many
+ *   blobs at once — the worker count *is* the overall cap. Each attempt also holds one of its host's
+ *   `maxConcurrentDownloadsPerHost` permits. Permits are taken per attempt, not per blob, so a download that fails
+ *   over to the next [RemoteConfigSourceProvider] source releases the unhealthy host and counts against the new one.
  * - **Priority**: workers drain a priority queue, so an on-demand [ensureDownloaded] (HIGH) is served ahead of any
  *   backlog of [prefetch] (LOW) work. An on-demand request for a ref still queued as a prefetch **raises** its
- *   priority so it is picked next rather than stranded behind the backlog.
+ *   priority so it is picked next rather than stranded behind the backlog. Prefetches never take the last free
+ *   worker, nor the last permit of a host, so an on-demand download starts right away instead of waiting for a
+ *   prefetch to finish.
  * - **Dedupe**: a ref already queued or in flight is joined, not downloaded twice; every joiner gets the same
  *   result. A foreground prefetch and an explicit read of the same blob share one download.
  * - **Failure tolerant**: nothing thrown to callers; a failed or un-verifiable blob just yields `false` (it is
@@ -44,14 +56,21 @@ private const val BLOB_REF_PLACEHOLDER = "{blob_ref}"
  * Each download is verified against its ref (truncated SHA-256, URL-safe base64 — see
  * [RemoteConfigUtils.contentAddressRef], matching `RCElement.checksumBase64`) before it is stored, so a tampered
  * or corrupt payload is never cached.
+ *
+ * Every finished download is reported to diagnostics with its time spent queued and downloading and its size, so
+ * the pool's throughput can be followed.
  */
-@Suppress("TooManyFunctions")
+@Suppress("TooManyFunctions", "LongParameterList")
 internal class RemoteConfigBlobFetcher(
     private val blobStore: RemoteConfigBlobStore,
     private val sourceProvider: RemoteConfigSourceProvider,
     private val timeoutManager: HTTPTimeoutManager,
     private val urlConnectionFactory: UrlConnectionFactory = DefaultUrlConnectionFactory(),
     private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO),
+    private val diagnosticsTracker: DiagnosticsTracker? = null,
+    private val dateProvider: DateProvider = DefaultDateProvider(),
+    private val maxConcurrentDownloads: Int = DEFAULT_MAX_CONCURRENT_DOWNLOADS,
+    private val maxConcurrentDownloadsPerHost: Int = DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_HOST,
 ) {
     /** Scheduling priority. Natural (ordinal) order is used by the queue, so HIGH must sort after LOW. */
     private enum class Priority { LOW, HIGH }
@@ -60,9 +79,19 @@ internal class RemoteConfigBlobFetcher(
         val ref: String,
         var priority: Priority,
         var seq: Long,
+        val enqueuedAt: Date,
         val awaiters: MutableList<CompletableDeferred<Boolean>> = mutableListOf(),
     )
 
+    /**
+     * A host's download permits: every attempt holds one of [all], and a prefetch first holds one of [low], which
+     * has one permit fewer (but at least one), so a prefetch backlog leaves a permit for an on-demand download.
+     */
+    private class HostPermits(maxConcurrentDownloads: Int) {
+        val all = Semaphore(maxConcurrentDownloads)
+        val low = Semaphore((maxConcurrentDownloads - 1).coerceAtLeast(1))
+    }
+
     private val lock = Any()
 
     /** Every ref that is queued or in flight, for dedupe/boost. Kept until the download completes. */
@@ -71,6 +100,13 @@ internal class RemoteConfigBlobFetcher(
     /** Refs a worker is currently downloading (a raise can no longer reorder these). */
     private val inFlight = HashSet<String>()
 
+    /** In-flight LOW downloads; capped below the worker count so a worker is always left for HIGH work. */
+    private var lowInFlight = 0
+    private val maxLowInFlight = (maxConcurrentDownloads - 1).coerceAtLeast(1)
+
+    /** Permits per blob host (`null` for a URL whose host can't be resolved), created on first use. */
+    private val hostPermits = HashMap<String?, HostPermits>()
+
     /** Queued, not-yet-claimed downloads, ordered by priority (HIGH first) then enqueue order (FIFO). */
     // The (initialCapacity, comparator) constructor is API 1; the comparator-only overload is API 24+.
     private val queue = PriorityQueue<PendingDownload>(
@@ -80,11 +116,14 @@ internal class RemoteConfigBlobFetcher(
 
     private var seqCounter = 0L
 
-    /** One token per queued item; idle workers suspend on it (no thread held) until work arrives. */
+    /**
+     * One token per queued item, plus one per completion that leaves work queued (a prefetch skipped while the LOW
+     * cap was reached is picked up then). Idle workers suspend on it (no thread held) until work arrives.
+     */
     private val signal = Channel<Unit>(Channel.UNLIMITED)
 
     init {
-        repeat(MAX_CONCURRENT_DOWNLOADS) { scope.launch { runWorker() } }
+        repeat(maxConcurrentDownloads) { scope.launch { runWorker() } }
     }
 
     /**
@@ -144,7 +183,7 @@ internal class RemoteConfigBlobFetcher(
             }
             return deferred
         }
-        val download = PendingDownload(ref, priority, seqCounter++).apply { awaiters.add(deferred) }
+        val download = PendingDownload(ref, priority, seqCounter++, dateProvider.now).apply { awaiters.add(deferred) }
         pending[ref] = download
         queue.offer(download)
         signal.trySend(Unit)
@@ -155,51 +194,82 @@ internal class RemoteConfigBlobFetcher(
         while (true) {
             signal.receive()
             val download = claimNext() ?: continue
+            // Another worker (or a just-completed prefetch) may have cached it between scheduling and now. Nothing is
+            // downloaded then, so nothing is tracked either.
+            if (blobStore.contains(download.ref)) {
+                complete(download, true)
+                continue
+            }
+            val startedAt = dateProvider.now
             // A stray Throwable (e.g. OOM from readBytes(), or a bug) must not strand awaiters on an unresolved
             // deferred nor silently kill this worker; log it (so it surfaces) and fail the blob as recoverable.
-            val result = try {
-                downloadAndStore(download.ref)
+            val downloadedBytes = try {
+                downloadAndStore(download.ref, download.priority)
             } catch (@Suppress("TooGenericExceptionCaught") e: Throwable) {
                 errorLog(e) { "Unexpected failure downloading remote config blob '${download.ref}'." }
-                false
+                null
             }
             // The store is shared: a concurrent writer (e.g. inline extraction during a config sync) may have cached
             // the ref while our download failed. Report the truthful "is it cached now?" so a benign race isn't a
             // false negative. Short-circuits on success, so the extra stat only happens on the failure path.
-            complete(download, result || blobStore.contains(download.ref))
+            complete(download, downloadedBytes != null || blobStore.contains(download.ref))
+            trackDownload(download, downloadedBytes, startedAt)
         }
     }
 
+    /**
+     * The next download to start, or `null` when the queue is empty or only holds prefetches while the LOW cap is
+     * reached (HIGH sorts first, so a LOW head means nothing HIGH is queued).
+     */
     private fun claimNext(): PendingDownload? = synchronized(lock) {
-        queue.poll()?.also { inFlight.add(it.ref) }
+        val next = queue.peek()
+        if (next == null || next.priority == Priority.LOW && lowInFlight >= maxLowInFlight) {
+            null
+        } else {
+            queue.poll()
+            inFlight.add(next.ref)
+            if (next.priority == Priority.LOW) lowInFlight++
+            next
+        }
     }
 
     private fun complete(download: PendingDownload, result: Boolean) {
         val awaiters = synchronized(lock) {
             pending.remove(download.ref)
             inFlight.remove(download.ref)
+            if (download.priority == Priority.LOW) lowInFlight--
+            if (queue.isNotEmpty()) signal.trySend(Unit)
             download.awaiters.toList()
         }
         awaiters.forEach { it.complete(result) }
     }
 
-    private fun downloadAndStore(ref: String): Boolean {
-        // Another worker (or a just-completed prefetch) may have cached it between scheduling and now.
-        if (blobStore.contains(ref)) return true
+    private fun trackDownload(download: PendingDownload, downloadedBytes: Int?, startedAt: Date) {
+        diagnosticsTracker?.trackRemoteConfigBlobDownload(
+            successful = downloadedBytes != null,
+            onDemand = download.priority == Priority.HIGH,
+            downloadedBytes = downloadedBytes ?: 0,
+            queueWaitTime = Duration.between(download.enqueuedAt, startedAt),
+            downloadTime = Duration.between(startedAt, dateProvider.now),
+        )
+    }
 
-        // Each SOURCE_UNHEALTHY failure falls over to the next source; once the provider has none left
+    /**
+     * Downloads, verifies and stores [ref], returning the number of bytes downloaded, or `null` when it failed.
+     */
+    private suspend fun downloadAndStore(ref: String, priority: Priority): Int? {
+        // Each SourceUnhealthy failure falls over to the next source; once the provider has none left
         // (getCurrent == null) the operation fails and stops. We never restart here, so a backlog of downloads
         // can't each spin re-walking sources already known to be bad. Re-arming an exhausted provider happens at
         // the operation entry instead (on-demand ensureDownloaded, and the manager's per-sync prefetch), bounding
         // it to one re-arm per request/cycle.
         var handle = sourceProvider.getCurrent(Purpose.BLOB)
-        var result: Boolean? = null
+        var result: DownloadOutcome? = null
         while (handle != null && result == null) {
             val url = handle.url.replace(BLOB_REF_PLACEHOLDER, ref)
-            when (tryDownloadVerifyStore(url, ref)) {
-                DownloadOutcome.SUCCESS -> result = true
-                DownloadOutcome.BLOB_UNAVAILABLE -> result = false
-                DownloadOutcome.SOURCE_UNHEALTHY -> {
+            when (val outcome = withHostPermit(hostOf(url), priority) { tryDownloadVerifyStore(url, ref) }) {
+                is DownloadOutcome.Success, DownloadOutcome.BlobUnavailable -> result = outcome
+                DownloadOutcome.SourceUnhealthy -> {
                     sourceProvider.reportUnhealthy(handle)
                     handle = sourceProvider.getCurrent(Purpose.BLOB)
                     verboseLog {
@@ -209,7 +279,19 @@ internal class RemoteConfigBlobFetcher(
                 }
             }
         }
-        return result ?: false
+        return (result as? DownloadOutcome.Success)?.downloadedBytes
+    }
+
+    /** Runs [block] holding one of [host]'s permits; a prefetch waits for a permit it may take (see [HostPermits]). */
+    private suspend fun <T> withHostPermit(host: String?, priority: Priority, block: () -> T): T {
+        val permits = synchronized(lock) {
+            hostPermits.getOrPut(host) { HostPermits(maxConcurrentDownloadsPerHost) }
+        }
+        return if (priority == Priority.LOW) {
+            permits.low.withPermit { permits.all.withPermit(block) }
+        } else {
+            permits.all.withPermit(block)
+        }
     }
 
     private fun tryDownloadVerifyStore(url: String, ref: String): DownloadOutcome {
@@ -235,20 +317,20 @@ internal class RemoteConfigBlobFetcher(
                 }
                 HttpURLConnection.HTTP_NOT_FOUND -> {
                     errorLog { "Remote config blob '$ref' not found at $url (404)." }
-                    DownloadOutcome.BLOB_UNAVAILABLE
+                    DownloadOutcome.BlobUnavailable
                 }
                 else -> {
                     errorLog { "HTTP $code downloading remote config blob '$ref' from $url." }
-                    DownloadOutcome.SOURCE_UNHEALTHY
+                    DownloadOutcome.SourceUnhealthy
                 }
             }
         } catch (e: SocketTimeoutException) {
             errorLog(e) { "Timed out downloading remote config blob '$ref' from $url." }
             requestResult = HTTPTimeoutManager.RequestResult.MAIN_SOURCE_TIMED_OUT
-            DownloadOutcome.SOURCE_UNHEALTHY
+            DownloadOutcome.SourceUnhealthy
         } catch (e: IOException) {
             errorLog(e) { "Failed to download remote config blob '$ref' from $url." }
-            DownloadOutcome.SOURCE_UNHEALTHY
+            DownloadOutcome.SourceUnhealthy
         } finally {
             // Recorded once, after the attempt is over: a mid-body failure must not leave behind the
             // clear that reading the headers would have suggested.
@@ -267,22 +349,27 @@ internal class RemoteConfigBlobFetcher(
     private fun verifyAndStore(bytes: ByteArray, ref: String, url: String): DownloadOutcome {
         if (RemoteConfigUtils.contentAddressRef(bytes) != ref) {
             errorLog { "Remote config blob '$ref' from $url failed content-address verification." }
-            return DownloadOutcome.BLOB_UNAVAILABLE
+            return DownloadOutcome.BlobUnavailable
         }
         // A failed disk write isn't a source problem, so don't condemn the source: report the blob as unavailable
         // (yields false, stops) and let a later sync/on-demand read re-fetch it.
         return if (blobStore.write(ref, bytes)) {
             verboseLog { "Downloaded and stored remote config blob '$ref' (${bytes.size} bytes) from $url." }
-            DownloadOutcome.SUCCESS
+            DownloadOutcome.Success(bytes.size)
         } else {
-            DownloadOutcome.BLOB_UNAVAILABLE
+            DownloadOutcome.BlobUnavailable
         }
     }
 
-    private enum class DownloadOutcome { SUCCESS, SOURCE_UNHEALTHY, BLOB_UNAVAILABLE }
+    private sealed class DownloadOutcome {
+        class Success(val downloadedBytes: Int) : DownloadOutcome()
+        object SourceUnhealthy : DownloadOutcome()
+        object BlobUnavailable : DownloadOutcome()
+    }
 
     private companion object {
-        private const val MAX_CONCURRENT_DOWNLOADS = 4
+        private const val DEFAULT_MAX_CONCURRENT_DOWNLOADS = 6
+        private const val DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_HOST = 4
 
         // Matches java.util.PriorityQueue's own default; it grows as needed.
         private const val QUEUE_INITIAL_CAPACITY = 11
@@ -2,9 +2,14 @@ package com.revenuecat.purchases.common.remoteconfig
 
 import android.content.Context
 import androidx.core.util.AtomicFile
+import com.revenuecat.purchases.common.copyToByteArray
 import com.revenuecat.purchases.common.errorLog
 import java.io.File
 import java.io.IOException
+import java.io.OutputStream
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
 
 /**
  * A content-addressed, on-disk cache for remote-config blobs. Each blob is stored as one file under
@@ -26,12 +31,27 @@ internal class RemoteConfigBlobStore(
     // Refs known to be on disk. Loaded once from a disk scan on first access, then kept in sync by write /
     // retainOnly / clear, so contains() and cachedRefs() answer from memory instead of stat-ing the disk each
     // call. The store is the sole writer of its directory, so this stays authoritative; if disk and index ever
-    // diverge, read() self-heals by evicting the ref on a miss, so a stale "cached" flag can't strand a re-fetch.
+    // diverge, a read self-heals by evicting the ref on a miss, so a stale "cached" flag can't strand a re-fetch.
     private var knownRefs: MutableSet<String>? = null
 
+    // Refs whose file content was already checked against the ref by readMapped(). Files are never rewritten in
+    // place, so a ref stays verified until its file is replaced by a write or deleted by retainOnly / clear.
+    private val verifiedRefs = mutableSetOf<String>()
+
     fun contains(ref: String): Boolean = synchronized(lock) { loadedRefs().contains(ref) }
 
-    fun read(ref: String): ByteArray? {
+    /** The blob's bytes copied onto the heap; prefer [readMapped] when the caller can consume a buffer. */
+    fun read(ref: String): ByteArray? = readMapped(ref)?.copyToByteArray()
+
+    /**
+     * A read-only view of the blob file mapped into memory, or `null` when it is missing, unreadable, or its bytes
+     * don't hash to [ref]. Nothing is copied onto the heap: repeated reads of the same blob are page-cache hits.
+     *
+     * The content is checked against its ref over the mapped region the first time the ref is read by this
+     * instance; blob files are immutable once renamed into place, so later reads skip the hash. A blob that fails
+     * the check is deleted and evicted from the index, so the next ensureDownloaded/prefetch re-fetches it.
+     */
+    fun readMapped(ref: String): ByteBuffer? {
         val target = blobFile(ref)?.takeIf { it.exists() }
         if (target == null) {
             // Disk and index disagree (ref gone from under us): correct the index so a later
@@ -39,12 +59,7 @@ internal class RemoteConfigBlobStore(
             synchronized(lock) { knownRefs?.remove(ref) }
             return null
         }
-        return try {
-            target.readBytes()
-        } catch (e: IOException) {
-            errorLog(e) { "Failed to read remote config blob '$ref' from disk." }
-            null
-        }
+        return map(target, ref)?.takeIf { isVerified(ref, it) }
     }
 
     /**
@@ -55,7 +70,15 @@ internal class RemoteConfigBlobStore(
      * partial. An interrupted write leaves only the `.new` orphan, whose name is not a valid ref — it is
      * invisible to the index scan and pruned by [retainOnly].
      */
-    fun write(ref: String, data: ByteArray): Boolean {
+    fun write(ref: String, data: ByteArray): Boolean = writeStreamed(ref) { it.write(data) }
+
+    /**
+     * Like [write], but [writeContent] streams the blob into the side file, so it never has to be held in memory
+     * as a whole. The side file is only renamed over the target once [writeContent] returns; if it throws, the
+     * side file is discarded. IO failures are logged and reported as `false`; any other exception (such as a
+     * content verification failure) is rethrown after discarding the partial write.
+     */
+    fun writeStreamed(ref: String, writeContent: (OutputStream) -> Unit): Boolean {
         val target = blobFile(ref)
         if (target == null) {
             errorLog { "Refusing to write remote config blob with malformed ref '$ref'." }
@@ -66,13 +89,17 @@ internal class RemoteConfigBlobStore(
             val atomicFile = AtomicFile(target)
             val out = atomicFile.startWrite()
             try {
-                out.write(data)
+                writeContent(out)
                 atomicFile.finishWrite(out)
-            } catch (e: IOException) {
+            } catch (@Suppress("TooGenericExceptionCaught") e: Exception) {
                 atomicFile.failWrite(out)
                 throw e
             }
-            synchronized(lock) { loadedRefs().add(ref) }
+            synchronized(lock) {
+                loadedRefs().add(ref)
+                // The file was replaced, so its content is checked again on the next readMapped().
+                verifiedRefs.remove(ref)
+            }
             true
         } catch (e: IOException) {
             errorLog(e) { "Failed to persist remote config blob '$ref' to disk." }
@@ -96,7 +123,10 @@ internal class RemoteConfigBlobStore(
                 ?.filter { it.isFile && it.name !in refs }
                 ?.forEach { deleteQuietly(it) }
         }
-        synchronized(lock) { loadedRefs().retainAll(refs) }
+        synchronized(lock) {
+            loadedRefs().retainAll(refs)
+            verifiedRefs.retainAll(refs)
+        }
     }
 
     /**
@@ -108,6 +138,7 @@ internal class RemoteConfigBlobStore(
             val parent = blobsDir()
             if (parent.exists()) parent.listFiles()?.forEach { deleteQuietly(it) }
             knownRefs = mutableSetOf()
+            verifiedRefs.clear()
         }
     }
 
@@ -127,6 +158,29 @@ internal class RemoteConfigBlobStore(
         scanned.also { knownRefs = it }
     }
 
+    private fun map(target: File, ref: String): ByteBuffer? = try {
+        RandomAccessFile(target, "r").use { file ->
+            // The mapping stays valid after the channel is closed (and after the file is deleted).
+            file.channel.map(FileChannel.MapMode.READ_ONLY, 0, file.length()).asReadOnlyBuffer()
+        }
+    } catch (e: IOException) {
+        errorLog(e) { "Failed to read remote config blob '$ref' from disk." }
+        null
+    }
+
+    private fun isVerified(ref: String, mapped: ByteBuffer): Boolean {
+        if (synchronized(lock) { ref in verifiedRefs }) return true
+        val matches = RemoteConfigUtils.contentAddressRef(mapped) == ref
+        if (matches) {
+            synchronized(lock) { verifiedRefs.add(ref) }
+        } else {
+            errorLog { "Remote config blob '$ref' on disk does not match its ref; discarding it." }
+            blobFile(ref)?.let { deleteQuietly(it) }
+            synchronized(lock) { knownRefs?.remove(ref) }
+        }
+        return matches
+    }
+
     private fun deleteQuietly(file: File) {
         try {
             if (!file.delete()) {
@@ -4,6 +4,7 @@ import android.content.Context
 import androidx.core.util.AtomicFile
 import com.revenuecat.purchases.common.JsonProvider
 import com.revenuecat.purchases.common.errorLog
+import com.revenuecat.purchases.common.verboseLog
 import kotlinx.serialization.Serializable
 import kotlinx.serialization.SerializationException
 import java.io.File
@@ -41,10 +42,35 @@ internal data class PersistedRemoteConfigurationState(
     val lastRefreshTime: Long? = null,
 )
 
+/**
+ * The on-disk shape of [PersistedRemoteConfigurationState]: the sync bookkeeping, with each topic stored in its own
+ * file named after its [ConfigTopic.contentHash] and referenced here through [topicHashes]. [topics] is only read,
+ * from the legacy file written before topics moved to their own files.
+ */
+@Serializable
+private data class PersistedRemoteConfigurationHeader(
+    val domain: String,
+    val manifest: String,
+    val activeTopics: List<String> = emptyList(),
+    val prefetchBlobs: List<String> = emptyList(),
+    val topicHashes: Map<String, String> = emptyMap(),
+    val topics: Map<String, ConfigTopic> = emptyMap(),
+    val lastRefreshTime: Long? = null,
+)
+
 /**
  * Persists [PersistedRemoteConfigurationState] to `noBackupFilesDir/RevenueCat/remote_config/`
  * (excluded from backups as a regenerable cache). Writes are atomic and crash-safe via [AtomicFile];
  * a missing or corrupt file reads back as `null`.
+ *
+ * Writes are incremental: each topic lives in a content-addressed file under `topics/`, named after its
+ * [ConfigTopic.contentHash], and the small header file lists the hash of every topic. A write only creates the files
+ * of topics whose content changed, then swaps the header, which is the commit point: a crash before it leaves the
+ * previous header pointing at the previous, untouched topic files. Files no longer referenced are deleted afterwards.
+ *
+ * The header is written to its own file name, because previous versions read the legacy file, which held the topics
+ * inline, and would read a header as a manifest without topics. The legacy file is read when there's no header yet,
+ * migrated, then deleted.
  */
 internal class RemoteConfigDiskCache(
     private val applicationContext: Context,
@@ -78,12 +104,33 @@ internal class RemoteConfigDiskCache(
 
     private fun readFromDisk(): PersistedRemoteConfigurationState? {
         val target = targetFile()
-        if (!target.exists()) return null
-        val atomicFile = AtomicFile(target)
+        return if (target.exists()) readFromDisk(target) else migrateLegacyFile()
+    }
+
+    private fun migrateLegacyFile(): PersistedRemoteConfigurationState? {
+        val legacyFile = legacyTargetFile()
+        if (!legacyFile.exists()) return null
+        val config = readFromDisk(legacyFile)
+        if (config != null && writeToDisk(config)) {
+            AtomicFile(legacyFile).delete()
+            verboseLog { "Migrated remote config to ${targetFile().name}." }
+        }
+        return config
+    }
+
+    private fun readFromDisk(target: File): PersistedRemoteConfigurationState? {
         return try {
-            json.decodeFromString(
-                PersistedRemoteConfigurationState.serializer(),
-                atomicFile.readFully().toString(Charsets.UTF_8),
+            val header = json.decodeFromString(
+                PersistedRemoteConfigurationHeader.serializer(),
+                AtomicFile(target).readFully().toString(Charsets.UTF_8),
+            )
+            PersistedRemoteConfigurationState(
+                domain = header.domain,
+                manifest = header.manifest,
+                activeTopics = header.activeTopics,
+                prefetchBlobs = header.prefetchBlobs,
+                topics = header.topics + header.topicHashes.mapValues { (_, hash) -> readTopic(hash) },
+                lastRefreshTime = header.lastRefreshTime,
             )
         } catch (e: IOException) {
             errorLog(e) { "Failed to read remote config from disk." }
@@ -94,27 +141,36 @@ internal class RemoteConfigDiskCache(
         }
     }
 
+    /** A topic file referenced by the header. A missing one fails the whole read, like a corrupt header. */
+    private fun readTopic(hash: String): ConfigTopic {
+        val file = topicFile(hash)
+        if (!file.exists()) throw IOException("Remote config topic file $hash is missing.")
+        return json.decodeFromString(ConfigTopicSerializer, AtomicFile(file).readFully().toString(Charsets.UTF_8))
+    }
+
     private fun writeToDisk(config: PersistedRemoteConfigurationState): Boolean {
         return try {
-            val target = targetFile()
-            target.parentFile?.let { parent ->
-                if (!parent.exists()) {
-                    parent.mkdirs()
+            val topicHashes = config.topics.mapValues { (_, topic) -> topic.contentHash }
+            var writtenTopics = 0
+            config.topics.forEach { (_, topic) ->
+                // Content-addressed: an existing file already holds exactly this topic, so it isn't rewritten.
+                val file = topicFile(topic.contentHash)
+                if (!file.exists()) {
+                    writeAtomically(file, json.encodeToString(ConfigTopicSerializer, topic))
+                    writtenTopics++
                 }
             }
-            val content = json.encodeToString(
-                PersistedRemoteConfigurationState.serializer(),
-                config,
+            val header = PersistedRemoteConfigurationHeader(
+                domain = config.domain,
+                manifest = config.manifest,
+                activeTopics = config.activeTopics,
+                prefetchBlobs = config.prefetchBlobs,
+                topicHashes = topicHashes,
+                lastRefreshTime = config.lastRefreshTime,
             )
-            val atomicFile = AtomicFile(target)
-            val out = atomicFile.startWrite()
-            try {
-                out.write(content.toByteArray())
-                atomicFile.finishWrite(out)
-            } catch (e: IOException) {
-                atomicFile.failWrite(out)
-                throw e
-            }
+            writeAtomically(targetFile(), json.encodeToString(PersistedRemoteConfigurationHeader.serializer(), header))
+            deleteUnreferencedTopics(topicHashes.values.toSet())
+            verboseLog { "Persisted remote config: wrote $writtenTopics of ${config.topics.size} topic file(s)." }
             true
         } catch (e: IOException) {
             errorLog(e) { "Failed to persist remote config to disk." }
@@ -125,6 +181,32 @@ internal class RemoteConfigDiskCache(
         }
     }
 
+    private fun writeAtomically(target: File, content: String) {
+        target.parentFile?.let { parent ->
+            if (!parent.exists()) {
+                parent.mkdirs()
+            }
+        }
+        val atomicFile = AtomicFile(target)
+        val out = atomicFile.startWrite()
+        try {
+            out.write(content.toByteArray())
+            atomicFile.finishWrite(out)
+        } catch (e: IOException) {
+            atomicFile.failWrite(out)
+            throw e
+        }
+    }
+
+    /** Best effort: a file left behind is only wasted space, and is retried on the next write. */
+    private fun deleteUnreferencedTopics(referencedHashes: Set<String>) {
+        topicsDirectory().listFiles()?.forEach { file ->
+            if (file.name.removeSuffix(TOPIC_FILE_EXTENSION) !in referencedHashes && !file.delete()) {
+                verboseLog { "Failed to delete unreferenced remote config topic file ${file.name}." }
+            }
+        }
+    }
+
     /**
      * Deletes the persisted state so the next sync starts fresh (no manifest -> full re-fetch). Used on identity
      * change to keep configuration from bleeding across users.
@@ -135,21 +217,31 @@ internal class RemoteConfigDiskCache(
             snapshotLoaded = true
             try {
                 AtomicFile(targetFile()).delete()
+                AtomicFile(legacyTargetFile()).delete()
+                topicsDirectory().deleteRecursively()
             } catch (e: SecurityException) {
                 errorLog(e) { "Failed to clear remote config from disk." }
             }
         }
     }
 
-    private fun targetFile(): File =
-        File(
-            File(File(applicationContext.noBackupFilesDir, REMOTE_CONFIG_ROOT), REMOTE_CONFIG_SUBDIR),
-            REMOTE_CONFIG_FILE_NAME,
-        )
+    private fun remoteConfigDirectory(): File =
+        File(File(applicationContext.noBackupFilesDir, REMOTE_CONFIG_ROOT), REMOTE_CONFIG_SUBDIR)
+
+    private fun targetFile(): File = File(remoteConfigDirectory(), REMOTE_CONFIG_FILE_NAME)
+
+    private fun legacyTargetFile(): File = File(remoteConfigDirectory(), LEGACY_REMOTE_CONFIG_FILE_NAME)
+
+    private fun topicsDirectory(): File = File(remoteConfigDirectory(), TOPICS_SUBDIR)
+
+    private fun topicFile(hash: String): File = File(topicsDirectory(), hash + TOPIC_FILE_EXTENSION)
 
     private companion object {
         private const val REMOTE_CONFIG_ROOT = "RevenueCat"
         private const val REMOTE_CONFIG_SUBDIR = "remote_config"
-        private const val REMOTE_CONFIG_FILE_NAME = "remote_config.json"
+        private const val REMOTE_CONFIG_FILE_NAME = "remote_config_v2.json"
+        private const val LEGACY_REMOTE_CONFIG_FILE_NAME = "remote_config.json"
+        private const val TOPICS_SUBDIR = "topics"
+        private const val TOPIC_FILE_EXTENSION = ".json"
     }
 }
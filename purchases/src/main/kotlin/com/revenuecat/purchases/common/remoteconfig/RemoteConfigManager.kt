@@ -9,9 +9,11 @@ import com.revenuecat.purchases.common.DefaultDateProvider
 import com.revenuecat.purchases.common.GetRemoteConfigErrorHandlingBehavior
 import com.revenuecat.purchases.common.JsonProvider
 import com.revenuecat.purchases.common.LogIntent
+import com.revenuecat.purchases.common.asInputStream
 import com.revenuecat.purchases.common.between
 import com.revenuecat.purchases.common.caching.cacheDuration
 import com.revenuecat.purchases.common.caching.isCacheStale
+import com.revenuecat.purchases.common.copyToByteArray
 import com.revenuecat.purchases.common.debugLog
 import com.revenuecat.purchases.common.errorLog
 import com.revenuecat.purchases.common.log
@@ -31,14 +33,19 @@ import kotlinx.coroutines.cancelChildren
 import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
+import kotlinx.serialization.ExperimentalSerializationApi
 import kotlinx.serialization.SerializationException
 import kotlinx.serialization.json.JsonElement
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.decodeFromJsonElement
+import kotlinx.serialization.json.decodeFromStream
+import java.nio.ByteBuffer
 import java.util.Date
 import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
+import kotlin.reflect.KType
+import kotlin.reflect.typeOf
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.minutes
 
@@ -91,6 +98,7 @@ internal class RemoteConfigManager(
     private val blobFetcher: RemoteConfigBlobFetcher,
     private val appUserIDProvider: () -> String? = { null },
     private val cacheDurationProvider: (Boolean) -> Duration = ::cacheDuration,
+    private val decodedBlobs: DecodedBlobCache = DecodedBlobCache(),
 ) {
     private val isRefreshing = AtomicBoolean(false)
 
@@ -261,6 +269,8 @@ internal class RemoteConfigManager(
             lastRefreshTime = persisted?.lastRefreshTime?.let(::Date),
             // Report only the prefetch blobs we actually hold, so the server stops re-inlining them.
             prefetchedBlobs = persisted?.prefetchBlobs?.filter { storedBlobs.contains(it) } ?: emptyList(),
+            // Advertise the topics we hold, so the response only carries the ones whose content differs.
+            topicHashes = persisted?.topics?.mapValues { (_, topic) -> topic.contentHash } ?: emptyMap(),
             onSuccess = { container, requestDate, _ ->
                 handleMainRefreshSuccess(requestEpoch, persisted, container, requestDate)
             },
@@ -496,6 +506,7 @@ internal class RemoteConfigManager(
             // identity change. It clears only on app restart.
             diskCache.clear()
             blobStore.clear()
+            decodedBlobs.clear()
             sourceProvider.clear()
             // Identity change wiped the committed state: advance the generation and tell listeners to drop
             // their in-memory caches. A warm started for an older generation is rejected by store-if-newer.
@@ -683,11 +694,14 @@ internal class RemoteConfigManager(
      * whose `classDiscriminator` is overridden for [com.revenuecat.purchases.common.events.BackendEvent] and
      * would break any topic payload relying on the default `type` discriminator, e.g. paywall components). For
      * non-JSON payloads use the `transform` overload, which also documents the resolution and waiting rules.
+     * The JSON is decoded straight from the memory-mapped blob (see [mappedBlobData]), once per blob ref and [T]:
+     * later reads of the same blob return the shared decoded value (see [decodedBlobData]).
      */
+    @OptIn(ExperimentalSerializationApi::class)
     suspend inline fun <reified T> blobData(topic: RemoteConfigTopic, itemKey: String): T? =
-        blobData(topic, itemKey) { bytes ->
+        decodedBlobData(topic, itemKey, typeOf<T>()) { buffer ->
             try {
-                JsonTools.json.decodeFromString<T>(bytes.decodeToString())
+                JsonTools.json.decodeFromStream<T>(buffer.asInputStream())
             } catch (e: SerializationException) {
                 errorLog(e) { "Failed to parse remote config blob for item '$itemKey' as JSON." }
                 null
@@ -715,8 +729,35 @@ internal class RemoteConfigManager(
         topic: RemoteConfigTopic,
         itemKey: String,
         transform: (ByteArray) -> T?,
+    ): T? = mappedBlobData(topic, itemKey) { buffer -> transform(buffer.copyToByteArray()) }
+
+    /**
+     * Like the `transform` [blobData] overload, but hands [transform] a read-only view of the memory-mapped blob
+     * file instead of a heap copy, so repeated reads of the same blob cost page-cache hits rather than payload-sized
+     * allocations. The view is only valid for reading; [transform] must not retain it past the call.
+     */
+    suspend fun <T> mappedBlobData(
+        topic: RemoteConfigTopic,
+        itemKey: String,
+        transform: (ByteBuffer) -> T?,
+    ): T? = withContext(ioDispatcher) {
+        resolveBlob(topic, itemKey)?.let(transform)
+    }
+
+    /**
+     * Like [mappedBlobData], but memoizes the result of [decode] in the decoded-blob cache under the item's blob ref
+     * and [type], so the blob is read and decoded once: refs are content addresses, so a ref's decoded value never
+     * changes. A cached value skips the download wait and the disk read too. Values are shared between callers, so
+     * they must be treated as immutable; a `null` from [decode] is not cached. The non-inline worker behind the
+     * reified [blobData]; kept non-`private` so the `inline` function can call it.
+     */
+    suspend fun <T> decodedBlobData(
+        topic: RemoteConfigTopic,
+        itemKey: String,
+        type: KType,
+        decode: (ByteBuffer) -> T?,
     ): T? = withContext(ioDispatcher) {
-        resolveBlobBytes(topic, itemKey)?.let(transform)
+        resolveDecodedBlob(topic, itemKey, type, decode)
     }
 
     /**
@@ -770,6 +811,7 @@ internal class RemoteConfigManager(
      * JSON. Assumes it is already running on [ioDispatcher] (its only caller wraps it), so it doesn't switch
      * context itself.
      */
+    @OptIn(ExperimentalSerializationApi::class)
     @Suppress("ReturnCount")
     private suspend fun mergedBlobObject(topic: RemoteConfigTopic, itemKeys: Collection<String>): JsonObject? {
         if (disabled) {
@@ -782,7 +824,7 @@ internal class RemoteConfigManager(
             return null
         }
         val resolved = coroutineScope {
-            keys.associateWith { key -> async { resolveBlobBytes(topic, key) } }
+            keys.associateWith { key -> async { resolveJsonBlob(topic, key) } }
                 .mapValues { (_, deferred) -> deferred.await() }
         }
         val missing = resolved.filterValues { it == null }.keys
@@ -795,8 +837,12 @@ internal class RemoteConfigManager(
         }
         val merged = LinkedHashMap<String, JsonElement>()
         for (key in keys) {
+            val blob = resolved.getValue(key)!!
             val element = try {
-                JsonProvider.defaultJson.parseToJsonElement(resolved.getValue(key)!!.decodeToString())
+                blob.json ?: JsonProvider.defaultJson.decodeFromStream(
+                    JsonElement.serializer(),
+                    blob.bytes!!.asInputStream(),
+                ).also { decodedBlobs.put(blob.ref, JSON_ELEMENT_TYPE, it, blob.bytes.remaining().toLong()) }
             } catch (e: SerializationException) {
                 errorLog(e) { "Remote config blob for item '$key' in topic '${topic.wireName}' is not valid JSON." }
                 return null
@@ -808,33 +854,77 @@ internal class RemoteConfigManager(
     }
 
     /**
-     * Resolves an item's referenced-blob bytes, or `null` when the endpoint is [isDisabled], the item is
+     * Resolves an item's referenced blob as a read-only, memory-mapped view, or `null` when the endpoint is
+     * [isDisabled], the item is unknown, or it has no `blob_ref`.
+     */
+    private suspend fun resolveBlob(topic: RemoteConfigTopic, itemKey: String): ByteBuffer? =
+        blobRef(topic, itemKey)?.let { ref -> readBlob(ref, itemKey) }
+
+    /** [decodedBlobData]'s worker, run on [ioDispatcher]. */
+    @Suppress("UNCHECKED_CAST")
+    private suspend fun <T> resolveDecodedBlob(
+        topic: RemoteConfigTopic,
+        itemKey: String,
+        type: KType,
+        decode: (ByteBuffer) -> T?,
+    ): T? {
+        val ref = blobRef(topic, itemKey) ?: return null
+        val cached = decodedBlobs.get(ref, type)
+        return if (cached != null) {
+            verboseLog { "Resolved '$itemKey' from the decoded remote config blob '$ref' in memory." }
+            cached as T
+        } else {
+            readBlob(ref, itemKey)?.let { buffer ->
+                decode(buffer)?.also { decodedBlobs.put(ref, type, it, buffer.remaining().toLong()) }
+            }
+        }
+    }
+
+    /**
+     * Resolves an item's blob for [mergedBlobObject]: the JSON already decoded from its ref when cached, otherwise
+     * the mapped bytes to decode. `null` under the same conditions as [resolveBlob].
+     */
+    private suspend fun resolveJsonBlob(topic: RemoteConfigTopic, itemKey: String): ResolvedJsonBlob? {
+        val ref = blobRef(topic, itemKey) ?: return null
+        val cached = decodedBlobs.get(ref, JSON_ELEMENT_TYPE) as JsonElement?
+        return if (cached != null) {
+            ResolvedJsonBlob(ref, json = cached, bytes = null)
+        } else {
+            readBlob(ref, itemKey)?.let { ResolvedJsonBlob(ref, json = null, bytes = it) }
+        }
+    }
+
+    /**
+     * The blob ref of the committed item for [itemKey], or `null` when the endpoint is [isDisabled], the item is
      * unknown, or it has no `blob_ref`.
      */
-    private suspend fun resolveBlobBytes(topic: RemoteConfigTopic, itemKey: String): ByteArray? {
+    private suspend fun blobRef(topic: RemoteConfigTopic, itemKey: String): String? {
         if (disabled) {
             verboseLog { "Remote config disabled (4xx); skipping read of item '$itemKey'." }
             return null
         }
         verboseLog { "Reading remote config blob (topic='${topic.wireName}', item='$itemKey')." }
-        val ref = committedItem(topic, itemKey)?.blobRef
-        return when {
-            ref == null -> {
+        return committedItem(topic, itemKey)?.blobRef.also { ref ->
+            if (ref == null) {
                 verboseLog { "Remote config item '$itemKey' is missing or has no blob ref; returning null." }
-                null
             }
-            blobFetcher.ensureDownloaded(ref) -> {
-                blobStore.read(ref).also { bytes ->
-                    if (bytes != null) {
-                        verboseLog { "Resolved '$itemKey' from remote config blob '$ref' (${bytes.size} bytes)." }
-                    } else {
-                        warnLog { "Remote config blob '$ref' for item '$itemKey' downloaded but read back null." }
-                    }
-                }
-            }
-            else -> {
-                warnLog { "Failed to resolve remote config blob '$ref' for item '$itemKey'." }
-                null
+        }
+    }
+
+    /**
+     * Downloads the blob [ref] when it isn't cached on disk yet (HIGH priority, joining any in-flight prefetch of
+     * the same ref) and returns a read-only, memory-mapped view of it, or `null` when it can't be resolved.
+     */
+    private suspend fun readBlob(ref: String, itemKey: String): ByteBuffer? {
+        if (!blobFetcher.ensureDownloaded(ref)) {
+            warnLog { "Failed to resolve remote config blob '$ref' for item '$itemKey'." }
+            return null
+        }
+        return blobStore.readMapped(ref).also { buffer ->
+            if (buffer != null) {
+                verboseLog { "Resolved '$itemKey' from remote config blob '$ref' (${buffer.remaining()} bytes)." }
+            } else {
+                warnLog { "Remote config blob '$ref' for item '$itemKey' downloaded but read back null." }
             }
         }
     }
@@ -858,17 +948,22 @@ internal class RemoteConfigManager(
         // The server's own request time. Null when the response carried no such header, or on the fallback path.
         requestDate: Date?,
     ) {
+        val previousTopics = previous?.topics ?: emptyMap()
+        // A topic the response carries with the content already held is unchanged: keep the held instance, so its
+        // persisted file is not rewritten and its prefetch blobs are not re-checked.
+        val changedTopics = response.topics.filter { (name, topic) ->
+            previousTopics[name]?.contentHash != topic.contentHash
+        }
         debugLog {
-            val changed = response.topics.entries.joinToString { (name, topic) ->
+            val changed = changedTopics.entries.joinToString { (name, topic) ->
                 "$name -> items=${topic.keys}"
             }
             "Received remote config: active topics=${response.activeTopics}; changed topics: " +
                 "[${changed.ifEmpty { "none" }}]."
         }
-        val previousTopics = previous?.topics ?: emptyMap()
-        // Changed topics (present in the response) overwrite their item index; unchanged active topics keep their
-        // carried-forward index (the server omits them); topics no longer active are pruned.
-        val mergedTopics = (previousTopics + response.topics)
+        // Changed topics overwrite their item index; unchanged active topics keep their carried-forward index (the
+        // server omits them); topics no longer active are pruned.
+        val mergedTopics = (previousTopics + changedTopics)
             .filterKeys { it in response.activeTopics }
 
         // Blobs the current config still wants: the prefetch set plus any active-topic blob ref.
@@ -903,7 +998,9 @@ internal class RemoteConfigManager(
             }
             container?.let { extractInlineBlobs(it, blobRefsToKeep) }
             blobStore.retainOnly(blobRefsToKeep)
-            prefetchBlobs(response, mergedTopics)
+            decodedBlobs.retainOnly(blobRefsToKeep)
+            verboseLog { "Decoded remote config blobs: $decodedBlobs" }
+            prefetchBlobs(response, changedTopics.filterKeys { it in response.activeTopics })
             // A new version is committed: advance the generation and let listeners re-warm their in-memory
             // caches. Runs under cacheLock (both persist callers hold it), so the bump+notify is serialized
             // against clearCache()'s bump+notify.
@@ -916,17 +1013,19 @@ internal class RemoteConfigManager(
 
     /**
      * Best-effort, topic-agnostic warm of the blobs the committed config wants prefetched: the server's
-     * [RemoteConfiguration.prefetchBlobs] plus any item flagged `prefetch`. Re-arms the blob source provider
+     * [RemoteConfiguration.prefetchBlobs] plus any item flagged `prefetch` in the [changedTopics]. Topics carried
+     * forward unchanged were already warmed when they were committed; a blob of theirs that failed is resolved on
+     * demand ([blobData], [awaitTopicAndPrefetchBlobsReady]). Re-arms the blob source provider
      * first **only if a prior cycle exhausted its sources** (otherwise failover progress is kept, so a
      * known-bad higher-priority source isn't re-tried every sync), then hands the not-yet-cached refs to the
      * fetcher's LOW-priority queue. Runs on the manager's IO scope (inside [persist]), so it never blocks the
      * main thread; a failed download is tolerated (re-fetched next sync / on demand).
      */
-    private fun prefetchBlobs(response: RemoteConfiguration, mergedTopics: Map<String, ConfigTopic>) {
+    private fun prefetchBlobs(response: RemoteConfiguration, changedTopics: Map<String, ConfigTopic>) {
         sourceProvider.restartIfExhausted(RemoteConfigSourceHandle.Purpose.BLOB)
         val refs = buildList {
             addAll(response.prefetchBlobs)
-            mergedTopics.values.forEach { topic ->
+            changedTopics.values.forEach { topic ->
                 topic.values.forEach { item -> if (item.prefetch) item.blobRef?.let(::add) }
             }
         }.distinct()
@@ -938,27 +1037,33 @@ internal class RemoteConfigManager(
     /** Caches inlined content elements the config still wants, whose bytes match their content-address ref. */
     private fun extractInlineBlobs(container: RCContainer, refsToKeep: Set<String>) {
         // Decide by ref before decoding so a blob we don't need (not referenced, or already cached) is never
-        // decompressed, and decode one at a time so the whole uncompressed payload is never held at once —
-        // inline blobs can be large.
+        // decompressed, and stream each one straight into its blob file, verifying as it goes, so no inline blob
+        // is ever held uncompressed in memory — inline blobs can be large.
         container.contentElements.forEach { element ->
             val ref = element.checksumBase64()
             if (ref !in refsToKeep || blobStore.contains(ref)) return@forEach
-            val decoded = try {
-                element.decode()
+            var decodedSize = 0L
+            val stored = try {
+                blobStore.writeStreamed(ref) { output -> decodedSize = element.decodeTo(output) }
             } catch (e: RCContainerFormatException) {
+                // The partially written blob is discarded by the store, so a bad blob is never cached.
                 errorLog(e) { "Skipping remote config blob '$ref': could not decode or verify its content." }
                 return@forEach
             }
-            // write() logs its own error on failure; only report success when it actually stored the blob.
-            if (blobStore.write(ref, decoded)) {
-                verboseLog { "Stored inlined remote config blob '$ref' (${decoded.size} bytes)." }
+            // writeStreamed() logs its own error on failure; only report success when it actually stored the blob.
+            if (stored) {
+                verboseLog { "Stored inlined remote config blob '$ref' ($decodedSize bytes)." }
             }
         }
     }
 
+    /** An item blob resolved for [mergedBlobObject]: either its cached [json] or the [bytes] to decode it from. */
+    private class ResolvedJsonBlob(val ref: String, val json: JsonElement?, val bytes: ByteBuffer?)
+
     private companion object {
         private const val DEFAULT_DOMAIN = "app"
         private val REFRESH_ATTEMPT_COOLDOWN = 1.minutes
+        private val JSON_ELEMENT_TYPE = typeOf<JsonElement>()
     }
 }
 
@@ -1,6 +1,7 @@
 package com.revenuecat.purchases.common.remoteconfig
 
 import android.util.Base64
+import java.nio.ByteBuffer
 import java.security.MessageDigest
 
 /**
@@ -24,8 +25,14 @@ internal object RemoteConfigUtils {
      * The content-address ref of [bytes]: SHA-256 truncated to [REF_HASH_BYTES] (192 bits), URL-safe base64 with
      * no padding. Mirrors `RCElement.checksumBase64`, so inline and fetched blobs verify against the same ref shape.
      */
-    fun contentAddressRef(bytes: ByteArray): String {
-        val digest = MessageDigest.getInstance(SHA_256_ALGORITHM).digest(bytes)
+    fun contentAddressRef(bytes: ByteArray): String =
+        encodeRef(MessageDigest.getInstance(SHA_256_ALGORITHM).digest(bytes))
+
+    /** Like the [ByteArray] overload, hashing [buffer]'s remaining bytes in place; its position is left untouched. */
+    fun contentAddressRef(buffer: ByteBuffer): String =
+        encodeRef(MessageDigest.getInstance(SHA_256_ALGORITHM).apply { update(buffer.duplicate()) }.digest())
+
+    private fun encodeRef(digest: ByteArray): String {
         val truncated = digest.copyOf(REF_HASH_BYTES)
         return Base64.encodeToString(truncated, Base64.URL_SAFE or Base64.NO_PADDING or Base64.NO_WRAP)
     }
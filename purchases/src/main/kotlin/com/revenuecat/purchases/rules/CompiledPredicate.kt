@@ -0,0 +1,24 @@
+package com.revenuecat.purchases.rules
+
+/**
+ * A predicate (or predicate fragment) compiled by [Evaluator.compile] into a
+ * closure tree. Operators are resolved and static `var` paths are split once
+ * at compile time, so evaluating the same predicate against different scopes
+ * only walks closures.
+ *
+ * Compiling never fails: errors an interpreter would raise while evaluating
+ * (e.g. [RulesEngine.EvaluationException.UnsupportedOperator]) are raised when
+ * the offending node is evaluated, so branches that are never reached still
+ * never fail.
+ */
+internal fun interface CompiledPredicate {
+
+    /** Evaluates this node against [vars], the current data scope. */
+    fun evaluate(vars: Value): Value
+
+    /**
+     * @return `true` when the predicate evaluates to a truthy value per JSON
+     *  Logic rules against the [variables] object scope.
+     */
+    fun matches(variables: Map<String, Value>): Boolean = evaluate(Value.ObjectValue(variables)).isTruthy
+}
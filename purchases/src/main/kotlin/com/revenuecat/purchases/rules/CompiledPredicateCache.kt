@@ -0,0 +1,44 @@
+package com.revenuecat.purchases.rules
+
+/**
+ * Bounded LRU cache of [CompiledPredicate]s keyed by predicate JSON text, so
+ * rules evaluated repeatedly are parsed and compiled once. Holds at most
+ * [maxSize] predicates, evicting the least recently used one.
+ *
+ * Predicates that fail to parse are not cached.
+ */
+internal class CompiledPredicateCache(private val maxSize: Int) {
+
+    private val compiledPredicates = object : LinkedHashMap<String, CompiledPredicate>(
+        INITIAL_CAPACITY,
+        LOAD_FACTOR,
+        true,
+    ) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, CompiledPredicate>?): Boolean {
+            return size > maxSize
+        }
+    }
+
+    val size: Int
+        @Synchronized get() = compiledPredicates.size
+
+    /**
+     * @throws RulesEngine.EvaluationException.Parse when [predicate] is not valid JSON.
+     */
+    fun getOrCompile(predicate: String): CompiledPredicate {
+        synchronized(this) {
+            compiledPredicates[predicate]?.let { return it }
+        }
+        // Parsed and compiled outside the lock so a large predicate doesn't block lookups of other ones.
+        val compiled = Evaluator.compile(ValueJson.parse(predicate))
+        synchronized(this) {
+            compiledPredicates[predicate] = compiled
+        }
+        return compiled
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 16
+        const val LOAD_FACTOR = 0.75f
+    }
+}
@@ -1,5 +1,7 @@
 package com.revenuecat.purchases.rules
 
+import com.revenuecat.purchases.rules.RulesEngine.EvaluationException
+import com.revenuecat.purchases.rules.operators.AccessorOperators
 import com.revenuecat.purchases.rules.operators.Operators
 
 /**
@@ -10,6 +12,10 @@ import com.revenuecat.purchases.rules.operators.Operators
  * multi-key objects are treated as literal data. Operators handle their
  * own short-circuit / arity logic.
  *
+ * Predicates are first compiled into a [CompiledPredicate] closure tree, so
+ * callers evaluating the same predicate repeatedly can [compile] it once and
+ * reuse it.
+ *
  * Diagnostic warnings flow through [RulesEngine.logger] so the engine
  * internals don't have to thread a logger argument through every call.
  */
@@ -32,38 +38,50 @@ internal object Evaluator {
     fun evaluate(
         predicate: Value,
         variables: Map<String, Value>,
-    ): Boolean {
-        val scope = Value.ObjectValue(variables)
-        return evaluateValue(predicate, scope).isTruthy
-    }
+    ): Boolean = compile(predicate).matches(variables)
 
     /**
-     * Recursive evaluator. Module-internal so operator implementations can
-     * call it for short-circuit / nested evaluation.
+     * Compiles [predicate] into a reusable closure tree. Operator names are
+     * resolved once, and `var` lookups with a literal path are split into
+     * their segments once.
      */
-    internal fun evaluateValue(
-        predicate: Value,
-        vars: Value,
-    ): Value = when (predicate) {
+    fun compile(predicate: Value): CompiledPredicate = when (predicate) {
         Value.Null,
         Value.Undefined,
         is Value.BoolValue,
         is Value.IntValue,
         is Value.FloatValue,
         is Value.StringValue,
-        -> predicate
+        -> CompiledPredicate { predicate }
 
-        is Value.ArrayValue -> Value.ArrayValue(
-            predicate.items.map { evaluateValue(it, vars) },
-        )
+        is Value.ArrayValue -> {
+            val items = predicate.items.map { compile(it) }
+            CompiledPredicate { vars -> Value.ArrayValue(items.map { it.evaluate(vars) }) }
+        }
 
         is Value.ObjectValue -> {
             val entries = predicate.entries
             if (entries.size == 1) {
                 val (operatorName, args) = entries.entries.first()
-                Operators.dispatch(operatorName, args, vars)
+                compileOperator(operatorName, args)
             } else {
-                predicate
+                CompiledPredicate { predicate }
+            }
+        }
+    }
+
+    private fun compileOperator(
+        operatorName: String,
+        args: Value,
+    ): CompiledPredicate {
+        val operator = Operators.resolve(operatorName)
+        val staticVar = if (operatorName == "var") AccessorOperators.compileStaticVar(args) else null
+        return when {
+            operator == null -> CompiledPredicate { throw EvaluationException.UnsupportedOperator(operatorName) }
+            staticVar != null -> staticVar
+            else -> {
+                val compiledArgs = Operators.compileArgs(args)
+                CompiledPredicate { vars -> operator(compiledArgs, vars) }
             }
         }
     }
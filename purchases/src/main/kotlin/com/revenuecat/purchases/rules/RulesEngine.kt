@@ -8,6 +8,10 @@ internal object RulesEngine {
     internal val logger: RulesEngineLogger
         get() = _logger
 
+    private const val MAX_COMPILED_PREDICATES = 128
+
+    internal val compiledPredicates = CompiledPredicateCache(MAX_COMPILED_PREDICATES)
+
     // The rules engine deliberately owns its own logging abstraction ([RulesEngineLogger]) instead
     // of routing through the SDK-wide logger. This keeps it self-contained so it can be extracted
     // back into a standalone module as mechanically as it was folded in. If we commit to it living
@@ -48,6 +52,10 @@ internal object RulesEngine {
     /**
      * Evaluates a JSON Logic predicate against a native variable scope.
      *
+     * The predicate is parsed and compiled the first time it's evaluated and
+     * kept in [compiledPredicates], so evaluating it again only runs the
+     * compiled closure tree.
+     *
      * @param predicate The rule predicate as a JSON string.
      * @param variables The resolved variable scope.
      * @return [Result.success] with `true` when the predicate is truthy,
@@ -58,7 +66,7 @@ internal object RulesEngine {
         predicate: String,
         variables: Map<String, Value>,
     ): Result<Boolean> = try {
-        Result.success(Evaluator.evaluate(ValueJson.parse(predicate), variables))
+        Result.success(compiledPredicates.getOrCompile(predicate).matches(variables))
     } catch (error: EvaluationException) {
         Result.failure(error)
     } catch (@Suppress("TooGenericExceptionCaught") error: Exception) {
@@ -1,5 +1,6 @@
 package com.revenuecat.purchases.rules.operators
 
+import com.revenuecat.purchases.rules.CompiledPredicate
 import com.revenuecat.purchases.rules.Evaluator
 import com.revenuecat.purchases.rules.RulesEngine
 import com.revenuecat.purchases.rules.RulesEngine.EvaluationException
@@ -31,10 +32,30 @@ internal object AccessorOperators {
      * nested objects**. There is no flat-key fallback (i.e. we do not also
      * try the literal dotted string as a single key in the top-level map).
      */
-    @Suppress("ReturnCount")
-    fun opVar(args: Value, vars: Value): Value {
+    fun opVar(args: List<CompiledPredicate>, vars: Value): Value {
         val (path, default) = resolveVarArgs(args, vars)
-        val found = lookupVar(vars, path)
+        return varValue(vars, path, jsDotSplit(path), default)
+    }
+
+    /**
+     * Compiles `var` when its path (and default, if any) are literals, as
+     * in `{"var": "subscriber.last_seen_country"}`, splitting the path into
+     * its segments once instead of on every evaluation. Returns `null` for
+     * dynamic paths and defaults, which are compiled as a regular operator
+     * call to [opVar].
+     */
+    fun compileStaticVar(args: Value): CompiledPredicate? {
+        val items = Operators.argsAsList(args)
+        if (items.size > 2 || !items.all { it.isLiteral() }) return null
+        val path = pathSegment(items.firstOrNull())
+        val segments = jsDotSplit(path)
+        val default = items.getOrNull(1)
+        return CompiledPredicate { vars -> varValue(vars, path, segments, default) }
+    }
+
+    @Suppress("ReturnCount")
+    private fun varValue(vars: Value, path: String, segments: List<String>, default: Value?): Value {
+        val found = if (path.isEmpty()) vars else lookupSegments(vars, segments)
         if (found != null) return found
         // json-logic-js coerces an `undefined` default to `null`.
         if (default is Value.Undefined) return Value.Null
@@ -43,6 +64,20 @@ internal object AccessorOperators {
         return Value.Null
     }
 
+    /** Literals evaluate to themselves, so they can be resolved at compile time. */
+    private fun Value.isLiteral(): Boolean = when (this) {
+        Value.Null,
+        Value.Undefined,
+        is Value.BoolValue,
+        is Value.IntValue,
+        is Value.FloatValue,
+        is Value.StringValue,
+        -> true
+        is Value.ArrayValue,
+        is Value.ObjectValue,
+        -> false
+    }
+
     /**
      * `{"missing": ["a", "b.c"]}` returns the array of keys (as strings)
      * that are NOT present in the data. Returns `[]` when nothing is
@@ -61,12 +96,9 @@ internal object AccessorOperators {
      *   are unpacked as the key list — this is how
      *   `{"missing": {"merge": [["a"], ["b"]]}}` is meant to behave.
      */
-    fun opMissing(args: Value, vars: Value): Value {
-        val evaluatedArgs: List<Value> = when (args) {
-            is Value.ArrayValue -> args.items.map { Evaluator.evaluateValue(it, vars) }
-            // Singleton shorthand: `{"missing": "a"}` ≡ `{"missing": ["a"]}`.
-            else -> listOf(Evaluator.evaluateValue(args, vars))
-        }
+    fun opMissing(args: List<CompiledPredicate>, vars: Value): Value {
+        // Singleton shorthand: `{"missing": "a"}` ≡ `{"missing": ["a"]}`.
+        val evaluatedArgs = Operators.evalArgs(args, vars)
 
         val first = evaluatedArgs.firstOrNull()
         val keys: List<Value> = if (first is Value.ArrayValue) first.items else evaluatedArgs
@@ -89,7 +121,7 @@ internal object AccessorOperators {
      * Used to express "any 2 of these 5 fields must be present" style
      * requirements.
      */
-    fun opMissingSome(args: Value, vars: Value): Value {
+    fun opMissingSome(args: List<CompiledPredicate>, vars: Value): Value {
         val evaluated = Operators.evalArgs(args, vars)
         if (evaluated.size != 2) {
             throw EvaluationException.TypeMismatch(
@@ -137,7 +169,7 @@ internal object AccessorOperators {
         // present counts; `-Infinity` always satisfies.
         val need = jsToNumber(needCountValue)
 
-        val missing = opMissing(Value.ArrayValue(keys), vars)
+        val missing = opMissing(keys.map { Evaluator.compile(it) }, vars)
         val missingCount = (missing as? Value.ArrayValue)?.items?.size?.toLong() ?: 0L
 
         return if (total != null && (total - missingCount).toDouble() >= need) {
@@ -168,13 +200,8 @@ internal object AccessorOperators {
      * resolve to a dynamic path string.
      *
      */
-    private fun resolveVarArgs(args: Value, vars: Value): Pair<String, Value?> {
-        if (args is Value.ArrayValue) {
-            val evaluated = args.items.map { Evaluator.evaluateValue(it, vars) }
-            return parseVarArrayArgs(evaluated)
-        }
-        val evaluated = Evaluator.evaluateValue(args, vars)
-        return pathSegment(evaluated) to null
+    private fun resolveVarArgs(args: List<CompiledPredicate>, vars: Value): Pair<String, Value?> {
+        return parseVarArrayArgs(Operators.evalArgs(args, vars))
     }
 
     private fun parseVarArrayArgs(items: List<Value>): Pair<String, Value?> {
@@ -251,10 +278,13 @@ internal object AccessorOperators {
      * into arrays; string segments key into objects. Returns `null` if any
      * segment can't resolve.
      */
+    private fun lookupPath(vars: Value, path: String): Value? = lookupSegments(vars, jsDotSplit(path))
+
+    /** [lookupPath] with the path already split into its segments. */
     @Suppress("ReturnCount")
-    private fun lookupPath(vars: Value, path: String): Value? {
+    private fun lookupSegments(vars: Value, segments: List<String>): Value? {
         var current: Value = vars
-        for (segment in jsDotSplit(path)) {
+        for (segment in segments) {
             current = when (val node = current) {
                 is Value.ObjectValue -> node.entries[segment] ?: return null
                 is Value.ArrayValue -> {
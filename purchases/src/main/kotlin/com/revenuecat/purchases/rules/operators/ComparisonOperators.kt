@@ -1,5 +1,6 @@
 package com.revenuecat.purchases.rules.operators
 
+import com.revenuecat.purchases.rules.CompiledPredicate
 import com.revenuecat.purchases.rules.Value
 import com.revenuecat.purchases.rules.jsString
 
@@ -29,19 +30,19 @@ internal object ComparisonOperators {
     private const val RHS_OPERAND_INDEX = 2
 
     /** `{"<": [a, b]}` — `a < b`. `{"<": [a, b, c]}` — `a < b AND b < c`. */
-    fun opLt(args: Value, vars: Value): Value =
+    fun opLt(args: List<CompiledPredicate>, vars: Value): Value =
         evalChain(args, vars, Comparator.LESS)
 
     /** `{"<=": [a, b]}` — `a <= b`. `{"<=": [a, b, c]}` — `a <= b AND b <= c`. */
-    fun opLe(args: Value, vars: Value): Value =
+    fun opLe(args: List<CompiledPredicate>, vars: Value): Value =
         evalChain(args, vars, Comparator.LESS_OR_EQUAL)
 
     /** `{">": [a, b]}` — `a > b`. Strictly binary; matches the JS reference. */
-    fun opGt(args: Value, vars: Value): Value =
+    fun opGt(args: List<CompiledPredicate>, vars: Value): Value =
         evalBinary(args, vars, Comparator.GREATER)
 
     /** `{">=": [a, b]}` — `a >= b`. Strictly binary; matches the JS reference. */
-    fun opGe(args: Value, vars: Value): Value =
+    fun opGe(args: List<CompiledPredicate>, vars: Value): Value =
         evalBinary(args, vars, Comparator.GREATER_OR_EQUAL)
 
     /**
@@ -119,7 +120,7 @@ internal object ComparisonOperators {
      * (`a < b AND b < c`); arguments past the third are dropped.
      */
     private fun evalChain(
-        args: Value,
+        args: List<CompiledPredicate>,
         vars: Value,
         cmp: Comparator,
     ): Value {
@@ -144,7 +145,7 @@ internal object ComparisonOperators {
      * `false`).
      */
     private fun evalBinary(
-        args: Value,
+        args: List<CompiledPredicate>,
         vars: Value,
         cmp: Comparator,
     ): Value {
@@ -1,6 +1,6 @@
 package com.revenuecat.purchases.rules.operators
 
-import com.revenuecat.purchases.rules.Evaluator
+import com.revenuecat.purchases.rules.CompiledPredicate
 import com.revenuecat.purchases.rules.Value
 
 /**
@@ -29,6 +29,8 @@ import com.revenuecat.purchases.rules.Value
  */
 internal object IterationOperators {
 
+    private val undefinedPredicate = CompiledPredicate { Value.Undefined }
+
     /**
      * `{"some": [arrayExpr, predicate]}` — `true` iff `predicate` is
      * truthy for at least one item. The array expression is evaluated in
@@ -37,9 +39,9 @@ internal object IterationOperators {
      * Empty array or non-array source returns `false`. Short-circuits on
      * the first truthy result.
      */
-    fun opSome(args: Value, vars: Value): Value {
+    fun opSome(args: List<CompiledPredicate>, vars: Value): Value {
         val (items, predicate) = parseIterationArgs(args, vars)
-        val result = items?.any { Evaluator.evaluateValue(predicate, it).isTruthy } ?: false
+        val result = items?.any { predicate.evaluate(it).isTruthy } ?: false
         return Value.BoolValue(result)
     }
 
@@ -51,10 +53,10 @@ internal object IterationOperators {
      * returns `false` per the JSON Logic JS spec. Non-array source
      * returns `false`. Short-circuits on the first non-truthy result.
      */
-    fun opAll(args: Value, vars: Value): Value {
+    fun opAll(args: List<CompiledPredicate>, vars: Value): Value {
         val (items, predicate) = parseIterationArgs(args, vars)
         val result = !items.isNullOrEmpty() &&
-            items.all { Evaluator.evaluateValue(predicate, it).isTruthy }
+            items.all { predicate.evaluate(it).isTruthy }
         return Value.BoolValue(result)
     }
 
@@ -64,9 +66,9 @@ internal object IterationOperators {
      * first truthy item. Empty and non-array sources both return `true`,
      * matching the JS reference's `!Array.isArray(x) || !x.length` guard.
      */
-    fun opNone(args: Value, vars: Value): Value {
+    fun opNone(args: List<CompiledPredicate>, vars: Value): Value {
         val (items, predicate) = parseIterationArgs(args, vars)
-        val result = items?.none { Evaluator.evaluateValue(predicate, it).isTruthy } ?: true
+        val result = items?.none { predicate.evaluate(it).isTruthy } ?: true
         return Value.BoolValue(result)
     }
 
@@ -75,9 +77,9 @@ internal object IterationOperators {
      * item, return the new array of *raw* (non-truthy-coerced) results.
      * Empty or non-array source yields `[]`.
      */
-    fun opMap(args: Value, vars: Value): Value {
+    fun opMap(args: List<CompiledPredicate>, vars: Value): Value {
         val (items, predicate) = parseIterationArgs(args, vars)
-        val results = items?.map { Evaluator.evaluateValue(predicate, it) } ?: emptyList()
+        val results = items?.map { predicate.evaluate(it) } ?: emptyList()
         return Value.ArrayValue(results)
     }
 
@@ -87,9 +89,9 @@ internal object IterationOperators {
      * `[]`. The retained items are the *original* values, not the
      * predicate results.
      */
-    fun opFilter(args: Value, vars: Value): Value {
+    fun opFilter(args: List<CompiledPredicate>, vars: Value): Value {
         val (items, predicate) = parseIterationArgs(args, vars)
-        val results = items?.filter { Evaluator.evaluateValue(predicate, it).isTruthy } ?: emptyList()
+        val results = items?.filter { predicate.evaluate(it).isTruthy } ?: emptyList()
         return Value.ArrayValue(results)
     }
 
@@ -106,16 +108,14 @@ internal object IterationOperators {
      * seeds the fold with `typeof values[2] !== "undefined" ? values[2]
      * : null`. Arguments past the third are ignored.
      */
-    fun opReduce(args: Value, vars: Value): Value {
-        val raw = Operators.argsAsList(args)
-        val sourceArg = raw.getOrNull(0) ?: Value.Null
-        val predicate = raw.getOrNull(1) ?: Value.Undefined
-        val source = Evaluator.evaluateValue(sourceArg, vars)
-        var accumulator = raw.getOrNull(2)?.let { Evaluator.evaluateValue(it, vars) } ?: Value.Null
+    fun opReduce(args: List<CompiledPredicate>, vars: Value): Value {
+        val source = args.getOrNull(0)?.evaluate(vars) ?: Value.Null
+        val predicate = args.getOrNull(1) ?: undefinedPredicate
+        var accumulator = args.getOrNull(2)?.evaluate(vars) ?: Value.Null
         val items = (source as? Value.ArrayValue)?.items ?: return accumulator
         for (item in items) {
             val scope = Value.ObjectValue(mapOf("current" to item, "accumulator" to accumulator))
-            accumulator = Evaluator.evaluateValue(predicate, scope)
+            accumulator = predicate.evaluate(scope)
         }
         return accumulator
     }
@@ -135,13 +135,11 @@ internal object IterationOperators {
      * `function(scopedData, scopedLogic)` signature.
      */
     private fun parseIterationArgs(
-        args: Value,
+        args: List<CompiledPredicate>,
         vars: Value,
-    ): Pair<List<Value>?, Value> {
-        val raw = Operators.argsAsList(args)
-        val sourceArg = raw.getOrNull(0) ?: Value.Null
-        val predicate = raw.getOrNull(1) ?: Value.Undefined
-        val source = Evaluator.evaluateValue(sourceArg, vars)
+    ): Pair<List<Value>?, CompiledPredicate> {
+        val source = args.getOrNull(0)?.evaluate(vars) ?: Value.Null
+        val predicate = args.getOrNull(1) ?: undefinedPredicate
         val items = (source as? Value.ArrayValue)?.items
         return items to predicate
     }
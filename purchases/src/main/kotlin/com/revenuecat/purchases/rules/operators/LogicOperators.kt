@@ -1,6 +1,6 @@
 package com.revenuecat.purchases.rules.operators
 
-import com.revenuecat.purchases.rules.Evaluator
+import com.revenuecat.purchases.rules.CompiledPredicate
 import com.revenuecat.purchases.rules.Value
 
 /**
@@ -16,13 +16,13 @@ internal object LogicOperators {
      * `{"!": x}` — boolean negation. Coerces to bool first per JSON Logic
      * truthiness rules.
      */
-    fun opNot(args: Value, vars: Value): Value {
+    fun opNot(args: List<CompiledPredicate>, vars: Value): Value {
         val value = firstArgEvaluated(args, vars)
         return Value.BoolValue(!value.isTruthy)
     }
 
     /** `{"!!": x}` — boolean cast. Spec: equivalent to `!!x` in JS. */
-    fun opNotNot(args: Value, vars: Value): Value {
+    fun opNotNot(args: List<CompiledPredicate>, vars: Value): Value {
         val value = firstArgEvaluated(args, vars)
         return Value.BoolValue(value.isTruthy)
     }
@@ -34,10 +34,10 @@ internal object LogicOperators {
      * returns [Value.Undefined] (json-logic-js reduces an empty `and` to
      * `undefined`, which is falsy but `!== null`).
      */
-    fun opAnd(args: Value, vars: Value): Value {
+    fun opAnd(args: List<CompiledPredicate>, vars: Value): Value {
         var last: Value = Value.Undefined
-        for (item in Operators.argsAsList(args)) {
-            last = Evaluator.evaluateValue(item, vars)
+        for (item in args) {
+            last = item.evaluate(vars)
             if (!last.isTruthy) return last
         }
         return last
@@ -48,10 +48,10 @@ internal object LogicOperators {
      * value or, if all are falsy, the last value. Empty args returns
      * [Value.Undefined] for the same reason as [opAnd].
      */
-    fun opOr(args: Value, vars: Value): Value {
+    fun opOr(args: List<CompiledPredicate>, vars: Value): Value {
         var last: Value = Value.Undefined
-        for (item in Operators.argsAsList(args)) {
-            last = Evaluator.evaluateValue(item, vars)
+        for (item in args) {
+            last = item.evaluate(vars)
             if (last.isTruthy) return last
         }
         return last
@@ -64,26 +64,23 @@ internal object LogicOperators {
      * also fall through to `Null` (the loop never enters and `index <
      * items.size` is false).
      */
-    fun opIf(args: Value, vars: Value): Value {
-        val items = Operators.argsAsList(args)
+    fun opIf(args: List<CompiledPredicate>, vars: Value): Value {
         var index = 0
-        while (index + 1 < items.size) {
-            val condition = Evaluator.evaluateValue(items[index], vars)
+        while (index + 1 < args.size) {
+            val condition = args[index].evaluate(vars)
             if (condition.isTruthy) {
-                return Evaluator.evaluateValue(items[index + 1], vars)
+                return args[index + 1].evaluate(vars)
             }
             index += 2
         }
-        return if (index < items.size) {
-            Evaluator.evaluateValue(items[index], vars)
+        return if (index < args.size) {
+            args[index].evaluate(vars)
         } else {
             Value.Null
         }
     }
 
-    private fun firstArgEvaluated(args: Value, vars: Value): Value {
-        val items = Operators.argsAsList(args)
-        val first = items.firstOrNull() ?: Value.Null
-        return Evaluator.evaluateValue(first, vars)
+    private fun firstArgEvaluated(args: List<CompiledPredicate>, vars: Value): Value {
+        return args.firstOrNull()?.evaluate(vars) ?: Value.Null
     }
 }
@@ -1,5 +1,6 @@
 package com.revenuecat.purchases.rules.operators
 
+import com.revenuecat.purchases.rules.CompiledPredicate
 import com.revenuecat.purchases.rules.Value
 import kotlin.math.max
 import kotlin.math.min
@@ -16,16 +17,16 @@ import kotlin.math.min
  */
 internal object MinMaxOperators {
 
-    fun opMax(args: Value, vars: Value): Value {
+    fun opMax(args: List<CompiledPredicate>, vars: Value): Value {
         return reduceExtremum(args, vars, empty = Double.NEGATIVE_INFINITY) { a, b -> max(a, b) }
     }
 
-    fun opMin(args: Value, vars: Value): Value {
+    fun opMin(args: List<CompiledPredicate>, vars: Value): Value {
         return reduceExtremum(args, vars, empty = Double.POSITIVE_INFINITY) { a, b -> min(a, b) }
     }
 
     private fun reduceExtremum(
-        args: Value,
+        args: List<CompiledPredicate>,
         vars: Value,
         empty: Double,
         combine: (Double, Double) -> Double,
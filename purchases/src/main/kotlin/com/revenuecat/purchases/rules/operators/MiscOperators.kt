@@ -1,5 +1,6 @@
 package com.revenuecat.purchases.rules.operators
 
+import com.revenuecat.purchases.rules.CompiledPredicate
 import com.revenuecat.purchases.rules.RulesEngine
 import com.revenuecat.purchases.rules.Value
 import com.revenuecat.purchases.rules.jsString
@@ -18,7 +19,7 @@ internal object MiscOperators {
      * [Value.Undefined] (logged as `"undefined"`); operands beyond the
      * first are ignored.
      */
-    fun opLog(args: Value, vars: Value): Value {
+    fun opLog(args: List<CompiledPredicate>, vars: Value): Value {
         val value = Operators.evalArgs(args, vars).firstOrNull() ?: Value.Undefined
         RulesEngine.logger.log(jsString(value))
         return value
@@ -1,82 +1,86 @@
 package com.revenuecat.purchases.rules.operators
 
+import com.revenuecat.purchases.rules.CompiledPredicate
 import com.revenuecat.purchases.rules.Evaluator
 import com.revenuecat.purchases.rules.RulesEngine.EvaluationException
 import com.revenuecat.purchases.rules.Value
 
+/**
+ * A JSON Logic operator implementation, taking its compiled argument list and
+ * the current data scope.
+ */
+internal typealias OperatorFunction = (args: List<CompiledPredicate>, vars: Value) -> Value
+
 /**
  * JSON Logic operator dispatcher and shared helpers.
  *
- * Operators are responsible for evaluating their own arguments. Most use
- * the [evalTwo] / [evalArgs] helpers which evaluate eagerly; short-circuit
- * operators (`and`, `or`, `if`) iterate manually.
+ * Operators are responsible for evaluating their own arguments, which
+ * they receive compiled (see [Evaluator.compile]). Most use the [evalTwo] /
+ * [evalArgs] helpers which evaluate eagerly; short-circuit operators (`and`,
+ * `or`, `if`) iterate manually.
  */
 internal object Operators {
 
     /**
-     * Dispatch a JSON Logic operator. Throws
-     * [EvaluationException.UnsupportedOperator] when the operator name isn't
-     * implemented in this slice.
+     * Resolve a JSON Logic operator by name. Returns `null` when the
+     * operator name isn't implemented in this slice; evaluating it should
+     * then throw [EvaluationException.UnsupportedOperator].
      */
-    @Suppress("ComplexMethod", "ReturnCount")
-    fun dispatch(
-        op: String,
-        args: Value,
-        vars: Value,
-    ): Value = when (op) {
+    @Suppress("ComplexMethod")
+    fun resolve(op: String): OperatorFunction? = when (op) {
         // Accessors
-        "var" -> AccessorOperators.opVar(args, vars)
-        "missing" -> AccessorOperators.opMissing(args, vars)
-        "missing_some" -> AccessorOperators.opMissingSome(args, vars)
+        "var" -> AccessorOperators::opVar
+        "missing" -> AccessorOperators::opMissing
+        "missing_some" -> AccessorOperators::opMissingSome
 
         // Equality
-        "==" -> EqualityOperators.opLooseEq(args, vars)
-        "!=" -> EqualityOperators.opLooseNe(args, vars)
-        "===" -> EqualityOperators.opStrictEq(args, vars)
-        "!==" -> EqualityOperators.opStrictNe(args, vars)
+        "==" -> EqualityOperators::opLooseEq
+        "!=" -> EqualityOperators::opLooseNe
+        "===" -> EqualityOperators::opStrictEq
+        "!==" -> EqualityOperators::opStrictNe
 
         // Logic
-        "!" -> LogicOperators.opNot(args, vars)
-        "!!" -> LogicOperators.opNotNot(args, vars)
-        "and" -> LogicOperators.opAnd(args, vars)
-        "or" -> LogicOperators.opOr(args, vars)
-        "if" -> LogicOperators.opIf(args, vars)
+        "!" -> LogicOperators::opNot
+        "!!" -> LogicOperators::opNotNot
+        "and" -> LogicOperators::opAnd
+        "or" -> LogicOperators::opOr
+        "if" -> LogicOperators::opIf
 
         // Arithmetic
-        "+" -> ArithmeticOperators.opAdd(args, vars)
-        "-" -> ArithmeticOperators.opSub(args, vars)
-        "*" -> ArithmeticOperators.opMul(args, vars)
-        "/" -> ArithmeticOperators.opDiv(args, vars)
-        "%" -> ArithmeticOperators.opMod(args, vars)
+        "+" -> ArithmeticOperators::opAdd
+        "-" -> ArithmeticOperators::opSub
+        "*" -> ArithmeticOperators::opMul
+        "/" -> ArithmeticOperators::opDiv
+        "%" -> ArithmeticOperators::opMod
 
         // Min and max
-        "min" -> MinMaxOperators.opMin(args, vars)
-        "max" -> MinMaxOperators.opMax(args, vars)
+        "min" -> MinMaxOperators::opMin
+        "max" -> MinMaxOperators::opMax
 
         // Comparison
-        "<" -> ComparisonOperators.opLt(args, vars)
-        "<=" -> ComparisonOperators.opLe(args, vars)
-        ">" -> ComparisonOperators.opGt(args, vars)
-        ">=" -> ComparisonOperators.opGe(args, vars)
+        "<" -> ComparisonOperators::opLt
+        "<=" -> ComparisonOperators::opLe
+        ">" -> ComparisonOperators::opGt
+        ">=" -> ComparisonOperators::opGe
 
         // String and array
-        "in" -> StringArrayOperators.opIn(args, vars)
-        "cat" -> StringArrayOperators.opCat(args, vars)
-        "substr" -> StringArrayOperators.opSubstr(args, vars)
-        "merge" -> StringArrayOperators.opMerge(args, vars)
+        "in" -> StringArrayOperators::opIn
+        "cat" -> StringArrayOperators::opCat
+        "substr" -> StringArrayOperators::opSubstr
+        "merge" -> StringArrayOperators::opMerge
 
         // Iteration
-        "some" -> IterationOperators.opSome(args, vars)
-        "all" -> IterationOperators.opAll(args, vars)
-        "none" -> IterationOperators.opNone(args, vars)
-        "map" -> IterationOperators.opMap(args, vars)
-        "filter" -> IterationOperators.opFilter(args, vars)
-        "reduce" -> IterationOperators.opReduce(args, vars)
+        "some" -> IterationOperators::opSome
+        "all" -> IterationOperators::opAll
+        "none" -> IterationOperators::opNone
+        "map" -> IterationOperators::opMap
+        "filter" -> IterationOperators::opFilter
+        "reduce" -> IterationOperators::opReduce
 
         // Miscellaneous
-        "log" -> MiscOperators.opLog(args, vars)
+        "log" -> MiscOperators::opLog
 
-        else -> throw EvaluationException.UnsupportedOperator(op)
+        else -> null
     }
 
     /**
@@ -89,11 +93,14 @@ internal object Operators {
         else -> listOf(args)
     }
 
+    /** Compile every element in an argument list. */
+    fun compileArgs(args: Value): List<CompiledPredicate> = argsAsList(args).map { Evaluator.compile(it) }
+
     /** Evaluate every element in an argument list. */
     fun evalArgs(
-        args: Value,
+        args: List<CompiledPredicate>,
         vars: Value,
-    ): List<Value> = argsAsList(args).map { Evaluator.evaluateValue(it, vars) }
+    ): List<Value> = args.map { it.evaluate(vars) }
 
     /**
      * Evaluate args and return the first two operands. Missing operands
@@ -103,7 +110,7 @@ internal object Operators {
      * are silently discarded.
      */
     fun evalTwo(
-        args: Value,
+        args: List<CompiledPredicate>,
         vars: Value,
     ): Pair<Value, Value> {
         val evaluated = evalArgs(args, vars)
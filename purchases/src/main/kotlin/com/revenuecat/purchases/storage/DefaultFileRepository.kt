@@ -4,6 +4,8 @@ import android.content.Context
 import androidx.annotation.VisibleForTesting
 import com.revenuecat.purchases.InternalRevenueCatAPI
 import com.revenuecat.purchases.LogHandler
+import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.DefaultDateProvider
 import com.revenuecat.purchases.common.currentLogHandler
 import com.revenuecat.purchases.common.verboseLog
 import com.revenuecat.purchases.models.Checksum
@@ -19,6 +21,7 @@ import kotlinx.coroutines.async
 import kotlinx.coroutines.launch
 import java.io.File
 import java.io.FileOutputStream
+import java.io.FilterInputStream
 import java.io.IOException
 import java.io.InputStream
 import java.net.HttpURLConnection
@@ -39,6 +42,13 @@ public interface FileRepository {
      */
     public fun prefetch(urls: List<Pair<URL, Checksum?>>)
 
+    /**
+     * Prefetch files at the given urls, ahead of pending prefetches with a lower [priority].
+     * @param urls An array of the pairs of URL to their checksum to fetch data from.
+     * @param priority The priority of these files relative to other pending prefetches.
+     */
+    public fun prefetch(urls: List<Pair<URL, Checksum?>>, priority: PrefetchPriority): Unit = prefetch(urls)
+
     /**
      * Create and/or get the cached file url.
      * @param url The url for the remote data to cache into a file.
@@ -56,6 +66,24 @@ public interface FileRepository {
     public fun getFile(url: URL, checksum: Checksum? = null): URI?
 }
 
+/**
+ * Order in which pending prefetches are downloaded.
+ */
+@InternalRevenueCatAPI
+public enum class PrefetchPriority {
+    /**
+     * Assets of the current offering, the most likely to be displayed first. Meant for the current offering's videos,
+     * which [com.revenuecat.purchases.utils.OfferingVideoPredownloader] doesn't pre-download yet, so nothing prefetches
+     * with this priority for now.
+     */
+    CURRENT_OFFERING,
+
+    /**
+     * Any other asset.
+     */
+    DEFAULT,
+}
+
 /**
  * The file repository is a service capable of storing data and returning the URL where that stored data exists.
  */
@@ -66,6 +94,15 @@ public interface LocalFileCache {
     public fun saveData(inputStream: InputStream, uri: URI, checksum: Checksum? = null)
 }
 
+/**
+ * Prefetches run on at most [maxConcurrentPrefetches] workers, which take
+ * [PrefetchPriority.CURRENT_OFFERING] files first. [stats] counts cache hits, misses and downloaded bytes, plus the
+ * evictions of a [DefaultFileCache].
+ *
+ * Files returned to callers and files of the current offering are pinned in a [DefaultFileCache], so eviction doesn't
+ * delete them while this process may still display them.
+ */
+@Suppress("LongParameterList")
 @InternalRevenueCatAPI
 internal class DefaultFileRepository(
     @get:VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
@@ -74,6 +111,8 @@ internal class DefaultFileRepository(
     private val ioScope: CoroutineScope = CoroutineScope(Dispatchers.IO + NonCancellable),
     private val logHandler: LogHandler = currentLogHandler,
     private val urlConnectionFactory: UrlConnectionFactory = DefaultUrlConnectionFactory(),
+    private val maxConcurrentPrefetches: Int = DEFAULT_MAX_CONCURRENT_PREFETCHES,
+    internal val stats: FileCacheStats = FileCacheStats(),
 ) : FileRepository {
 
     internal data class CacheKey(
@@ -84,24 +123,81 @@ internal class DefaultFileRepository(
     constructor(
         context: Context,
         subDir: String = DefaultFileCache.DEFAULT_SUBDIR,
+        maxConcurrentPrefetches: Int = DEFAULT_MAX_CONCURRENT_PREFETCHES,
+    ) : this(DefaultFileCache(context, subDir), maxConcurrentPrefetches)
+
+    private constructor(
+        fileCache: DefaultFileCache,
+        maxConcurrentPrefetches: Int,
     ) : this(
-        fileCacheManager = DefaultFileCache(context, subDir),
-    )
+        fileCacheManager = fileCache,
+        maxConcurrentPrefetches = maxConcurrentPrefetches,
+        stats = fileCache.stats,
+    ) {
+        fileCache.onFileEvicted = ::forgetEvictedFile
+        pinFile = fileCache::pin
+    }
+
+    private companion object {
+        const val DEFAULT_MAX_CONCURRENT_PREFETCHES = 4
+    }
+
+    private val prefetchLock = Any()
+    private val pendingPrefetches = PrefetchPriority.values().associateWith { ArrayDeque<CacheKey>() }
+    private var runningPrefetchWorkers = 0
+    private var pinFile: ((URI) -> Unit)? = null
+
+    init {
+        require(maxConcurrentPrefetches > 0) { "maxConcurrentPrefetches must be positive" }
+    }
 
     override fun prefetch(urls: List<Pair<URL, Checksum?>>) {
-        ioScope.launch {
-            urls.forEach { (url, checksum) ->
-                try {
-                    generateOrGetCachedFileURL(url, checksum)
-                } catch (e: IOException) {
-                    logHandler.e("FileRepository", "Prefetch failed for $url: $e", e)
-                }
+        prefetch(urls, PrefetchPriority.DEFAULT)
+    }
+
+    override fun prefetch(urls: List<Pair<URL, Checksum?>>, priority: PrefetchPriority) {
+        if (priority == PrefetchPriority.CURRENT_OFFERING) {
+            urls.forEach { (url, checksum) -> fileCacheManager.generateLocalFilesystemURI(url, checksum)?.let(::pin) }
+        }
+        val workersToStart = synchronized(prefetchLock) {
+            urls.mapTo(pendingPrefetches.getValue(priority)) { (url, checksum) -> CacheKey(url, checksum) }
+            val pendingCount = pendingPrefetches.values.sumOf { it.size }
+            minOf(maxConcurrentPrefetches - runningPrefetchWorkers, pendingCount).also {
+                runningPrefetchWorkers += it
+            }
+        }
+        repeat(workersToStart) {
+            ioScope.launch { runPrefetchWorker() }
+        }
+    }
+
+    private suspend fun runPrefetchWorker() {
+        while (true) {
+            val key = nextPrefetch() ?: return
+            try {
+                cachedFileURL(key)
+            } catch (e: IOException) {
+                logHandler.e("FileRepository", "Prefetch failed for ${key.url}: $e", e)
             }
         }
     }
 
+    private fun nextPrefetch(): CacheKey? = synchronized(prefetchLock) {
+        // Queues are in PrefetchPriority declaration order, highest priority first.
+        val next = pendingPrefetches.values.firstNotNullOfOrNull { it.removeFirstOrNull() }
+        if (next == null) {
+            runningPrefetchWorkers--
+        }
+        next
+    }
+
     override suspend fun generateOrGetCachedFileURL(url: URL, checksum: Checksum?): URI {
-        return store.getOrPut(CacheKey(url, checksum)) {
+        return cachedFileURL(CacheKey(url, checksum)).also(::pin)
+    }
+
+    private suspend fun cachedFileURL(key: CacheKey): URI {
+        val (url, checksum) = key
+        return store.getOrPut(key) {
             ioScope.async {
                 val cachedUri = fileCacheManager.generateLocalFilesystemURI(
                     remoteURL = url,
@@ -113,11 +209,14 @@ internal class DefaultFileRepository(
                 }()
 
                 if (fileCacheManager.cachedContentExists(cachedUri)) {
+                    stats.recordHit()
                     return@async cachedUri
                 }
+                stats.recordMiss()
 
                 val connectionWithStream = downloadFile(url = url)
                 saveCachedFile(cachedUri, connectionWithStream, checksum)
+                verboseLog { "File cache: $stats" }
                 return@async cachedUri
             }
         }.await()
@@ -125,9 +224,27 @@ internal class DefaultFileRepository(
 
     override fun getFile(url: URL, checksum: Checksum?): URI? =
         fileCacheManager.generateLocalFilesystemURI(remoteURL = url, checksum = checksum)?.let {
-            if (fileCacheManager.cachedContentExists(it)) it else null
+            if (fileCacheManager.cachedContentExists(it)) {
+                stats.recordHit()
+                pin(it)
+                it
+            } else {
+                stats.recordMiss()
+                null
+            }
         }
 
+    private fun pin(uri: URI) {
+        pinFile?.invoke(uri)
+    }
+
+    /**
+     * Forgets the stored URI of an evicted file, so the next request downloads it again.
+     */
+    private fun forgetEvictedFile(uri: URI) {
+        store.removeWhere { key -> fileCacheManager.generateLocalFilesystemURI(key.url, key.checksum) == uri }
+    }
+
     private fun downloadFile(url: URL): UrlConnection = try {
         verboseLog { "Downloading remote file from $url" }
 
@@ -151,8 +268,12 @@ internal class DefaultFileRepository(
 
     private fun saveCachedFile(uri: URI, connectionWithStream: UrlConnection, checksum: Checksum?) {
         try {
-            connectionWithStream.inputStream.use { stream ->
-                fileCacheManager.saveData(stream, uri, checksum)
+            ByteCountingInputStream(connectionWithStream.inputStream).use { stream ->
+                try {
+                    fileCacheManager.saveData(stream, uri, checksum)
+                } finally {
+                    stats.recordDownloadedBytes(stream.byteCount)
+                }
             }
         } catch (e: Checksum.ChecksumValidationException) {
             val message = "Checksum validation failed for $uri: ${e.message}"
@@ -167,6 +288,18 @@ internal class DefaultFileRepository(
         }
     }
 
+    private class ByteCountingInputStream(inputStream: InputStream) : FilterInputStream(inputStream) {
+        var byteCount = 0L
+            private set
+
+        override fun read(): Int = super.read().also { if (it != -1) byteCount++ }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int =
+            super.read(b, off, len).also { if (it > 0) byteCount += it }
+
+        override fun skip(n: Long): Long = super.skip(n).also { byteCount += it }
+    }
+
     /**
      * File repository error cases.
      */
@@ -193,17 +326,32 @@ internal class DefaultFileRepository(
     }
 }
 
+/**
+ * Keeps the files under [maxSizeBytes] by evicting the least recently accessed ones after each save, tracking access
+ * times in a [FileAccessIndex] stored next to them. Files [pin]ned in this process are never evicted, so the cache can
+ * stay over [maxSizeBytes] while they alone exceed it.
+ */
 @OptIn(InternalRevenueCatAPI::class)
 internal class DefaultFileCache(
     private val context: Context,
     private val subDir: String = DEFAULT_SUBDIR,
+    private val maxSizeBytes: Long = DEFAULT_MAX_SIZE_BYTES,
+    internal val stats: FileCacheStats = FileCacheStats(),
+    private val dateProvider: DateProvider = DefaultDateProvider(),
 ) : LocalFileCache {
 
     companion object {
         internal const val DEFAULT_SUBDIR = "rc_files"
+        internal const val DEFAULT_MAX_SIZE_BYTES = 100L * 1024 * 1024 // 100MB
         private const val BUFFER_SIZE = 256 * 1024 // 256KB
+        private const val TEMP_FILE_PREFIX = "rc_download_"
     }
 
+    /**
+     * Called with the URI of each file deleted by eviction.
+     */
+    var onFileEvicted: ((URI) -> Unit)? = null
+
     private val md: MessageDigest by lazy {
         MessageDigest.getInstance("MD5")
     }
@@ -216,6 +364,13 @@ internal class DefaultFileCache(
         dir
     }
 
+    private val accessIndex: FileAccessIndex by lazy {
+        FileAccessIndex(File(cacheDir, FileAccessIndex.FILE_NAME), dateProvider)
+    }
+
+    private val evictionLock = Any()
+    private val pinnedFileNames = mutableSetOf<String>()
+
     override fun generateLocalFilesystemURI(remoteURL: URL, checksum: Checksum?): URI? {
         val urlHash = md5Hex(remoteURL.toString().toByteArray())
         // Use checksum value as part of the file name (like iOS)
@@ -228,8 +383,20 @@ internal class DefaultFileCache(
         return File(cacheDir, fileWithExtension).toURI()
     }
 
-    override fun cachedContentExists(uri: URI): Boolean =
-        File(uri).exists()
+    override fun cachedContentExists(uri: URI): Boolean {
+        val file = File(uri)
+        return file.exists().also { exists ->
+            if (exists) accessIndex.recordAccess(file.name)
+        }
+    }
+
+    /**
+     * Keeps the file at [uri] from being evicted for the lifetime of this cache, e.g. while it may be displayed.
+     */
+    fun pin(uri: URI) {
+        val fileName = File(uri).name
+        synchronized(evictionLock) { pinnedFileNames.add(fileName) }
+    }
 
     // For readability. I reads like a sentence and ! is harder to see than isFalse
     private val Boolean.isFalse: Boolean get() = !this
@@ -237,7 +404,7 @@ internal class DefaultFileCache(
     override fun saveData(inputStream: InputStream, uri: URI, checksum: Checksum?) {
         val finalFile = File(uri)
         val tempFile = File.createTempFile(
-            "rc_download_",
+            TEMP_FILE_PREFIX,
             ".tmp",
             finalFile.parentFile,
         )
@@ -267,10 +434,41 @@ internal class DefaultFileCache(
         } finally {
             tempFile.delete()
         }
+
+        if (finalFile.exists()) {
+            accessIndex.recordAccess(finalFile.name)
+            evictIfNeeded(keep = finalFile)
+        }
+    }
+
+    private fun evictIfNeeded(keep: File) = synchronized(evictionLock) {
+        val cachedFiles = cacheDir.listFiles { file ->
+            file.isFile && !file.name.startsWith(TEMP_FILE_PREFIX) && !file.name.startsWith(FileAccessIndex.FILE_NAME)
+        }.orEmpty()
+        var totalSize = cachedFiles.sumOf { it.length() }
+        if (totalSize > maxSizeBytes) {
+            val evictionCandidates = cachedFiles
+                .filter { it != keep && it.name !in pinnedFileNames }
+                .sortedBy { accessIndex.lastAccessTime(it) }
+                .iterator()
+            while (totalSize > maxSizeBytes && evictionCandidates.hasNext()) {
+                val file = evictionCandidates.next()
+                val size = file.length()
+                if (file.delete()) {
+                    verboseLog { "Evicted ${file.name} ($size bytes) from the file cache" }
+                    totalSize -= size
+                    accessIndex.remove(file.name)
+                    stats.recordEviction()
+                    onFileEvicted?.invoke(file.toURI())
+                }
+            }
+        }
+        accessIndex.save()
     }
 
+    // MessageDigest isn't thread-safe, and prefetches generate URIs from several threads.
     private fun md5Hex(bytes: ByteArray): String =
-        md.digest(bytes).joinToString("") { "%02x".format(it) }
+        synchronized(md) { md.digest(bytes) }.joinToString("") { "%02x".format(it) }
 
     @Throws(IOException::class)
     private fun streamToFile(inputStream: InputStream, file: File) {
@@ -0,0 +1,81 @@
+package com.revenuecat.purchases.storage
+
+import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.DefaultDateProvider
+import com.revenuecat.purchases.common.verboseLog
+import java.io.File
+import java.io.IOException
+
+/**
+ * Last access time of each file of a [DefaultFileCache], so the least recently used files are evicted first.
+ *
+ * Kept in memory and saved to [indexFile], one `name<TAB>millis` line per file, by [save]. Files missing from the
+ * index (e.g. cached by previous versions) fall back to their last modification time.
+ */
+internal class FileAccessIndex(
+    private val indexFile: File,
+    private val dateProvider: DateProvider = DefaultDateProvider(),
+) {
+    private val lastAccessTimes: MutableMap<String, Long> by lazy { load() }
+    private var isDirty = false
+
+    @Synchronized
+    fun recordAccess(fileName: String) {
+        lastAccessTimes[fileName] = dateProvider.now.time
+        isDirty = true
+    }
+
+    @Synchronized
+    fun lastAccessTime(file: File): Long = lastAccessTimes[file.name] ?: file.lastModified()
+
+    @Synchronized
+    fun remove(fileName: String) {
+        if (lastAccessTimes.remove(fileName) != null) {
+            isDirty = true
+        }
+    }
+
+    /**
+     * Writes the index to disk if it changed since it was last saved or loaded.
+     */
+    @Synchronized
+    fun save() {
+        if (!isDirty) return
+        val tempFile = File(indexFile.parentFile, indexFile.name + TEMP_SUFFIX)
+        try {
+            tempFile.bufferedWriter().use { writer ->
+                lastAccessTimes.forEach { (fileName, lastAccessTime) ->
+                    writer.append(fileName).append(SEPARATOR).append(lastAccessTime.toString()).append('\n')
+                }
+            }
+            if (tempFile.renameTo(indexFile)) {
+                isDirty = false
+            }
+        } catch (e: IOException) {
+            verboseLog { "Failed to save file cache access index: ${e.message}" }
+        } finally {
+            tempFile.delete()
+        }
+    }
+
+    private fun load(): MutableMap<String, Long> {
+        val lastAccessTimes = mutableMapOf<String, Long>()
+        try {
+            if (indexFile.exists()) {
+                indexFile.forEachLine { line ->
+                    val fileName = line.substringBefore(SEPARATOR)
+                    line.substringAfter(SEPARATOR, "").toLongOrNull()?.let { lastAccessTimes[fileName] = it }
+                }
+            }
+        } catch (e: IOException) {
+            verboseLog { "Failed to read file cache access index: ${e.message}" }
+        }
+        return lastAccessTimes
+    }
+
+    companion object {
+        const val FILE_NAME = "rc_access_index"
+        const val TEMP_SUFFIX = ".tmp"
+        private const val SEPARATOR = '\t'
+    }
+}
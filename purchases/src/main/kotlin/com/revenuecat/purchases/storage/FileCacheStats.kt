@@ -0,0 +1,52 @@
+package com.revenuecat.purchases.storage
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters for a [DefaultFileRepository] and its [DefaultFileCache], logged after every file it downloads.
+ */
+internal class FileCacheStats {
+    private val hits = AtomicLong(0)
+    private val misses = AtomicLong(0)
+    private val downloadedBytes = AtomicLong(0)
+    private val evictions = AtomicLong(0)
+
+    /** Lookups that found the file on disk. */
+    val hitCount: Long get() = hits.get()
+
+    /** Lookups that didn't find the file on disk, so it had to be downloaded. */
+    val missCount: Long get() = misses.get()
+
+    /** Bytes read from downloads, including downloads that failed checksum validation. */
+    val bytesDownloaded: Long get() = downloadedBytes.get()
+
+    /** Files deleted to keep the cache under its size limit. */
+    val evictionCount: Long get() = evictions.get()
+
+    /** Ratio of lookups that found the file on disk, or 0 before any lookup. */
+    val hitRate: Double
+        get() {
+            val hitCount = hitCount
+            val lookups = hitCount + missCount
+            return if (lookups == 0L) 0.0 else hitCount.toDouble() / lookups
+        }
+
+    fun recordHit() {
+        hits.incrementAndGet()
+    }
+
+    fun recordMiss() {
+        misses.incrementAndGet()
+    }
+
+    fun recordDownloadedBytes(byteCount: Long) {
+        downloadedBytes.addAndGet(byteCount)
+    }
+
+    fun recordEviction() {
+        evictions.incrementAndGet()
+    }
+
+    override fun toString(): String = "FileCacheStats(hits=$hitCount, misses=$missCount, hitRate=$hitRate, " +
+        "bytesDownloaded=$bytesDownloaded, evictions=$evictionCount)"
+}
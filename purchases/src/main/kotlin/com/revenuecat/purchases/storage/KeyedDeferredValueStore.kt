@@ -13,6 +13,10 @@ public class KeyedDeferredValueStore<H, T>(
         deferred.get(key) ?: forgettingFailure(key, task).also { deferred.put(key, it) }
     }
 
+    public fun removeWhere(predicate: (H) -> Boolean): Unit = synchronized(lock) {
+        deferred.keys.removeAll(predicate)
+    }
+
     private fun forgettingFailure(key: H, task: () -> Deferred<T>): Deferred<T> =
         task().apply {
             invokeOnCompletion { exception ->
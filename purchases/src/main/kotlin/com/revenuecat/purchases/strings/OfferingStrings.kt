@@ -14,6 +14,8 @@ internal object OfferingStrings {
     const val FETCHING_OFFERINGS_ERROR = "Error fetching offerings - %s"
     const val FETCHING_PRODUCTS = "Requesting products from the store with identifiers: %s"
     const val FETCHING_PRODUCTS_FINISHED = "Products request finished for %s"
+    const val VENDING_CACHED_PRODUCTS = "Vending cached products for: %s"
+    const val CLEARING_CACHED_PRODUCTS = "Clearing cached products"
     const val BUILDING_OFFERINGS = "Building offerings response with %d products"
     const val CREATED_OFFERINGS = "Offerings object created with %d offerings"
     const val JSON_EXCEPTION_ERROR = "JSONException when building Offerings object. Message: %s"
@@ -14,6 +14,7 @@ import com.revenuecat.purchases.subscriberattributes.caching.SubscriberAttribute
 import com.revenuecat.purchases.subscriberattributes.caching.SubscriberAttributesCache
 import com.revenuecat.purchases.utils.getStringValueForPrimitive
 import java.util.Observable
+import java.util.concurrent.atomic.AtomicInteger
 
 @Suppress("TooManyFunctions")
 internal class SubscriberAttributesManager(
@@ -23,8 +24,20 @@ internal class SubscriberAttributesManager(
     private val automaticDeviceIdentifierCollectionEnabled: Boolean,
 ) {
 
+    private companion object {
+        const val MAX_USERS_PER_SYNC_BATCH = 5
+    }
+
     private val obtainingDeviceIdentifiersObservable = ObtainDeviceIdentifiersObservable()
 
+    // Attributes being posted for each user, with the callbacks of every sync waiting on that post.
+    private val inFlightPosts = mutableMapOf<AppUserID, InFlightPost>()
+
+    private class InFlightPost(
+        val attributes: SubscriberAttributeMap,
+        val onPosted: MutableList<() -> Unit>,
+    )
+
     @Synchronized
     fun setAttributes(attributesToSet: Map<String, String?>, appUserID: String) {
         val attributesAsObjects = attributesToSet.map { (key, value) ->
@@ -57,6 +70,14 @@ internal class SubscriberAttributesManager(
         setAttributes(mapOf(key.backendKey to value), appUserID)
     }
 
+    /**
+     * Posts the unsynced attributes of every user, one request per user since the backend takes the attributes of
+     * a single user per request. The current user goes first, and at most [MAX_USERS_PER_SYNC_BATCH] requests are
+     * in flight at once, so devices with many previous app user IDs don't queue them all at once ahead of other
+     * requests. A user whose same attributes are already being posted by a previous sync isn't posted again.
+     *
+     * @param completion called once the attributes of every user were posted, successfully or not.
+     */
     fun synchronizeSubscriberAttributesForAllUsers(
         currentAppUserID: AppUserID,
         completion: (() -> Unit)? = null,
@@ -75,41 +96,82 @@ internal class SubscriberAttributesManager(
                 return@waitUntilIdle
             }
 
-            val unsyncedStoredAttributesCount = unsyncedStoredAttributesForAllUsers.size
-            var currentSyncedAttributeCount = 0
-
-            unsyncedStoredAttributesForAllUsers.forEach { (syncingAppUserID, unsyncedAttributesForUser) ->
-                backend.postSubscriberAttributes(
-                    unsyncedAttributesForUser.toBackendMap(),
-                    syncingAppUserID,
-                    {
-                        markAsSynced(syncingAppUserID, unsyncedAttributesForUser, emptyList())
-                        log(LogIntent.RC_SUCCESS) {
-                            AttributionStrings.ATTRIBUTES_SYNC_SUCCESS.format(syncingAppUserID)
-                        }
-                        if (currentAppUserID != syncingAppUserID) {
-                            deviceCache.clearSubscriberAttributesIfSyncedForSubscriber(syncingAppUserID)
-                        }
-                        currentSyncedAttributeCount++
-                        if (completion != null && currentSyncedAttributeCount == unsyncedStoredAttributesCount) {
-                            completion()
-                        }
-                    },
-                    { error, didBackendGetAttributes, attributeErrors ->
-                        if (didBackendGetAttributes) {
-                            markAsSynced(syncingAppUserID, unsyncedAttributesForUser, attributeErrors)
-                        }
-                        log(LogIntent.RC_ERROR) {
-                            AttributionStrings.ATTRIBUTES_SYNC_ERROR.format(syncingAppUserID, error)
-                        }
-                        currentSyncedAttributeCount++
-                        if (completion != null && currentSyncedAttributeCount == unsyncedStoredAttributesCount) {
-                            completion()
-                        }
-                    },
-                )
+            val batches = unsyncedStoredAttributesForAllUsers.toList()
+                .sortedByDescending { (syncingAppUserID, _) -> syncingAppUserID == currentAppUserID }
+                .chunked(MAX_USERS_PER_SYNC_BATCH)
+            synchronizeBatches(batches, currentAppUserID, completion)
+        }
+    }
+
+    private fun synchronizeBatches(
+        batches: List<List<Pair<AppUserID, SubscriberAttributeMap>>>,
+        currentAppUserID: AppUserID,
+        completion: (() -> Unit)?,
+    ) {
+        val batch = batches.firstOrNull()
+        if (batch == null) {
+            if (completion != null) {
+                completion()
             }
+            return
         }
+        val remainingInBatch = AtomicInteger(batch.size)
+        batch.forEach { (syncingAppUserID, unsyncedAttributesForUser) ->
+            postUnsyncedAttributes(syncingAppUserID, unsyncedAttributesForUser, currentAppUserID) {
+                if (remainingInBatch.decrementAndGet() == 0) {
+                    synchronizeBatches(batches.drop(1), currentAppUserID, completion)
+                }
+            }
+        }
+    }
+
+    private fun postUnsyncedAttributes(
+        syncingAppUserID: AppUserID,
+        unsyncedAttributesForUser: SubscriberAttributeMap,
+        currentAppUserID: AppUserID,
+        onPosted: () -> Unit,
+    ) {
+        val inFlightPost = synchronized(inFlightPosts) {
+            val currentPost = inFlightPosts[syncingAppUserID]
+            if (currentPost != null && currentPost.attributes.entries.containsAll(unsyncedAttributesForUser.entries)) {
+                currentPost.onPosted.add(onPosted)
+                return
+            }
+            // A post of different attributes still in flight keeps its entry, and this one isn't joined.
+            InFlightPost(unsyncedAttributesForUser, mutableListOf(onPosted)).also {
+                if (currentPost == null) inFlightPosts[syncingAppUserID] = it
+            }
+        }
+        val completePost = {
+            val callbacks = synchronized(inFlightPosts) {
+                if (inFlightPosts[syncingAppUserID] === inFlightPost) inFlightPosts.remove(syncingAppUserID)
+                inFlightPost.onPosted.toList()
+            }
+            callbacks.forEach { it() }
+        }
+        backend.postSubscriberAttributes(
+            unsyncedAttributesForUser.toBackendMap(),
+            syncingAppUserID,
+            {
+                markAsSynced(syncingAppUserID, unsyncedAttributesForUser, emptyList())
+                log(LogIntent.RC_SUCCESS) {
+                    AttributionStrings.ATTRIBUTES_SYNC_SUCCESS.format(syncingAppUserID)
+                }
+                if (currentAppUserID != syncingAppUserID) {
+                    deviceCache.clearSubscriberAttributesIfSyncedForSubscriber(syncingAppUserID)
+                }
+                completePost()
+            },
+            { error, didBackendGetAttributes, attributeErrors ->
+                if (didBackendGetAttributes) {
+                    markAsSynced(syncingAppUserID, unsyncedAttributesForUser, attributeErrors)
+                }
+                log(LogIntent.RC_ERROR) {
+                    AttributionStrings.ATTRIBUTES_SYNC_ERROR.format(syncingAppUserID, error)
+                }
+                completePost()
+            },
+        )
     }
 
     @Synchronized
@@ -12,41 +12,64 @@ import com.revenuecat.purchases.common.caching.DeviceCache
 import com.revenuecat.purchases.common.log
 import com.revenuecat.purchases.strings.AttributionStrings
 import com.revenuecat.purchases.subscriberattributes.SubscriberAttribute
+import com.revenuecat.purchases.subscriberattributes.buildSubscriberAttributesMap
 import com.revenuecat.purchases.subscriberattributes.buildSubscriberAttributesMapPerUser
 
 internal typealias AppUserID = String
 internal typealias SubscriberAttributeMap = Map<String, SubscriberAttribute>
 internal typealias SubscriberAttributesPerAppUserIDMap = Map<AppUserID, SubscriberAttributeMap>
 
+/**
+ * Stores the attributes of each user in its own [DeviceCache] key, so setting attributes only reads and writes the
+ * record of that user. Every stored user is loaded into an in-memory index on first use, and writes go through it.
+ *
+ * Attributes stored by previous versions in a single record for all users are copied to per-user keys when the index
+ * is first loaded. That record is no longer written, but it's kept until every stored attribute is synced, so going
+ * back to a previous version doesn't lose attributes that were never sent.
+ */
 @OptIn(InternalRevenueCatAPI::class)
 internal class SubscriberAttributesCache(
     internal val deviceCache: DeviceCache,
 ) {
 
+    /**
+     * Key of the single record previous versions stored the attributes of every user in. Also the prefix of the
+     * older per-user keys handled by [migrateSubscriberAttributesIfNeeded].
+     */
     internal val subscriberAttributesCacheKey: String by lazy {
         deviceCache.newKey("subscriberAttributes")
     }
 
+    private val subscriberAttributesPerUserCacheKeyPrefix: String by lazy {
+        deviceCache.newKey("subscriberAttributesPerUser.")
+    }
+
+    /**
+     * Set once the single record at [subscriberAttributesCacheKey] was copied to per-user keys, so it's not merged
+     * into them again while it's kept.
+     */
+    private val singleRecordMigratedCacheKey: String by lazy {
+        deviceCache.newKey("subscriberAttributesSingleRecordMigrated")
+    }
+
+    private var storedAttributesIndex: MutableMap<AppUserID, SubscriberAttributeMap>? = null
+    private var hasSingleRecord = false
+
     @Synchronized
     fun setAttributes(appUserID: AppUserID, attributesToBeSet: SubscriberAttributeMap) {
-        val currentlyStoredAttributesForAllUsers = getAllStoredSubscriberAttributes()
-        val currentlyStoredAttributesForAppUserID =
-            currentlyStoredAttributesForAllUsers[appUserID] ?: emptyMap()
-        val updatedAttributesForUser = currentlyStoredAttributesForAppUserID + attributesToBeSet
-        val updatedAttributesForAllUsers =
-            currentlyStoredAttributesForAllUsers + mapOf(appUserID to updatedAttributesForUser)
-
-        deviceCache.putAttributes(updatedAttributesForAllUsers)
+        val updatedAttributesForUser = getAllStoredSubscriberAttributes(appUserID) + attributesToBeSet
+        val cacheEditor = deviceCache.startEditing()
+        storeAttributes(appUserID, updatedAttributesForUser, cacheEditor)
+        cacheEditor.apply()
     }
 
     @Synchronized
     fun getAllStoredSubscriberAttributes(): SubscriberAttributesPerAppUserIDMap =
-        deviceCache.getJSONObjectOrNull(subscriberAttributesCacheKey)
-            ?.buildSubscriberAttributesMapPerUser() ?: emptyMap()
+        storedAttributes().toMap()
 
     @Synchronized
     fun getAllStoredSubscriberAttributes(appUserID: AppUserID): SubscriberAttributeMap =
-        getAllStoredSubscriberAttributes()[appUserID] ?: emptyMap()
+        storedAttributes()[appUserID] ?: emptyMap()
 
     @Synchronized
     fun getUnsyncedSubscriberAttributes(): SubscriberAttributesPerAppUserIDMap =
@@ -62,12 +85,9 @@ internal class SubscriberAttributesCache(
     @Synchronized
     fun clearAllSubscriberAttributesFromUser(appUserID: AppUserID) {
         log(LogIntent.DEBUG) { AttributionStrings.DELETING_ATTRIBUTES.format(appUserID) }
-        val allStoredSubscriberAttributes = getAllStoredSubscriberAttributes()
-        val updatedStoredSubscriberAttributes =
-            allStoredSubscriberAttributes.toMutableMap().also {
-                it.remove(appUserID)
-            }.toMap()
-        deviceCache.putAttributes(updatedStoredSubscriberAttributes)
+        val cacheEditor = deviceCache.startEditing()
+        storeAttributes(appUserID, emptyMap(), cacheEditor)
+        cacheEditor.apply()
     }
 
     @Synchronized
@@ -75,6 +95,9 @@ internal class SubscriberAttributesCache(
         val unsyncedSubscriberAttributes = getUnsyncedSubscriberAttributes(appUserID)
         if (unsyncedSubscriberAttributes.isEmpty()) {
             clearAllSubscriberAttributesFromUser(appUserID)
+            val cacheEditor = deviceCache.startEditing()
+            removeSingleRecordIfSynced(cacheEditor)
+            cacheEditor.apply()
         }
     }
 
@@ -85,15 +108,79 @@ internal class SubscriberAttributesCache(
     ) {
         migrateSubscriberAttributesIfNeeded(cacheEditor)
         deleteSyncedSubscriberAttributesForOtherUsers(currentAppUserID, cacheEditor)
+        removeSingleRecordIfSynced(cacheEditor)
     }
 
-    private fun DeviceCache.putAttributes(
-        updatedSubscriberAttributesForAll: SubscriberAttributesPerAppUserIDMap,
+    /**
+     * Replaces the stored attributes of [appUserID] with [attributes], removing its record when they're empty. The
+     * index is updated right away and the record is written when [cacheEditor] is applied.
+     */
+    @Synchronized
+    internal fun storeAttributes(
+        appUserID: AppUserID,
+        attributes: SubscriberAttributeMap,
+        cacheEditor: SharedPreferences.Editor,
     ) {
-        return deviceCache.putString(
-            subscriberAttributesCacheKey,
-            updatedSubscriberAttributesForAll.toJSONObject().toString(),
-        )
+        val storedAttributes = storedAttributes()
+        val cacheKey = subscriberAttributesPerUserCacheKey(appUserID)
+        if (attributes.isEmpty()) {
+            storedAttributes.remove(appUserID)
+            cacheEditor.remove(cacheKey)
+        } else {
+            storedAttributes[appUserID] = attributes
+            cacheEditor.putString(cacheKey, attributes.toAttributesJSONObject().toString())
+        }
+    }
+
+    internal fun subscriberAttributesPerUserCacheKey(appUserID: AppUserID) =
+        "$subscriberAttributesPerUserCacheKeyPrefix$appUserID"
+
+    private fun storedAttributes(): MutableMap<AppUserID, SubscriberAttributeMap> =
+        storedAttributesIndex ?: loadStoredAttributes().also { storedAttributesIndex = it }
+
+    private fun loadStoredAttributes(): MutableMap<AppUserID, SubscriberAttributeMap> {
+        val storedAttributes = mutableMapOf<AppUserID, SubscriberAttributeMap>()
+        deviceCache.findKeysThatStartWith(subscriberAttributesPerUserCacheKeyPrefix).forEach { cacheKey ->
+            deviceCache.getJSONObjectOrNull(cacheKey)?.let { attributesJSONObject ->
+                val appUserID = cacheKey.removePrefix(subscriberAttributesPerUserCacheKeyPrefix)
+                storedAttributes[appUserID] = attributesJSONObject.buildSubscriberAttributesMap()
+            }
+        }
+        migrateSingleRecordSubscriberAttributes(storedAttributes)
+        return storedAttributes
+    }
+
+    private fun migrateSingleRecordSubscriberAttributes(
+        storedAttributes: MutableMap<AppUserID, SubscriberAttributeMap>,
+    ) {
+        hasSingleRecord = deviceCache.contains(subscriberAttributesCacheKey)
+        if (!hasSingleRecord || deviceCache.contains(singleRecordMigratedCacheKey)) return
+        val singleRecordAttributes = deviceCache.getJSONObjectOrNull(subscriberAttributesCacheKey)
+            ?.buildSubscriberAttributesMapPerUser()
+            ?: emptyMap()
+        val cacheEditor = deviceCache.startEditing()
+        singleRecordAttributes.filterValues { it.isNotEmpty() }.forEach { (appUserID, attributes) ->
+            val updatedAttributes = attributes + (storedAttributes[appUserID] ?: emptyMap())
+            storedAttributes[appUserID] = updatedAttributes
+            cacheEditor.putString(
+                subscriberAttributesPerUserCacheKey(appUserID),
+                updatedAttributes.toAttributesJSONObject().toString(),
+            )
+        }
+        cacheEditor.putBoolean(singleRecordMigratedCacheKey, true).apply()
+    }
+
+    /**
+     * Removes the single record previous versions stored attributes in once no stored attribute is left to sync.
+     */
+    private fun removeSingleRecordIfSynced(cacheEditor: SharedPreferences.Editor) {
+        val hasUnsyncedAttributes = storedAttributes().values.any { attributes ->
+            attributes.values.any { !it.isSynced }
+        }
+        if (!hasSingleRecord || hasUnsyncedAttributes) return
+        cacheEditor.remove(subscriberAttributesCacheKey)
+        cacheEditor.remove(singleRecordMigratedCacheKey)
+        hasSingleRecord = false
     }
 
     @Synchronized
@@ -103,21 +190,14 @@ internal class SubscriberAttributesCache(
     ) {
         log(LogIntent.DEBUG) { AttributionStrings.DELETING_ATTRIBUTES_OTHER_USERS.format(currentAppUserID) }
 
-        val allStoredSubscriberAttributes = getAllStoredSubscriberAttributes()
-
-        val filteredMap =
-            allStoredSubscriberAttributes.map { (appUserID, attributesMap) ->
-                if (currentAppUserID != appUserID) {
-                    appUserID to attributesMap.filterValues { !it.isSynced }
-                } else {
-                    appUserID to attributesMap
+        getAllStoredSubscriberAttributes().forEach { (appUserID, attributesMap) ->
+            if (currentAppUserID != appUserID) {
+                val unsyncedAttributes = attributesMap.filterValues { !it.isSynced }
+                if (unsyncedAttributes.size != attributesMap.size) {
+                    storeAttributes(appUserID, unsyncedAttributes, cacheEditor)
                 }
-            }.toMap().filterValues { it.isNotEmpty() }
-
-        cacheEditor.putString(
-            subscriberAttributesCacheKey,
-            filteredMap.toJSONObject().toString(),
-        )
+            }
+        }
     }
 
     private fun SubscriberAttributeMap.filterUnsynced(appUserID: AppUserID): SubscriberAttributeMap =
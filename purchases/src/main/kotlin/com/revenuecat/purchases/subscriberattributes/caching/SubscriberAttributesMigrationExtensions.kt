@@ -18,23 +18,12 @@ internal fun SubscriberAttributesCache.migrateSubscriberAttributes(
     legacySubscriberAttributesForAppUserID: SubscriberAttributesPerAppUserIDMap,
     cacheEditor: SharedPreferences.Editor,
 ) {
-    val storedSubscriberAttributesForAll: SubscriberAttributesPerAppUserIDMap =
-        getAllStoredSubscriberAttributes()
-
-    val updatedStoredSubscriberAttributesForAll: MutableMap<String, SubscriberAttributeMap> =
-        storedSubscriberAttributesForAll.toMutableMap()
-
     legacySubscriberAttributesForAppUserID.forEach { (appUserID: AppUserID, legacy: SubscriberAttributeMap) ->
-        val current: SubscriberAttributeMap = storedSubscriberAttributesForAll[appUserID] ?: emptyMap()
+        val current: SubscriberAttributeMap = getAllStoredSubscriberAttributes(appUserID)
         val updated: SubscriberAttributeMap = legacy + current
-        updatedStoredSubscriberAttributesForAll[appUserID] = updated
+        storeAttributes(appUserID, updated, cacheEditor)
         cacheEditor.remove(legacySubscriberAttributesCacheKey(appUserID))
     }
-
-    cacheEditor.putString(
-        subscriberAttributesCacheKey,
-        updatedStoredSubscriberAttributesForAll.toJSONObject().toString(),
-    )
 }
 
 internal fun SubscriberAttributesCache.legacySubscriberAttributesCacheKey(appUserID: String) =
@@ -5,13 +5,16 @@ import org.json.JSONObject
 internal fun Map<AppUserID, SubscriberAttributeMap>.toJSONObject(): JSONObject {
     val attributesObject = JSONObject().also { attributesJSONObject ->
         this.forEach { (appUserID, subscriberAttributeMap) ->
-            val jsonObject = JSONObject().also { userJSONObject ->
-                subscriberAttributeMap.forEach { (key, subscriberAttribute) ->
-                    userJSONObject.put(key, subscriberAttribute.toJSONObject())
-                }
-            }
-            attributesJSONObject.put(appUserID, jsonObject)
+            attributesJSONObject.put(appUserID, subscriberAttributeMap.toAttributesJSONObject())
         }
     }
     return JSONObject().also { it.put("attributes", attributesObject) }
 }
+
+internal fun SubscriberAttributeMap.toAttributesJSONObject(): JSONObject {
+    return JSONObject().also { userJSONObject ->
+        this.forEach { (key, subscriberAttribute) ->
+            userJSONObject.put(key, subscriberAttribute.toJSONObject())
+        }
+    }
+}
@@ -8,7 +8,7 @@ internal data class DateActive(val isActive: Boolean, val inGracePeriod: Boolean
 
 internal class DateHelper private constructor() {
     companion object {
-        private val ENTITLEMENT_GRACE_PERIOD = 3.days
+        internal val ENTITLEMENT_GRACE_PERIOD = 3.days
 
         /**
          * Calculates whether a subscription/entitlement is currently active according to the expiration date and last
@@ -12,10 +12,11 @@ import org.json.JSONObject
 
 /**
  * Class to handle file operations for event types like PaywallEvents and Diagnostics.
+ * Events are stored in a [SegmentedEventLog] derived from [filePath].
  * When [eventDeserializer] is null, [readFile] with the deserialized type won't return any events.
  */
 internal open class EventsFileHelper<T : Event> (
-    private val fileHelper: FileHelper,
+    fileHelper: FileHelper,
     private val filePath: String,
     private val eventSerializer: ((T) -> String)? = null,
     private val eventDeserializer: ((String) -> T)? = null,
@@ -24,14 +25,26 @@ internal open class EventsFileHelper<T : Event> (
         const val MAX_EVENT_PROPERTY_SIZE = 80
     }
 
+    private val eventLog = SegmentedEventLog(fileHelper, filePath)
+
     var debugEventCallback: ((DebugEvent) -> Unit)? = null
 
     @Synchronized
     fun appendEvent(event: T) {
+        appendEvents(listOf(event))
+    }
+
+    /**
+     * Appends [events] in order with a single write.
+     */
+    @Synchronized
+    fun appendEvents(events: List<T>) {
+        if (events.isEmpty()) return
         try {
-            fileHelper.appendToFile(
-                filePath,
-                (eventSerializer?.invoke(event) ?: event.toString()) + "\n",
+            eventLog.append(
+                events.joinToString(separator = "") { event ->
+                    (eventSerializer?.invoke(event) ?: event.toString()) + "\n"
+                },
             )
         } catch (@Suppress("TooGenericExceptionCaught") e: Exception) {
             debugEventCallback?.invoke(
@@ -49,16 +62,16 @@ internal open class EventsFileHelper<T : Event> (
 
     @Synchronized
     fun fileSizeInKB(): Double {
-        return fileHelper.fileSizeInKB(filePath)
+        return eventLog.sizeInKB()
     }
 
     @Synchronized
     fun readFile(block: ((Sequence<T?>) -> Unit)) {
         val eventDeserializer = eventDeserializer
-        if (eventDeserializer == null || fileHelper.fileIsEmpty(filePath)) {
+        if (eventDeserializer == null) {
             block(emptySequence())
         } else {
-            fileHelper.readFilePerLines(filePath) { sequence ->
+            eventLog.readLines { sequence ->
                 block(sequence.map { line -> mapToEvent(line) })
             }
         }
@@ -69,18 +82,16 @@ internal open class EventsFileHelper<T : Event> (
     // back again to a JSONObject.
     @Synchronized
     fun readFileAsJson(block: ((Sequence<JSONObject>) -> Unit)) {
-        if (fileHelper.fileIsEmpty(filePath)) {
-            block(emptySequence())
-        } else {
-            fileHelper.readFilePerLines(filePath) { sequence ->
-                block(sequence.map { JSONObject(it) })
-            }
+        eventLog.readLines { sequence ->
+            block(sequence.map { JSONObject(it) })
         }
     }
 
     @Synchronized
     fun clear(eventsToDeleteCount: Int) {
-        fileHelper.removeFirstLinesFromFile(filePath, eventsToDeleteCount) { e ->
+        try {
+            eventLog.removeFirst(eventsToDeleteCount)
+        } catch (@Suppress("TooGenericExceptionCaught") e: Throwable) {
             debugEventCallback?.invoke(
                 DebugEvent(
                     name = DebugEventName.REMOVE_LINES_EXCEPTION,
@@ -90,12 +101,14 @@ internal open class EventsFileHelper<T : Event> (
                     },
                 ),
             )
+            errorLog(e) { "Error removing first events from $filePath." }
+            throw e
         }
     }
 
     @Synchronized
     fun deleteFile() {
-        if (!fileHelper.deleteFile(filePath)) {
+        if (!eventLog.delete()) {
             verboseLog { "Failed to delete events file in $filePath." }
         }
     }
@@ -0,0 +1,14 @@
+package com.revenuecat.purchases.utils
+
+import org.json.JSONObject
+
+/**
+ * Holds a [JSONObject] that is only built the first time [value] is accessed. Used for raw data that most callers
+ * never read, so it doesn't have to be parsed up front.
+ */
+internal class LazyJSONObject(initializer: () -> JSONObject) {
+
+    constructor(jsonObject: JSONObject) : this({ jsonObject })
+
+    val value: JSONObject by lazy(initializer)
+}
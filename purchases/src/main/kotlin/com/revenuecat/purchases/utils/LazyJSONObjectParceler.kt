@@ -0,0 +1,18 @@
+package com.revenuecat.purchases.utils
+
+import android.os.Parcel
+import kotlinx.parcelize.Parceler
+import org.json.JSONObject
+
+/** @suppress */
+internal object LazyJSONObjectParceler : Parceler<LazyJSONObject> {
+
+    override fun create(parcel: Parcel): LazyJSONObject {
+        val json = parcel.readString()
+        return LazyJSONObject { JSONObject(json) }
+    }
+
+    override fun LazyJSONObject.write(parcel: Parcel, flags: Int) {
+        parcel.writeString(value.toString())
+    }
+}
@@ -12,6 +12,7 @@ import com.revenuecat.purchases.paywalls.components.VideoComponent
 import com.revenuecat.purchases.paywalls.components.properties.ThemeVideoUrls
 import com.revenuecat.purchases.storage.DefaultFileRepository
 import com.revenuecat.purchases.storage.FileRepository
+import com.revenuecat.purchases.storage.PrefetchPriority
 import java.net.URL
 
 internal class OfferingVideoPredownloader(
@@ -21,7 +22,11 @@ internal class OfferingVideoPredownloader(
 ) {
     private val shouldPredownload: Boolean = canShowPaywalls
 
-    fun downloadVideos(offering: Offering) {
+    /**
+     * @param priority Use [PrefetchPriority.CURRENT_OFFERING] for the current offering, so its videos are
+     * downloaded before those of other offerings.
+     */
+    fun downloadVideos(offering: Offering, priority: PrefetchPriority = PrefetchPriority.DEFAULT) {
         if (shouldPredownload) {
             val paywallComponents = offering.paywallComponents ?: return
             // `paywallComponents.data` is decoded lazily on first access and fails if the component tree passed
@@ -38,7 +43,7 @@ internal class OfferingVideoPredownloader(
                 .filter { it is VideoComponent }
                 .forEach { component ->
                     if (component is VideoComponent) {
-                        fileRepository.prefetch(component.source.checkedUrls())
+                        fileRepository.prefetch(component.source.checkedUrls(), priority)
                     }
                 }
         }
@@ -0,0 +1,229 @@
+package com.revenuecat.purchases.utils
+
+import com.revenuecat.purchases.common.FileHelper
+import com.revenuecat.purchases.common.errorLog
+import com.revenuecat.purchases.common.verboseLog
+import com.revenuecat.purchases.common.warnLog
+import java.util.TreeMap
+
+/**
+ * Append-only log of newline-terminated records, stored as numbered segment files of about [segmentSizeBytes] in a
+ * directory next to [filePath], plus a persisted read cursor (segment and byte offset) marking the first unread
+ * record.
+ *
+ * Removing records from the head of the log moves the cursor past them and deletes the segments that were fully
+ * consumed, so it only costs the size of the removed records instead of rewriting the whole log. A record left
+ * half-written by an interrupted append is truncated before the log is used again.
+ *
+ * The cursor, segments and segment sizes are read from disk once and then kept in memory, since this class is the
+ * only writer of its directory: appends don't read the cursor, list the directory or stat the segments. A failed
+ * append drops that state, so it's read again, and the partial record truncated, on the next call.
+ *
+ * A single file at [filePath], as written by previous versions, is adopted as a segment on first use.
+ *
+ * This class is not thread-safe. Callers are expected to synchronize access, as [EventsFileHelper] does.
+ */
+@Suppress("TooManyFunctions")
+internal class SegmentedEventLog(
+    private val fileHelper: FileHelper,
+    private val filePath: String,
+    private val segmentSizeBytes: Long = DEFAULT_SEGMENT_SIZE_BYTES,
+) {
+    companion object {
+        const val DEFAULT_SEGMENT_SIZE_BYTES = 64L * 1024 // 64 KB
+        private const val SEGMENT_FILE_EXTENSION = ".jsonl"
+        private const val CURSOR_FILE_NAME = "cursor"
+        private const val BYTES_PER_KB = 1024.0
+    }
+
+    private class Cursor(val segment: Long, val offset: Long)
+
+    /**
+     * @param segmentSizes The size in bytes of each segment, by segment index.
+     */
+    private class State(var cursor: Cursor, val segmentSizes: TreeMap<Long, Long>)
+
+    val directoryPath = filePath.removeSuffix(SEGMENT_FILE_EXTENSION) + "_segments"
+    private val cursorFilePath = "$directoryPath/$CURSOR_FILE_NAME"
+
+    // Null until loaded from disk, and again after an operation failed halfway or the log was deleted.
+    private var state: State? = null
+
+    fun append(record: String) {
+        val state = prepare()
+        val lastSegment = state.segmentSizes.lastEntry()
+        val segment = when {
+            lastSegment == null -> state.cursor.segment
+            lastSegment.value >= segmentSizeBytes -> lastSegment.key + 1
+            else -> lastSegment.key
+        }
+        // Dropped while writing, so a failed append reloads the log and truncates the partial record.
+        this.state = null
+        val bytesAppended = fileHelper.appendToFile(segmentPath(segment), record)
+        state.segmentSizes[segment] = (state.segmentSizes[segment] ?: 0L) + bytesAppended
+        this.state = state
+    }
+
+    /**
+     * Reads the unread records in order. The sequence must be consumed synchronously within [block].
+     */
+    fun readLines(block: ((Sequence<String>) -> Unit)) {
+        val state = prepare()
+        val cursor = state.cursor
+        val files = state.segmentSizes.keys.map { segment ->
+            segmentPath(segment) to if (segment == cursor.segment) cursor.offset else 0L
+        }
+        fileHelper.readFilesPerLines(files, block)
+    }
+
+    /**
+     * Marks the first [count] unread records as read, deleting the segments that don't hold unread records anymore.
+     */
+    fun removeFirst(count: Int) {
+        val state = prepare()
+        var remaining = count
+        var cursorSegment = state.cursor.segment
+        var cursorOffset = state.cursor.offset
+        val consumedSegments = mutableListOf<Long>()
+        for (segment in state.segmentSizes.keys.toList()) {
+            if (remaining <= 0) break
+            val segmentPath = segmentPath(segment)
+            val (bytesSkipped, linesSkipped) = fileHelper.skipLines(segmentPath, cursorOffset, remaining)
+            remaining -= linesSkipped
+            cursorOffset += bytesSkipped
+            val segmentSize = fileHelper.fileSizeInBytes(segmentPath).also { state.segmentSizes[segment] = it }
+            if (cursorOffset < segmentSize) break
+            consumedSegments.add(segment)
+            cursorSegment = segment + 1
+            cursorOffset = 0L
+        }
+        if (cursorSegment == state.cursor.segment && cursorOffset == state.cursor.offset) return
+        // The cursor is persisted before deleting segments, so a crash in between only leaves segments behind the
+        // cursor, which are cleaned up the next time the log is loaded.
+        writeCursor(Cursor(cursorSegment, cursorOffset))
+        state.cursor = Cursor(cursorSegment, cursorOffset)
+        consumedSegments.forEach { segment ->
+            fileHelper.deleteFile(segmentPath(segment))
+            state.segmentSizes.remove(segment)
+        }
+    }
+
+    fun sizeInBytes(): Long {
+        val state = prepare()
+        return state.segmentSizes.values.sum() - state.cursor.offset
+    }
+
+    fun sizeInKB(): Double = sizeInBytes() / BYTES_PER_KB
+
+    fun isEmpty(): Boolean = sizeInBytes() <= 0L
+
+    /**
+     * Deletes every record, read or not.
+     * @return Whether everything was deleted.
+     */
+    fun delete(): Boolean {
+        state = null
+        val legacyFileDeleted = !fileHelper.fileExists(filePath) || fileHelper.deleteFile(filePath)
+        val segmentsDeleted = fileHelper.deleteDirectory(directoryPath)
+        return legacyFileDeleted && segmentsDeleted
+    }
+
+    private fun prepare(): State {
+        state?.let { return it }
+        recoverLastSegment()
+        if (fileHelper.fileExists(filePath)) {
+            migrateLegacyFile()
+        }
+        return loadState().also { state = it }
+    }
+
+    private fun recoverLastSegment() {
+        val lastSegment = segmentIndices().lastOrNull() ?: return
+        if (fileHelper.truncatePartialLastLine(segmentPath(lastSegment))) {
+            warnLog { "Dropped a partially written event at the end of ${segmentPath(lastSegment)}." }
+        }
+    }
+
+    private fun migrateLegacyFile() {
+        val state = loadState()
+        val segment = state.segmentSizes.lastEntry()?.key?.plus(1) ?: state.cursor.segment
+        if (fileHelper.renameFile(filePath, segmentPath(segment))) {
+            verboseLog { "Moved events file $filePath to segment $segment of $directoryPath." }
+            if (state.segmentSizes.isEmpty()) {
+                writeCursor(Cursor(segment, 0L))
+            }
+            recoverLastSegment()
+        } else {
+            errorLog { "Failed to move events file $filePath to $directoryPath." }
+        }
+    }
+
+    /**
+     * Reads the cursor and the segments, dropping segments the cursor already moved past and pointing the cursor at
+     * the first remaining segment when the one it points at is gone.
+     */
+    private fun loadState(): State {
+        val segments = segmentIndices().toMutableList()
+        val storedCursor = if (fileHelper.fileExists(cursorFilePath)) {
+            readCursor() ?: dropFirstSegmentAfterUnreadableCursor(segments)
+        } else {
+            // Nothing was removed from the log yet.
+            Cursor(segments.firstOrNull() ?: 0L, 0L)
+        }
+        val segmentSizes = TreeMap<Long, Long>()
+        segments.forEach { segment ->
+            if (segment < storedCursor.segment) {
+                fileHelper.deleteFile(segmentPath(segment))
+            } else {
+                segmentSizes[segment] = fileHelper.fileSizeInBytes(segmentPath(segment))
+            }
+        }
+        val firstSegment = segmentSizes.firstEntry()?.key
+        val cursor = when {
+            firstSegment == null -> Cursor(storedCursor.segment, 0L)
+            firstSegment != storedCursor.segment -> Cursor(firstSegment, 0L)
+            else -> storedCursor
+        }
+        return State(cursor, segmentSizes)
+    }
+
+    private fun readCursor(): Cursor? {
+        var storedValue: String? = null
+        fileHelper.readFilePerLines(cursorFilePath) { sequence -> storedValue = sequence.firstOrNull() }
+        val parts = storedValue?.split(' ')
+        val segment = parts?.getOrNull(0)?.toLongOrNull()
+        val offset = parts?.getOrNull(1)?.toLongOrNull()
+        return if (segment != null && offset != null) Cursor(segment, offset) else null
+    }
+
+    /**
+     * Without a cursor there's no telling which records of the first remaining segment were already read, so the
+     * whole segment is dropped rather than sending its read records again. Later segments hold no read records.
+     */
+    private fun dropFirstSegmentAfterUnreadableCursor(segments: MutableList<Long>): Cursor {
+        val firstSegment = segments.removeFirstOrNull()
+        if (firstSegment == null) {
+            warnLog { "Reset unreadable events read cursor $cursorFilePath." }
+            return Cursor(0L, 0L).also { writeCursor(it) }
+        }
+        warnLog {
+            "Events read cursor $cursorFilePath is unreadable. Dropping ${segmentPath(firstSegment)}, " +
+                "since some of its events may have been sent already."
+        }
+        fileHelper.deleteFile(segmentPath(firstSegment))
+        return Cursor(firstSegment + 1, 0L).also { writeCursor(it) }
+    }
+
+    private fun writeCursor(cursor: Cursor) {
+        fileHelper.writeToFile(cursorFilePath, "${cursor.segment} ${cursor.offset}\n")
+    }
+
+    private fun segmentIndices(): List<Long> {
+        return fileHelper.listFileNames(directoryPath)
+            .filter { it.endsWith(SEGMENT_FILE_EXTENSION) }
+            .mapNotNull { it.removeSuffix(SEGMENT_FILE_EXTENSION).toLongOrNull() }
+            .sorted()
+    }
+
+    private fun segmentPath(segment: Long): String = "$directoryPath/$segment$SEGMENT_FILE_EXTENSION"
+}
@@ -6,7 +6,7 @@ import com.revenuecat.purchases.common.networking.HTTPResult
 import com.revenuecat.purchases.common.OfferingParser
 import com.revenuecat.purchases.common.GoogleOfferingParser
 import com.revenuecat.purchases.common.offerings.OfferingsCache
-import com.revenuecat.purchases.common.caching.DeviceCache
+import com.revenuecat.purchases.common.offerings.OfferingsResponseStore
 import com.revenuecat.purchases.common.createResult
 import com.revenuecat.purchases.common.originalDataSource
 import com.revenuecat.purchases.utils.ONE_OFFERINGS_RESPONSE
@@ -27,16 +27,16 @@ import org.robolectric.annotation.Config
 class OfferingsSourceTest {
 
     private lateinit var offeringParser: OfferingParser
-    private lateinit var deviceCache: DeviceCache
+    private lateinit var responseStore: OfferingsResponseStore
     private lateinit var offeringsCache: OfferingsCache
 
     @Before
     fun setUp() {
         offeringParser = GoogleOfferingParser()
-        deviceCache = mockk()
-        every { deviceCache.cacheOfferingsResponse(any()) } returns Unit
-        every { deviceCache.getOfferingsResponseCache() } returns null
-        offeringsCache = OfferingsCache(deviceCache, localeProvider = com.revenuecat.purchases.common.DefaultLocaleProvider())
+        responseStore = mockk()
+        every { responseStore.write(any()) } returns Unit
+        every { responseStore.read() } returns null
+        offeringsCache = OfferingsCache(responseStore, localeProvider = com.revenuecat.purchases.common.DefaultLocaleProvider())
     }
 
     @Test
@@ -121,11 +121,11 @@ class OfferingsSourceTest {
         )
 
         // Cache the offerings
-        every { deviceCache.cacheOfferingsResponse(any()) } returns Unit
+        every { responseStore.write(any()) } returns Unit
         offeringsCache.cacheOfferings(originalOfferings, ONE_OFFERINGS_RESPONSE)
 
         verify(exactly = 1) {
-            deviceCache.cacheOfferingsResponse(ONE_OFFERINGS_RESPONSE)
+            responseStore.write(ONE_OFFERINGS_RESPONSE)
         }
     }
 
@@ -147,7 +147,7 @@ class OfferingsSourceTest {
             loadedFromDiskCache = false,
         )
 
-        every { deviceCache.cacheOfferingsResponse(any()) } returns Unit
+        every { responseStore.write(any()) } returns Unit
         offeringsCache.cacheOfferings(originalOfferings, ONE_OFFERINGS_RESPONSE)
 
         // Retrieve from cache - originalSource should be preserved
@@ -184,7 +184,7 @@ class OfferingsSourceTest {
             loadedFromDiskCache = true,
         )
 
-        every { deviceCache.cacheOfferingsResponse(any()) } returns Unit
+        every { responseStore.write(any()) } returns Unit
         offeringsCache.cacheOfferings(originalOfferings, ONE_OFFERINGS_RESPONSE)
 
         val cachedOfferings = offeringsCache.cachedOfferings
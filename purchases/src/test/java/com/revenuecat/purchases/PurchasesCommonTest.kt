@@ -221,6 +221,35 @@ internal class PurchasesCommonTest: BasePurchasesTest() {
         assertThat(receivedProducts?.size).isEqualTo(inappStoreProducts.size)
     }
 
+    @Test
+    fun `getProducts queries the store again after purchases are synced`() {
+        val productIds = listOf("normal_purchase")
+        mockStoreProduct(productIds, productIds, ProductType.INAPP)
+        every {
+            mockSyncPurchasesHelper.syncPurchases(any(), any(), captureLambda(), any())
+        } answers {
+            lambda<(CustomerInfo) -> Unit>().captured.invoke(mockk())
+        }
+        val callback = object : GetStoreProductsCallback {
+            override fun onReceived(storeProducts: List<StoreProduct>) {
+                receivedProducts = storeProducts
+            }
+
+            override fun onError(error: PurchasesError) {
+                fail("shouldn't be error")
+            }
+        }
+
+        purchases.getProducts(productIds, ProductType.INAPP, callback)
+        purchases.getProducts(productIds, ProductType.INAPP, callback)
+        purchases.purchasesOrchestrator.syncPurchases()
+        purchases.getProducts(productIds, ProductType.INAPP, callback)
+
+        verify(exactly = 2) {
+            mockBillingAbstract.queryProductDetailsAsync(ProductType.INAPP, productIds.toSet(), any(), any())
+        }
+    }
+
     @Test
     fun `getProducts normalizes product IDs with base plan`() {
         val productIdWithBasePlan = "connect:connect-monthly"
@@ -7,10 +7,12 @@ package com.revenuecat.purchases.common
 
 import android.content.SharedPreferences
 import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.CustomerInfo
 import com.revenuecat.purchases.CustomerInfoOriginalSource
 import com.revenuecat.purchases.ProductType
 import com.revenuecat.purchases.VerificationResult
 import com.revenuecat.purchases.common.caching.CUSTOMER_INFO_SCHEMA_VERSION
+import com.revenuecat.purchases.common.caching.CustomerInfoSnapshotStore
 import com.revenuecat.purchases.common.caching.DeviceCache
 import com.revenuecat.purchases.common.offlineentitlements.createProductEntitlementMapping
 import com.revenuecat.purchases.models.StoreTransaction
@@ -32,10 +34,13 @@ import org.json.JSONException
 import org.json.JSONObject
 import org.junit.After
 import org.junit.Before
+import org.junit.Rule
 import org.junit.Test
+import org.junit.rules.TemporaryFolder
 import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
 import java.util.Date
+import kotlin.time.Duration.Companion.days
 import kotlin.time.Duration.Companion.hours
 import kotlin.time.Duration.Companion.minutes
 
@@ -43,6 +48,9 @@ import kotlin.time.Duration.Companion.minutes
 @Config(manifest = Config.NONE)
 class DeviceCacheTest {
 
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
     private val validCachedCustomerInfo by lazy {
         JSONObject(Responses.validFullPurchaserResponse).apply {
             put("schema_version", CUSTOMER_INFO_SCHEMA_VERSION)
@@ -58,13 +66,17 @@ class DeviceCacheTest {
     private lateinit var mockPrefs: SharedPreferences
     private lateinit var mockEditor: SharedPreferences.Editor
     private lateinit var mockDateProvider: DateProvider
+    private lateinit var snapshotStore: CustomerInfoSnapshotStore
     private val apiKey = "api_key"
     private val appUserID = "app_user_id"
     private val currentTime = Date()
+    // Request date of Responses.validFullPurchaserResponse.
+    private val responseRequestDate = Date(1565951442879L)
 
     private val productEntitlementMappingLastUpdatedCacheKey = "com.revenuecat.purchases.api_key.productEntitlementMappingLastUpdated"
     private val productEntitlementMappingCacheKey = "com.revenuecat.purchases.api_key.productEntitlementMapping"
     private val offeringsResponseCacheKey = "com.revenuecat.purchases.api_key.offeringsResponse"
+    private val offeringsResponseChecksumCacheKey = "com.revenuecat.purchases.api_key.offeringsResponseChecksum"
 
     private val slotForPutLong = slot<Long>()
 
@@ -95,7 +107,8 @@ class DeviceCacheTest {
 
         every { mockDateProvider.now } returns currentTime
 
-        cache = DeviceCache(mockPrefs, apiKey, dateProvider = mockDateProvider)
+        snapshotStore = CustomerInfoSnapshotStore(temporaryFolder.newFolder(), SyncDispatcher())
+        cache = DeviceCache(mockPrefs, apiKey, snapshotStore, mockDateProvider)
     }
 
     @After
@@ -223,7 +236,7 @@ class DeviceCacheTest {
         val infoJSONSlot = slot<String>()
 
         every {
-            mockEditor.putString(any(), capture(infoJSONSlot))
+            mockEditor.putString(cache.customerInfoCacheKey(appUserID), capture(infoJSONSlot))
         } returns mockEditor
 
         cache.cacheCustomerInfo(appUserID, info)
@@ -243,7 +256,7 @@ class DeviceCacheTest {
         val infoJSONSlot = slot<String>()
 
         every {
-            mockEditor.putString(any(), capture(infoJSONSlot))
+            mockEditor.putString(cache.customerInfoCacheKey(appUserID), capture(infoJSONSlot))
         } returns mockEditor
         cache.cacheCustomerInfo(appUserID, info)
 
@@ -262,7 +275,7 @@ class DeviceCacheTest {
         val infoJSONSlot = slot<String>()
 
         every {
-            mockEditor.putString(any(), capture(infoJSONSlot))
+            mockEditor.putString(cache.customerInfoCacheKey(appUserID), capture(infoJSONSlot))
         } returns mockEditor
         cache.cacheCustomerInfo(appUserID, info)
 
@@ -318,7 +331,7 @@ class DeviceCacheTest {
         val infoJSONSlot = slot<String>()
 
         every {
-            mockEditor.putString(any(), capture(infoJSONSlot))
+            mockEditor.putString(cache.customerInfoCacheKey(appUserID), capture(infoJSONSlot))
         } returns mockEditor
         cache.cacheCustomerInfo(appUserID, info)
 
@@ -489,7 +502,7 @@ class DeviceCacheTest {
 
     @Test
     fun `isCustomerInfoCacheStale returns true if the cached object is stale`() {
-        cache.cacheCustomerInfo(appUserID, mockk(relaxed = true))
+        cache.cacheCustomerInfo(appUserID, createCustomerInfo(Responses.validFullPurchaserResponse))
         mockLong(cache.customerInfoLastUpdatedCacheKey(appUserID), Date(0).time)
         assertThat(cache.isCustomerInfoCacheStale(appUserID, appInBackground = false)).isTrue
         mockLong(cache.customerInfoLastUpdatedCacheKey(appUserID), Date().time)
@@ -498,7 +511,7 @@ class DeviceCacheTest {
 
     @Test
     fun `isCustomerInfoCacheStale in background returns true if the cached object is stale`() {
-        cache.cacheCustomerInfo(appUserID, mockk(relaxed = true))
+        cache.cacheCustomerInfo(appUserID, createCustomerInfo(Responses.validFullPurchaserResponse))
         mockLong(cache.customerInfoLastUpdatedCacheKey(appUserID), Date(0).time)
         assertThat(cache.isCustomerInfoCacheStale(appUserID, appInBackground = true)).isTrue
         mockLong(cache.customerInfoLastUpdatedCacheKey(appUserID), Date().time)
@@ -507,19 +520,206 @@ class DeviceCacheTest {
 
     @Test
     fun `timestamp is set when caching customer info`() {
-        cache.cacheCustomerInfo("waldo", mockk(relaxed = true))
+        cache.cacheCustomerInfo("waldo", createCustomerInfo(Responses.validFullPurchaserResponse))
         assertThat(slotForPutLong.captured).isNotNull
     }
 
     @Test
     fun `clearing customer info caches clears the shared preferences`() {
-        cache.cacheCustomerInfo(appUserID, mockk(relaxed = true))
+        cache.cacheCustomerInfo(appUserID, createCustomerInfo(Responses.validFullPurchaserResponse))
         assertThat(slotForPutLong.captured).isNotNull
 
         cache.clearCustomerInfoCache(appUserID)
         verify { mockEditor.remove(cache.customerInfoCacheKey(appUserID)) }
+        assertThat(snapshotStore.read(appUserID)).isNull()
+    }
+
+    // region customer info snapshot
+
+    @Test
+    fun `cached customer info is decoded from its snapshot without parsing the JSON`() {
+        val info = createCustomerInfo(Responses.validFullPurchaserResponse, null, VerificationResult.VERIFIED)
+        cacheCustomerInfoAndMockStoredValues(info)
+        mockkObject(CustomerInfoFactory)
+
+        val cachedInfo = cache.getCachedCustomerInfo(appUserID)
+
+        verify(exactly = 0) {
+            CustomerInfoFactory.buildCustomerInfo(any<JSONObject>(), any(), any(), any(), any())
+        }
+        unmockkObject(CustomerInfoFactory)
+        assertThat(cachedInfo).isEqualTo(info)
+        assertThat(cachedInfo?.requestDate).isEqualTo(info.requestDate)
+        assertThat(cachedInfo?.entitlements?.verification).isEqualTo(VerificationResult.VERIFIED)
+        assertThat(cachedInfo?.loadedFromCache).isTrue
+    }
+
+    @Test
+    fun `raw data of a customer info decoded from its snapshot does not have cache metadata`() {
+        val info = createCustomerInfo(Responses.validFullPurchaserResponse)
+        cacheCustomerInfoAndMockStoredValues(info)
+
+        val cachedInfo = cache.getCachedCustomerInfo(appUserID)
+
+        assertThat(cachedInfo?.rawData?.has("verification_result")).isFalse
+        assertThat(cachedInfo?.rawData?.has("customer_info_request_date")).isFalse
+        assertThat(cachedInfo?.rawData?.has("customer_info_original_source")).isFalse
+        assertThat(cachedInfo?.nonSubscriptionTransactions).isEqualTo(info.nonSubscriptionTransactions)
+        assertThat(cachedInfo?.subscriptionsByProductIdentifier).isEqualTo(info.subscriptionsByProductIdentifier)
+    }
+
+    @Test
+    fun `snapshot not matching the cached JSON is ignored`() {
+        val info = createCustomerInfo(Responses.validFullPurchaserResponse)
+        cacheCustomerInfoAndMockStoredValues(info)
+        val cachedJSON = JSONObject(Responses.validFullPurchaserResponse).apply {
+            put("schema_version", CUSTOMER_INFO_SCHEMA_VERSION)
+            put("customer_info_original_source", CustomerInfoOriginalSource.LOAD_SHEDDER.name)
+        }.toString()
+        mockString(cache.customerInfoCacheKey(appUserID), cachedJSON)
+
+        // Read from a new cache, since this one keeps the customer info it wrote in memory.
+        val cachedInfo = DeviceCache(mockPrefs, apiKey, snapshotStore, mockDateProvider)
+            .getCachedCustomerInfo(appUserID)
+
+        assertThat(cachedInfo?.originalSource).isEqualTo(CustomerInfoOriginalSource.LOAD_SHEDDER)
+    }
+
+    @Test
+    fun `invalid snapshot falls back to the cached JSON`() {
+        mockString(cache.customerInfoCacheKey(appUserID), validCachedCustomerInfo)
+        snapshotStore.write(appUserID, "not a snapshot".toByteArray())
+
+        val cachedInfo = cache.getCachedCustomerInfo(appUserID)
+
+        assertThat(cachedInfo).isNotNull
+        assertThat(cachedInfo?.entitlements?.verification).isEqualTo(VerificationResult.VERIFIED)
+    }
+
+    @Test
+    fun `clearing caches clears customer info snapshots`() {
+        mockString(cache.appUserIDCacheKey, "appUserID")
+        mockString(cache.legacyAppUserIDCacheKey, "legacyAppUserID")
+        snapshotStore.write("appUserID", byteArrayOf(1))
+        snapshotStore.write("legacyAppUserID", byteArrayOf(1))
+
+        cache.clearCachesForAppUserID("appUserID")
+
+        assertThat(snapshotStore.read("appUserID")).isNull()
+        assertThat(snapshotStore.read("legacyAppUserID")).isNull()
+    }
+
+    @Test
+    fun `customer info snapshots are not stored in shared preferences`() {
+        cache.cacheCustomerInfo(appUserID, createCustomerInfo(Responses.validFullPurchaserResponse))
+
+        verify(exactly = 1) { mockEditor.putString(any(), any()) }
+        assertThat(snapshotStore.read(appUserID)).isNotNull
+    }
+
+    @Test
+    fun `customer info is parsed from its JSON without a snapshot store`() {
+        val info = createCustomerInfo(Responses.validFullPurchaserResponse)
+        cacheCustomerInfoAndMockStoredValues(info)
+
+        val cachedInfo = DeviceCache(mockPrefs, apiKey, dateProvider = mockDateProvider)
+            .getCachedCustomerInfo(appUserID)
+
+        assertThat(cachedInfo).isEqualTo(info)
+    }
+
+    // endregion customer info snapshot
+
+    // region customer info memory cache
+
+    @Test
+    fun `cached customer info is only decoded once`() {
+        every { mockDateProvider.now } returns responseRequestDate
+        mockString(cache.customerInfoCacheKey(appUserID), validCachedCustomerInfo)
+
+        val firstInfo = cache.getCachedCustomerInfo(appUserID)
+        val secondInfo = cache.getCachedCustomerInfo(appUserID)
+
+        assertThat(secondInfo).isSameAs(firstInfo)
+        verify(exactly = 1) { mockPrefs.getString(cache.customerInfoCacheKey(appUserID), isNull()) }
+    }
+
+    @Test
+    fun `customer info written to the cache is read back without reading preferences`() {
+        every { mockDateProvider.now } returns responseRequestDate
+        val info = createCustomerInfo(Responses.validFullPurchaserResponse, null, VerificationResult.VERIFIED)
+
+        cache.cacheCustomerInfo(appUserID, info)
+        val cachedInfo = cache.getCachedCustomerInfo(appUserID)
+
+        verify(exactly = 0) { mockPrefs.getString(cache.customerInfoCacheKey(appUserID), any()) }
+        assertThat(cachedInfo).isEqualTo(info)
+        assertThat(cachedInfo?.entitlements?.verification).isEqualTo(VerificationResult.VERIFIED)
+        assertThat(cachedInfo?.loadedFromCache).isTrue
+        assertThat(cachedInfo?.rawData?.has("verification_result")).isFalse
+    }
+
+    @Test
+    fun `cached customer info is decoded again past the entitlement grace period after its request date`() {
+        every { mockDateProvider.now } returns responseRequestDate
+        mockString(cache.customerInfoCacheKey(appUserID), validCachedCustomerInfo)
+        val firstInfo = cache.getCachedCustomerInfo(appUserID)
+
+        every { mockDateProvider.now } returns Date(responseRequestDate.time + 3.days.inWholeMilliseconds + 1)
+        val secondInfo = cache.getCachedCustomerInfo(appUserID)
+
+        assertThat(secondInfo).isNotSameAs(firstInfo)
+        verify(exactly = 2) { mockPrefs.getString(cache.customerInfoCacheKey(appUserID), isNull()) }
     }
 
+    @Test
+    fun `clearing the customer info cache clears the customer info kept in memory`() {
+        cache.cacheCustomerInfo(appUserID, createCustomerInfo(Responses.validFullPurchaserResponse))
+        mockString(cache.customerInfoCacheKey(appUserID), null)
+
+        cache.clearCustomerInfoCache(appUserID)
+
+        assertThat(cache.getCachedCustomerInfo(appUserID)).isNull()
+    }
+
+    @Test
+    fun `clearing caches for an app user ID clears the customer info kept in memory`() {
+        mockString(cache.appUserIDCacheKey, appUserID)
+        mockString(cache.legacyAppUserIDCacheKey, null)
+        cache.cacheCustomerInfo(appUserID, createCustomerInfo(Responses.validFullPurchaserResponse))
+        mockString(cache.customerInfoCacheKey(appUserID), null)
+
+        cache.clearCachesForAppUserID(appUserID)
+
+        assertThat(cache.getCachedCustomerInfo(appUserID)).isNull()
+    }
+
+    @Test
+    fun `clearing the customer info cache keeps the customer info of other app user IDs in memory`() {
+        every { mockDateProvider.now } returns responseRequestDate
+        cache.cacheCustomerInfo(appUserID, createCustomerInfo(Responses.validFullPurchaserResponse))
+        cache.cacheCustomerInfo("other_user", createCustomerInfo(Responses.validFullPurchaserResponse))
+
+        cache.clearCustomerInfoCache("other_user")
+        cache.getCachedCustomerInfo(appUserID)
+
+        verify(exactly = 0) { mockPrefs.getString(cache.customerInfoCacheKey(appUserID), any()) }
+    }
+
+    @Test
+    fun `caching customer info does not add cache metadata to its raw data`() {
+        val info = createCustomerInfo(Responses.validFullPurchaserResponse)
+
+        cache.cacheCustomerInfo(appUserID, info)
+
+        assertThat(info.rawData.has("schema_version")).isFalse
+        assertThat(info.rawData.has("verification_result")).isFalse
+        assertThat(info.rawData.has("customer_info_request_date")).isFalse
+        assertThat(info.rawData.has("customer_info_original_source")).isFalse
+    }
+
+    // endregion customer info memory cache
+
     @Test
     fun `getPreviouslySentHashedTokens returns emptySet if ClassCastException on legacy migration`() {
         mockString(cache.tokensCacheKey, null)
@@ -649,6 +849,30 @@ class DeviceCacheTest {
         assertThat(cache.isProductEntitlementMappingCacheStale()).isFalse
     }
 
+    @Test
+    fun `getProductEntitlementMapping only parses the cached mapping once`() {
+        every {
+            mockPrefs.getString(productEntitlementMappingCacheKey, null)
+        } returns sampleProductEntitlementMapping.toJson().toString()
+
+        val mapping = cache.getProductEntitlementMapping()
+
+        assertThat(cache.getProductEntitlementMapping()).isSameAs(mapping)
+        verify(exactly = 1) { mockPrefs.getString(productEntitlementMappingCacheKey, null) }
+    }
+
+    @Test
+    fun `getProductEntitlementMapping returns the cached mapping without reading preferences`() {
+        cache.cacheProductEntitlementMapping(sampleProductEntitlementMapping)
+
+        val mapping = cache.getProductEntitlementMapping()
+
+        verify(exactly = 0) { mockPrefs.getString(productEntitlementMappingCacheKey, any()) }
+        assertThat(mapping?.mappings).isEqualTo(sampleProductEntitlementMapping.mappings)
+        assertThat(mapping?.loadedFromCache).isTrue
+        assertThat(mapping?.originalSource).isNull()
+    }
+
     @Test
     fun `getProductEntitlementMapping returns null if nothing in cache`() {
         every { mockPrefs.getString(productEntitlementMappingCacheKey, null) } returns null
@@ -705,19 +929,30 @@ class DeviceCacheTest {
     // region offerings response
 
     @Test
-    fun `gets offerings from shared preferences`() {
+    fun `gets legacy offerings response from shared preferences`() {
         every { mockPrefs.getString(offeringsResponseCacheKey, null) } returns "{\"test-key\": \"test-value\"}"
-        val offeringsResponse = cache.getOfferingsResponseCache()
-        assertThat(offeringsResponse).isNotNull
-        assertThat(offeringsResponse?.getString("test-key")).isEqualTo("test-value")
+        assertThat(cache.getLegacyOfferingsResponse()).isEqualTo("{\"test-key\": \"test-value\"}")
     }
 
     @Test
-    fun `cache offerings response works`() {
-        val jsonSample = "{\"test-key\":\"test-value\"}"
-        cache.cacheOfferingsResponse(jsonSample)
+    fun `offerings response checksum is null when not cached`() {
+        every { mockPrefs.contains(offeringsResponseChecksumCacheKey) } returns false
+        assertThat(cache.getOfferingsResponseChecksum()).isNull()
+    }
+
+    @Test
+    fun `gets offerings response checksum from shared preferences`() {
+        every { mockPrefs.contains(offeringsResponseChecksumCacheKey) } returns true
+        every { mockPrefs.getLong(offeringsResponseChecksumCacheKey, any()) } returns 1234L
+        assertThat(cache.getOfferingsResponseChecksum()).isEqualTo(1234L)
+    }
+
+    @Test
+    fun `caching offerings response checksum removes legacy offerings response`() {
+        cache.cacheOfferingsResponseChecksum(1234L)
         verifyAll {
-            mockEditor.putString(offeringsResponseCacheKey, jsonSample)
+            mockEditor.putLong(offeringsResponseChecksumCacheKey, 1234L)
+            mockEditor.remove(offeringsResponseCacheKey)
             mockEditor.apply()
         }
     }
@@ -727,6 +962,7 @@ class DeviceCacheTest {
         cache.clearOfferingsResponseCache()
         verifyAll {
             mockEditor.remove(offeringsResponseCacheKey)
+            mockEditor.remove(offeringsResponseChecksumCacheKey)
             mockEditor.apply()
         }
     }
@@ -738,6 +974,7 @@ class DeviceCacheTest {
     @Test
     fun `setStorefront saves storefront in cache`() {
         val storefront = "JP"
+        mockString(cache.storefrontCacheKey, null)
         cache.setStorefront(storefront)
         verifyAll {
             mockEditor.putString(cache.storefrontCacheKey, storefront)
@@ -754,6 +991,39 @@ class DeviceCacheTest {
         assertThat(cachedStorefront).isEqualTo(storefront)
     }
 
+    @Test
+    fun `setStorefront notifies listeners when the storefront changes`() {
+        val notifiedStorefronts = mutableListOf<String>()
+        cache.addStorefrontChangeListener { notifiedStorefronts.add(it) }
+        mockString(cache.storefrontCacheKey, "US")
+
+        cache.setStorefront("JP")
+
+        assertThat(notifiedStorefronts).containsExactly("JP")
+    }
+
+    @Test
+    fun `setStorefront notifies listeners when the first storefront is cached`() {
+        val notifiedStorefronts = mutableListOf<String>()
+        cache.addStorefrontChangeListener { notifiedStorefronts.add(it) }
+        mockString(cache.storefrontCacheKey, null)
+
+        cache.setStorefront("JP")
+
+        assertThat(notifiedStorefronts).containsExactly("JP")
+    }
+
+    @Test
+    fun `setStorefront does not notify listeners when the storefront is unchanged`() {
+        val notifiedStorefronts = mutableListOf<String>()
+        cache.addStorefrontChangeListener { notifiedStorefronts.add(it) }
+        mockString(cache.storefrontCacheKey, "JP")
+
+        cache.setStorefront("JP")
+
+        assertThat(notifiedStorefronts).isEmpty()
+    }
+
     // endregion storefront
 
     // region virtualCurrencies
@@ -1213,6 +1483,15 @@ class DeviceCacheTest {
         }
     }
 
+    private fun cacheCustomerInfoAndMockStoredValues(info: CustomerInfo) {
+        val jsonSlot = slot<String>()
+        every {
+            mockEditor.putString(cache.customerInfoCacheKey(appUserID), capture(jsonSlot))
+        } returns mockEditor
+        cache.cacheCustomerInfo(appUserID, info)
+        mockString(cache.customerInfoCacheKey(appUserID), jsonSlot.captured)
+    }
+
     private fun mockString(key: String, value: String?) {
         every {
             mockPrefs.getString(eq(key), isNull())
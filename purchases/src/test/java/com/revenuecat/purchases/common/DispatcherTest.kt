@@ -13,6 +13,7 @@ import com.revenuecat.purchases.common.networking.NullPointerReadingErrorStreamE
 import com.revenuecat.purchases.common.verification.SignatureVerificationException
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.slot
 import io.mockk.spyk
 import io.mockk.verify
 import org.assertj.core.api.Assertions.assertThat
@@ -22,12 +23,14 @@ import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
+import java.util.Date
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.ScheduledExecutorService
 import java.util.concurrent.SynchronousQueue
 import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicReference
+import kotlin.time.Duration.Companion.milliseconds
 
 @RunWith(AndroidJUnit4::class)
 @Config(manifest = Config.NONE)
@@ -246,6 +249,56 @@ class DispatcherTest {
         }
     }
 
+    @Test
+    fun `queue stats count commands that have not started yet`() {
+        every { mockExecutorService.isShutdown } returns false
+        every { mockExecutorService.submit(any()) } returns mockk()
+
+        dispatcherWithMockExecutor.enqueue({ })
+        dispatcherWithMockExecutor.enqueue({ })
+
+        assertThat(dispatcherWithMockExecutor.queueStats.queueDepth).isEqualTo(2)
+    }
+
+    @Test
+    fun `queue stats track how long commands waited for a thread`() {
+        val dateProvider = mockk<DateProvider>()
+        val dispatcherWithDateProvider = Dispatcher(mockExecutorService, dateProvider = dateProvider)
+        val submittedCommand = slot<Runnable>()
+        every { mockExecutorService.isShutdown } returns false
+        every { mockExecutorService.submit(capture(submittedCommand)) } returns mockk()
+        every { dateProvider.now } returnsMany listOf(Date(1000L), Date(1250L))
+
+        dispatcherWithDateProvider.enqueue({ })
+        submittedCommand.captured.run()
+
+        val queueStats = dispatcherWithDateProvider.queueStats
+        assertThat(queueStats.queueDepth).isEqualTo(0)
+        assertThat(queueStats.lastWaitTime).isEqualTo(250.milliseconds)
+        assertThat(queueStats.maxWaitTime).isEqualTo(250.milliseconds)
+    }
+
+    @Test
+    fun `queue wait listener is called when a command waited past the report threshold`() {
+        val dateProvider = mockk<DateProvider>()
+        val dispatcherWithDateProvider = Dispatcher(mockExecutorService, dateProvider = dateProvider)
+        val submittedCommands = mutableListOf<Runnable>()
+        val reportedQueueStats = mutableListOf<Dispatcher.QueueStats>()
+        dispatcherWithDateProvider.queueWaitListener = { reportedQueueStats.add(it) }
+        every { mockExecutorService.isShutdown } returns false
+        every { mockExecutorService.submit(capture(submittedCommands)) } returns mockk()
+        every { dateProvider.now } returnsMany listOf(Date(1000L), Date(1000L), Date(1500L), Date(2500L))
+
+        dispatcherWithDateProvider.enqueue({ })
+        dispatcherWithDateProvider.enqueue({ })
+        submittedCommands[0].run()
+        submittedCommands[1].run()
+
+        assertThat(reportedQueueStats).containsExactly(
+            Dispatcher.QueueStats(queueDepth = 0, lastWaitTime = 1500.milliseconds, maxWaitTime = 1500.milliseconds),
+        )
+    }
+
     class CurrentThreadExecutorService(
         private val callerRunsPolicy: CallerRunsPolicy = CallerRunsPolicy()
     ): ThreadPoolExecutor(
@@ -88,33 +88,80 @@ class FileHelperTest {
     }
 
     @Test
-    fun `removeFirstLinesFromFile leaves multiple lines after first lines`() {
-        createTestFileWithContents("first line\nsecond line\nthird line\nfourth line\nfifth line\n")
-        fileHelper.removeFirstLinesFromFile(testFilePath, 3)
-        verifyFileExistsWithContents("fourth line\nfifth line\n")
+    fun `skipLines skips lines from the start offset`() {
+        createTestFileWithContents("first line\nsecond line\nthird line\n")
+        val skipped = fileHelper.skipLines(testFilePath, startOffset = 11L, maxLines = 1)
+        assertThat(skipped).isEqualTo(12L to 1)
     }
 
     @Test
-    fun `removeFirstLinesFromFile leaves content after first lines`() {
-        createTestFileWithContents("first line\nsecond line\nthird line\nfourth line\n")
-        fileHelper.removeFirstLinesFromFile(testFilePath, 3)
-        verifyFileExistsWithContents("fourth line\n")
+    fun `skipLines stops at end of file`() {
+        createTestFileWithContents("first line\nsecond line\n")
+        val skipped = fileHelper.skipLines(testFilePath, startOffset = 0L, maxLines = 5)
+        assertThat(skipped).isEqualTo(23L to 2)
     }
 
     @Test
-    fun `removeFirstLinesFromFile leaves empty file if exact lines removed`() {
-        createTestFileWithContents("first line\nsecond line\nthird line")
-        fileHelper.removeFirstLinesFromFile(testFilePath, 3)
-        verifyFileExistsWithContents("")
+    fun `skipLines skips lines spanning several reads`() {
+        val longLine = "x".repeat(10_000) + "\n"
+        createTestFileWithContents(longLine + longLine + longLine)
+        val skipped = fileHelper.skipLines(testFilePath, startOffset = 0L, maxLines = 2)
+        assertThat(skipped).isEqualTo(20_002L to 2)
+    }
+
+    @Test
+    fun `skipLines skips nothing if file does not exist`() {
+        assertThat(fileHelper.skipLines(testFilePath, startOffset = 0L, maxLines = 5)).isEqualTo(0L to 0)
     }
 
     @Test
-    fun `removeFirstLinesFromFile leaves empty file if fewer removed`() {
-        createTestFileWithContents("first line\nsecond line")
-        fileHelper.removeFirstLinesFromFile(testFilePath, 3)
+    fun `truncatePartialLastLine drops trailing line without newline`() {
+        createTestFileWithContents("first line\nsecond li")
+        assertThat(fileHelper.truncatePartialLastLine(testFilePath)).isTrue
+        verifyFileExistsWithContents("first line\n")
+    }
+
+    @Test
+    fun `truncatePartialLastLine leaves newline terminated file untouched`() {
+        createTestFileWithContents("first line\nsecond line\n")
+        assertThat(fileHelper.truncatePartialLastLine(testFilePath)).isFalse
+        verifyFileExistsWithContents("first line\nsecond line\n")
+    }
+
+    @Test
+    fun `truncatePartialLastLine empties file with a single partial line`() {
+        createTestFileWithContents("first li")
+        assertThat(fileHelper.truncatePartialLastLine(testFilePath)).isTrue
         verifyFileExistsWithContents("")
     }
 
+    @Test
+    fun `truncatePartialLastLine drops a trailing line longer than one read`() {
+        createTestFileWithContents("first line\n" + "x".repeat(20_000))
+        assertThat(fileHelper.truncatePartialLastLine(testFilePath)).isTrue
+        verifyFileExistsWithContents("first line\n")
+    }
+
+    @Test
+    fun `readFilesPerLines reads files in order from their offsets`() {
+        createTestFileWithContents("first line\nsecond line\n")
+        fileHelper.appendToFile("RevenueCat/other_file.txt", "third line\n")
+        val receivedValues = mutableListOf<String>()
+        fileHelper.readFilesPerLines(
+            listOf(testFilePath to 11L, "RevenueCat/missing_file.txt" to 0L, "RevenueCat/other_file.txt" to 0L),
+        ) { sequence ->
+            receivedValues.addAll(sequence)
+        }
+        assertThat(receivedValues).isEqualTo(listOf("second line", "third line"))
+    }
+
+    @Test
+    fun `writeToFile replaces file contents`() {
+        createTestFileWithContents("old contents\n")
+        fileHelper.writeToFile(testFilePath, "new contents\n")
+        verifyFileExistsWithContents("new contents\n")
+    }
+
     @Test
     fun `fileIsEmpty returns true if file exists and is empty`() {
         createTestFileWithContents("")
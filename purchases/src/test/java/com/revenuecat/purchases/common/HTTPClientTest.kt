@@ -1325,7 +1325,7 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
     fun `performRequest tracks http request performed diagnostic event if request successful`() {
         val dateProvider = mockk<DateProvider>()
         val diagnosticsTracker = mockk<DiagnosticsTracker>()
-        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
+        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
 
         client = createClient(diagnosticsTracker = diagnosticsTracker, dateProvider = dateProvider)
 
@@ -1357,6 +1357,8 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
                 VerificationResult.NOT_REQUESTED,
                 isRetry = false,
                 connectionErrorReason = null,
+                connectionLikelyReused = any(),
+                estimatedConnectionReuseRate = any(),
             )
         }
     }
@@ -1365,7 +1367,7 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
     fun `performRequest tracks http request performed diagnostic event if request fails`() {
         val dateProvider = mockk<DateProvider>()
         val diagnosticsTracker = mockk<DiagnosticsTracker>()
-        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
+        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
 
         client = createClient(diagnosticsTracker = diagnosticsTracker, dateProvider = dateProvider)
 
@@ -1398,6 +1400,8 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
                 VerificationResult.NOT_REQUESTED,
                 isRetry = false,
                 connectionErrorReason = null,
+                connectionLikelyReused = any(),
+                estimatedConnectionReuseRate = any(),
             )
         }
     }
@@ -1406,7 +1410,7 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
     fun `performRequest tracks http request performed diagnostic event if request throws Exception`() {
         val dateProvider = mockk<DateProvider>()
         val diagnosticsTracker = mockk<DiagnosticsTracker>()
-        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
+        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
         every { dateProvider.now } returns Date(1676379370000) // Tuesday, February 14, 2023 12:56:10 PM GMT
         client = createClient(diagnosticsTracker = diagnosticsTracker, dateProvider = dateProvider)
 
@@ -1444,6 +1448,8 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
                     VerificationResult.NOT_REQUESTED,
                     isRetry = false,
                     connectionErrorReason = null,
+                    connectionLikelyReused = any(),
+                    estimatedConnectionReuseRate = any(),
                 )
             }
             return
@@ -1454,7 +1460,7 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
     @Test
     fun `if there's an error getting ETag, retry call passes track diagnostics parameter isRetry to true`() {
         val diagnosticsTracker = mockk<DiagnosticsTracker>()
-        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
+        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
         client = createClient(diagnosticsTracker = diagnosticsTracker)
 
         val response =
@@ -1520,6 +1526,8 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
                 VerificationResult.NOT_REQUESTED,
                 isRetry = true,
                 connectionErrorReason = null,
+                connectionLikelyReused = any(),
+                estimatedConnectionReuseRate = any(),
             )
         }
     }
@@ -1758,7 +1766,7 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
     @Test
     fun `if performRequest uses a fallback host URL, then the correct track diagnostics calls happen`() {
         val diagnosticsTracker = mockk<DiagnosticsTracker>()
-        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
+        every { diagnosticsTracker.trackHttpRequestPerformed(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) } just Runs
         client = createClient(diagnosticsTracker = diagnosticsTracker)
 
         // This test requires an endpoint that supports fallback host URLs
@@ -1803,6 +1811,8 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
                 VerificationResult.NOT_REQUESTED,
                 isRetry = false,
                 connectionErrorReason = null,
+                connectionLikelyReused = any(),
+                estimatedConnectionReuseRate = any(),
             )
         }
 
@@ -1818,6 +1828,8 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
                 VerificationResult.NOT_REQUESTED,
                 isRetry = false,
                 connectionErrorReason = null,
+                connectionLikelyReused = any(),
+                estimatedConnectionReuseRate = any(),
             )
         }
     }
@@ -2234,6 +2246,46 @@ internal class HTTPClientTest: BaseHTTPClientTest() {
     }
 
     // endregion Timeout Management
+
+    // region readBytesFully
+
+    @Test
+    fun `readBytesFully reads body matching content length`() {
+        val body = "{\"key\":\"value\"}".toByteArray()
+
+        val result = HTTPClient.readBytesFully(ByteArrayInputStream(body), body.size.toLong())
+
+        assertThat(result).isEqualTo(body)
+    }
+
+    @Test
+    fun `readBytesFully reads body shorter than content length`() {
+        val body = "{}".toByteArray()
+
+        val result = HTTPClient.readBytesFully(ByteArrayInputStream(body), 10L)
+
+        assertThat(result).isEqualTo(body)
+    }
+
+    @Test
+    fun `readBytesFully reads body longer than content length`() {
+        val body = "{\"key\":\"value\"}".toByteArray()
+
+        val result = HTTPClient.readBytesFully(ByteArrayInputStream(body), 3L)
+
+        assertThat(result).isEqualTo(body)
+    }
+
+    @Test
+    fun `readBytesFully reads body with unknown content length`() {
+        val body = "{\"key\":\"value\"}".toByteArray()
+
+        val result = HTTPClient.readBytesFully(ByteArrayInputStream(body), -1L)
+
+        assertThat(result).isEqualTo(body)
+    }
+
+    // endregion readBytesFully
 }
 
 @RunWith(ParameterizedRobolectricTestRunner::class)
@@ -0,0 +1,100 @@
+package com.revenuecat.purchases.common
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class RequestCoalescerTest {
+
+    private val coalescer = RequestCoalescer<String, Int>()
+
+    @Test
+    fun `first callback for a key starts the request`() {
+        assertThat(coalescer.add("key", 1)).isTrue
+        assertThat(coalescer.size).isEqualTo(1)
+    }
+
+    @Test
+    fun `later callbacks for the same key join the in-flight request`() {
+        coalescer.add("key", 1)
+
+        assertThat(coalescer.add("key", 2)).isFalse
+        assertThat(coalescer.add("key", 3)).isFalse
+        assertThat(coalescer.remove("key")).containsExactly(1, 2, 3)
+    }
+
+    @Test
+    fun `callbacks for different keys start different requests`() {
+        assertThat(coalescer.add("key-1", 1)).isTrue
+        assertThat(coalescer.add("key-2", 2)).isTrue
+
+        assertThat(coalescer.remove("key-1")).containsExactly(1)
+        assertThat(coalescer.remove("key-2")).containsExactly(2)
+    }
+
+    @Test
+    fun `remove returns null when there is no request in flight`() {
+        assertThat(coalescer.remove("key")).isNull()
+    }
+
+    @Test
+    fun `callback after completion starts a new request`() {
+        coalescer.add("key", 1)
+        coalescer.remove("key")
+
+        assertThat(coalescer.add("key", 2)).isTrue
+        assertThat(coalescer.remove("key")).containsExactly(2)
+        assertThat(coalescer.isEmpty()).isTrue
+    }
+
+    @Test
+    fun `addIfInFlight joins in-flight request`() {
+        coalescer.add("key", 1)
+
+        assertThat(coalescer.addIfInFlight("key", listOf(2, 3))).isTrue
+        assertThat(coalescer.remove("key")).containsExactly(1, 2, 3)
+    }
+
+    @Test
+    fun `addIfInFlight does nothing without in-flight request`() {
+        assertThat(coalescer.addIfInFlight("key", listOf(1))).isFalse
+        assertThat(coalescer.isEmpty()).isTrue
+    }
+
+    @Test
+    fun `every callback is handed back exactly once under concurrent registration and completion`() {
+        val threads = 8
+        val callbacksPerThread = 10_000
+        val executor = Executors.newFixedThreadPool(threads + 1)
+        val started = AtomicInteger(0)
+        val handedBack = AtomicInteger(0)
+        val registrationsDone = CountDownLatch(threads)
+
+        repeat(threads) { thread ->
+            executor.execute {
+                repeat(callbacksPerThread) { index ->
+                    if (coalescer.add("key", thread * callbacksPerThread + index)) {
+                        started.incrementAndGet()
+                    }
+                }
+                registrationsDone.countDown()
+            }
+        }
+        executor.execute {
+            while (registrationsDone.count > 0) {
+                coalescer.remove("key")?.let { handedBack.addAndGet(it.size) }
+            }
+        }
+        assertThat(registrationsDone.await(10, TimeUnit.SECONDS)).isTrue
+        executor.shutdown()
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue
+        coalescer.remove("key")?.let { handedBack.addAndGet(it.size) }
+
+        assertThat(handedBack.get()).isEqualTo(threads * callbacksPerThread)
+        assertThat(started.get()).isGreaterThanOrEqualTo(1)
+        assertThat(coalescer.isEmpty()).isTrue
+    }
+}
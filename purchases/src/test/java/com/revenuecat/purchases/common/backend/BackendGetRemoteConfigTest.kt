@@ -106,6 +106,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { result, _, verificationResult ->
                 container = result
                 verification = verificationResult
@@ -156,6 +157,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { result, _, _ -> container = result },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -180,6 +182,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> fail("Expected error. Got success") },
             onError = { error, behavior ->
                 obtainedError = error
@@ -204,6 +207,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> fail("Expected error. Got success") },
             onError = { error, _ -> obtainedError = error },
         )
@@ -229,6 +233,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { result, _, verificationResult ->
                 callbackCount++
                 container = result
@@ -259,6 +264,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, requestDate, _ -> obtained = requestDate },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -284,6 +290,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, requestDate, _ -> obtained = requestDate },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -309,6 +316,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, requestDate, _ ->
                 callbackCount++
                 obtained = requestDate
@@ -333,6 +341,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -377,6 +386,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -385,6 +395,28 @@ class BackendGetRemoteConfigTest {
         assertThat(endpointSlot.captured.getPath()).isEqualTo("/v1/config/app")
     }
 
+    @Test
+    fun `getRemoteConfig sends the held topic hashes`() {
+        val bodySlot = mutableListOf<Map<String, Any?>?>()
+        mockNoContentRequest(bodySlot)
+
+        backend.getRemoteConfig(
+            appInBackground = false,
+            appUserID = testAppUserID,
+            fetchContext = RemoteConfigFetchContext.Foreground,
+            domain = testDomain,
+            manifest = testManifest,
+            lastRefreshTime = null,
+            prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = mapOf("sources" to "hash1", "workflows" to "hash2"),
+            onSuccess = { _, _, _ -> },
+            onError = { error, _ -> fail("Expected success. Got error: $error") },
+        )
+
+        assertThat(bodySlot.firstOrNull()?.get("topic_hashes"))
+            .isEqualTo(mapOf("sources" to "hash1", "workflows" to "hash2"))
+    }
+
     @Test
     fun `getRemoteConfig omits the manifest on the first run`() {
         val bodySlot = mutableListOf<Map<String, Any?>?>()
@@ -398,6 +430,7 @@ class BackendGetRemoteConfigTest {
             manifest = null,
             lastRefreshTime = null,
             prefetchedBlobs = emptyList(),
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -420,6 +453,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = Date(1785161502351L),
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -442,6 +476,7 @@ class BackendGetRemoteConfigTest {
             manifest = null,
             lastRefreshTime = null,
             prefetchedBlobs = emptyList(),
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -499,6 +534,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> fail("Expected error. Got success") },
             onError = { error, behavior ->
                 obtainedError = error
@@ -526,6 +562,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> fail("Expected error. Got success") },
             onError = { error, behavior ->
                 obtainedError = error
@@ -549,6 +586,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> lock.countDown() },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -560,6 +598,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> lock.countDown() },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -588,6 +627,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> lock.countDown() },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -599,6 +639,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> lock.countDown() },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -628,6 +669,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> lock.countDown() },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
@@ -639,6 +681,7 @@ class BackendGetRemoteConfigTest {
             manifest = testManifest,
             lastRefreshTime = null,
             prefetchedBlobs = testPrefetchedBlobs,
+            topicHashes = emptyMap(),
             onSuccess = { _, _, _ -> lock.countDown() },
             onError = { error, _ -> fail("Expected success. Got error: $error") },
         )
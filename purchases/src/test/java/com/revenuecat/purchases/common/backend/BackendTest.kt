@@ -969,6 +969,61 @@ class BackendTest {
         assertThat(info).isEqualTo(receivedCustomerInfo)
     }
 
+    @Test
+    fun `postReceiptData is enqueued on the receipts dispatcher`() {
+        val receiptsDispatcher = spyk(SyncDispatcher())
+        val backendWithReceiptsLane = Backend(
+            mockAppConfig,
+            dispatcher,
+            dispatcher,
+            mockClient,
+            backendHelper,
+            receiptsDispatcher = receiptsDispatcher,
+        )
+
+        mockPostReceiptResponseAndPost(
+            backendWithReceiptsLane,
+            isRestore = false,
+            finishTransactions = true,
+            receiptInfo = basicReceiptInfo,
+            initiationSource = initiationSource,
+        )
+
+        assertThat(receivedCustomerInfo).isNotNull
+        verify(exactly = 1) { receiptsDispatcher.enqueue(any(), any()) }
+        verify(exactly = 0) { dispatcher.enqueue(any(), any()) }
+    }
+
+    @Test
+    fun `getCustomerInfo is queued behind in-flight receipt posts on the receipts dispatcher`() {
+        val receiptsDispatcher = mockk<Dispatcher>(relaxed = true)
+        val backendWithReceiptsLane = Backend(
+            mockAppConfig,
+            dispatcher,
+            dispatcher,
+            mockClient,
+            backendHelper,
+            receiptsDispatcher = receiptsDispatcher,
+        )
+
+        mockPostReceiptResponseAndPost(
+            backendWithReceiptsLane,
+            isRestore = false,
+            finishTransactions = true,
+            receiptInfo = basicReceiptInfo,
+            initiationSource = initiationSource,
+        )
+        backendWithReceiptsLane.getCustomerInfo(
+            appUserID,
+            appInBackground = false,
+            onSuccess = onReceiveCustomerInfoSuccessHandler,
+            onError = onReceiveCustomerInfoErrorHandler,
+        )
+
+        verify(exactly = 2) { receiptsDispatcher.enqueue(any(), any()) }
+        verify(exactly = 0) { dispatcher.enqueue(any(), any()) }
+    }
+
     @Test
     fun `given multiple post calls for same subscriber different price, both are triggered`() {
         val receiptInfo1 = createReceiptInfoFromProduct(
@@ -0,0 +1,68 @@
+package com.revenuecat.purchases.common.caching
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.common.SyncDispatcher
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.annotation.Config
+import java.io.File
+
+@RunWith(AndroidJUnit4::class)
+@Config(manifest = Config.NONE)
+class CustomerInfoSnapshotStoreTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    private val directory: File by lazy { File(temporaryFolder.root, "snapshots") }
+    private val underTest: CustomerInfoSnapshotStore by lazy { CustomerInfoSnapshotStore(directory, SyncDispatcher()) }
+
+    @Test
+    fun `read returns null when nothing was written`() {
+        assertThat(underTest.read("appUserID")).isNull()
+    }
+
+    @Test
+    fun `write and read round-trip a snapshot`() {
+        underTest.write("appUserID", byteArrayOf(1, 2, 3))
+
+        assertThat(underTest.read("appUserID")).containsExactly(1, 2, 3)
+    }
+
+    @Test
+    fun `snapshots are stored per app user ID`() {
+        underTest.write("appUserID", byteArrayOf(1))
+        underTest.write("otherAppUserID", byteArrayOf(2))
+
+        assertThat(underTest.read("appUserID")).containsExactly(1)
+        assertThat(underTest.read("otherAppUserID")).containsExactly(2)
+    }
+
+    @Test
+    fun `write replaces the previous snapshot without leaving temp files`() {
+        underTest.write("appUserID", byteArrayOf(1))
+        underTest.write("appUserID", byteArrayOf(2))
+
+        assertThat(underTest.read("appUserID")).containsExactly(2)
+        assertThat(directory.listFiles()).hasSize(1)
+    }
+
+    @Test
+    fun `file names are safe for app user IDs with path separators`() {
+        underTest.write("../app/User:ID", byteArrayOf(1))
+
+        assertThat(directory.listFiles()?.single()?.name).matches("[0-9a-f]+")
+    }
+
+    @Test
+    fun `delete removes the snapshot`() {
+        underTest.write("appUserID", byteArrayOf(1))
+
+        underTest.delete("appUserID")
+
+        assertThat(underTest.read("appUserID")).isNull()
+    }
+}
@@ -0,0 +1,135 @@
+package com.revenuecat.purchases.common.caching
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.CustomerInfo
+import com.revenuecat.purchases.CustomerInfoOriginalSource
+import com.revenuecat.purchases.EntitlementInfo
+import com.revenuecat.purchases.EntitlementInfos
+import com.revenuecat.purchases.OwnershipType
+import com.revenuecat.purchases.PeriodType
+import com.revenuecat.purchases.Store
+import com.revenuecat.purchases.VerificationResult
+import com.revenuecat.purchases.common.CustomerInfoFactory
+import com.revenuecat.purchases.utils.Responses
+import org.assertj.core.api.Assertions.assertThat
+import org.json.JSONObject
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.annotation.Config
+import java.util.Date
+import kotlin.time.Duration.Companion.days
+import kotlin.time.Duration.Companion.milliseconds
+
+@RunWith(AndroidJUnit4::class)
+@Config(manifest = Config.NONE)
+class CustomerInfoSnapshotTest {
+
+    private val rawJSON = JSONObject(Responses.validFullPurchaserResponse).toString()
+    private val customerInfo = CustomerInfoFactory.buildCustomerInfo(
+        JSONObject(rawJSON),
+        overrideRequestDate = null,
+        verificationResult = VerificationResult.VERIFIED,
+        originalSource = CustomerInfoOriginalSource.LOAD_SHEDDER,
+    )
+
+    @Test
+    fun `decoded snapshot has the same fields as the encoded customer info`() {
+        val decoded = decode(CustomerInfoSnapshot.encode(customerInfo, rawJSON))
+
+        assertThat(decoded).isEqualTo(customerInfo)
+        assertThat(decoded?.requestDate).isEqualTo(customerInfo.requestDate)
+        assertThat(decoded?.managementURL).isEqualTo(customerInfo.managementURL)
+        assertThat(decoded?.entitlements?.verification).isEqualTo(VerificationResult.VERIFIED)
+        assertThat(decoded?.entitlements?.all?.values?.map { it.rawData.toString() })
+            .containsExactlyInAnyOrderElementsOf(customerInfo.entitlements.all.values.map { it.rawData.toString() })
+        assertThat(decoded?.originalSource).isEqualTo(CustomerInfoOriginalSource.LOAD_SHEDDER)
+        assertThat(decoded?.loadedFromCache).isTrue
+    }
+
+    @Test
+    fun `raw JSON is only parsed when the raw data is accessed`() {
+        var parseCount = 0
+        val decoded = CustomerInfoSnapshot.decode(CustomerInfoSnapshot.encode(customerInfo, rawJSON), rawJSON) {
+            parseCount++
+            JSONObject(it)
+        }
+
+        assertThat(decoded?.entitlements?.active).isEqualTo(customerInfo.entitlements.active)
+        assertThat(decoded?.activeSubscriptions).isEqualTo(customerInfo.activeSubscriptions)
+        assertThat(parseCount).isEqualTo(0)
+
+        assertThat(decoded?.nonSubscriptionTransactions).isEqualTo(customerInfo.nonSubscriptionTransactions)
+        assertThat(decoded?.rawData?.toString()).isEqualTo(rawJSON)
+        assertThat(parseCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `entitlement that expired since it was encoded is decoded as inactive`() {
+        val now = System.currentTimeMillis()
+        // Outside the grace period, entitlements are checked against the current date instead of the request date.
+        val requestDate = Date(now - 4.days.inWholeMilliseconds)
+        val expirationDate = Date(now + 200.milliseconds.inWholeMilliseconds)
+        val entitlementInfo = EntitlementInfo(
+            identifier = "pro",
+            isActive = true,
+            willRenew = true,
+            periodType = PeriodType.NORMAL,
+            latestPurchaseDate = requestDate,
+            originalPurchaseDate = requestDate,
+            expirationDate = expirationDate,
+            store = Store.PLAY_STORE,
+            productIdentifier = "monthly",
+            productPlanIdentifier = null,
+            isSandbox = false,
+            unsubscribeDetectedAt = null,
+            billingIssueDetectedAt = null,
+            ownershipType = OwnershipType.PURCHASED,
+            jsonObject = JSONObject(),
+        )
+        val activeCustomerInfo = CustomerInfo(
+            entitlements = EntitlementInfos(mapOf("pro" to entitlementInfo), VerificationResult.NOT_REQUESTED),
+            allExpirationDatesByProduct = mapOf("monthly" to expirationDate),
+            allPurchaseDatesByProduct = mapOf("monthly" to requestDate),
+            requestDate = requestDate,
+            schemaVersion = 3,
+            firstSeen = requestDate,
+            originalAppUserId = "appUserID",
+            managementURL = null,
+            originalPurchaseDate = null,
+            jsonObject = JSONObject(rawJSON),
+        )
+        val snapshot = CustomerInfoSnapshot.encode(activeCustomerInfo, rawJSON)
+
+        Thread.sleep(expirationDate.time - System.currentTimeMillis() + 1)
+        val decoded = decode(snapshot)
+
+        assertThat(decoded?.entitlements?.get("pro")?.isActive).isFalse
+        assertThat(decoded?.entitlements?.active).isEmpty()
+    }
+
+    @Test
+    fun `snapshot of a different raw JSON is not decoded`() {
+        val snapshot = CustomerInfoSnapshot.encode(customerInfo, rawJSON)
+
+        assertThat(CustomerInfoSnapshot.decode(snapshot, "$rawJSON ") { JSONObject(it) }).isNull()
+    }
+
+    @Test
+    fun `snapshot with a different format version is not decoded`() {
+        val snapshot = CustomerInfoSnapshot.encode(customerInfo, rawJSON)
+        snapshot[3] = (CustomerInfoSnapshot.FORMAT_VERSION + 1).toByte()
+
+        assertThat(decode(snapshot)).isNull()
+    }
+
+    @Test
+    fun `truncated snapshot is not decoded`() {
+        val snapshot = CustomerInfoSnapshot.encode(customerInfo, rawJSON)
+
+        assertThat(decode(snapshot.copyOf(snapshot.size / 2))).isNull()
+    }
+
+    private fun decode(snapshot: ByteArray): CustomerInfo? {
+        return CustomerInfoSnapshot.decode(snapshot, rawJSON) { JSONObject(it) }
+    }
+}
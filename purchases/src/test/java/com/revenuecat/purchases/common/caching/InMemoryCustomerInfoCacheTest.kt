@@ -0,0 +1,136 @@
+package com.revenuecat.purchases.common.caching
+
+import com.revenuecat.purchases.CustomerInfo
+import com.revenuecat.purchases.common.DateProvider
+import io.mockk.every
+import io.mockk.mockk
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import java.util.Date
+import kotlin.time.Duration.Companion.days
+import kotlin.time.Duration.Companion.milliseconds
+
+class InMemoryCustomerInfoCacheTest {
+
+    private val requestDate = Date(1_000_000L)
+    private var currentDate = requestDate
+    private val dateProvider = object : DateProvider {
+        override val now: Date
+            get() = currentDate
+    }
+    private val cache = InMemoryCustomerInfoCache(dateProvider)
+    private val customerInfo = customerInfo()
+
+    @Test
+    fun `cached instance is returned for its app user ID`() {
+        cache.cacheInstance("user", customerInfo)
+
+        assertThat(cache.get("user")).isSameAs(customerInfo)
+        assertThat(cache.get("other_user")).isNull()
+    }
+
+    @Test
+    fun `invalidate clears every cached instance`() {
+        cache.cacheInstance("user", customerInfo)
+        cache.cacheInstance("other_user", customerInfo)
+
+        cache.invalidate()
+
+        assertThat(cache.get("user")).isNull()
+        assertThat(cache.get("other_user")).isNull()
+    }
+
+    @Test
+    fun `invalidating an app user ID keeps the instances of other app user IDs`() {
+        cache.cacheInstance("user", customerInfo)
+        cache.cacheInstance("other_user", customerInfo)
+
+        cache.invalidate("user")
+
+        assertThat(cache.get("user")).isNull()
+        assertThat(cache.get("other_user")).isSameAs(customerInfo)
+    }
+
+    @Test
+    fun `caching an instance keeps the instances of other app user IDs`() {
+        cache.cacheInstance("user", customerInfo)
+
+        cache.cacheInstance("other_user", mockk())
+
+        assertThat(cache.get("user")).isSameAs(customerInfo)
+    }
+
+    @Test
+    fun `decoded instance is cached when another app user ID was written while decoding`() {
+        val generation = cache.currentGeneration("user")
+        cache.cacheInstance("other_user", mockk())
+
+        cache.cacheDecodedInstance("user", customerInfo, generation)
+
+        assertThat(cache.get("user")).isSameAs(customerInfo)
+    }
+
+    @Test
+    fun `decoded instance is not cached when its app user ID was invalidated while decoding`() {
+        val generation = cache.currentGeneration("user")
+        cache.invalidate("user")
+
+        cache.cacheDecodedInstance("user", customerInfo, generation)
+
+        assertThat(cache.get("user")).isNull()
+    }
+
+    @Test
+    fun `decoded instance is cached when nothing changed while decoding`() {
+        val generation = cache.currentGeneration("user")
+
+        cache.cacheDecodedInstance("user", customerInfo, generation)
+
+        assertThat(cache.get("user")).isSameAs(customerInfo)
+    }
+
+    @Test
+    fun `decoded instance is not cached when the cache was invalidated while decoding`() {
+        val generation = cache.currentGeneration("user")
+        cache.invalidate()
+
+        cache.cacheDecodedInstance("user", customerInfo, generation)
+
+        assertThat(cache.get("user")).isNull()
+    }
+
+    @Test
+    fun `decoded instance does not replace an instance written while decoding`() {
+        val writtenCustomerInfo = customerInfo()
+        val generation = cache.currentGeneration("user")
+        cache.cacheInstance("user", writtenCustomerInfo)
+
+        cache.cacheDecodedInstance("user", customerInfo, generation)
+
+        assertThat(cache.get("user")).isSameAs(writtenCustomerInfo)
+    }
+
+    @Test
+    fun `cached instance is returned during the entitlement grace period after its request date`() {
+        cache.cacheInstance("user", customerInfo)
+
+        currentDate = Date(requestDate.time + 3.days.inWholeMilliseconds)
+
+        assertThat(cache.get("user")).isSameAs(customerInfo)
+    }
+
+    @Test
+    fun `cached instance is not returned past the entitlement grace period after its request date`() {
+        cache.cacheInstance("user", customerInfo)
+
+        currentDate = Date(requestDate.time + (3.days + 1.milliseconds).inWholeMilliseconds)
+
+        assertThat(cache.get("user")).isNull()
+    }
+
+    private fun customerInfo(): CustomerInfo {
+        return mockk<CustomerInfo>().also {
+            every { it.requestDate } returns requestDate
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.revenuecat.purchases.common.caching
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.ProductType
+import com.revenuecat.purchases.PurchasesError
+import com.revenuecat.purchases.PurchasesErrorCode
+import com.revenuecat.purchases.common.BillingAbstract
+import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.diagnostics.DiagnosticsTracker
+import com.revenuecat.purchases.models.StoreProduct
+import com.revenuecat.purchases.utils.stubINAPPStoreProduct
+import com.revenuecat.purchases.utils.stubStoreProduct
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.entry
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.Date
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.minutes
+
+@RunWith(AndroidJUnit4::class)
+class StoreProductCacheTest {
+
+    private class StoreQuery(
+        val productType: ProductType,
+        val productIds: Set<String>,
+        val onReceive: (List<StoreProduct>) -> Unit,
+        val onError: (PurchasesError) -> Unit,
+    )
+
+    private val timeToLive = 10.minutes
+
+    private lateinit var billing: BillingAbstract
+    private lateinit var diagnosticsTracker: DiagnosticsTracker
+    private lateinit var storeQueries: MutableList<StoreQuery>
+    private var now = Date(0)
+    private val dateProvider = object : DateProvider {
+        override val now: Date
+            get() = this@StoreProductCacheTest.now
+    }
+    private lateinit var cache: StoreProductCache
+
+    @Before
+    fun setUp() {
+        storeQueries = mutableListOf()
+        billing = mockk()
+        every { billing.queryProductDetailsAsync(any(), any(), any(), any()) } answers {
+            storeQueries.add(StoreQuery(firstArg(), secondArg(), thirdArg(), arg(3)))
+        }
+        diagnosticsTracker = mockk()
+        every {
+            diagnosticsTracker.trackGoogleQueryProductDetailsRequest(any(), any(), any(), any(), any(), any())
+        } just runs
+        cache = StoreProductCache(billing, diagnosticsTracker, dateProvider, timeToLive)
+    }
+
+    @Test
+    fun `queries the store for products that are not cached`() {
+        val product = stubStoreProduct("sub")
+        var received: List<StoreProduct>? = null
+
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("sub"), { received = it }, { })
+        storeQueries.single().onReceive(listOf(product))
+
+        assertThat(storeQueries.single().productIds).containsExactly("sub")
+        assertThat(received).containsExactly(product)
+    }
+
+    @Test
+    fun `serves cached products without querying the store`() {
+        val product = stubStoreProduct("sub")
+        query(ProductType.SUBS, "sub")
+        storeQueries.single().onReceive(listOf(product))
+
+        var received: List<StoreProduct>? = null
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("sub"), { received = it }, { })
+
+        assertThat(storeQueries).hasSize(1)
+        assertThat(received).containsExactly(product)
+    }
+
+    @Test
+    fun `only queries the store for the products that are not cached`() {
+        val cachedProduct = stubStoreProduct("sub")
+        val queriedProduct = stubStoreProduct("other_sub")
+        query(ProductType.SUBS, "sub")
+        storeQueries.single().onReceive(listOf(cachedProduct))
+
+        var received: List<StoreProduct>? = null
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("sub", "other_sub"), { received = it }, { })
+        storeQueries.last().onReceive(listOf(queriedProduct))
+
+        assertThat(storeQueries.last().productIds).containsExactly("other_sub")
+        assertThat(received).containsExactlyInAnyOrder(cachedProduct, queriedProduct)
+    }
+
+    @Test
+    fun `caches that the store has no product for an id`() {
+        query(ProductType.SUBS, "inapp")
+        storeQueries.single().onReceive(emptyList())
+
+        var received: List<StoreProduct>? = null
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("inapp"), { received = it }, { })
+
+        assertThat(storeQueries).hasSize(1)
+        assertThat(received).isEmpty()
+    }
+
+    @Test
+    fun `caches products per type`() {
+        query(ProductType.SUBS, "inapp")
+        storeQueries.single().onReceive(emptyList())
+
+        query(ProductType.INAPP, "inapp")
+
+        assertThat(storeQueries).hasSize(2)
+        assertThat(storeQueries.last().productType).isEqualTo(ProductType.INAPP)
+    }
+
+    @Test
+    fun `queries the store again once the cached products expire`() {
+        query(ProductType.SUBS, "sub")
+        storeQueries.single().onReceive(listOf(stubStoreProduct("sub")))
+
+        now = Date(timeToLive.inWholeMilliseconds)
+        query(ProductType.SUBS, "sub")
+
+        assertThat(storeQueries).hasSize(2)
+    }
+
+    @Test
+    fun `serves cached products to an offerings refresh once the cached offerings are stale`() {
+        cache = StoreProductCache(billing, diagnosticsTracker, dateProvider)
+        query(ProductType.SUBS, "sub")
+        storeQueries.single().onReceive(listOf(stubStoreProduct("sub")))
+
+        now = Date((cacheDuration(appInBackground = false) + 1.minutes).inWholeMilliseconds)
+        query(ProductType.SUBS, "sub")
+
+        assertThat(storeQueries).hasSize(1)
+    }
+
+    @Test
+    fun `queries the store again after being invalidated`() {
+        query(ProductType.SUBS, "sub")
+        storeQueries.single().onReceive(listOf(stubStoreProduct("sub")))
+
+        cache.invalidate()
+        query(ProductType.SUBS, "sub")
+
+        assertThat(storeQueries).hasSize(2)
+    }
+
+    @Test
+    fun `does not cache products of a query issued before being invalidated`() {
+        query(ProductType.SUBS, "sub")
+        cache.invalidate()
+        storeQueries.single().onReceive(listOf(stubStoreProduct("sub")))
+
+        query(ProductType.SUBS, "sub")
+
+        assertThat(storeQueries).hasSize(2)
+    }
+
+    @Test
+    fun `concurrent queries for overlapping ids share the store query in flight`() {
+        val product = stubStoreProduct("sub")
+        val otherProduct = stubStoreProduct("other_sub")
+        var firstReceived: List<StoreProduct>? = null
+        var secondReceived: List<StoreProduct>? = null
+
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("sub"), { firstReceived = it }, { })
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("sub", "other_sub"), { secondReceived = it }, { })
+
+        assertThat(storeQueries).hasSize(2)
+        assertThat(storeQueries[1].productIds).containsExactly("other_sub")
+        assertThat(secondReceived).isNull()
+
+        storeQueries[0].onReceive(listOf(product))
+        assertThat(firstReceived).containsExactly(product)
+        assertThat(secondReceived).isNull()
+
+        storeQueries[1].onReceive(listOf(otherProduct))
+        assertThat(secondReceived).containsExactlyInAnyOrder(product, otherProduct)
+    }
+
+    @Test
+    fun `a failed store query fails every query waiting on it without caching`() {
+        val error = PurchasesError(PurchasesErrorCode.StoreProblemError)
+        var firstError: PurchasesError? = null
+        var secondError: PurchasesError? = null
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("sub"), { }, { firstError = it })
+        cache.queryProductDetailsAsync(ProductType.SUBS, setOf("sub"), { }, { secondError = it })
+
+        storeQueries.single().onError(error)
+        query(ProductType.SUBS, "sub")
+
+        assertThat(firstError).isEqualTo(error)
+        assertThat(secondError).isEqualTo(error)
+        assertThat(storeQueries).hasSize(2)
+    }
+
+    @Test
+    fun `tracks cached products as cache hits`() {
+        query(ProductType.INAPP, "inapp")
+        storeQueries.single().onReceive(listOf(stubINAPPStoreProduct("inapp")))
+
+        query(ProductType.INAPP, "inapp")
+
+        verify(exactly = 1) {
+            diagnosticsTracker.trackGoogleQueryProductDetailsRequest(
+                requestedProductIds = setOf("inapp"),
+                productType = "inapp",
+                billingResponseCode = 0,
+                billingDebugMessage = "",
+                responseTime = Duration.ZERO,
+                cacheHit = true,
+            )
+        }
+    }
+
+    @Test
+    fun `queries every type concurrently`() {
+        val subscription = stubStoreProduct("sub")
+        val inApp = stubINAPPStoreProduct("inapp")
+        var received: Map<ProductType, List<StoreProduct>>? = null
+
+        cache.queryProductDetailsOfTypesAsync(
+            setOf(ProductType.SUBS, ProductType.INAPP),
+            setOf("sub", "inapp"),
+            { received = it },
+            { },
+        )
+
+        assertThat(storeQueries.map { it.productType }).containsExactly(ProductType.SUBS, ProductType.INAPP)
+        storeQueries[1].onReceive(listOf(inApp))
+        assertThat(received).isNull()
+        storeQueries[0].onReceive(listOf(subscription))
+        assertThat(received).containsExactly(
+            entry(ProductType.SUBS, listOf(subscription)),
+            entry(ProductType.INAPP, listOf(inApp)),
+        )
+    }
+
+    @Test
+    fun `only queries ids as the type the store returned them as before`() {
+        cache.queryProductDetailsOfTypesAsync(
+            setOf(ProductType.SUBS, ProductType.INAPP),
+            setOf("sub", "inapp"),
+            { },
+            { },
+        )
+        storeQueries[0].onReceive(listOf(stubStoreProduct("sub")))
+        storeQueries[1].onReceive(listOf(stubINAPPStoreProduct("inapp")))
+        cache.invalidate()
+
+        cache.queryProductDetailsOfTypesAsync(
+            setOf(ProductType.SUBS, ProductType.INAPP),
+            setOf("sub", "inapp", "new"),
+            { },
+            { },
+        )
+
+        assertThat(storeQueries.drop(2).associate { it.productType to it.productIds }).containsExactly(
+            entry(ProductType.SUBS, setOf("sub", "new")),
+            entry(ProductType.INAPP, setOf("inapp", "new")),
+        )
+    }
+
+    @Test
+    fun `a failed query of one type fails the query of every type once`() {
+        val error = PurchasesError(PurchasesErrorCode.StoreProblemError)
+        val errors = mutableListOf<PurchasesError>()
+        var received: Map<ProductType, List<StoreProduct>>? = null
+        cache.queryProductDetailsOfTypesAsync(
+            setOf(ProductType.SUBS, ProductType.INAPP),
+            setOf("sub"),
+            { received = it },
+            { errors.add(it) },
+        )
+
+        storeQueries[0].onError(error)
+        storeQueries[1].onReceive(emptyList())
+
+        assertThat(errors).containsExactly(error)
+        assertThat(received).isNull()
+    }
+
+    @Test
+    fun `empty queries go to the store`() {
+        query(ProductType.SUBS)
+
+        assertThat(storeQueries.single().productIds).isEmpty()
+    }
+
+    private fun query(productType: ProductType, vararg productIds: String) {
+        cache.queryProductDetailsAsync(productType, productIds.toSet(), { }, { })
+    }
+}
@@ -19,6 +19,8 @@ import org.assertj.core.api.Assertions.assertThat
 import org.junit.After
 import org.junit.Before
 import org.junit.Test
+import java.nio.ByteBuffer
+import kotlin.reflect.KType
 
 internal class CheckpointsConfigProviderTest {
     private val manager = mockk<RemoteConfigManager>()
@@ -244,10 +246,11 @@ internal class CheckpointsConfigProviderTest {
     }
 
     private suspend fun MockKMatcherScope.blobRead(identifier: String): CheckpointResponse? =
-        manager.blobData(
+        manager.decodedBlobData(
             RemoteConfigTopic.CheckpointRules,
             identifier,
-            any<(ByteArray) -> CheckpointResponse?>(),
+            any<KType>(),
+            any<(ByteBuffer) -> CheckpointResponse?>(),
         )
 
     private fun returnNoBlob(identifier: String) {
@@ -264,5 +267,5 @@ internal class CheckpointsConfigProviderTest {
     }
 
     private fun MockKAnswerScope<CheckpointResponse?, CheckpointResponse?>.parseBlob(json: String) =
-        thirdArg<(ByteArray) -> CheckpointResponse?>().invoke(json.toByteArray())
+        arg<(ByteBuffer) -> CheckpointResponse?>(3).invoke(ByteBuffer.wrap(json.toByteArray()))
 }
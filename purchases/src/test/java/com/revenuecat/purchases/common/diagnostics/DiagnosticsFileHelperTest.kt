@@ -1,25 +1,27 @@
 package com.revenuecat.purchases.common.diagnostics
 
+import android.content.Context
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import com.revenuecat.purchases.common.FileHelper
-import io.mockk.Runs
+import com.revenuecat.purchases.utils.SegmentedEventLog
 import io.mockk.every
-import io.mockk.just
 import io.mockk.mockk
-import io.mockk.slot
-import io.mockk.verify
 import org.assertj.core.api.Assertions.assertThat
 import org.json.JSONObject
+import org.junit.After
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
+import java.io.File
 import java.util.UUID
 
 @RunWith(AndroidJUnit4::class)
 @Config(manifest = Config.NONE)
 class DiagnosticsFileHelperTest {
 
+    private val testFolder = "temp_diagnostics_file_helper_test_folder"
+
     private val testDiagnosticsEntry = DiagnosticsEntry(
         name = DiagnosticsEntryName.HTTP_REQUEST_PERFORMED,
         properties = emptyMap(),
@@ -29,70 +31,78 @@ class DiagnosticsFileHelperTest {
 
     private lateinit var fileHelper: FileHelper
 
+    // A new log on every access, since a log keeps its state in memory and wouldn't see the helper's writes.
+    private val eventLog: SegmentedEventLog
+        get() = SegmentedEventLog(fileHelper, diagnosticsFilePath)
+
     private lateinit var diagnosticsFileHelper: DiagnosticsFileHelper
 
     @Before
     fun setup() {
-        fileHelper = mockk()
+        val tempTestFolder = File(testFolder)
+        if (tempTestFolder.exists()) {
+            error("Temp test folder should not exist before starting tests")
+        }
+        tempTestFolder.mkdirs()
+
+        val context = mockk<Context>().apply {
+            every { filesDir } returns tempTestFolder
+        }
+        fileHelper = FileHelper(context)
         diagnosticsFileHelper = DiagnosticsFileHelper(fileHelper)
     }
 
+    @After
+    fun tearDown() {
+        File(testFolder).deleteRecursively()
+    }
+
     @Test
     fun `isDiagnosticsFileTooBig is true if file bigger than limit`() {
-        every { fileHelper.fileSizeInKB(diagnosticsFilePath) } returns
-            DiagnosticsFileHelper.DIAGNOSTICS_FILE_LIMIT_IN_KB + 1.0
+        appendBytes((DiagnosticsFileHelper.DIAGNOSTICS_FILE_LIMIT_IN_KB + 1) * 1024)
         assertThat(diagnosticsFileHelper.isDiagnosticsFileTooBig()).isTrue
     }
 
     @Test
     fun `isDiagnosticsFileTooBig is false if file smaller than limit`() {
-        every { fileHelper.fileSizeInKB(diagnosticsFilePath) } returns
-            DiagnosticsFileHelper.DIAGNOSTICS_FILE_LIMIT_IN_KB - 1.0
+        appendBytes((DiagnosticsFileHelper.DIAGNOSTICS_FILE_LIMIT_IN_KB - 1) * 1024)
         assertThat(diagnosticsFileHelper.isDiagnosticsFileTooBig()).isFalse
     }
 
     @Test
     fun `appendEntryToDiagnosticsFile calls are correct`() {
-        val contentToAppend = "$testDiagnosticsEntry\n"
-        every { fileHelper.appendToFile(diagnosticsFilePath, contentToAppend) } just Runs
         diagnosticsFileHelper.appendEvent(testDiagnosticsEntry)
-        verify(exactly = 1) { fileHelper.appendToFile(diagnosticsFilePath, contentToAppend) }
+        assertThat(storedLines()).containsExactly(testDiagnosticsEntry.toString())
     }
 
     @Test
     fun `deleteOlderDiagnostics calls are correct`() {
-        every { fileHelper.removeFirstLinesFromFile(diagnosticsFilePath, 2, any()) } just Runs
+        eventLog.append("{\"index\": 1}\n{\"index\": 2}\n{\"index\": 3}\n")
         diagnosticsFileHelper.clear(2)
-        verify(exactly = 1) { fileHelper.removeFirstLinesFromFile(diagnosticsFilePath, 2, any()) }
+        assertThat(storedLines()).containsExactly("{\"index\": 3}")
     }
 
     @Test
     fun `deleteDiagnosticsFile calls are correct`() {
-        every { fileHelper.deleteFile(diagnosticsFilePath) } returns true
+        diagnosticsFileHelper.appendEvent(testDiagnosticsEntry)
         diagnosticsFileHelper.deleteFile()
-        verify(exactly = 1) { fileHelper.deleteFile(diagnosticsFilePath) }
+        assertThat(eventLog.isEmpty()).isTrue
+        assertThat(File(testFolder, eventLog.directoryPath).exists()).isFalse
     }
 
     @Test
     fun `readDiagnosticsFile returns empty list if file is empty`() {
-        every { fileHelper.fileIsEmpty(diagnosticsFilePath) } returns true
         var resultList: List<JSONObject>? = null
         diagnosticsFileHelper.readFileAsJson { sequence ->
             resultList = sequence.toList()
         }
-        verify(exactly = 1) { fileHelper.fileIsEmpty(diagnosticsFilePath) }
         assertThat(resultList).isNotNull
         assertThat(resultList).isEmpty()
-        verify(exactly = 0) { fileHelper.readFilePerLines(diagnosticsFilePath, any()) }
     }
 
     @Test
     fun `readDiagnosticsFile reads content as json`() {
-        every { fileHelper.fileIsEmpty(diagnosticsFilePath) } returns false
-        val sequenceBlockSlot = slot<((Sequence<String>) -> Unit)>()
-        every { fileHelper.readFilePerLines(diagnosticsFilePath, capture(sequenceBlockSlot)) } answers {
-            sequenceBlockSlot.captured(sequenceOf("{}", "{\"test_key\": \"test_value\"}"))
-        }
+        eventLog.append("{}\n{\"test_key\": \"test_value\"}\n")
         var resultList: List<JSONObject>? = null
         diagnosticsFileHelper.readFileAsJson { sequence ->
             resultList = sequence.toList()
@@ -102,4 +112,25 @@ class DiagnosticsFileHelperTest {
         assertThat(resultList?.get(0)?.length()).isEqualTo(0)
         assertThat(resultList?.get(1)?.get("test_key")).isEqualTo("test_value")
     }
+
+    @Test
+    fun `readDiagnosticsFile reads entries written by previous versions to the single file`() {
+        fileHelper.appendToFile(diagnosticsFilePath, "{\"test_key\": \"legacy\"}\n")
+        var resultList: List<JSONObject>? = null
+        diagnosticsFileHelper.readFileAsJson { sequence ->
+            resultList = sequence.toList()
+        }
+        assertThat(resultList?.map { it.get("test_key") }).containsExactly("legacy")
+        assertThat(fileHelper.fileExists(diagnosticsFilePath)).isFalse
+    }
+
+    private fun storedLines(): List<String> {
+        var lines: List<String> = emptyList()
+        eventLog.readLines { sequence -> lines = sequence.toList() }
+        return lines
+    }
+
+    private fun appendBytes(byteCount: Int) {
+        eventLog.append("x".repeat(byteCount - 1) + "\n")
+    }
 }
@@ -6,6 +6,7 @@ import com.revenuecat.purchases.Store
 import com.revenuecat.purchases.common.AppConfig
 import com.revenuecat.purchases.common.FileHelper
 import com.revenuecat.purchases.common.SyncDispatcher
+import com.revenuecat.purchases.utils.SegmentedEventLog
 import io.mockk.every
 import io.mockk.mockk
 import org.junit.After
@@ -93,8 +94,10 @@ class DiagnosticsTrackerFunctionalTest {
     }
 
     private fun hasDiagnosticsFileBeenCleared(): Boolean {
-        val file = File(testFolder, DiagnosticsFileHelper.DIAGNOSTICS_FILE_PATH)
-        if (!file.exists()) return true
-        return file.readText().contains(DiagnosticsEntryName.MAX_EVENTS_STORED_LIMIT_REACHED.name.lowercase())
+        val eventLog = SegmentedEventLog(FileHelper(applicationContext), DiagnosticsFileHelper.DIAGNOSTICS_FILE_PATH)
+        var lines: List<String> = emptyList()
+        eventLog.readLines { sequence -> lines = sequence.toList() }
+        if (lines.isEmpty()) return true
+        return lines.any { it.contains(DiagnosticsEntryName.MAX_EVENTS_STORED_LIMIT_REACHED.name.lowercase()) }
     }
 }
@@ -39,6 +39,7 @@ import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
 import java.io.IOException
 import java.util.UUID
+import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
 
 @RunWith(AndroidJUnit4::class)
@@ -155,6 +156,8 @@ class DiagnosticsTrackerTest {
             "verification_result" to "NOT_REQUESTED",
             "is_retry" to false,
             "connection_error_reason" to "NO_NETWORK",
+            "connection_likely_reused" to true,
+            "estimated_connection_reuse_rate" to 0.5,
         )
         every { diagnosticsFileHelper.appendEvent(any()) } just Runs
         diagnosticsTracker.trackHttpRequestPerformed(
@@ -168,6 +171,8 @@ class DiagnosticsTrackerTest {
             VerificationResult.NOT_REQUESTED,
             isRetry = false,
             connectionErrorReason = ConnectionErrorReason.NO_NETWORK,
+            connectionLikelyReused = true,
+            estimatedConnectionReuseRate = 0.5,
         )
         verify(exactly = 1) {
             diagnosticsFileHelper.appendEvent(match { event ->
@@ -191,6 +196,8 @@ class DiagnosticsTrackerTest {
             "verification_result" to "NOT_REQUESTED",
             "is_retry" to false,
             "connection_error_reason" to "NO_NETWORK",
+            "connection_likely_reused" to true,
+            "estimated_connection_reuse_rate" to 0.5,
         )
         every { diagnosticsFileHelper.appendEvent(any()) } just Runs
         diagnosticsTracker.trackHttpRequestPerformed(
@@ -204,6 +211,8 @@ class DiagnosticsTrackerTest {
             VerificationResult.NOT_REQUESTED,
             isRetry = false,
             connectionErrorReason = ConnectionErrorReason.NO_NETWORK,
+            connectionLikelyReused = true,
+            estimatedConnectionReuseRate = 0.5,
         )
         verify(exactly = 1) {
             diagnosticsFileHelper.appendEvent(match { event ->
@@ -227,6 +236,8 @@ class DiagnosticsTrackerTest {
             "verification_result" to "NOT_REQUESTED",
             "is_retry" to true,
             "connection_error_reason" to "NO_NETWORK",
+            "connection_likely_reused" to true,
+            "estimated_connection_reuse_rate" to 0.5,
         )
         every { diagnosticsFileHelper.appendEvent(any()) } just Runs
         diagnosticsTracker.trackHttpRequestPerformed(
@@ -240,6 +251,8 @@ class DiagnosticsTrackerTest {
             VerificationResult.NOT_REQUESTED,
             isRetry = true,
             connectionErrorReason = ConnectionErrorReason.NO_NETWORK,
+            connectionLikelyReused = true,
+            estimatedConnectionReuseRate = 0.5,
         )
         verify(exactly = 1) {
             diagnosticsFileHelper.appendEvent(match { event ->
@@ -274,7 +287,8 @@ class DiagnosticsTrackerTest {
             "product_type_queried" to "subs",
             "billing_response_code" to 12,
             "billing_debug_message" to "test-debug-message",
-            "response_time_millis" to 1234L
+            "response_time_millis" to 1234L,
+            "cache_hit" to false,
         )
         every { diagnosticsFileHelper.appendEvent(any()) } just Runs
         diagnosticsTracker.trackGoogleQueryProductDetailsRequest(
@@ -292,6 +306,35 @@ class DiagnosticsTrackerTest {
         }
     }
 
+    @Test
+    fun `trackGoogleQueryProductDetailsRequest tracks cache hits`() {
+        val expectedProperties = mapOf(
+            "requested_product_ids" to setOf("test-product-id"),
+            "play_store_version" to "123",
+            "play_services_version" to "456",
+            "product_type_queried" to "inapp",
+            "billing_response_code" to 0,
+            "billing_debug_message" to "",
+            "response_time_millis" to 0L,
+            "cache_hit" to true,
+        )
+        every { diagnosticsFileHelper.appendEvent(any()) } just Runs
+        diagnosticsTracker.trackGoogleQueryProductDetailsRequest(
+            requestedProductIds = setOf("test-product-id"),
+            productType = "inapp",
+            billingResponseCode = 0,
+            billingDebugMessage = "",
+            responseTime = Duration.ZERO,
+            cacheHit = true,
+        )
+        verify(exactly = 1) {
+            diagnosticsFileHelper.appendEvent(match { event ->
+                event.name == DiagnosticsEntryName.GOOGLE_QUERY_PRODUCT_DETAILS_REQUEST &&
+                    event.properties == expectedProperties
+            })
+        }
+    }
+
     @Test
     fun `trackGoogleQueryPurchasesRequest tracks correct event`() {
         val expectedProperties = mapOf(
@@ -905,6 +948,96 @@ class DiagnosticsTrackerTest {
 
     // endregion Purchase
 
+    // region Remote config
+
+    @Test
+    fun `trackRemoteConfigBlobDownload tracks correct data`() {
+        val expectedProperties = mapOf(
+            "play_store_version" to "123",
+            "play_services_version" to "456",
+            "successful" to true,
+            "on_demand" to false,
+            "downloaded_bytes" to 4096,
+            "queue_wait_time_millis" to 250L,
+            "download_time_millis" to 500L,
+            "throughput_bytes_per_second" to 8192L,
+        )
+        every { diagnosticsFileHelper.appendEvent(any()) } just Runs
+        diagnosticsTracker.trackRemoteConfigBlobDownload(
+            successful = true,
+            onDemand = false,
+            downloadedBytes = 4096,
+            queueWaitTime = 250L.milliseconds,
+            downloadTime = 500L.milliseconds,
+        )
+        verify(exactly = 1) {
+            diagnosticsFileHelper.appendEvent(match { event ->
+                event.name == DiagnosticsEntryName.REMOTE_CONFIG_BLOB_DOWNLOAD &&
+                    event.properties == expectedProperties
+            })
+        }
+    }
+
+    @Test
+    fun `trackRemoteConfigBlobDownload omits the throughput of an instant download`() {
+        val expectedProperties = mapOf(
+            "play_store_version" to "123",
+            "play_services_version" to "456",
+            "successful" to false,
+            "on_demand" to true,
+            "downloaded_bytes" to 0,
+            "queue_wait_time_millis" to 0L,
+            "download_time_millis" to 0L,
+        )
+        every { diagnosticsFileHelper.appendEvent(any()) } just Runs
+        diagnosticsTracker.trackRemoteConfigBlobDownload(
+            successful = false,
+            onDemand = true,
+            downloadedBytes = 0,
+            queueWaitTime = Duration.ZERO,
+            downloadTime = Duration.ZERO,
+        )
+        verify(exactly = 1) {
+            diagnosticsFileHelper.appendEvent(match { event ->
+                event.name == DiagnosticsEntryName.REMOTE_CONFIG_BLOB_DOWNLOAD &&
+                    event.properties == expectedProperties
+            })
+        }
+    }
+
+    // endregion Remote config
+
+    // region Dispatcher
+
+    @Test
+    fun `trackDispatcherQueueWait tracks correct data`() {
+        val expectedProperties = mapOf(
+            "play_store_version" to "123",
+            "play_services_version" to "456",
+            "lane" to "backend",
+            "queue_depth" to 3,
+            "queue_wait_time_millis" to 1200L,
+            "max_queue_wait_time_millis" to 4000L,
+        )
+        every { diagnosticsFileHelper.appendEvent(any()) } just Runs
+        diagnosticsTracker.trackDispatcherQueueWait(
+            lane = "backend",
+            queueStats = Dispatcher.QueueStats(
+                queueDepth = 3,
+                lastWaitTime = 1200L.milliseconds,
+                maxWaitTime = 4000L.milliseconds,
+            ),
+        )
+        verify(exactly = 1) {
+            diagnosticsFileHelper.appendEvent(match { event ->
+                event.name == DiagnosticsEntryName.DISPATCHER_QUEUE_WAIT &&
+                    event.properties == expectedProperties
+            })
+        }
+    }
+
+    // endregion Dispatcher
+
     private fun mockSharedPreferences() {
         sharedPreferences = mockk()
         sharedPreferencesEditor = mockk()
@@ -22,6 +22,7 @@ import com.revenuecat.purchases.ads.events.types.AdMediatorName
 import com.revenuecat.purchases.ads.events.types.AdRevenuePrecision
 import com.revenuecat.purchases.common.AppConfig
 import com.revenuecat.purchases.common.Backend
+import com.revenuecat.purchases.common.Delay
 import com.revenuecat.purchases.common.Dispatcher
 import com.revenuecat.purchases.common.FileHelper
 import com.revenuecat.purchases.common.SyncDispatcher
@@ -36,11 +37,13 @@ import com.revenuecat.purchases.paywalls.events.PaywallEventType
 import com.revenuecat.purchases.paywalls.events.PaywallStoredEvent
 import com.revenuecat.purchases.utils.EventsFileHelper
 import com.revenuecat.purchases.utils.RateLimiter
+import com.revenuecat.purchases.utils.SegmentedEventLog
 import io.mockk.Runs
 import io.mockk.every
 import io.mockk.just
 import io.mockk.mockk
 import io.mockk.slot
+import io.mockk.spyk
 import io.mockk.verify
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.After
@@ -106,6 +109,11 @@ class EventsManagerTest {
     private lateinit var legacyFileHelper: EventsFileHelper<PaywallStoredEvent>
     private lateinit var fileHelper: EventsFileHelper<BackendStoredEvent>
     private lateinit var adFileHelper: EventsFileHelper<BackendStoredEvent.Ad>
+    private lateinit var eventLogFileHelper: FileHelper
+
+    // A new log on every access, since a log keeps its state in memory and wouldn't see the manager's writes.
+    private val eventLog: SegmentedEventLog
+        get() = SegmentedEventLog(eventLogFileHelper, EventsManager.EVENTS_FILE_PATH_NEW)
 
     private lateinit var identityManager: IdentityManager
     private lateinit var paywallEventsDispatcher: Dispatcher
@@ -126,6 +134,7 @@ class EventsManagerTest {
         }
         legacyFileHelper = EventsManager.paywalls(fileHelper = FileHelper(context))
         fileHelper = EventsManager.backendEvents(fileHelper = FileHelper(context))
+        eventLogFileHelper = FileHelper(context)
         identityManager = mockk<IdentityManager>().apply {
             every { currentAppUserID } returns userID
         }
@@ -238,6 +247,95 @@ class EventsManagerTest {
         )
     }
 
+    // region group commit
+
+    @Test
+    fun `tracked events are written in a single batch when the group commit window elapses`() {
+        val dispatcher = GroupCommitDeferringDispatcher()
+        val spiedFileHelper = spyk(fileHelper)
+        eventsManager = createEventsManager(dispatcher, spiedFileHelper)
+
+        eventsManager.track(paywallEvent)
+        eventsManager.track(paywallEvent)
+        eventsManager.track(paywallEvent)
+        checkFileNumberOfEvents(0)
+
+        dispatcher.runDeferredCommands()
+
+        checkFileNumberOfEvents(3)
+        verify(exactly = 1) { spiedFileHelper.appendEvents(any()) }
+    }
+
+    @Test
+    fun `reaching the maximum batch size writes tracked events without waiting for the window`() {
+        val dispatcher = GroupCommitDeferringDispatcher()
+        val spiedFileHelper = spyk(fileHelper)
+        eventsManager = createEventsManager(dispatcher, spiedFileHelper)
+
+        repeat(20) { eventsManager.track(paywallEvent) }
+
+        checkFileNumberOfEvents(20)
+        verify(exactly = 1) { spiedFileHelper.appendEvents(any()) }
+    }
+
+    @Test
+    fun `flushEvents writes buffered events before posting them`() {
+        mockBackendResponse(success = true)
+        val dispatcher = GroupCommitDeferringDispatcher()
+        eventsManager = createEventsManager(dispatcher, fileHelper)
+
+        eventsManager.track(paywallEvent)
+        eventsManager.track(paywallEvent)
+        eventsManager.flushEvents()
+
+        expectNumberOfEventsSynced(2)
+        checkFileNumberOfEvents(0)
+    }
+
+    private class GroupCommitDeferringDispatcher : Dispatcher(mockk()) {
+        private val deferredCommands = mutableListOf<Runnable>()
+
+        override fun enqueue(command: Runnable, delay: Delay) {
+            if (delay == Delay.GROUP_COMMIT) {
+                deferredCommands.add(command)
+            } else {
+                command.run()
+            }
+        }
+
+        fun runDeferredCommands() {
+            val commands = deferredCommands.toList()
+            deferredCommands.clear()
+            commands.forEach { it.run() }
+        }
+    }
+
+    private fun createEventsManager(
+        dispatcher: Dispatcher,
+        eventsFileHelper: EventsFileHelper<BackendStoredEvent>,
+    ): EventsManager {
+        return EventsManager(
+            appSessionID,
+            legacyFileHelper,
+            eventsFileHelper,
+            identityManager,
+            dispatcher,
+            postEvents = { request, delay, onSuccess, onError ->
+                postedRequest = request
+                backend.postEvents(
+                    paywallEventRequest = request,
+                    baseURL = AppConfig.paywallEventsURL,
+                    delay = delay,
+                    onSuccessHandler = onSuccess,
+                    onErrorHandler = onError,
+                )
+            },
+            priorityFlushRateLimiter = disabledRateLimiter,
+        )
+    }
+
+    // endregion group commit
+
     @Test
     fun `flushEvents sends available events to backend`() {
         mockBackendResponse(success = true)
@@ -401,30 +499,32 @@ class EventsManagerTest {
         mockBackendResponse(success = true)
         eventsManager.track(paywallEvent)
         appendToFile(
-            """{"type":"customer_center","event":{"id":"298207f4-87af-4b57-a581-eb27bcc6e009","revision_id":1,"type":"customer_center_survey_option_chosen","app_user_id":"testAppUserId","app_session_id":"${appSessionID}","timestamp":1699270688884,"dark_mode":true,"locale":"es_ES","display_mode":"full_screen","path":"CANCEL","url":"PATH2","survey_option_id":"surveyOptionID","survey_option_title_key":"surveyOptionTitleKey"}}""".trimIndent()
+            """{"type":"customer_center","event":{"id":"298207f4-87af-4b57-a581-eb27bcc6e009","revision_id":1,"type":"customer_center_survey_option_chosen","app_user_id":"testAppUserId","app_session_id":"${appSessionID}","timestamp":1699270688884,"dark_mode":true,"locale":"es_ES","display_mode":"full_screen","path":"CANCEL","url":"PATH2","survey_option_id":"surveyOptionID","survey_option_title_key":"surveyOptionTitleKey"}}""".trimIndent() + "\n"
         )
         eventsManager.flushEvents()
         assertThat(postedRequest?.events?.count()  == 2)
     }
 
+    private fun storedLines(): List<String> {
+        var lines: List<String> = emptyList()
+        eventLog.readLines { sequence -> lines = sequence.toList() }
+        return lines
+    }
+
     private fun checkFileNumberOfEvents(expectedNumberOfEvents: Int) {
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        assertThat(file.readLines().size).isEqualTo(expectedNumberOfEvents)
+        assertThat(storedLines().size).isEqualTo(expectedNumberOfEvents)
     }
 
     private fun checkFileContents(expectedContents: String) {
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        assertThat(file.readText()).isEqualTo(expectedContents)
+        assertThat(checkFileContentsAndReturn()).isEqualTo(expectedContents)
     }
 
     private fun checkFileContentsAndReturn(): String {
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        return file.readText()
+        return storedLines().joinToString(separator = "") { "$it\n" }
     }
 
     private fun checkFileExists(shouldExist: Boolean) {
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        assertThat(file.exists()).isEqualTo(shouldExist)
+        assertThat(eventLog.isEmpty()).isEqualTo(!shouldExist)
     }
 
     private fun mockBackendResponse(
@@ -464,8 +564,7 @@ class EventsManagerTest {
     }
 
     private fun appendToFile(contents: String) {
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        file.appendText(contents)
+        eventLog.append(contents)
     }
 
     @Test
@@ -847,8 +946,7 @@ class EventsManagerTest {
             eventsManager.track(paywallEvent)
         }
 
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        val finalEventCount = file.readLines().size
+        val finalEventCount = storedLines().size
 
         // The file should have fewer events than we tracked because
         // the oldest 50 events were cleared each time the limit was reached
@@ -856,7 +954,7 @@ class EventsManagerTest {
         assertThat(finalEventCount).isGreaterThan(5000) // Should still have a significant number of events
 
         // Verify file size is under the limit (2048KB)
-        val fileSizeKB = file.length() / 1024.0
+        val fileSizeKB = eventLog.sizeInKB()
         assertThat(fileSizeKB).isLessThan(EventsManager.FILE_SIZE_LIMIT_KB)
     }
 
@@ -873,8 +971,7 @@ class EventsManagerTest {
             }
         }
 
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        val fileSizeKB = file.length() / 1024.0
+        val fileSizeKB = eventLog.sizeInKB()
 
         // Verify file size is under the limit
         assertThat(fileSizeKB).isLessThan(EventsManager.FILE_SIZE_LIMIT_KB)
@@ -892,13 +989,12 @@ class EventsManagerTest {
             ))
         }
 
-        val file = File(testFolder, EventsManager.EVENTS_FILE_PATH_NEW)
-        val fileSizeKB = file.length() / 1024.0
+        val fileSizeKB = eventLog.sizeInKB()
 
         // Verify file size is under the limit
         assertThat(fileSizeKB).isLessThan(EventsManager.FILE_SIZE_LIMIT_KB)
 
-        val lines = file.readLines()
+        val lines = storedLines()
         val firstLine = lines.first()
         // Assert that the first line has a more recent offeringIdentifier, indicating older events were cleared
         val firstOfferingID = firstLine.substringAfter("offeringID_").substringBefore("_").toInt()
@@ -0,0 +1,142 @@
+package com.revenuecat.purchases.common.networking
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.common.DateProvider
+import io.mockk.mockk
+import io.mockk.verify
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.assertj.core.api.Assertions.assertThat
+import org.json.JSONObject
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.annotation.Config
+import java.net.HttpURLConnection
+import java.util.Date
+import java.util.concurrent.atomic.AtomicLong
+
+@RunWith(AndroidJUnit4::class)
+@Config(manifest = Config.NONE)
+internal class PooledHTTPTransportTest {
+
+    private class FakeDateProvider(private val currentTime: AtomicLong = AtomicLong(1_000_000L)) : DateProvider {
+        override val now: Date
+            get() = Date(currentTime.get())
+
+        fun advanceTime(millis: Long) {
+            currentTime.addAndGet(millis)
+        }
+    }
+
+    private lateinit var server: MockWebServer
+    private lateinit var dateProvider: FakeDateProvider
+    private lateinit var transport: PooledHTTPTransport
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        dateProvider = FakeDateProvider()
+        transport = PooledHTTPTransport(dateProvider)
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    private fun request(path: String = "/v1/subscribers/test") =
+        HTTPRequest(server.url(path).toUrl(), mapOf("Accept" to "application/json"), body = null)
+
+    private fun performCall(responseFullyRead: Boolean = true): HTTPTransport.Connection {
+        server.enqueue(MockResponse().setBody("{}"))
+        val connection = transport.open(request(), connectTimeoutMs = 5000L)
+        connection.urlConnection.inputStream.use { if (responseFullyRead) it.readBytes() }
+        transport.release(connection, responseFullyRead)
+        return connection
+    }
+
+    @Test
+    fun `first connection to a host is not reused`() {
+        val connection = performCall()
+
+        assertThat(connection.isLikelyReused).isFalse
+    }
+
+    @Test
+    fun `connection released after reading the full response is reused for the same host`() {
+        performCall()
+        val second = performCall()
+
+        assertThat(second.isLikelyReused).isTrue
+        assertThat(server.takeRequest().sequenceNumber).isEqualTo(0)
+        assertThat(server.takeRequest().sequenceNumber).isEqualTo(1)
+    }
+
+    @Test
+    fun `connection released without reading the full response is not reused`() {
+        performCall(responseFullyRead = false)
+        val second = performCall()
+
+        assertThat(second.isLikelyReused).isFalse
+    }
+
+    @Test
+    fun `connection released without reading the full response is disconnected without reading its headers`() {
+        val urlConnection = mockk<HttpURLConnection>(relaxed = true)
+
+        transport.release(HTTPTransport.Connection(urlConnection, isLikelyReused = false), responseFullyRead = false)
+
+        verify(exactly = 0) { urlConnection.getHeaderField(any<String>()) }
+        verify(exactly = 1) { urlConnection.disconnect() }
+    }
+
+    @Test
+    fun `idle connection older than keep alive is not reused`() {
+        performCall()
+        dateProvider.advanceTime(PooledHTTPTransport.DEFAULT_KEEP_ALIVE_MS + 1)
+        val second = performCall()
+
+        assertThat(second.isLikelyReused).isFalse
+    }
+
+    @Test
+    fun `server closing the connection prevents reuse`() {
+        server.enqueue(MockResponse().setBody("{}").setHeader("Connection", "close"))
+        val first = transport.open(request(), connectTimeoutMs = 5000L)
+        first.urlConnection.inputStream.use { it.readBytes() }
+        transport.release(first, responseFullyRead = true)
+
+        val second = performCall()
+
+        assertThat(second.isLikelyReused).isFalse
+    }
+
+    @Test
+    fun `estimated connection reuse rate reflects likely reused connections`() {
+        assertThat(transport.estimatedConnectionReuseRate).isEqualTo(0.0)
+
+        performCall()
+        performCall()
+        performCall()
+        performCall()
+
+        assertThat(transport.estimatedConnectionReuseRate).isEqualTo(0.75)
+    }
+
+    @Test
+    fun `writes body as POST`() {
+        server.enqueue(MockResponse().setBody("{}"))
+        val connection = transport.open(
+            HTTPRequest(server.url("/v1/receipts").toUrl(), emptyMap(), JSONObject("""{"a":1}""")),
+            connectTimeoutMs = 5000L,
+        )
+        connection.urlConnection.inputStream.use { it.readBytes() }
+        transport.release(connection, responseFullyRead = true)
+
+        val recorded = server.takeRequest()
+        assertThat(recorded.method).isEqualTo("POST")
+        assertThat(recorded.body.readUtf8()).isEqualTo("""{"a":1}""")
+    }
+}
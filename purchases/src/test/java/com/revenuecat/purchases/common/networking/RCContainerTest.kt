@@ -12,6 +12,9 @@ import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.OutputStream
 import java.nio.ByteBuffer
 
 @RunWith(AndroidJUnit4::class)
@@ -275,6 +278,59 @@ class RCContainerTest {
         assertThatThrownBy { parsed.decode() }.isInstanceOf(RCContainerFormatException::class.java)
     }
 
+    @Test
+    fun `decodeTo streams a gzip element larger than one chunk and reports its size`() {
+        val element = ByteArray(100_000) { (it % 251).toByte() }
+        val bytes = buildContainer(
+            elements = listOf(element),
+            codecForIndex = { index -> if (index == 1) RCContentEncoding.GZIP.id else RCContentEncoding.NONE.id },
+        )
+        val parsed = RCContainer.parse(bytes).contentElements.single()
+        val output = ByteArrayOutputStream()
+
+        val written = parsed.decodeTo(output)
+
+        assertThat(written).isEqualTo(element.size.toLong())
+        assertThat(output.toByteArray()).isEqualTo(element)
+    }
+
+    @Test
+    fun `decodeTo streams an uncompressed element without consuming its view`() {
+        val element = "plain-".repeat(3_000).toByteArray()
+        val parsed = RCContainer.parse(buildContainer(elements = listOf(element))).contentElements.single()
+        val output = ByteArrayOutputStream()
+
+        parsed.decodeTo(output)
+
+        assertThat(output.toByteArray()).isEqualTo(element)
+        assertThat(parsed.data.remaining()).isEqualTo(element.size)
+    }
+
+    @Test
+    fun `decodeTo throws once the streamed bytes do not match the element checksum`() {
+        val blob = "verify-me".repeat(2_000).toByteArray()
+        val bytes = buildContainer(
+            elements = listOf(blob),
+            checksumOverride = { index, element -> if (index == 1) ByteArray(24) { 0 } else RCContainerTestData.sha256(element) },
+            codecForIndex = { index -> if (index == 1) RCContentEncoding.GZIP.id else RCContentEncoding.NONE.id },
+        )
+        val parsed = RCContainer.parse(bytes).contentElements.single()
+
+        assertThatThrownBy { parsed.decodeTo(ByteArrayOutputStream()) }
+            .isInstanceOf(RCContainerFormatException::class.java)
+    }
+
+    @Test
+    fun `decodeTo propagates failures writing to the output`() {
+        val parsed = RCContainer.parse(buildContainer(elements = listOf("payload".toByteArray())))
+            .contentElements.single()
+        val failingOutput = object : OutputStream() {
+            override fun write(b: Int) = throw IOException("disk full")
+        }
+
+        assertThatThrownBy { parsed.decodeTo(failingOutput) }.isInstanceOf(IOException::class.java)
+    }
+
     @Test
     fun `content element data is a zero-copy view over the source buffer`() {
         val element = "ABCD".toByteArray()
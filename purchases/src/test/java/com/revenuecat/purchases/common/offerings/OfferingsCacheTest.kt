@@ -6,7 +6,6 @@ import com.revenuecat.purchases.common.DateProvider
 import com.revenuecat.purchases.common.DefaultLocaleProvider
 import com.revenuecat.purchases.common.FakeLocaleProvider
 import com.revenuecat.purchases.common.HTTPResponseOriginalSource
-import com.revenuecat.purchases.common.caching.DeviceCache
 import com.revenuecat.purchases.utils.ONE_OFFERINGS_RESPONSE
 import com.revenuecat.purchases.utils.add
 import com.revenuecat.purchases.utils.copy
@@ -32,7 +31,7 @@ class OfferingsCacheTest {
     private val initialDate = Date(1685098228L) // Friday, May 26, 2023 10:50:28 AM GMT
     private lateinit var currentDate: Date
 
-    private lateinit var deviceCache: DeviceCache
+    private lateinit var responseStore: OfferingsResponseStore
     private lateinit var dateProvider: DateProvider
 
     private lateinit var offeringsCache: OfferingsCache
@@ -40,19 +39,19 @@ class OfferingsCacheTest {
     @Before
     fun setUp() {
         currentDate = initialDate
-        deviceCache = mockk()
+        responseStore = mockk()
         dateProvider = object : DateProvider {
             override val now: Date
                 get() = currentDate
         }
 
-        offeringsCache = OfferingsCache(deviceCache, dateProvider = dateProvider, localeProvider = DefaultLocaleProvider())
+        offeringsCache = OfferingsCache(responseStore, dateProvider = dateProvider, localeProvider = DefaultLocaleProvider())
     }
 
     @Test
     fun `clear cache clears offerings cache and offerings response cache`() {
-        every { deviceCache.clearOfferingsResponseCache() } just Runs
-        every { deviceCache.cacheOfferingsResponse(any()) } just Runs
+        every { responseStore.clear() } just Runs
+        every { responseStore.write(any()) } just Runs
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
@@ -61,7 +60,7 @@ class OfferingsCacheTest {
         assertThat(offeringsCache.cachedOfferings).isNull()
         assertThat(offeringsCache.isOfferingsCacheStale(appInBackground = false)).isTrue
         assertThat(offeringsCache.isOfferingsCacheStale(appInBackground = true)).isTrue
-        verify(exactly = 1) { deviceCache.clearOfferingsResponseCache() }
+        verify(exactly = 1) { responseStore.clear() }
     }
 
     @Test
@@ -69,12 +68,12 @@ class OfferingsCacheTest {
         val offerings = mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }
-        every { deviceCache.cacheOfferingsResponse(any()) } just Runs
+        every { responseStore.write(any()) } just Runs
         assertThat(offeringsCache.cachedOfferings).isNull()
         offeringsCache.cacheOfferings(offerings, ONE_OFFERINGS_RESPONSE)
         assertThat(offeringsCache.cachedOfferings).isEqualTo(offerings)
         verify(exactly = 1) {
-            deviceCache.cacheOfferingsResponse(ONE_OFFERINGS_RESPONSE)
+            responseStore.write(ONE_OFFERINGS_RESPONSE)
         }
     }
 
@@ -86,7 +85,7 @@ class OfferingsCacheTest {
 
         offeringsCache.cacheOfferings(offerings, responsePayload = null)
 
-        verify(exactly = 0) { deviceCache.cacheOfferingsResponse(any()) }
+        verify(exactly = 0) { responseStore.write(any()) }
         // The in-memory cache must still be populated, or every later getOfferings re-parses the disk blob.
         assertThat(offeringsCache.cachedOfferings).isEqualTo(offerings)
         assertThat(offeringsCache.isOfferingsCacheStale(appInBackground = false)).isFalse
@@ -107,7 +106,7 @@ class OfferingsCacheTest {
 
     @Test
     fun `cache is not stale right after caching value`() {
-        mockDeviceCacheOfferingResponse()
+        mockResponseStoreWrite()
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
@@ -116,7 +115,7 @@ class OfferingsCacheTest {
 
     @Test
     fun `cache is stale if cached value is stale`() {
-        mockDeviceCacheOfferingResponse()
+        mockResponseStoreWrite()
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
@@ -126,7 +125,7 @@ class OfferingsCacheTest {
 
     @Test
     fun `cache is stale if forced to be stale`() {
-        mockDeviceCacheOfferingResponse()
+        mockResponseStoreWrite()
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
@@ -136,7 +135,7 @@ class OfferingsCacheTest {
 
     @Test
     fun `clearInMemoryOfferingsCache clears cached offerings`() {
-        mockDeviceCacheOfferingResponse()
+        mockResponseStoreWrite()
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
@@ -147,7 +146,7 @@ class OfferingsCacheTest {
 
     @Test
     fun `clearInMemoryOfferingsCache makes cache stale`() {
-        mockDeviceCacheOfferingResponse()
+        mockResponseStoreWrite()
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
@@ -159,18 +158,18 @@ class OfferingsCacheTest {
 
     @Test
     fun `clearInMemoryOfferingsCache does not clear disk cache`() {
-        mockDeviceCacheOfferingResponse()
+        mockResponseStoreWrite()
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
         offeringsCache.clearInMemoryOfferingsCache()
-        verify(exactly = 0) { deviceCache.clearOfferingsResponseCache() }
+        verify(exactly = 0) { responseStore.clear() }
     }
 
     @Test
     fun `clearInMemoryOfferingsCache preserves disk cache for fallback`() {
-        mockDeviceCacheOfferingResponse()
-        every { deviceCache.getOfferingsResponseCache() } returns JSONObject(ONE_OFFERINGS_RESPONSE)
+        mockResponseStoreWrite()
+        every { responseStore.read() } returns JSONObject(ONE_OFFERINGS_RESPONSE)
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
             every { originalSource } returns HTTPResponseOriginalSource.MAIN
         }, ONE_OFFERINGS_RESPONSE)
@@ -189,8 +188,8 @@ class OfferingsCacheTest {
     fun `cache is not stale when locales remain the same`() {
         // Arrange
         val localeProvider = FakeLocaleProvider("en-US", "es-ES")
-        val offeringsCache = OfferingsCache(deviceCache, dateProvider = dateProvider, localeProvider = localeProvider)
-        mockDeviceCacheOfferingResponse()
+        val offeringsCache = OfferingsCache(responseStore, dateProvider = dateProvider, localeProvider = localeProvider)
+        mockResponseStoreWrite()
 
         // Act
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
@@ -205,8 +204,8 @@ class OfferingsCacheTest {
     fun `cache is stale when locales change after caching`() {
         // Arrange
         val localeProvider = FakeLocaleProvider("en-US", "es-ES")
-        val offeringsCache = OfferingsCache(deviceCache, dateProvider = dateProvider, localeProvider = localeProvider)
-        mockDeviceCacheOfferingResponse()
+        val offeringsCache = OfferingsCache(responseStore, dateProvider = dateProvider, localeProvider = localeProvider)
+        mockResponseStoreWrite()
 
         // Act
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
@@ -223,8 +222,8 @@ class OfferingsCacheTest {
     fun `cache is stale when a single locale changes`() {
         // Arrange
         val localeProvider = FakeLocaleProvider("en-US")
-        val offeringsCache = OfferingsCache(deviceCache, dateProvider = dateProvider, localeProvider = localeProvider)
-        mockDeviceCacheOfferingResponse()
+        val offeringsCache = OfferingsCache(responseStore, dateProvider = dateProvider, localeProvider = localeProvider)
+        mockResponseStoreWrite()
 
         // Act
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
@@ -241,8 +240,8 @@ class OfferingsCacheTest {
     fun `cache is stale when locale order changes`() {
         // Arrange
         val localeProvider = FakeLocaleProvider("en-US", "es-ES")
-        val offeringsCache = OfferingsCache(deviceCache, dateProvider = dateProvider, localeProvider = localeProvider)
-        mockDeviceCacheOfferingResponse()
+        val offeringsCache = OfferingsCache(responseStore, dateProvider = dateProvider, localeProvider = localeProvider)
+        mockResponseStoreWrite()
 
         // Act
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
@@ -259,9 +258,9 @@ class OfferingsCacheTest {
     fun `clear cache also clears cached locales`() {
         // Arrange
         val localeProvider = FakeLocaleProvider("en-US")
-        val offeringsCache = OfferingsCache(deviceCache, dateProvider = dateProvider, localeProvider = localeProvider)
-        mockDeviceCacheOfferingResponse()
-        every { deviceCache.clearOfferingsResponseCache() } just Runs
+        val offeringsCache = OfferingsCache(responseStore, dateProvider = dateProvider, localeProvider = localeProvider)
+        mockResponseStoreWrite()
+        every { responseStore.clear() } just Runs
 
         // Act
         offeringsCache.cacheOfferings(mockk<Offerings>().apply {
@@ -281,9 +280,9 @@ class OfferingsCacheTest {
     // region offerings response cache
 
     @Test
-    fun `offerings cache returns device cache offerings response`() {
+    fun `offerings cache returns stored offerings response`() {
         val offeringsResponse = mockk<JSONObject>()
-        every { deviceCache.getOfferingsResponseCache() } returns offeringsResponse
+        every { responseStore.read() } returns offeringsResponse
         assertThat(offeringsCache.cachedOfferingsResponse).isEqualTo(offeringsResponse)
     }
 
@@ -291,8 +290,8 @@ class OfferingsCacheTest {
 
     // region helpers
 
-    fun mockDeviceCacheOfferingResponse() {
-        every { deviceCache.cacheOfferingsResponse(any()) } just Runs
+    fun mockResponseStoreWrite() {
+        every { responseStore.write(any()) } just Runs
     }
 
     // endregion helpers
@@ -14,6 +14,7 @@ import com.revenuecat.purchases.common.Dispatcher
 import com.revenuecat.purchases.common.GoogleOfferingParser
 import com.revenuecat.purchases.common.HTTPResponseOriginalSource
 import com.revenuecat.purchases.common.OfferingParser
+import com.revenuecat.purchases.common.caching.StoreProductCache
 import com.revenuecat.purchases.models.StoreProduct
 import com.revenuecat.purchases.strings.OfferingStrings
 import com.revenuecat.purchases.utils.ONE_OFFERINGS_INAPP_PRODUCT_RESPONSE
@@ -478,6 +479,7 @@ class OfferingsFactoryTest {
     fun `returns offerings when products found as subs`() {
         val productIds = listOf(productId)
         mockStoreProduct(productIds, productIds, ProductType.SUBS)
+        mockStoreProduct(productIds, emptyList(), ProductType.INAPP)
 
         var offerings: Offerings? = null
         offeringsFactory.createOfferings(
@@ -513,6 +515,64 @@ class OfferingsFactoryTest {
         assertThat(offerings!![STUB_OFFERING_IDENTIFIER]!!.monthly!!.product).isNotNull
     }
 
+    @Test
+    fun `queries subscriptions and one-time products concurrently`() {
+        val productIds = setOf(productId)
+        val onReceiveByType = mutableMapOf<ProductType, (List<StoreProduct>) -> Unit>()
+        every {
+            billing.queryProductDetailsAsync(any(), productIds, any(), any())
+        } answers {
+            onReceiveByType[firstArg()] = thirdArg()
+        }
+
+        var offerings: Offerings? = null
+        offeringsFactory.createOfferings(
+            offeringsJSON = oneOfferingInAppProductResponse,
+            originalDataSource = HTTPResponseOriginalSource.MAIN,
+            loadedFromDiskCache = false,
+            onError = { fail("Expected success. Got error: $it") },
+            onSuccess = { offerings = it.offerings }
+        )
+
+        assertThat(onReceiveByType.keys).containsExactlyInAnyOrder(ProductType.SUBS, ProductType.INAPP)
+        onReceiveByType.getValue(ProductType.INAPP).invoke(listOf(stubINAPPStoreProduct(productId)))
+        assertThat(offerings).isNull()
+        onReceiveByType.getValue(ProductType.SUBS).invoke(emptyList())
+
+        assertThat(offerings).isNotNull
+        assertThat(offerings!![STUB_OFFERING_IDENTIFIER]!!.monthly!!.product).isNotNull
+    }
+
+    @Test
+    fun `only queries products as the type they were found as before`() {
+        val productIds = listOf(productId)
+        mockStoreProduct(productIds, emptyList(), ProductType.SUBS)
+        mockStoreProduct(productIds, productIds, ProductType.INAPP)
+        val storeProductCache = StoreProductCache(billing, diagnosticsTrackerIfEnabled = null)
+        offeringsFactory = OfferingsFactory(billing, offeringParser, dispatcher, appConfig, storeProductCache)
+        offeringsFactory.createOfferings(
+            offeringsJSON = oneOfferingInAppProductResponse,
+            originalDataSource = HTTPResponseOriginalSource.MAIN,
+            loadedFromDiskCache = false,
+            onError = { fail("Expected success. Got error: $it") },
+            onSuccess = { }
+        )
+        storeProductCache.invalidate()
+
+        var offerings: Offerings? = null
+        offeringsFactory.createOfferings(
+            offeringsJSON = oneOfferingInAppProductResponse,
+            originalDataSource = HTTPResponseOriginalSource.MAIN,
+            loadedFromDiskCache = false,
+            onError = { fail("Expected success. Got error: $it") },
+            onSuccess = { offerings = it.offerings }
+        )
+
+        assertThat(offerings!![STUB_OFFERING_IDENTIFIER]!!.monthly!!.product).isNotNull
+        verify(exactly = 1) { billing.queryProductDetailsAsync(ProductType.SUBS, any(), any(), any()) }
+        verify(exactly = 2) { billing.queryProductDetailsAsync(ProductType.INAPP, any(), any(), any()) }
+    }
+
     @Test
     fun `createOfferings with paywall`() {
         val productIds = listOf(productId)
@@ -642,6 +702,7 @@ class OfferingsFactoryTest {
     fun `createOfferings without WPL`() {
         val productIds = listOf(productId)
         mockStoreProduct(productIds, productIds, ProductType.SUBS)
+        mockStoreProduct(productIds, emptyList(), ProductType.INAPP)
 
         var offerings: Offerings? = null
         offeringsFactory.createOfferings(
@@ -717,6 +778,7 @@ class OfferingsFactoryTest {
     fun `copy offering can create a copy with a different presented offering context`() {
         val productIds = listOf(productId)
         mockStoreProduct(productIds, productIds, ProductType.SUBS)
+        mockStoreProduct(productIds, emptyList(), ProductType.INAPP)
 
         var offerings: Offerings? = null
         offeringsFactory.createOfferings(
@@ -0,0 +1,135 @@
+package com.revenuecat.purchases.common.offerings
+
+import android.content.Context
+import android.content.SharedPreferences
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.common.Delay
+import com.revenuecat.purchases.common.Dispatcher
+import com.revenuecat.purchases.common.caching.DeviceCache
+import com.revenuecat.purchases.common.networking.ETagPayloadStore
+import com.revenuecat.purchases.utils.ONE_OFFERINGS_RESPONSE
+import com.revenuecat.purchases.utils.SyncDispatcher
+import io.mockk.mockk
+import org.assertj.core.api.Assertions.assertThat
+import org.json.JSONObject
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.annotation.Config
+import java.io.File
+
+@RunWith(AndroidJUnit4::class)
+@Config(manifest = Config.NONE)
+class OfferingsResponseStoreTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    private val legacyOfferingsResponseKey = "com.revenuecat.purchases.api_key.offeringsResponse"
+
+    private lateinit var preferences: SharedPreferences
+    private lateinit var deviceCache: DeviceCache
+    private lateinit var payloadStore: ETagPayloadStore
+
+    @Before
+    fun setUp() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        preferences = context.getSharedPreferences("offerings_response_store_test", Context.MODE_PRIVATE)
+        preferences.edit().clear().commit()
+        deviceCache = DeviceCache(preferences, "api_key")
+        payloadStore = ETagPayloadStore(File(temporaryFolder.root, "offerings_response"))
+    }
+
+    @Test
+    fun `read returns null when nothing was cached`() {
+        assertThat(createStore().read()).isNull()
+    }
+
+    @Test
+    fun `written response is read back`() {
+        val store = createStore()
+
+        store.write(ONE_OFFERINGS_RESPONSE)
+
+        assertThat(store.read()?.toString()).isEqualTo(JSONObject(ONE_OFFERINGS_RESPONSE).toString())
+    }
+
+    @Test
+    fun `response is not kept in shared preferences`() {
+        createStore().write(ONE_OFFERINGS_RESPONSE)
+
+        assertThat(preferences.all.values.filterIsInstance<String>()).noneMatch { it.contains("offerings") }
+    }
+
+    @Test
+    fun `response cached in shared preferences by previous versions is moved to disk when read`() {
+        preferences.edit().putString(legacyOfferingsResponseKey, ONE_OFFERINGS_RESPONSE).commit()
+        val store = createStore()
+
+        assertThat(store.read()?.toString()).isEqualTo(JSONObject(ONE_OFFERINGS_RESPONSE).toString())
+        assertThat(preferences.contains(legacyOfferingsResponseKey)).isFalse
+        assertThat(store.read()?.toString()).isEqualTo(JSONObject(ONE_OFFERINGS_RESPONSE).toString())
+    }
+
+    @Test
+    fun `writing a response removes the response cached by previous versions`() {
+        preferences.edit().putString(legacyOfferingsResponseKey, "{}").commit()
+
+        createStore().write(ONE_OFFERINGS_RESPONSE)
+
+        assertThat(preferences.contains(legacyOfferingsResponseKey)).isFalse
+    }
+
+    @Test
+    fun `response not matching its checksum reads back as a miss`() {
+        val store = createStore()
+        store.write(ONE_OFFERINGS_RESPONSE)
+
+        deviceCache.cacheOfferingsResponseChecksum(deviceCache.getOfferingsResponseChecksum()!! + 1)
+
+        assertThat(store.read()).isNull()
+    }
+
+    @Test
+    fun `clear removes the cached response`() {
+        preferences.edit().putString(legacyOfferingsResponseKey, ONE_OFFERINGS_RESPONSE).commit()
+        val store = createStore()
+        store.write(ONE_OFFERINGS_RESPONSE)
+
+        store.clear()
+
+        assertThat(store.read()).isNull()
+    }
+
+    @Test
+    fun `write enqueued before clear is dropped`() {
+        val dispatcher = DeferringDispatcher()
+        val store = createStore(dispatcher)
+
+        store.write(ONE_OFFERINGS_RESPONSE)
+        store.clear()
+        dispatcher.runDeferredCommands()
+
+        assertThat(store.read()).isNull()
+    }
+
+    private fun createStore(dispatcher: Dispatcher = SyncDispatcher()): OfferingsResponseStore {
+        return OfferingsResponseStore(deviceCache, payloadStore, dispatcher)
+    }
+
+    private class DeferringDispatcher : Dispatcher(mockk()) {
+        private val deferredCommands = mutableListOf<Runnable>()
+
+        override fun enqueue(command: Runnable, delay: Delay) {
+            deferredCommands.add(command)
+        }
+
+        fun runDeferredCommands() {
+            deferredCommands.forEach { it.run() }
+            deferredCommands.clear()
+        }
+    }
+}
@@ -11,7 +11,9 @@ import com.revenuecat.purchases.ProductType
 import com.revenuecat.purchases.PurchasesError
 import com.revenuecat.purchases.PurchasesErrorCode
 import com.revenuecat.purchases.Store
+import com.revenuecat.purchases.VerificationResult
 import com.revenuecat.purchases.common.AppConfig
+import com.revenuecat.purchases.common.CustomerInfoFactory
 import com.revenuecat.purchases.common.DateProvider
 import com.revenuecat.purchases.common.ago
 import com.revenuecat.purchases.common.diagnostics.DiagnosticsTracker
@@ -125,6 +127,40 @@ class OfflineCustomerInfoCalculatorTest {
         assertThat(receivedEntitlement.rawData["product_identifier"]).isEqualTo(purchasedProduct.productIdentifier)
     }
 
+    @Test
+    fun `customer info is the same as the one built from its raw data`() {
+        mockActiveProducts(
+            entitlementMap = ProductEntitlementMapping(
+                mapOf(
+                    "product_1" to ProductEntitlementMapping.Mapping("product_1", "p1m", listOf("pro_1", "pro_2")),
+                    "product_2" to ProductEntitlementMapping.Mapping("product_2", null, listOf("pro_3")),
+                ),
+            ),
+            expirationDates = mapOf("product_1" to oneDayFromNow, "product_2" to oneDayFromNow),
+        )
+
+        var receivedCustomerInfo: CustomerInfo? = null
+        offlineCustomerInfoCalculator.computeOfflineCustomerInfo(
+            appUserID = appUserID,
+            onSuccess = { receivedCustomerInfo = it },
+            onError = { fail("Should've succeeded") }
+        )
+
+        val customerInfoFromRawData = CustomerInfoFactory.buildCustomerInfo(
+            JSONObject(receivedCustomerInfo!!.rawData.toString()),
+            requestDate,
+            VerificationResult.VERIFIED_ON_DEVICE,
+            CustomerInfoOriginalSource.OFFLINE_ENTITLEMENTS,
+        )
+        assertThat(receivedCustomerInfo).isEqualTo(customerInfoFromRawData)
+        assertThat(receivedCustomerInfo?.requestDate).isEqualTo(customerInfoFromRawData.requestDate)
+        assertThat(receivedCustomerInfo?.managementURL).isEqualTo(customerInfoFromRawData.managementURL)
+        assertThat(receivedCustomerInfo?.entitlements?.all?.mapValues { it.value.rawData.toString() })
+            .isEqualTo(customerInfoFromRawData.entitlements.all.mapValues { it.value.rawData.toString() })
+        assertThat(receivedCustomerInfo?.entitlements?.all?.mapValues { it.value.willRenew })
+            .isEqualTo(customerInfoFromRawData.entitlements.all.mapValues { it.value.willRenew })
+    }
+
     @Test
     fun `product with two entitlements`() {
         val entitlementID = "pro_1"
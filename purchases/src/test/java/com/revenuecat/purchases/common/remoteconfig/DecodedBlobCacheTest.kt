@@ -0,0 +1,112 @@
+package com.revenuecat.purchases.common.remoteconfig
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import kotlin.reflect.typeOf
+
+internal class DecodedBlobCacheTest {
+
+    private val stringType = typeOf<String>()
+    private val listType = typeOf<List<String>>()
+
+    @Test
+    fun `returns a cached value for its ref and type only`() {
+        val cache = DecodedBlobCache()
+
+        cache.put("ref1", stringType, "decoded", weightBytes = 10)
+
+        assertThat(cache.get("ref1", stringType)).isEqualTo("decoded")
+        assertThat(cache.get("ref1", listType)).isNull()
+        assertThat(cache.get("ref2", stringType)).isNull()
+    }
+
+    @Test
+    fun `counts hits and misses`() {
+        val cache = DecodedBlobCache()
+        cache.get("ref1", stringType)
+        cache.put("ref1", stringType, "decoded", weightBytes = 10)
+
+        cache.get("ref1", stringType)
+        cache.get("ref1", stringType)
+
+        assertThat(cache.hitCount).isEqualTo(2)
+        assertThat(cache.missCount).isEqualTo(1)
+        assertThat(cache.toString()).isEqualTo("DecodedBlobCache(hits=2, misses=1, entries=1, weightBytes=10)")
+    }
+
+    @Test
+    fun `evicts the least recently used entries once over its weight`() {
+        val cache = DecodedBlobCache(maxWeightBytes = 30)
+        cache.put("ref1", stringType, "one", weightBytes = 10)
+        cache.put("ref2", stringType, "two", weightBytes = 10)
+        cache.put("ref3", stringType, "three", weightBytes = 10)
+        cache.get("ref1", stringType)
+
+        cache.put("ref4", stringType, "four", weightBytes = 15)
+
+        assertThat(cache.get("ref1", stringType)).isEqualTo("one")
+        assertThat(cache.get("ref2", stringType)).isNull()
+        assertThat(cache.get("ref3", stringType)).isNull()
+        assertThat(cache.get("ref4", stringType)).isEqualTo("four")
+    }
+
+    @Test
+    fun `replacing an entry replaces its weight`() {
+        val cache = DecodedBlobCache(maxWeightBytes = 30)
+        cache.put("ref1", stringType, "one", weightBytes = 20)
+        cache.put("ref1", stringType, "one again", weightBytes = 10)
+
+        cache.put("ref2", stringType, "two", weightBytes = 20)
+
+        assertThat(cache.get("ref1", stringType)).isEqualTo("one again")
+        assertThat(cache.get("ref2", stringType)).isEqualTo("two")
+    }
+
+    @Test
+    fun `does not cache a value heavier than its weight`() {
+        val cache = DecodedBlobCache(maxWeightBytes = 30)
+        cache.put("ref1", stringType, "one", weightBytes = 10)
+
+        cache.put("ref2", stringType, "huge", weightBytes = 31)
+
+        assertThat(cache.get("ref1", stringType)).isEqualTo("one")
+        assertThat(cache.get("ref2", stringType)).isNull()
+    }
+
+    @Test
+    fun `retainOnly drops values of every type decoded from other refs`() {
+        val cache = DecodedBlobCache()
+        cache.put("ref1", stringType, "one", weightBytes = 10)
+        cache.put("ref1", listType, listOf("one"), weightBytes = 10)
+        cache.put("ref2", stringType, "two", weightBytes = 10)
+
+        cache.retainOnly(setOf("ref2"))
+
+        assertThat(cache.get("ref1", stringType)).isNull()
+        assertThat(cache.get("ref1", listType)).isNull()
+        assertThat(cache.get("ref2", stringType)).isEqualTo("two")
+    }
+
+    @Test
+    fun `retainOnly frees the weight of dropped values`() {
+        val cache = DecodedBlobCache(maxWeightBytes = 30)
+        cache.put("ref1", stringType, "one", weightBytes = 20)
+        cache.put("ref2", stringType, "two", weightBytes = 10)
+        cache.retainOnly(setOf("ref2"))
+
+        cache.put("ref3", stringType, "three", weightBytes = 20)
+
+        assertThat(cache.get("ref2", stringType)).isEqualTo("two")
+        assertThat(cache.get("ref3", stringType)).isEqualTo("three")
+    }
+
+    @Test
+    fun `clear drops every value`() {
+        val cache = DecodedBlobCache()
+        cache.put("ref1", stringType, "one", weightBytes = 10)
+
+        cache.clear()
+
+        assertThat(cache.get("ref1", stringType)).isNull()
+    }
+}
@@ -4,6 +4,7 @@ import android.util.Base64
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import com.revenuecat.purchases.common.AppConfig
 import com.revenuecat.purchases.common.DateProvider
+import com.revenuecat.purchases.common.diagnostics.DiagnosticsTracker
 import com.revenuecat.purchases.common.networking.HTTPTimeoutManager
 import com.revenuecat.purchases.common.remoteconfig.RemoteConfigSourceHandle.Purpose
 import com.revenuecat.purchases.utils.UrlConnection
@@ -47,6 +48,8 @@ import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.atomic.AtomicLong
 import kotlin.random.Random
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
 
 @OptIn(ExperimentalCoroutinesApi::class)
 @RunWith(AndroidJUnit4::class)
@@ -245,10 +248,11 @@ class RemoteConfigBlobFetcherTest {
             live.decrementAndGet()
             connection(code = 200)
         }
-        val fetcher = realFetcher(provider(blobSource(TEMPLATE)))
+        val fetcher = configuredFetcher(maxConcurrentDownloads = concurrency, maxConcurrentDownloadsPerHost = 100)
 
-        // Far more work than workers; only the pool size may run at once.
-        fetcher.prefetch((1..12).map { refOf("blob-$it".toByteArray()) })
+        // Far more work than workers, at both priorities; only the pool size may run at once.
+        fetcher.prefetch((1..12).map { refOf("low-$it".toByteArray()) })
+        (1..4).forEach { scope.launch { fetcher.ensureDownloaded(refOf("high-$it".toByteArray())) } }
 
         check(allBlocked.await(WAIT_SECONDS, TimeUnit.SECONDS)) { "workers did not all start" }
         assertThat(live.get()).isEqualTo(concurrency)
@@ -257,6 +261,180 @@ class RemoteConfigBlobFetcherTest {
         release.countDown()
     }
 
+    @Test
+    fun `a prefetch backlog leaves a worker free for an on-demand download`() {
+        val lowRefs = (1..12).map { refOf("low-$it".toByteArray()) }
+        val highBytes = "on-demand".toByteArray()
+        val live = AtomicInteger(0)
+        val lowBlocked = CountDownLatch(3)
+        val release = CountDownLatch(1)
+        every { urlConnectionFactory.createConnection(any(), any(), any(), any()) } answers {
+            if (refFromUrl(firstArg()) in lowRefs) {
+                live.incrementAndGet()
+                lowBlocked.countDown()
+                release.await(WAIT_SECONDS, TimeUnit.SECONDS)
+                connection(code = 200)
+            } else {
+                connection(code = 200, body = highBytes)
+            }
+        }
+        val fetcher = configuredFetcher(maxConcurrentDownloads = 4, maxConcurrentDownloadsPerHost = 100)
+
+        fetcher.prefetch(lowRefs)
+        check(lowBlocked.await(WAIT_SECONDS, TimeUnit.SECONDS)) { "prefetches did not start" }
+
+        // Every prefetch worker is stuck, yet the on-demand download completes on the worker they left free.
+        assertThat(download(fetcher, refOf(highBytes))).isTrue()
+        assertThat(live.get()).isEqualTo(3)
+
+        release.countDown()
+    }
+
+    @Test
+    fun `never runs more downloads at once on one host than the per-host limit allows`() {
+        val perHost = 3
+        val live = AtomicInteger(0)
+        val maxLive = AtomicInteger(0)
+        val allBlocked = CountDownLatch(perHost)
+        val release = CountDownLatch(1)
+        every { urlConnectionFactory.createConnection(any(), any(), any(), any()) } answers {
+            maxLive.accumulateAndGet(live.incrementAndGet()) { a, b -> maxOf(a, b) }
+            allBlocked.countDown()
+            release.await(WAIT_SECONDS, TimeUnit.SECONDS)
+            live.decrementAndGet()
+            connection(code = 200)
+        }
+        val fetcher = configuredFetcher(maxConcurrentDownloads = 8, maxConcurrentDownloadsPerHost = perHost)
+
+        scope.launch { fetcher.ensureDownloaded((1..8).map { refOf("blob-$it".toByteArray()) }) }
+
+        check(allBlocked.await(WAIT_SECONDS, TimeUnit.SECONDS)) { "downloads did not start" }
+        // Give idle workers a chance to (wrongly) start more downloads on the same host.
+        Thread.sleep(SETTLE_MS)
+        assertThat(maxLive.get()).isEqualTo(perHost)
+
+        release.countDown()
+    }
+
+    @Test
+    fun `a prefetch backlog leaves one of a host's permits for an on-demand download`() {
+        val lowRefs = (1..12).map { refOf("low-$it".toByteArray()) }
+        val highBytes = "on-demand".toByteArray()
+        val lowBlocked = CountDownLatch(2)
+        val release = CountDownLatch(1)
+        every { urlConnectionFactory.createConnection(any(), any(), any(), any()) } answers {
+            if (refFromUrl(firstArg()) in lowRefs) {
+                lowBlocked.countDown()
+                release.await(WAIT_SECONDS, TimeUnit.SECONDS)
+                connection(code = 200)
+            } else {
+                connection(code = 200, body = highBytes)
+            }
+        }
+        val fetcher = configuredFetcher(maxConcurrentDownloads = 8, maxConcurrentDownloadsPerHost = 3)
+
+        fetcher.prefetch(lowRefs)
+        check(lowBlocked.await(WAIT_SECONDS, TimeUnit.SECONDS)) { "prefetches did not start" }
+
+        assertThat(download(fetcher, refOf(highBytes))).isTrue()
+
+        release.countDown()
+    }
+
+    @Test
+    fun `a download that fails over counts against the next host's limit`() {
+        val primary = "https://primary.example/$PLACEHOLDER"
+        val secondary = "https://secondary.example/$PLACEHOLDER"
+        val provider = provider(blobSource(primary, priority = 1), blobSource(secondary, priority = 2))
+        val refs = (1..4).map { refOf("blob-$it".toByteArray()) }
+        val liveOnSecondary = AtomicInteger(0)
+        val maxLiveOnSecondary = AtomicInteger(0)
+        every { urlConnectionFactory.createConnection(any(), any(), any(), any()) } answers {
+            val url = firstArg<String>()
+            if (url.startsWith("https://primary.example/")) {
+                connection(code = 500)
+            } else {
+                maxLiveOnSecondary.accumulateAndGet(liveOnSecondary.incrementAndGet()) { a, b -> maxOf(a, b) }
+                Thread.sleep(SETTLE_MS)
+                liveOnSecondary.decrementAndGet()
+                connection(code = 200, body = "blob-${refs.indexOf(refFromUrl(url)) + 1}".toByteArray())
+            }
+        }
+        val fetcher = RemoteConfigBlobFetcher(
+            blobStore,
+            provider,
+            timeoutManager,
+            urlConnectionFactory,
+            scope,
+            maxConcurrentDownloads = 4,
+            maxConcurrentDownloadsPerHost = 1,
+        )
+
+        assertThat(downloadAll(fetcher, refs)).isTrue()
+
+        verify { provider.reportUnhealthy(match { it.url == primary }) }
+        assertThat(maxLiveOnSecondary.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun `reports each download with its timings to diagnostics`() {
+        val bytes = "a workflow body".toByteArray()
+        val ref = refOf(bytes)
+        every { urlConnectionFactory.createConnection(urlFor(ref), any(), any(), any()) } answers {
+            dateProvider.advanceTime(DOWNLOAD_MS)
+            connection(code = 200, body = bytes)
+        }
+        val diagnosticsTracker = mockk<DiagnosticsTracker>(relaxed = true)
+        val fetcher = configuredFetcher(diagnosticsTracker = diagnosticsTracker)
+
+        assertThat(download(fetcher, ref)).isTrue()
+
+        verify(timeout = WAIT_MS) {
+            diagnosticsTracker.trackRemoteConfigBlobDownload(
+                successful = true,
+                onDemand = true,
+                downloadedBytes = bytes.size,
+                queueWaitTime = Duration.ZERO,
+                downloadTime = DOWNLOAD_MS.milliseconds,
+            )
+        }
+    }
+
+    @Test
+    fun `reports a failed download to diagnostics`() {
+        val ref = refOf("missing".toByteArray())
+        stubConnection(urlFor(ref), code = 404)
+        val diagnosticsTracker = mockk<DiagnosticsTracker>(relaxed = true)
+        val fetcher = configuredFetcher(diagnosticsTracker = diagnosticsTracker)
+
+        assertThat(download(fetcher, ref)).isFalse()
+
+        verify(timeout = WAIT_MS) {
+            diagnosticsTracker.trackRemoteConfigBlobDownload(
+                successful = false,
+                onDemand = true,
+                downloadedBytes = 0,
+                queueWaitTime = any(),
+                downloadTime = any(),
+            )
+        }
+    }
+
+    @Test
+    fun `does not report a blob cached while it was queued to diagnostics`() {
+        val ref = refOf("cached meanwhile".toByteArray())
+        every { blobStore.contains(ref) } returnsMany listOf(false, true)
+        val diagnosticsTracker = mockk<DiagnosticsTracker>(relaxed = true)
+        val fetcher = configuredFetcher(diagnosticsTracker = diagnosticsTracker)
+
+        assertThat(download(fetcher, ref)).isTrue()
+
+        verify(exactly = 0) { urlConnectionFactory.createConnection(any(), any(), any(), any()) }
+        verify(exactly = 0) {
+            diagnosticsTracker.trackRemoteConfigBlobDownload(any(), any(), any(), any(), any())
+        }
+    }
+
     @Test
     fun `concurrent requests for the same ref share a single download`() = runTest {
         val bytes = "shared".toByteArray()
@@ -718,6 +896,22 @@ class RemoteConfigBlobFetcherTest {
     private fun realFetcher(provider: RemoteConfigSourceProvider) =
         RemoteConfigBlobFetcher(blobStore, provider, timeoutManager, urlConnectionFactory, scope)
 
+    private fun configuredFetcher(
+        maxConcurrentDownloads: Int = 4,
+        maxConcurrentDownloadsPerHost: Int = 4,
+        diagnosticsTracker: DiagnosticsTracker? = null,
+    ) = RemoteConfigBlobFetcher(
+        blobStore,
+        provider(blobSource(TEMPLATE)),
+        timeoutManager,
+        urlConnectionFactory,
+        scope,
+        diagnosticsTracker = diagnosticsTracker,
+        dateProvider = dateProvider,
+        maxConcurrentDownloads = maxConcurrentDownloads,
+        maxConcurrentDownloadsPerHost = maxConcurrentDownloadsPerHost,
+    )
+
     /**
      * A spy over a real provider (fed a `sources` topic with only blob entries) so we get real failover
      * behaviour and can still verify calls. Lower `priority` numbers are tried first.
@@ -828,5 +1022,7 @@ class RemoteConfigBlobFetcherTest {
         private const val REF_A = "AAAABBBBCCCCDDDDEEEEFFFFGGGGHHHH"
         private const val WAIT_SECONDS = 5L
         private const val WAIT_MS = 5_000L
+        private const val SETTLE_MS = 100L
+        private const val DOWNLOAD_MS = 250L
     }
 }
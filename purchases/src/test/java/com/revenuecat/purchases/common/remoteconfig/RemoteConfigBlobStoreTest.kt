@@ -5,12 +5,14 @@ import androidx.test.ext.junit.runners.AndroidJUnit4
 import io.mockk.every
 import io.mockk.mockk
 import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.junit.After
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
 import java.io.File
+import java.io.IOException
 
 @RunWith(AndroidJUnit4::class)
 @Config(manifest = Config.NONE)
@@ -47,10 +49,46 @@ class RemoteConfigBlobStoreTest {
     @Test
     fun `write then read round-trips the blob bytes`() {
         val bytes = byteArrayOf(1, 2, 3, 4, 5)
+        val ref = RemoteConfigUtils.contentAddressRef(bytes)
 
-        blobStore.write(refA, bytes)
+        blobStore.write(ref, bytes)
 
-        assertThat(blobStore.read(refA)).isEqualTo(bytes)
+        assertThat(blobStore.read(ref)).isEqualTo(bytes)
+    }
+
+    @Test
+    fun `readMapped returns a read-only view of the blob bytes`() {
+        val bytes = """{"id":"wf-1"}""".toByteArray()
+        val ref = RemoteConfigUtils.contentAddressRef(bytes)
+        blobStore.write(ref, bytes)
+
+        val mapped = blobStore.readMapped(ref)!!
+
+        assertThat(mapped.isReadOnly).isTrue
+        assertThat(ByteArray(mapped.remaining()).also { mapped.duplicate().get(it) }).isEqualTo(bytes)
+    }
+
+    @Test
+    fun `readMapped discards a blob whose bytes do not match its ref`() {
+        blobStore.write(refA, byteArrayOf(1, 2, 3))
+
+        assertThat(blobStore.readMapped(refA)).isNull()
+
+        // The corrupt file is deleted and evicted, so the next ensureDownloaded/prefetch re-fetches it.
+        assertThat(blobStore.contains(refA)).isFalse
+        assertThat(File(File(File(testFolder, "RevenueCat"), "blobs"), refA).exists()).isFalse
+    }
+
+    @Test
+    fun `readMapped checks a blob again after it is rewritten`() {
+        val bytes = byteArrayOf(1, 2, 3)
+        val ref = RemoteConfigUtils.contentAddressRef(bytes)
+        blobStore.write(ref, bytes)
+        assertThat(blobStore.readMapped(ref)).isNotNull
+
+        blobStore.write(ref, byteArrayOf(6, 6, 6))
+
+        assertThat(blobStore.readMapped(ref)).isNull()
     }
 
     @Test
@@ -63,6 +101,42 @@ class RemoteConfigBlobStoreTest {
         assertThat(blobStore.write("../escape", byteArrayOf(6, 6, 6))).isFalse
     }
 
+    @Test
+    fun `writeStreamed then read round-trips the streamed bytes`() {
+        val ref = RemoteConfigUtils.contentAddressRef(byteArrayOf(1, 2, 3))
+
+        val stored = blobStore.writeStreamed(ref) { output ->
+            output.write(byteArrayOf(1, 2))
+            output.write(byteArrayOf(3))
+        }
+
+        assertThat(stored).isTrue
+        assertThat(blobStore.read(ref)).isEqualTo(byteArrayOf(1, 2, 3))
+        assertThat(blobStore.contains(ref)).isTrue
+    }
+
+    @Test
+    fun `writeStreamed discards the partial blob and rethrows when the content fails`() {
+        assertThatThrownBy {
+            blobStore.writeStreamed(refA) { output ->
+                output.write(byteArrayOf(1, 2))
+                throw IllegalStateException("verification failed")
+            }
+        }.isInstanceOf(IllegalStateException::class.java)
+
+        assertThat(blobStore.contains(refA)).isFalse
+        assertThat(blobStore.read(refA)).isNull()
+        assertThat(RemoteConfigBlobStore(applicationContext).cachedRefs()).isEmpty()
+    }
+
+    @Test
+    fun `writeStreamed returns false when writing the content fails with an IO error`() {
+        val stored = blobStore.writeStreamed(refA) { throw IOException("disk full") }
+
+        assertThat(stored).isFalse
+        assertThat(blobStore.contains(refA)).isFalse
+    }
+
     @Test
     fun `contains reflects whether a blob has been written`() {
         assertThat(blobStore.contains(refA)).isFalse
@@ -145,7 +219,8 @@ class RemoteConfigBlobStoreTest {
 
         // A retry completes normally, replacing the leftover side file.
         assertThat(blobStore.write(refA, byteArrayOf(3, 4))).isTrue
-        assertThat(blobStore.read(refA)).isEqualTo(byteArrayOf(3, 4))
+        assertThat(File(blobsDir, refA).readBytes()).isEqualTo(byteArrayOf(3, 4))
+        assertThat(File(blobsDir, "$refA.new").exists()).isFalse
     }
 
     @Test
@@ -82,13 +82,67 @@ class RemoteConfigDiskCacheTest {
         assertThat(read.manifest).isEqualTo("v1.1.sources:etag1")
     }
 
+    @Test
+    fun `a fresh instance reads topics back from their own files`() {
+        diskCache.write(twoTopicConfig(sourcesBlobRef = "blobRefA"))
+
+        val read = RemoteConfigDiskCache(applicationContext).read()
+
+        assertThat(read).isEqualTo(twoTopicConfig(sourcesBlobRef = "blobRefA"))
+    }
+
+    @Test
+    fun `write does not rewrite the file of an unchanged topic`() {
+        val first = twoTopicConfig(sourcesBlobRef = "blobRefA")
+        diskCache.write(first)
+        val workflowsFile = topicFile(first.topics.getValue("workflows").contentHash)
+        assertThat(workflowsFile.setLastModified(0L)).isTrue
+
+        val second = twoTopicConfig(sourcesBlobRef = "blobRefB")
+        diskCache.write(second)
+
+        assertThat(workflowsFile.lastModified()).isZero
+        assertThat(topicFile(second.topics.getValue("sources").contentHash).exists()).isTrue
+        assertThat(RemoteConfigDiskCache(applicationContext).read()).isEqualTo(second)
+    }
+
+    @Test
+    fun `write deletes the files of topics no longer held`() {
+        val first = twoTopicConfig(sourcesBlobRef = "blobRefA")
+        diskCache.write(first)
+
+        diskCache.write(twoTopicConfig(sourcesBlobRef = "blobRefB"))
+
+        assertThat(topicFile(first.topics.getValue("sources").contentHash).exists()).isFalse
+        assertThat(topicsDirectory().listFiles()).hasSize(2)
+    }
+
+    @Test
+    fun `read returns null when a referenced topic file is missing`() {
+        val config = twoTopicConfig(sourcesBlobRef = "blobRefA")
+        diskCache.write(config)
+
+        topicFile(config.topics.getValue("sources").contentHash).delete()
+
+        assertThat(RemoteConfigDiskCache(applicationContext).read()).isNull()
+    }
+
+    @Test
+    fun `clear deletes the topic files`() {
+        diskCache.write(twoTopicConfig(sourcesBlobRef = "blobRefA"))
+
+        diskCache.clear()
+
+        assertThat(topicsDirectory().exists()).isFalse
+    }
+
     @Test
     fun `read serves the in-memory snapshot without re-reading the file`() {
         val config = PersistedRemoteConfigurationState(domain = "app", manifest = "v1.0.")
         diskCache.write(config)
 
         // Remove the backing file: a read must still answer from the snapshot, proving no file re-read.
-        File(File(File(testFolder, "RevenueCat"), "remote_config"), "remote_config.json").delete()
+        headerFile().delete()
 
         assertThat(diskCache.read()).isEqualTo(config)
     }
@@ -177,7 +231,7 @@ class RemoteConfigDiskCacheTest {
         diskCache.write(PersistedRemoteConfigurationState(domain = "app", manifest = "v1.0."))
 
         assertThat(
-            File(File(File(testFolder, "RevenueCat"), "remote_config"), "remote_config.json").exists(),
+            headerFile().exists(),
         ).isTrue
     }
 
@@ -197,7 +251,7 @@ class RemoteConfigDiskCacheTest {
 
         assertThat(diskCache.read()).isNull()
         assertThat(
-            File(File(File(testFolder, "RevenueCat"), "remote_config"), "remote_config.json").exists(),
+            headerFile().exists(),
         ).isFalse
     }
 
@@ -237,6 +291,50 @@ class RemoteConfigDiskCacheTest {
         assertThat(read.topics.getValue("sources").getValue("api").metadata).containsKey("future_key")
     }
 
+    @Test
+    fun `a legacy file is migrated to the header file and deleted`() {
+        val legacyFile = File(File(File(testFolder, "RevenueCat"), "remote_config"), "remote_config.json")
+        legacyFile.parentFile!!.mkdirs()
+        legacyFile.writeText(
+            """{"domain":"app","manifest":"v1.1.sources:etag1","activeTopics":["sources"],""" +
+                """"topics":{"sources":{"default":{"blob_ref":"blobRefA"}}}}""",
+        )
+
+        val read = diskCache.read()
+
+        assertThat(read).isEqualTo(
+            PersistedRemoteConfigurationState(
+                domain = "app",
+                manifest = "v1.1.sources:etag1",
+                activeTopics = listOf("sources"),
+                topics = mapOf(
+                    "sources" to ConfigTopic(mapOf("default" to RemoteConfiguration.ConfigItem(blobRef = "blobRefA"))),
+                ),
+            ),
+        )
+        assertThat(legacyFile.exists()).isFalse
+        assertThat(headerFile().exists()).isTrue
+        assertThat(RemoteConfigDiskCache(applicationContext).read()).isEqualTo(read)
+    }
+
+    @Test
+    fun `write does not write the legacy file`() {
+        diskCache.write(twoTopicConfig(sourcesBlobRef = "blobRefA"))
+
+        assertThat(File(File(File(testFolder, "RevenueCat"), "remote_config"), "remote_config.json").exists()).isFalse
+    }
+
+    @Test
+    fun `clear deletes a legacy file`() {
+        val legacyFile = File(File(File(testFolder, "RevenueCat"), "remote_config"), "remote_config.json")
+        legacyFile.parentFile!!.mkdirs()
+        legacyFile.writeText("{ this is not valid json")
+
+        diskCache.clear()
+
+        assertThat(legacyFile.exists()).isFalse
+    }
+
     @Test
     fun `read returns null when the persisted file is corrupt`() {
         val parent = File(File(testFolder, "RevenueCat"), "remote_config").apply { mkdirs() }
@@ -244,4 +342,20 @@ class RemoteConfigDiskCacheTest {
 
         assertThat(diskCache.read()).isNull()
     }
+
+    private fun headerFile() = File(File(File(testFolder, "RevenueCat"), "remote_config"), "remote_config_v2.json")
+
+    private fun twoTopicConfig(sourcesBlobRef: String) = PersistedRemoteConfigurationState(
+        domain = "app",
+        manifest = "v1.1.sources:$sourcesBlobRef",
+        activeTopics = listOf("sources", "workflows"),
+        topics = mapOf(
+            "sources" to ConfigTopic(mapOf("default" to RemoteConfiguration.ConfigItem(blobRef = sourcesBlobRef))),
+            "workflows" to ConfigTopic(mapOf("wf1" to RemoteConfiguration.ConfigItem(blobRef = "wfBlob"))),
+        ),
+    )
+
+    private fun topicsDirectory() = File(File(File(testFolder, "RevenueCat"), "remote_config"), "topics")
+
+    private fun topicFile(hash: String) = File(topicsDirectory(), "$hash.json")
 }
@@ -84,12 +84,12 @@ class RemoteConfigManagerIntegrationTest {
         )
 
         every {
-            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any())
+            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())
         } answers {
             capturedManifest = arg(4)
             capturedLastRefreshTime = arg(5)
             capturedPrefetchedBlobs = arg(6)
-            onSuccess = arg(7)
+            onSuccess = arg(8)
         }
     }
 
@@ -35,6 +35,7 @@ import kotlinx.coroutines.test.UnconfinedTestDispatcher
 import kotlinx.coroutines.test.runTest
 import kotlinx.coroutines.withTimeout
 import kotlinx.serialization.Serializable
+import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
 import kotlinx.serialization.json.put
 import org.assertj.core.api.Assertions.assertThat
@@ -42,11 +43,15 @@ import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
+import java.io.ByteArrayOutputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
 import java.util.Date
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicReference
 import kotlin.concurrent.thread
+import kotlin.reflect.typeOf
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.hours
 import kotlin.time.Duration.Companion.seconds
@@ -59,6 +64,8 @@ class RemoteConfigManagerTest {
     private lateinit var backend: Backend
     private lateinit var diskCache: RemoteConfigDiskCache
     private lateinit var blobStore: RemoteConfigBlobStore
+    // Inline blobs the manager streamed into the store, by ref.
+    private val streamedBlobs = mutableMapOf<String, ByteArray>()
     private lateinit var topicStore: RemoteConfigTopicStore
     private lateinit var sourceProvider: RemoteConfigSourceProvider
     private lateinit var blobFetcher: RemoteConfigBlobFetcher
@@ -80,6 +87,7 @@ class RemoteConfigManagerTest {
     private var capturedLastRefreshTime: Date? = null
     private var capturedFetchContext: RemoteConfigFetchContext? = null
     private var capturedPrefetchedBlobs: List<String>? = null
+    private var capturedTopicHashes: Map<String, String>? = null
     private lateinit var onSuccess: (RCContainer?, Date?, VerificationResult) -> Unit
     private lateinit var onError: (PurchasesError, GetRemoteConfigErrorHandlingBehavior) -> Unit
 
@@ -91,6 +99,13 @@ class RemoteConfigManagerTest {
         backend = mockk()
         diskCache = mockk(relaxed = true)
         blobStore = mockk(relaxed = true)
+        streamedBlobs.clear()
+        every { blobStore.writeStreamed(any(), any()) } answers {
+            val output = ByteArrayOutputStream()
+            secondArg<(OutputStream) -> Unit>().invoke(output)
+            streamedBlobs[firstArg()] = output.toByteArray()
+            true
+        }
         topicStore = RemoteConfigTopicStore { diskCache.read()?.topics?.get(it.wireName) }
         sourceProvider = mockk(relaxed = true)
         blobFetcher = mockk(relaxed = true)
@@ -110,7 +125,7 @@ class RemoteConfigManagerTest {
         every { diskCache.write(any()) } returns true
 
         every {
-            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any())
+            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())
         } answers {
             capturedAppUserID = arg(1)
             capturedFetchContext = arg(2)
@@ -118,8 +133,9 @@ class RemoteConfigManagerTest {
             capturedManifest = arg(4)
             capturedLastRefreshTime = arg(5)
             capturedPrefetchedBlobs = arg(6)
-            onSuccess = arg(7)
-            onError = arg(8)
+            capturedTopicHashes = arg(7)
+            onSuccess = arg(8)
+            onError = arg(9)
         }
 
         every {
@@ -188,7 +204,7 @@ class RemoteConfigManagerTest {
             fetchContext = RemoteConfigFetchContext.IdentityChange,
         )
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         assertThat(capturedFetchContext).isEqualTo(RemoteConfigFetchContext.IdentityChange)
     }
 
@@ -324,7 +340,7 @@ class RemoteConfigManagerTest {
 
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -338,7 +354,7 @@ class RemoteConfigManagerTest {
         // Same clock: still within the foreground window, so no new request.
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -352,7 +368,7 @@ class RemoteConfigManagerTest {
 
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -375,7 +391,7 @@ class RemoteConfigManagerTest {
         )
 
         verify(exactly = 2) {
-            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any())
+            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())
         }
     }
 
@@ -399,7 +415,7 @@ class RemoteConfigManagerTest {
         )
 
         verify(exactly = 2) {
-            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any())
+            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())
         }
     }
 
@@ -414,7 +430,7 @@ class RemoteConfigManagerTest {
         manager.clearCache(TEST_APP_USER_ID)
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -430,7 +446,7 @@ class RemoteConfigManagerTest {
         manager.clearCache(TEST_APP_USER_ID)
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -448,12 +464,12 @@ class RemoteConfigManagerTest {
         // Same clock: the failure left lastRefreshedAt unset, but the recent attempt keeps stale-gated refreshes
         // from retrying on every caller.
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
 
         currentTimeMillis += REFRESH_ATTEMPT_COOLDOWN_MILLIS + 1
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -469,7 +485,7 @@ class RemoteConfigManagerTest {
         )
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -484,7 +500,7 @@ class RemoteConfigManagerTest {
 
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -569,6 +585,84 @@ class RemoteConfigManagerTest {
         assertThat(written.captured.topics["workflows"]!!["wf1"]!!.blobRef).isEqualTo("wfBlob")
     }
 
+    @Test
+    fun `advertises the content hash of every held topic on the request`() {
+        val sources = ConfigTopic(mapOf("default" to RemoteConfiguration.ConfigItem(blobRef = "sourcesBlob")))
+        val workflows = ConfigTopic(mapOf("wf1" to RemoteConfiguration.ConfigItem(blobRef = "wfBlob")))
+        every { diskCache.read() } returns persisted(
+            manifest = "v1.1.sources:etag1,workflows:wfEtag1",
+            topics = mapOf("sources" to sources, "workflows" to workflows),
+        )
+
+        manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
+
+        assertThat(capturedTopicHashes).isEqualTo(
+            mapOf("sources" to sources.contentHash, "workflows" to workflows.contentHash),
+        )
+    }
+
+    @Test
+    fun `advertises no topic hashes on the first run`() {
+        every { diskCache.read() } returns null
+
+        manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
+
+        assertThat(capturedTopicHashes).isEmpty()
+    }
+
+    @Test
+    fun `a 200 response re-sending a held topic with the same content keeps the held topic`() {
+        val heldWorkflows = ConfigTopic(mapOf("wf1" to RemoteConfiguration.ConfigItem(blobRef = "wfBlob")))
+        every { diskCache.read() } returns persisted(
+            manifest = "v1.1.workflows:wfEtag1",
+            topics = mapOf("workflows" to heldWorkflows),
+        )
+        val response = """
+            {
+              "domain": "app",
+              "manifest": "v1.2.workflows:wfEtag1",
+              "active_topics": ["workflows"],
+              "topics": { "workflows": { "wf1": { "blob_ref": "wfBlob" } } }
+            }
+        """.trimIndent()
+
+        manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
+        deliverSuccess(containerWithConfig(response))
+
+        val written = slot<PersistedRemoteConfigurationState>()
+        verify(exactly = 1) { diskCache.write(capture(written)) }
+        assertThat(written.captured.topics["workflows"]).isSameAs(heldWorkflows)
+    }
+
+    @Test
+    fun `a 200 response only prefetches the blobs of changed topics`() {
+        every { diskCache.read() } returns persisted(
+            manifest = "v1.1.sources:etag1,workflows:wfEtag1",
+            topics = mapOf(
+                "workflows" to ConfigTopic(
+                    mapOf("wf1" to RemoteConfiguration.ConfigItem(blobRef = REF_UNWANTED, prefetch = true)),
+                ),
+            ),
+        )
+        // workflows is unchanged (omitted by the server); only sources changed.
+        val response = """
+            {
+              "domain": "app",
+              "manifest": "v1.2.sources:etag2,workflows:wfEtag1",
+              "active_topics": ["sources", "workflows"],
+              "topics": { "sources": { "default": { "blob_ref": "$REF_VALID", "prefetch": true } } }
+            }
+        """.trimIndent()
+
+        manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
+        deliverSuccess(containerWithConfig(response))
+
+        val prefetched = slot<List<String>>()
+        verify(exactly = 1) { blobFetcher.prefetch(capture(prefetched)) }
+        assertThat(prefetched.captured).containsExactly(REF_VALID)
+        verify(exactly = 0) { blobStore.contains(REF_UNWANTED) }
+    }
+
     @Test
     fun `a 200 response caches valid inline blobs and skips tampered ones`() {
         every { diskCache.read() } returns null
@@ -589,13 +683,13 @@ class RemoteConfigManagerTest {
                 response,
                 blobs = listOf(
                     inlineElement(REF_VALID, validData),
-                    // A tampered blob fails verification: its decode() throws, so it is skipped.
+                    // A tampered blob fails verification: its decodeTo() throws, so it is skipped.
                     inlineElement(REF_TAMPERED, decoded = null),
                 ),
             ))
 
-        verify(exactly = 1) { blobStore.write(REF_VALID, validData) }
-        verify(exactly = 0) { blobStore.write(REF_TAMPERED, any()) }
+        assertThat(streamedBlobs[REF_VALID]).isEqualTo(validData)
+        assertThat(streamedBlobs).doesNotContainKey(REF_TAMPERED)
     }
 
     @Test
@@ -623,8 +717,8 @@ class RemoteConfigManagerTest {
                 ),
             ))
 
-        verify(exactly = 1) { blobStore.write(REF_VALID, wantedData) }
-        verify(exactly = 0) { blobStore.write(REF_UNWANTED, any()) }
+        assertThat(streamedBlobs[REF_VALID]).isEqualTo(wantedData)
+        verify(exactly = 0) { blobStore.writeStreamed(REF_UNWANTED, any()) }
     }
 
     @Test
@@ -649,7 +743,7 @@ class RemoteConfigManagerTest {
             ))
 
         // Both blob-store mutations are gated on a successful persist.
-        verify(exactly = 0) { blobStore.write(any(), any()) }
+        verify(exactly = 0) { blobStore.writeStreamed(any(), any()) }
         verify(exactly = 0) { blobStore.retainOnly(any()) }
     }
 
@@ -699,7 +793,7 @@ class RemoteConfigManagerTest {
         // An inline-only topic is persisted with its inline content and no blob_ref, and triggers no blob write.
         assertThat(written.captured.topics).containsOnlyKeys("sources")
         assertThat(written.captured.topics["sources"]!!["api"]!!.blobRef).isNull()
-        verify(exactly = 0) { blobStore.write(any(), any()) }
+        verify(exactly = 0) { blobStore.writeStreamed(any(), any()) }
     }
 
     @Test
@@ -828,7 +922,7 @@ class RemoteConfigManagerTest {
 
         // The only thing a 204 rewrites is the refresh time; the configuration itself carries forward verbatim.
         verify(exactly = 1) { diskCache.write(cached.copy(lastRefreshTime = SERVER_MILLIS)) }
-        verify(exactly = 0) { blobStore.write(any(), any()) }
+        verify(exactly = 0) { blobStore.writeStreamed(any(), any()) }
         verify(exactly = 0) { blobStore.retainOnly(any()) }
     }
 
@@ -1023,7 +1117,7 @@ class RemoteConfigManagerTest {
         // No further config request and no blob fetch happen for the rest of the session.
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         verify(exactly = 0) { blobFetcher.prefetch(any()) }
     }
 
@@ -1148,7 +1242,7 @@ class RemoteConfigManagerTest {
 
         assertThat(topic).isNotNull
         assertThat(topic!!["wf1"]!!.blobRef).isEqualTo(REF_VALID)
-        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1159,7 +1253,7 @@ class RemoteConfigManagerTest {
         val topic = manager.committedTopicOrNull(RemoteConfigTopic.Workflows)
 
         assertThat(topic).isNull()
-        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1324,7 +1418,7 @@ class RemoteConfigManagerTest {
 
         // The endpoint is still usable, so a subsequent refresh fires.
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     // region Fallback endpoint
@@ -1418,7 +1512,7 @@ class RemoteConfigManagerTest {
 
         // The fallback body carries no inlined elements, so no inline blob is written; the wanted blob is
         // instead fetched over the network.
-        verify(exactly = 0) { blobStore.write(any(), any()) }
+        verify(exactly = 0) { blobStore.writeStreamed(any(), any()) }
         verify(exactly = 1) { blobFetcher.prefetch(match { it.contains("newBlob") }) }
     }
 
@@ -1467,7 +1561,7 @@ class RemoteConfigManagerTest {
 
         // The fallback settled the sync, so a later refresh is allowed to fire again.
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1485,11 +1579,11 @@ class RemoteConfigManagerTest {
         )
 
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
 
         currentTimeMillis += REFRESH_ATTEMPT_COOLDOWN_MILLIS + 1
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1526,7 +1620,7 @@ class RemoteConfigManagerTest {
 
         assertThat(manager.isDisabled).isTrue()
         manager.refreshRemoteConfigIfStale(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1537,7 +1631,7 @@ class RemoteConfigManagerTest {
         // The first refresh has not settled yet (the stub captures callbacks without invoking them).
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1548,7 +1642,7 @@ class RemoteConfigManagerTest {
         deliverSuccess(null)
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1563,7 +1657,7 @@ class RemoteConfigManagerTest {
         )
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
 
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1599,7 +1693,7 @@ class RemoteConfigManagerTest {
 
         // The guard was released in the finally block, so a subsequent refresh is allowed to start.
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1614,7 +1708,7 @@ class RemoteConfigManagerTest {
 
         // The guard was released in the finally block, so a subsequent refresh is allowed to start.
         manager.refreshRemoteConfig(appInBackground = false, appUserID = TEST_APP_USER_ID, fetchContext = DEFAULT_FETCH_CONTEXT)
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1733,7 +1827,7 @@ class RemoteConfigManagerTest {
         every { diskCache.read() } returns null
 
         assertThat(readManager(appUserIDProvider = { null }).topic(RemoteConfigTopic.Sources)).isNull()
-        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1759,7 +1853,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             result = manager.topic(RemoteConfigTopic.Workflows)
         }
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         // The on-demand sync is issued as foreground for the current user with a read fetch context.
         assertThat(capturedAppUserID).isEqualTo(TEST_APP_USER_ID)
         assertThat(capturedFetchContext).isEqualTo(RemoteConfigFetchContext.Read)
@@ -1802,7 +1896,7 @@ class RemoteConfigManagerTest {
             assertThat(manager.blobData(RemoteConfigTopic.UiConfig, "app") { it }).isNull()
         }
 
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1823,7 +1917,7 @@ class RemoteConfigManagerTest {
 
         repeat(3) { assertThat(manager.topic(RemoteConfigTopic.Workflows)).isNull() }
 
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -1840,14 +1934,14 @@ class RemoteConfigManagerTest {
         )
         deliverSuccess(containerWithConfig(NO_PAYWALLS_RESPONSE))
         assertThat(manager.blobData(RemoteConfigTopic.UiConfig, "app") { it }).isNull()
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
 
         currentTimeMillis += STALE_FOREGROUND_AGE_MILLIS
 
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             manager.blobData(RemoteConfigTopic.UiConfig, "app") { it }
         }
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         assertThat(capturedFetchContext).isEqualTo(RemoteConfigFetchContext.Read)
         assertThat(read.isActive).isTrue()
         deliverSuccess(null)
@@ -1875,7 +1969,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             manager.blobData(RemoteConfigTopic.UiConfig, "app") { it }
         }
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         deliverSuccess(null)
         assertThat(read.isCompleted).isTrue()
     }
@@ -1901,7 +1995,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             manager.topic(RemoteConfigTopic.UiConfig)
         }
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         assertThat(capturedAppUserID).isEqualTo("new-user")
         deliverSuccess(null)
         assertThat(read.isCompleted).isTrue()
@@ -1924,7 +2018,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             manager.topic(RemoteConfigTopic.UiConfig)
         }
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         deliverSuccess(null)
         assertThat(read.isCompleted).isTrue()
     }
@@ -1946,7 +2040,7 @@ class RemoteConfigManagerTest {
         val firstRead = launch(UnconfinedTestDispatcher(testScheduler)) {
             firstResult = manager.topic(RemoteConfigTopic.Workflows)
         }
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         onError.invoke(
             PurchasesError(PurchasesErrorCode.NetworkError),
             GetRemoteConfigErrorHandlingBehavior.SHOULD_RETRY,
@@ -1955,13 +2049,13 @@ class RemoteConfigManagerTest {
         assertThat(firstResult).isNull()
 
         assertThat(manager.topic(RemoteConfigTopic.Workflows)).isNull()
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
 
         currentTimeMillis += REFRESH_ATTEMPT_COOLDOWN_MILLIS + 1
         val retryRead = launch(UnconfinedTestDispatcher(testScheduler)) {
             manager.topic(RemoteConfigTopic.Workflows)
         }
-        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 2) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         onError.invoke(
             PurchasesError(PurchasesErrorCode.NetworkError),
             GetRemoteConfigErrorHandlingBehavior.SHOULD_RETRY,
@@ -1984,7 +2078,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             manager.topic(RemoteConfigTopic.Workflows)
         }
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         assertThat(capturedAppUserID).isEqualTo("new-user")
 
         // Settle the triggered sync so the parked read completes cleanly.
@@ -2013,7 +2107,7 @@ class RemoteConfigManagerTest {
             val read = launch(UnconfinedTestDispatcher(testScheduler)) {
                 manager.topic(RemoteConfigTopic.Workflows)
             }
-            verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+            verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
             assertThat(capturedAppUserID).isEqualTo("new-user")
 
             deliverSuccess(null)
@@ -2030,7 +2124,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             manager.topic(RemoteConfigTopic.Workflows)
         }
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         assertThat(capturedAppUserID).isEqualTo("bootstrap-user")
 
         deliverSuccess(null)
@@ -2121,7 +2215,7 @@ class RemoteConfigManagerTest {
         // An item with no blob ref has no payload: neither the network nor the blob store is touched.
         assertThat(result).isNull()
         coVerify(exactly = 0) { blobFetcher.ensureDownloaded(any<String>()) }
-        verify(exactly = 0) { blobStore.read(any()) }
+        verify(exactly = 0) { blobStore.readMapped(any()) }
     }
 
     @Test
@@ -2134,7 +2228,7 @@ class RemoteConfigManagerTest {
             ),
         )
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
-        every { blobStore.read(REF_VALID) } returns byteArrayOf(4, 2)
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap(byteArrayOf(4, 2))
 
         val result = readManager().blobData(RemoteConfigTopic.Workflows, "wf1") { it }
 
@@ -2152,16 +2246,79 @@ class RemoteConfigManagerTest {
             ),
         )
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
-        every { blobStore.read(REF_VALID) } returns """{"id":"wf-1"}""".toByteArray()
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap("""{"id":"wf-1"}""".toByteArray())
 
-        // The reified overload delegates to the transform overload, so it resolves the blob the same way:
-        // fetch on demand (waiting for the download) and read it back, then decode the bytes as JSON.
+        // The reified overload resolves the blob the same way as the transform overload: fetch on demand
+        // (waiting for the download) and read it back, then decode the mapped bytes as JSON.
         val result = readManager().blobData<TestBlob>(RemoteConfigTopic.Workflows, "wf1")
 
         assertThat(result).isEqualTo(TestBlob(id = "wf-1"))
         coVerify(exactly = 1) { blobFetcher.ensureDownloaded(REF_VALID) }
     }
 
+    @Test
+    fun `reified blobData decodes a blob once and serves later reads of it from memory`() = runTest {
+        every { diskCache.read() } returns persisted(
+            manifest = "m",
+            activeTopics = listOf("workflows"),
+            topics = mapOf(
+                "workflows" to ConfigTopic(mapOf("wf1" to RemoteConfiguration.ConfigItem(blobRef = REF_VALID))),
+            ),
+        )
+        coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
+        every { blobStore.readMapped(REF_VALID) } answers { ByteBuffer.wrap("""{"id":"wf-1"}""".toByteArray()) }
+        val decodedBlobs = DecodedBlobCache()
+        val manager = readManager(decodedBlobs = decodedBlobs)
+
+        val first = manager.blobData<TestBlob>(RemoteConfigTopic.Workflows, "wf1")
+        val second = manager.blobData<TestBlob>(RemoteConfigTopic.Workflows, "wf1")
+
+        assertThat(first).isEqualTo(TestBlob(id = "wf-1"))
+        assertThat(second).isSameAs(first)
+        verify(exactly = 1) { blobStore.readMapped(REF_VALID) }
+        coVerify(exactly = 1) { blobFetcher.ensureDownloaded(REF_VALID) }
+        assertThat(decodedBlobs.hitCount).isEqualTo(1)
+        assertThat(decodedBlobs.missCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `reified blobData decodes the same blob again for a different type`() = runTest {
+        every { diskCache.read() } returns persisted(
+            manifest = "m",
+            activeTopics = listOf("workflows"),
+            topics = mapOf(
+                "workflows" to ConfigTopic(mapOf("wf1" to RemoteConfiguration.ConfigItem(blobRef = REF_VALID))),
+            ),
+        )
+        coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
+        every { blobStore.readMapped(REF_VALID) } answers { ByteBuffer.wrap("""{"id":"wf-1"}""".toByteArray()) }
+        val manager = readManager()
+
+        val typed = manager.blobData<TestBlob>(RemoteConfigTopic.Workflows, "wf1")
+        val json = manager.blobData<JsonObject>(RemoteConfigTopic.Workflows, "wf1")
+
+        assertThat(typed).isEqualTo(TestBlob(id = "wf-1"))
+        assertThat(json).isEqualTo(buildJsonObject { put("id", "wf-1") })
+        verify(exactly = 2) { blobStore.readMapped(REF_VALID) }
+    }
+
+    @Test
+    fun `clearCache drops decoded blobs`() = runTest {
+        every { diskCache.read() } returns persisted(
+            manifest = "m",
+            activeTopics = listOf("workflows"),
+            topics = mapOf(
+                "workflows" to ConfigTopic(mapOf("wf1" to RemoteConfiguration.ConfigItem(blobRef = REF_VALID))),
+            ),
+        )
+        val decodedBlobs = DecodedBlobCache()
+        decodedBlobs.put(REF_VALID, typeOf<TestBlob>(), TestBlob(id = "wf-1"), weightBytes = 1)
+
+        readManager(decodedBlobs = decodedBlobs).clearCache(TEST_APP_USER_ID)
+
+        assertThat(decodedBlobs.get(REF_VALID, typeOf<TestBlob>())).isNull()
+    }
+
     @Test
     fun `blobData returns null for a blob-backed item that cannot be fetched`() = runTest {
         every { diskCache.read() } returns persisted(
@@ -2174,7 +2331,7 @@ class RemoteConfigManagerTest {
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns false
 
         assertThat(readManager().blobData(RemoteConfigTopic.Workflows, "wf1") { it }).isNull()
-        verify(exactly = 0) { blobStore.read(any()) }
+        verify(exactly = 0) { blobStore.readMapped(any()) }
     }
 
     @Test
@@ -2204,7 +2361,7 @@ class RemoteConfigManagerTest {
         every { diskCache.read() } answers { state }
         every { diskCache.write(any()) } answers { state = firstArg(); true }
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
-        every { blobStore.read(REF_VALID) } returns byteArrayOf(4, 2)
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap(byteArrayOf(4, 2))
         val manager = readManager(appUserIDProvider = { TEST_APP_USER_ID })
 
         // Nothing is in flight and nothing is cached: the read triggers its own sync and waits for it.
@@ -2212,7 +2369,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             result = manager.blobData(RemoteConfigTopic.Workflows, "wf1") { it }
         }
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         // The on-demand sync is issued as foreground for the current user.
         assertThat(capturedAppUserID).isEqualTo(TEST_APP_USER_ID)
         assertThat(read.isActive).isTrue()
@@ -2236,7 +2393,7 @@ class RemoteConfigManagerTest {
         every { diskCache.read() } returns null
 
         assertThat(readManager(appUserIDProvider = { null }).blobData(RemoteConfigTopic.Workflows, "wf1") { it }).isNull()
-        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -2251,7 +2408,7 @@ class RemoteConfigManagerTest {
         )
 
         assertThat(manager.blobData(RemoteConfigTopic.Workflows, "wf1") { it }).isNull()
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -2260,7 +2417,7 @@ class RemoteConfigManagerTest {
         every { diskCache.read() } answers { state }
         every { diskCache.write(any()) } answers { state = firstArg(); true }
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
-        every { blobStore.read(REF_VALID) } returns byteArrayOf(4, 2)
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap(byteArrayOf(4, 2))
         val manager = readManager()
 
         // A refresh is in flight: the backend stub captures the callbacks without settling them yet.
@@ -2298,7 +2455,7 @@ class RemoteConfigManagerTest {
             ),
         )
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
-        every { blobStore.read(REF_VALID) } returns byteArrayOf(9)
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap(byteArrayOf(9))
         val manager = readManager()
 
         // A refresh is in flight and never settles; a committed read must not block on it (else this hangs).
@@ -2325,8 +2482,8 @@ class RemoteConfigManagerTest {
             coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
             coEvery { blobFetcher.ensureDownloaded(REF_TAMPERED) } returns true
             // Merged into {"wf1": {"value":"x"}, "wf2": {"value":"y"}}, keyed by item key.
-            every { blobStore.read(REF_VALID) } returns """{"value":"x"}""".toByteArray()
-            every { blobStore.read(REF_TAMPERED) } returns """{"value":"y"}""".toByteArray()
+            every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap("""{"value":"x"}""".toByteArray())
+            every { blobStore.readMapped(REF_TAMPERED) } returns ByteBuffer.wrap("""{"value":"y"}""".toByteArray())
 
             val result = readManager()
                 .mergeItemsBlobData<MergedBlob>(RemoteConfigTopic.Workflows, listOf("wf1", "wf2"))
@@ -2351,7 +2508,7 @@ class RemoteConfigManagerTest {
             ),
         )
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
-        every { blobStore.read(REF_VALID) } returns """{"value":"x"}""".toByteArray()
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap("""{"value":"x"}""".toByteArray())
 
         val result = readManager().mergeItemsBlobData<MergedBlob>(RemoteConfigTopic.Workflows, listOf("wf1", "wf2"))
 
@@ -2374,9 +2531,9 @@ class RemoteConfigManagerTest {
         )
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
         coEvery { blobFetcher.ensureDownloaded(REF_TAMPERED) } returns true
-        every { blobStore.read(REF_VALID) } returns """{"value":"x"}""".toByteArray()
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap("""{"value":"x"}""".toByteArray())
         // wf2's blob is not parseable JSON, so the whole merge fails.
-        every { blobStore.read(REF_TAMPERED) } returns "not json".toByteArray()
+        every { blobStore.readMapped(REF_TAMPERED) } returns ByteBuffer.wrap("not json".toByteArray())
 
         val result = readManager().mergeItemsBlobData<MergedBlob>(RemoteConfigTopic.Workflows, listOf("wf1", "wf2"))
 
@@ -2401,8 +2558,8 @@ class RemoteConfigManagerTest {
         coEvery { blobFetcher.ensureDownloaded(REF_TAMPERED) } returns true
         // Both blobs are valid JSON, but wf2 is missing Section's required "value" field, so the merged
         // {"wf1": {"value":"x"}, "wf2": {"nope":true}} can't decode into MergedBlob.
-        every { blobStore.read(REF_VALID) } returns """{"value":"x"}""".toByteArray()
-        every { blobStore.read(REF_TAMPERED) } returns """{"nope":true}""".toByteArray()
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap("""{"value":"x"}""".toByteArray())
+        every { blobStore.readMapped(REF_TAMPERED) } returns ByteBuffer.wrap("""{"nope":true}""".toByteArray())
 
         val result = readManager().mergeItemsBlobData<MergedBlob>(RemoteConfigTopic.Workflows, listOf("wf1", "wf2"))
 
@@ -2426,7 +2583,7 @@ class RemoteConfigManagerTest {
 
         assertThat(result).isNull()
         coVerify(exactly = 0) { blobFetcher.ensureDownloaded(any<String>()) }
-        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 0) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
     }
 
     @Test
@@ -2445,7 +2602,7 @@ class RemoteConfigManagerTest {
         )
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
         coEvery { blobFetcher.ensureDownloaded(REF_TAMPERED) } returns false
-        every { blobStore.read(REF_VALID) } returns """{"value":"x"}""".toByteArray()
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap("""{"value":"x"}""".toByteArray())
 
         assertWarnLog(
             "Could not resolve remote config blob(s) for 1 of 2 requested item(s) in " +
@@ -2510,8 +2667,8 @@ class RemoteConfigManagerTest {
         every { diskCache.write(any()) } answers { state = firstArg(); true }
         coEvery { blobFetcher.ensureDownloaded(REF_VALID) } returns true
         coEvery { blobFetcher.ensureDownloaded(REF_TAMPERED) } returns true
-        every { blobStore.read(REF_VALID) } returns """{"value":"x"}""".toByteArray()
-        every { blobStore.read(REF_TAMPERED) } returns """{"value":"y"}""".toByteArray()
+        every { blobStore.readMapped(REF_VALID) } returns ByteBuffer.wrap("""{"value":"x"}""".toByteArray())
+        every { blobStore.readMapped(REF_TAMPERED) } returns ByteBuffer.wrap("""{"value":"y"}""".toByteArray())
         val manager = readManager(appUserIDProvider = { TEST_APP_USER_ID })
 
         // Nothing cached and nothing in flight: the read fans out, but the concurrent per-item waits
@@ -2520,7 +2677,7 @@ class RemoteConfigManagerTest {
         val read = launch(UnconfinedTestDispatcher(testScheduler)) {
             result = manager.mergeItemsBlobData<MergedBlob>(RemoteConfigTopic.Workflows, listOf("wf1", "wf2"))
         }
-        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         assertThat(read.isActive).isTrue()
 
         val response = """
@@ -2644,7 +2801,7 @@ class RemoteConfigManagerTest {
         every { diskCache.clear() } answers { state.set(null) }
         every { blobStore.cachedRefs() } returns emptySet()
         every {
-            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any())
+            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())
         } answers {
             arg<(RCContainer?, Date?, VerificationResult) -> Unit>(7)
                 .invoke(containerWithConfig(stressResponse), Date(SERVER_MILLIS), VerificationResult.VERIFIED)
@@ -2694,7 +2851,10 @@ class RemoteConfigManagerTest {
     }
 
     // A manager whose read methods run on this test's scheduler, so suspend reads are deterministic.
-    private fun TestScope.readManager(appUserIDProvider: () -> String? = { null }): RemoteConfigManager {
+    private fun TestScope.readManager(
+        appUserIDProvider: () -> String? = { null },
+        decodedBlobs: DecodedBlobCache = DecodedBlobCache(),
+    ): RemoteConfigManager {
         val dispatcher = UnconfinedTestDispatcher(testScheduler)
         return RemoteConfigManager(
             backend,
@@ -2708,6 +2868,7 @@ class RemoteConfigManagerTest {
             blobFetcher = blobFetcher,
             appUserIDProvider = appUserIDProvider,
             cacheDurationProvider = { appInBackground -> cacheDurationProvider(appInBackground) },
+            decodedBlobs = decodedBlobs,
         )
     }
 
@@ -2739,15 +2900,19 @@ class RemoteConfigManagerTest {
 
     /**
      * A fake inline blob element for a container mock: [ref] is what the manager reads to decide whether it
-     * wants the blob; [decoded] is the bytes decode() yields, or null to model a bad blob whose decode() throws.
+     * wants the blob; [decoded] is the bytes decodeTo() streams, or null to model a bad blob whose decodeTo()
+     * throws.
      */
     private fun inlineElement(ref: String, decoded: ByteArray?): RCElement {
         val element = mockk<RCElement>()
         every { element.checksumBase64() } returns ref
         if (decoded == null) {
-            every { element.decode() } throws RCContainerFormatException("checksum verification failed")
+            every { element.decodeTo(any()) } throws RCContainerFormatException("checksum verification failed")
         } else {
-            every { element.decode() } returns decoded
+            every { element.decodeTo(any()) } answers {
+                firstArg<OutputStream>().write(decoded)
+                decoded.size.toLong()
+            }
         }
         return element
     }
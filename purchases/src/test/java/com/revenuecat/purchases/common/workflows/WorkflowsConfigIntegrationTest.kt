@@ -42,6 +42,7 @@ import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.annotation.Config
 import java.io.ByteArrayInputStream
+import java.io.OutputStream
 import java.net.HttpURLConnection
 import java.security.MessageDigest
 import java.util.Date
@@ -118,30 +119,32 @@ class WorkflowsConfigIntegrationTest {
         provider = WorkflowsConfigProvider(manager, scope = testScope)
 
         every {
-            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any())
+            backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())
         } answers {
-            onSuccess = arg(7)
+            onSuccess = arg(8)
         }
     }
 
     @Test
     fun `a prefetched inline workflow is served without any download`() = runTest(testDispatcher) {
         val workflowJson = JsonTools.json.encodeToString(PublishedWorkflow.serializer(), minimalWorkflow("wf-1"))
+        // Read back from the blob store, which checks the body against its ref, so the ref must be its real one.
+        val inlineRef = refOf(workflowJson.toByteArray())
         val config = """
             {
               "domain": "app",
               "manifest": "v1.workflows:etag1",
               "active_topics": ["workflows"],
-              "prefetch_blobs": ["$INLINE_REF"],
+              "prefetch_blobs": ["$inlineRef"],
               "topics": {
                 "workflows": {
-                  "wf-1": { "blob_ref": "$INLINE_REF", "offering_identifier": "premium_annual", "prefetch": true }
+                  "wf-1": { "blob_ref": "$inlineRef", "offering_identifier": "premium_annual", "prefetch": true }
                 }
               }
             }
         """.trimIndent()
 
-        sync(config, INLINE_REF to workflowJson)
+        sync(config, inlineRef to workflowJson)
 
         assertThat(provider.workflowIdForOfferingId("premium_annual")).isEqualTo("wf-1")
         val result = provider.getWorkflow("wf-1")
@@ -374,7 +377,7 @@ class WorkflowsConfigIntegrationTest {
             assertThat(completed).isTrue()
             // The topic was already committed by the sync() above — onPaywallConfigReady must not trigger
             // another one; this is what keeps OfferingsManager's gate cheap on a warm cache.
-            verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+            verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
         }
 
     @Test
@@ -392,7 +395,7 @@ class WorkflowsConfigIntegrationTest {
                 assertThat(completed).isTrue()
             }
 
-            verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any()) }
+            verify(exactly = 1) { backend.getRemoteConfig(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()) }
             assertThat(downloadCount).isZero()
         }
 
@@ -467,7 +470,11 @@ class WorkflowsConfigIntegrationTest {
         val blobElements = blobs.map { (ref, json) ->
             val element = mockk<RCElement>()
             every { element.checksumBase64() } returns ref
-            every { element.decode() } returns json.toByteArray()
+            every { element.decodeTo(any()) } answers {
+                val bytes = json.toByteArray()
+                firstArg<OutputStream>().write(bytes)
+                bytes.size.toLong()
+            }
             element
         }
         val container = mockk<RCContainer>()
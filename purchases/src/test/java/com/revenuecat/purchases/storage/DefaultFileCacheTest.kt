@@ -3,6 +3,7 @@ package com.revenuecat.purchases.storage
 import android.content.Context
 import androidx.test.core.app.ApplicationProvider
 import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.common.DateProvider
 import com.revenuecat.purchases.models.Checksum
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.After
@@ -13,7 +14,9 @@ import java.io.ByteArrayInputStream
 import java.io.File
 import java.io.IOException
 import java.io.InputStream
+import java.net.URI
 import java.net.URL
+import java.util.Date
 
 @RunWith(AndroidJUnit4::class)
 class DefaultFileCacheTest {
@@ -321,6 +324,109 @@ class DefaultFileCacheTest {
         assertThat(savedFile.readBytes()).isEqualTo(testData)
     }
 
+    // Eviction tests
+
+    @Test
+    fun `saveData evicts least recently accessed files when over the size limit`() {
+        val evictedUris = mutableListOf<URI>()
+        val cache = createSizeLimitedCache(maxSizeBytes = 25)
+        cache.onFileEvicted = { evictedUris.add(it) }
+        val first = cache.save("https://example.com/first.bin", ByteArray(10))
+        val second = cache.save("https://example.com/second.bin", ByteArray(10))
+
+        val third = cache.save("https://example.com/third.bin", ByteArray(10))
+
+        assertThat(File(first).exists()).isFalse
+        assertThat(File(second).exists()).isTrue
+        assertThat(File(third).exists()).isTrue
+        assertThat(evictedUris).containsExactly(first)
+        assertThat(cache.stats.evictionCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `accessed files are evicted after files that were not accessed`() {
+        val cache = createSizeLimitedCache(maxSizeBytes = 25)
+        val first = cache.save("https://example.com/first.bin", ByteArray(10))
+        val second = cache.save("https://example.com/second.bin", ByteArray(10))
+        cache.cachedContentExists(first)
+
+        cache.save("https://example.com/third.bin", ByteArray(10))
+
+        assertThat(File(first).exists()).isTrue
+        assertThat(File(second).exists()).isFalse
+    }
+
+    @Test
+    fun `access times are kept across cache instances`() {
+        val dateProvider = IncrementingDateProvider()
+        val firstCache = createSizeLimitedCache(maxSizeBytes = 25, dateProvider = dateProvider)
+        val first = firstCache.save("https://example.com/first.bin", ByteArray(10))
+        val second = firstCache.save("https://example.com/second.bin", ByteArray(10))
+        firstCache.cachedContentExists(first)
+        // Saving persists the access index, including the access above.
+        firstCache.save("https://example.com/small.bin", ByteArray(1))
+
+        val secondCache = createSizeLimitedCache(maxSizeBytes = 25, dateProvider = dateProvider)
+        secondCache.save("https://example.com/third.bin", ByteArray(10))
+
+        assertThat(File(first).exists()).isTrue
+        assertThat(File(second).exists()).isFalse
+    }
+
+    @Test
+    fun `file just saved is not evicted even when larger than the size limit`() {
+        val cache = createSizeLimitedCache(maxSizeBytes = 5)
+
+        val uri = cache.save("https://example.com/large.bin", ByteArray(10))
+
+        assertThat(File(uri).exists()).isTrue
+        assertThat(cache.stats.evictionCount).isEqualTo(0)
+    }
+
+    @Test
+    fun `pinned files are not evicted`() {
+        val cache = createSizeLimitedCache(maxSizeBytes = 25)
+        val first = cache.save("https://example.com/first.bin", ByteArray(10))
+        val second = cache.save("https://example.com/second.bin", ByteArray(10))
+        cache.pin(first)
+
+        cache.save("https://example.com/third.bin", ByteArray(10))
+
+        assertThat(File(first).exists()).isTrue
+        assertThat(File(second).exists()).isFalse
+    }
+
+    @Test
+    fun `files can be pinned before they are saved`() {
+        val cache = createSizeLimitedCache(maxSizeBytes = 15)
+        val first = cache.generateLocalFilesystemURI(URL("https://example.com/first.bin"))!!
+        cache.pin(first)
+        cache.save("https://example.com/first.bin", ByteArray(10))
+
+        val second = cache.save("https://example.com/second.bin", ByteArray(10))
+
+        assertThat(File(first).exists()).isTrue
+        assertThat(File(second).exists()).isTrue
+        assertThat(cache.stats.evictionCount).isEqualTo(0)
+    }
+
+    private fun createSizeLimitedCache(
+        maxSizeBytes: Long,
+        dateProvider: DateProvider = IncrementingDateProvider(),
+    ) = DefaultFileCache(context, maxSizeBytes = maxSizeBytes, dateProvider = dateProvider)
+
+    private fun DefaultFileCache.save(url: String, data: ByteArray): URI {
+        val uri = generateLocalFilesystemURI(URL(url))!!
+        saveData(ByteArrayInputStream(data), uri)
+        return uri
+    }
+
+    private class IncrementingDateProvider : DateProvider {
+        private var time = 1_000L
+        override val now: Date
+            get() = Date(time++)
+    }
+
     private inline fun <reified T : Throwable> assertThrows(block: () -> Unit): T {
         try {
             block()
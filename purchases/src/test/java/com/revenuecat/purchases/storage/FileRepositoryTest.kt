@@ -365,6 +365,117 @@ class FileRepositoryTest : CoroutineTest() {
         assertThat(results).hasSize(TOTAL_DOWNLOADS)
     }
 
+    @Test
+    fun `prefetch downloads current offering files first`() = runTest {
+        val factory = TestUrlConnectionFactory(connectionProvider = {
+            TestUrlConnection(HttpURLConnection.HTTP_OK, ByteArrayInputStream(ByteArray(0)))
+        })
+        val repository = DefaultFileRepository(
+            store = KeyedDeferredValueStore(),
+            fileCacheManager = FakeFileCache(),
+            ioScope = this,
+            logHandler = mockk<LogHandler>(relaxed = true),
+            urlConnectionFactory = factory,
+            maxConcurrentPrefetches = 1,
+        )
+
+        repository.prefetch(listOf(URL("https://cdn.example.com/other_1") to null))
+        repository.prefetch(listOf(URL("https://cdn.example.com/other_2") to null))
+        repository.prefetch(
+            listOf(URL("https://cdn.example.com/current") to null),
+            PrefetchPriority.CURRENT_OFFERING,
+        )
+        advanceUntilIdle()
+
+        assertThat(factory.createdConnections).containsExactly(
+            "https://cdn.example.com/current",
+            "https://cdn.example.com/other_1",
+            "https://cdn.example.com/other_2",
+        )
+    }
+
+    @Test
+    fun `prefetch runs at most maxConcurrentPrefetches downloads at once`() = runBlocking<Unit> {
+        val active = AtomicInteger(0)
+        val maxConcurrent = AtomicInteger(0)
+        val release = CountDownLatch(1)
+        val saved = CountDownLatch(TOTAL_DOWNLOADS)
+
+        val factory = TestUrlConnectionFactory(connectionProvider = {
+            maxConcurrent.accumulateAndGet(active.incrementAndGet()) { a, b -> maxOf(a, b) }
+            release.await(LATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            active.decrementAndGet()
+            TestUrlConnection(HttpURLConnection.HTTP_OK, ByteArrayInputStream(ByteArray(0)))
+        })
+        val repository = DefaultFileRepository(
+            store = KeyedDeferredValueStore(),
+            fileCacheManager = FakeFileCache(onSave = { saved.countDown() }),
+            ioScope = CoroutineScope(Dispatchers.IO),
+            logHandler = mockk<LogHandler>(relaxed = true),
+            urlConnectionFactory = factory,
+            maxConcurrentPrefetches = CONCURRENCY_LIMIT,
+        )
+
+        repository.prefetch((0 until TOTAL_DOWNLOADS).map { URL("https://cdn.example.com/file_$it") to null })
+
+        val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(LATCH_TIMEOUT_SECONDS)
+        while (maxConcurrent.get() < CONCURRENCY_LIMIT && System.currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MILLIS)
+        }
+        release.countDown()
+
+        assertThat(saved.await(LATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue
+        assertThat(maxConcurrent.get()).isEqualTo(CONCURRENCY_LIMIT)
+        assertThat(factory.createdConnections).hasSize(TOTAL_DOWNLOADS)
+    }
+
+    @Test
+    fun `stats count cache hits, misses and downloaded bytes`() = runTest {
+        val testData = "test file content".toByteArray()
+        val factory = TestUrlConnectionFactory(
+            mapOf(TEST_URL to TestUrlConnection(HttpURLConnection.HTTP_OK, ByteArrayInputStream(testData))),
+        )
+        val cachedUrl = URL("https://www.sample.com/cached")
+        val cachedUri = URI("data:sample/cached")
+        val mockCache = mockk<LocalFileCache>()
+        every { mockCache.generateLocalFilesystemURI(url, null) } returns cacheUri
+        every { mockCache.generateLocalFilesystemURI(cachedUrl, null) } returns cachedUri
+        every { mockCache.cachedContentExists(cacheUri) } returns false
+        every { mockCache.cachedContentExists(cachedUri) } returns true
+        every { mockCache.saveData(any<InputStream>(), cacheUri, null) } answers {
+            firstArg<InputStream>().readBytes()
+            Unit
+        }
+
+        val repository = DefaultFileRepository(
+            store = KeyedDeferredValueStore(),
+            fileCacheManager = mockCache,
+            logHandler = mockk<LogHandler>(relaxed = true),
+            urlConnectionFactory = factory,
+        )
+
+        repository.generateOrGetCachedFileURL(url)
+        repository.generateOrGetCachedFileURL(cachedUrl)
+        repository.getFile(cachedUrl)
+
+        assertThat(repository.stats.hitCount).isEqualTo(2)
+        assertThat(repository.stats.missCount).isEqualTo(1)
+        assertThat(repository.stats.hitRate).isEqualTo(2.0 / 3)
+        assertThat(repository.stats.bytesDownloaded).isEqualTo(testData.size.toLong())
+    }
+
+    // A real fake (not a mock): MockK serializes concurrent invocations.
+    private class FakeFileCache(private val onSave: () -> Unit = {}) : LocalFileCache {
+        override fun generateLocalFilesystemURI(remoteURL: URL, checksum: Checksum?): URI =
+            URI("data:" + remoteURL.file)
+
+        override fun cachedContentExists(uri: URI): Boolean = false
+
+        override fun saveData(inputStream: InputStream, uri: URI, checksum: Checksum?) {
+            onSave()
+        }
+    }
+
     // Checksum validation tests
 
     @Test
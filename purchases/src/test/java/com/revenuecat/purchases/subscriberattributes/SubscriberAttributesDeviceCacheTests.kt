@@ -7,6 +7,7 @@ import com.revenuecat.purchases.subscriberattributes.caching.SubscriberAttribute
 import com.revenuecat.purchases.subscriberattributes.caching.SubscriberAttributesCache
 import com.revenuecat.purchases.subscriberattributes.caching.SubscriberAttributesPerAppUserIDMap
 import com.revenuecat.purchases.subscriberattributes.caching.legacySubscriberAttributesCacheKey
+import com.revenuecat.purchases.subscriberattributes.caching.toAttributesJSONObject
 import io.mockk.every
 import io.mockk.just
 import io.mockk.mockk
@@ -31,34 +32,33 @@ class SubscriberAttributesDeviceCacheTests {
     private lateinit var underTest: SubscriberAttributesCache
     private lateinit var mockPrefs: SharedPreferences
     private lateinit var mockEditor: SharedPreferences.Editor
-    private val putStringSlot = slot<String>()
+    private val storedPreferences = mutableMapOf<String, Any>()
+    private val singleRecordCacheKey = "com.revenuecat.purchases.$apiKey.subscriberAttributes"
 
     @Before
     fun setup() {
+        val keySlot = slot<String>()
+        val stringSlot = slot<String>()
+        val booleanSlot = slot<Boolean>()
         mockEditor = mockk<SharedPreferences.Editor>().apply {
             every {
-                putString("com.revenuecat.purchases.$apiKey.subscriberAttributes", capture(putStringSlot))
+                putString(capture(keySlot), capture(stringSlot))
             } answers {
-                every {
-                    mockPrefs.getString("com.revenuecat.purchases.$apiKey.subscriberAttributes", any())
-                } returns putStringSlot.captured
+                storedPreferences[keySlot.captured] = stringSlot.captured
                 mockEditor
             }
             every {
-                remove("com.revenuecat.purchases.$apiKey.subscriberAttributes")
-            } returns this
-            every {
-                remove("com.revenuecat.purchases.$apiKey.appUserID")
-            } returns this
-            every {
-                remove("com.revenuecat.purchases.$apiKey.legacyAppUserID")
-            } returns this
-            every {
-                remove("com.revenuecat.purchases.$apiKey.new")
-            } returns this
+                putBoolean(capture(keySlot), capture(booleanSlot))
+            } answers {
+                storedPreferences[keySlot.captured] = booleanSlot.captured
+                mockEditor
+            }
             every {
-                remove("com.revenuecat.purchases.$apiKey")
-            } returns this
+                remove(capture(keySlot))
+            } answers {
+                storedPreferences.remove(keySlot.captured)
+                mockEditor
+            }
             every {
                 apply()
             } just runs
@@ -68,17 +68,28 @@ class SubscriberAttributesDeviceCacheTests {
             every {
                 edit()
             } returns mockEditor
+            every {
+                getString(capture(keySlot), any())
+            } answers {
+                storedPreferences[keySlot.captured] as? String ?: secondArg()
+            }
+            every {
+                contains(capture(keySlot))
+            } answers {
+                storedPreferences.containsKey(keySlot.captured)
+            }
+            every {
+                all
+            } answers {
+                storedPreferences.toMutableMap()
+            }
         }
 
         cache = DeviceCache(mockPrefs, apiKey)
         underTest = SubscriberAttributesCache(cache)
 
-        every {
-            mockPrefs.getString(cache.appUserIDCacheKey, isNull())
-        } returns "appUserID"
-        every {
-            mockPrefs.getString(cache.legacyAppUserIDCacheKey, isNull())
-        } returns "legacyAppUserID"
+        storedPreferences[cache.appUserIDCacheKey] = "appUserID"
+        storedPreferences[cache.legacyAppUserIDCacheKey] = "legacyAppUserID"
     }
 
     @Test
@@ -208,12 +219,7 @@ class SubscriberAttributesDeviceCacheTests {
         mockNotEmptyCache(expectedAttributes)
         underTest.clearAllSubscriberAttributesFromUser(appUserID)
         verify(exactly = 1) {
-            mockEditor.putString(
-                "com.revenuecat.purchases.$apiKey.subscriberAttributes",
-                JSONObject().also {
-                    it.put("attributes", JSONObject())
-                }.toString()
-            )
+            mockEditor.remove(underTest.subscriberAttributesPerUserCacheKey(appUserID))
         }
     }
 
@@ -226,12 +232,7 @@ class SubscriberAttributesDeviceCacheTests {
         mockNotEmptyCache(expectedAttributes)
         underTest.clearAllSubscriberAttributesFromUser(appUserID)
         verify(exactly = 1) {
-            mockEditor.putString(
-                "com.revenuecat.purchases.$apiKey.subscriberAttributes",
-                JSONObject().also {
-                    it.put("attributes", JSONObject())
-                }.toString()
-            )
+            mockEditor.remove(underTest.subscriberAttributesPerUserCacheKey(appUserID))
         }
     }
 
@@ -244,12 +245,7 @@ class SubscriberAttributesDeviceCacheTests {
         mockNotEmptyCache(expectedAttributes)
         underTest.clearSubscriberAttributesIfSyncedForSubscriber(appUserID)
         verify {
-            mockEditor.putString(
-                "com.revenuecat.purchases.$apiKey.subscriberAttributes",
-                JSONObject().also {
-                    it.put("attributes", JSONObject())
-                }.toString()
-            )
+            mockEditor.remove(underTest.subscriberAttributesPerUserCacheKey(appUserID))
         }
     }
 
@@ -261,7 +257,10 @@ class SubscriberAttributesDeviceCacheTests {
         mockNotEmptyCache(expectedAttributes)
         underTest.clearSubscriberAttributesIfSyncedForSubscriber(appUserID)
         verify(exactly = 0) {
-            mockEditor.putString("com.revenuecat.purchases.$apiKey.subscriberAttributes", any())
+            mockEditor.putString(underTest.subscriberAttributesPerUserCacheKey(appUserID), any())
+        }
+        verify(exactly = 0) {
+            mockEditor.remove(underTest.subscriberAttributesPerUserCacheKey(appUserID))
         }
     }
 
@@ -325,6 +324,83 @@ class SubscriberAttributesDeviceCacheTests {
         assertThat(unsyncedSubscriberAttributes.size).isEqualTo(0)
     }
 
+    @Test
+    fun `attributes stored in a single record for all users are copied to per user records`() {
+        val attributes = mapOf(
+            "tshirtsize" to SubscriberAttribute("tshirtsize", "L"),
+            "age" to SubscriberAttribute("age", "L", isSynced = true)
+        )
+        val cacheContents = mapOf(
+            appUserID to attributes,
+            "user2" to attributes
+        )
+        mockSingleRecordCacheMultipleUsers(cacheContents)
+
+        assertThat(underTest.getAllStoredSubscriberAttributes()).isEqualTo(cacheContents)
+        assertCapturedEqualsExpected(cacheContents)
+        assertThat(storedPreferences).containsKey(singleRecordCacheKey)
+    }
+
+    @Test
+    fun `attributes in a single record are merged with per user records, keeping the per user ones`() {
+        val singleRecordAttributes = mapOf(
+            "tshirtsize" to SubscriberAttribute("tshirtsize", "L"),
+            "age" to SubscriberAttribute("age", "L")
+        )
+        val perUserAttributes = mapOf("age" to SubscriberAttribute("age", "M"))
+        mockNotEmptyCache(perUserAttributes)
+        mockSingleRecordCacheMultipleUsers(mapOf(appUserID to singleRecordAttributes))
+
+        val receivedAttributes = underTest.getAllStoredSubscriberAttributes(appUserID)
+
+        assertThat(receivedAttributes).isEqualTo(singleRecordAttributes + perUserAttributes)
+        assertCapturedEqualsExpected(mapOf(appUserID to singleRecordAttributes + perUserAttributes))
+    }
+
+    @Test
+    fun `attributes in a single record are not copied again once migrated`() {
+        mockSingleRecordCacheMultipleUsers(
+            mapOf(
+                appUserID to mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "L", isSynced = true)),
+                "user2" to mapOf("age" to SubscriberAttribute("age", "L"))
+            )
+        )
+        underTest.clearAllSubscriberAttributesFromUser(appUserID)
+
+        val receivedAttributes = SubscriberAttributesCache(cache).getAllStoredSubscriberAttributes(appUserID)
+
+        assertThat(receivedAttributes).isEmpty()
+        assertThat(storedPreferences).containsKey(singleRecordCacheKey)
+    }
+
+    @Test
+    fun `single record is kept while there are unsynced attributes`() {
+        mockSingleRecordCacheMultipleUsers(
+            mapOf(appUserID to mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "L")))
+        )
+
+        underTest.cleanUpSubscriberAttributeCache(appUserID, mockEditor)
+        underTest.clearSubscriberAttributesIfSyncedForSubscriber(appUserID)
+
+        assertThat(storedPreferences).containsKey(singleRecordCacheKey)
+    }
+
+    @Test
+    fun `single record is removed once every attribute is synced`() {
+        mockSingleRecordCacheMultipleUsers(
+            mapOf(appUserID to mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "L")))
+        )
+        underTest.setAttributes(
+            appUserID,
+            mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "L", isSynced = true))
+        )
+
+        underTest.clearSubscriberAttributesIfSyncedForSubscriber(appUserID)
+
+        verify(exactly = 1) { mockEditor.remove(singleRecordCacheKey) }
+        assertThat(storedPreferences.keys).noneMatch { it.startsWith(singleRecordCacheKey) }
+    }
+
     @Test
     fun `Given there are no legacy subscriber attributes, cleanup doesn't migrate anything`() {
         mockLegacyCacheMultipleUsers(emptyMap())
@@ -354,11 +430,6 @@ class SubscriberAttributesDeviceCacheTests {
             userOne to createMapOfUnsyncedAttributes(),
             appUserID to legacyAttributesForAppUserID
         )
-        legacyCacheContents.keys.forEach {
-            every {
-                mockEditor.remove("com.revenuecat.purchases.$apiKey.subscriberAttributes.$it")
-            } returns mockEditor
-        }
         mockLegacyCacheMultipleUsers(legacyCacheContents)
 
         val newCacheAttributesForAppUserID =
@@ -402,11 +473,6 @@ class SubscriberAttributesDeviceCacheTests {
             userOne to createMapOfUnsyncedAttributes(allSynced = true),
             appUserID to legacyAttributesForAppUserID
         )
-        legacyCacheContents.keys.forEach {
-            every {
-                mockEditor.remove("com.revenuecat.purchases.$apiKey.subscriberAttributes.$it")
-            } returns mockEditor
-        }
         mockLegacyCacheMultipleUsers(legacyCacheContents)
 
         val newCacheAttributesForAppUserID =
@@ -456,7 +522,6 @@ class SubscriberAttributesDeviceCacheTests {
             appUserID to expectedAttributes,
             "pedro" to expectedAttributes
         )
-        mockEmptyLegacyCache()
         mockNotEmptyCacheMultipleUsers(cacheContents)
         underTest.cleanUpSubscriberAttributeCache(appUserID, mockEditor)
         assertCapturedEqualsExpected(
@@ -466,19 +531,8 @@ class SubscriberAttributesDeviceCacheTests {
         )
     }
 
-    private fun mockEmptyLegacyCache() {
-        every {
-            mockPrefs.all
-        } returns emptyMap<String, Any>().toMutableMap()
-    }
-
     private fun mockEmptyCache() {
-        every {
-            mockPrefs.getString(
-                "com.revenuecat.purchases.$apiKey.subscriberAttributes",
-                any()
-            )
-        } returns null
+        storedPreferences.keys.removeAll { it.startsWith("com.revenuecat.purchases.$apiKey.subscriberAttributes") }
     }
 
     private fun mockNotEmptyCache(cacheContents: SubscriberAttributeMap) {
@@ -486,12 +540,14 @@ class SubscriberAttributesDeviceCacheTests {
     }
 
     private fun mockNotEmptyCacheMultipleUsers(cacheContents: SubscriberAttributesPerAppUserIDMap) {
-        every {
-            mockPrefs.getString(
-                "com.revenuecat.purchases.$apiKey.subscriberAttributes",
-                any()
-            )
-        } returns JSONObject().put("attributes", JSONObject().also { attributesJSONObject ->
+        cacheContents.forEach { (userID, subscriberAttributeMap) ->
+            storedPreferences["com.revenuecat.purchases.$apiKey.subscriberAttributesPerUser.$userID"] =
+                subscriberAttributeMap.toAttributesJSONObject().toString()
+        }
+    }
+
+    private fun mockSingleRecordCacheMultipleUsers(cacheContents: SubscriberAttributesPerAppUserIDMap) {
+        storedPreferences[singleRecordCacheKey] = JSONObject().put("attributes", JSONObject().also { attributesJSONObject ->
             cacheContents.forEach { (appUserID, subscriberAttributeMap) ->
                 attributesJSONObject.put(appUserID, JSONObject().also { appUserIDJSONObject ->
                     subscriberAttributeMap.forEach { (key, subscriberAttribute) ->
@@ -512,26 +568,18 @@ class SubscriberAttributesDeviceCacheTests {
             "com.revenuecat.purchases.$apiKey.subscriberAttributes.$userID" to json
         }.toMap()
 
-        preferencesContent.forEach { (key, contents) ->
-            every {
-                mockPrefs.getString(
-                    key,
-                    any()
-                )
-            } returns contents
-        }
-
-        every {
-            mockPrefs.all
-        } returns preferencesContent.toMutableMap()
+        storedPreferences.putAll(preferencesContent)
     }
 
     private fun assertCapturedEqualsExpected(
         expectedAttributes: SubscriberAttributesPerAppUserIDMap
     ) {
-        assertThat(putStringSlot.isCaptured)
-        val receivedAttributes =
-            JSONObject(putStringSlot.captured).buildSubscriberAttributesMapPerUser()
+        val perUserCacheKeyPrefix = "com.revenuecat.purchases.$apiKey.subscriberAttributesPerUser."
+        val receivedAttributes = storedPreferences
+            .filterKeys { it.startsWith(perUserCacheKeyPrefix) }
+            .map { (key, json) ->
+                key.removePrefix(perUserCacheKeyPrefix) to JSONObject(json as String).buildSubscriberAttributesMap()
+            }.toMap()
         assertThat(receivedAttributes).isNotNull
         assertThat(receivedAttributes).hasSameSizeAs(expectedAttributes)
         expectedAttributes.forEach { (userID, expectedAttributesForUser) ->
@@ -707,6 +707,79 @@ class SubscriberAttributesManagerTests {
         }
     }
 
+    @Test
+    fun `When syncing many users, posts the current user first and at most 5 users at once`() {
+        val attributes = mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "L"))
+        val otherUsers = (1..6).map { "user$it" }
+        every {
+            mockDeviceCache.getUnsyncedSubscriberAttributes()
+        } returns (otherUsers + appUserID).associateWith { attributes }
+        val postedUsers = mutableListOf<String>()
+        val errorHandlers = mutableListOf<(PurchasesError, Boolean, List<SubscriberAttributeError>) -> Unit>()
+        every {
+            mockBackend.postSubscriberAttributes(any(), capture(postedUsers), any(), captureLambda())
+        } answers {
+            errorHandlers.add(lambda<(PurchasesError, Boolean, List<SubscriberAttributeError>) -> Unit>().captured)
+        }
+
+        var completionCalled = false
+        underTest.synchronizeSubscriberAttributesForAllUsers(appUserID) { completionCalled = true }
+
+        assertThat(postedUsers).containsExactly(appUserID, "user1", "user2", "user3", "user4")
+
+        errorHandlers.toList().forEach { it(PurchasesError(PurchasesErrorCode.NetworkError), false, emptyList()) }
+
+        assertThat(postedUsers).containsExactly(appUserID, "user1", "user2", "user3", "user4", "user5", "user6")
+        assertThat(completionCalled).isFalse
+
+        errorHandlers.drop(5).forEach { it(PurchasesError(PurchasesErrorCode.NetworkError), false, emptyList()) }
+
+        assertThat(completionCalled).isTrue
+    }
+
+    @Test
+    fun `When syncing attributes already being posted, waits for that post instead of posting again`() {
+        val attributes = mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "L"))
+        every {
+            mockDeviceCache.getUnsyncedSubscriberAttributes()
+        } returns mapOf(appUserID to attributes)
+        val errorHandler = slot<(PurchasesError, Boolean, List<SubscriberAttributeError>) -> Unit>()
+        every {
+            mockBackend.postSubscriberAttributes(any(), appUserID, any(), capture(errorHandler))
+        } just Runs
+
+        var firstCompletionCalled = false
+        var secondCompletionCalled = false
+        underTest.synchronizeSubscriberAttributesForAllUsers(appUserID) { firstCompletionCalled = true }
+        underTest.synchronizeSubscriberAttributesForAllUsers(appUserID) { secondCompletionCalled = true }
+
+        verify(exactly = 1) { mockBackend.postSubscriberAttributes(any(), appUserID, any(), any()) }
+        assertThat(secondCompletionCalled).isFalse
+
+        errorHandler.captured(PurchasesError(PurchasesErrorCode.NetworkError), false, emptyList())
+
+        assertThat(firstCompletionCalled).isTrue
+        assertThat(secondCompletionCalled).isTrue
+    }
+
+    @Test
+    fun `When syncing attributes that changed since the post in flight, posts them again`() {
+        every {
+            mockDeviceCache.getUnsyncedSubscriberAttributes()
+        } returnsMany listOf(
+            mapOf(appUserID to mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "L"))),
+            mapOf(appUserID to mapOf("tshirtsize" to SubscriberAttribute("tshirtsize", "XL"))),
+        )
+        every {
+            mockBackend.postSubscriberAttributes(any(), appUserID, any(), any())
+        } just Runs
+
+        underTest.synchronizeSubscriberAttributesForAllUsers(appUserID)
+        underTest.synchronizeSubscriberAttributesForAllUsers(appUserID)
+
+        verify(exactly = 2) { mockBackend.postSubscriberAttributes(any(), appUserID, any(), any()) }
+    }
+
     @Test
     fun collectDeviceIdentifiers() {
         val capturingSlot = mockSettingAttributesOnEmptyCache()
@@ -8,6 +8,8 @@ import com.revenuecat.purchases.InternalRevenueCatAPI
 import com.revenuecat.purchases.common.FileHelper
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.spyk
+import io.mockk.verify
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.After
 import org.junit.Before
@@ -52,7 +54,8 @@ class EventsFileHelperTest {
     @Test
     fun `debugEventCallback is called when appendEvent throws`() {
         val receivedEvents = mutableListOf<DebugEvent>()
-        val badFileHelper = mockk<FileHelper>().apply {
+        val badFileHelper = mockk<FileHelper>(relaxed = true).apply {
+            every { listFileNames(any()) } returns emptyList()
             every { appendToFile(any(), any()) } throws RuntimeException("Write failed")
         }
         eventsFileHelper = EventsFileHelper(
@@ -75,6 +78,26 @@ class EventsFileHelperTest {
         assertThat(receivedEvents.first().properties["message"]).isEqualTo("Write failed")
     }
 
+    @Test
+    fun `appendEvents writes all events with a single append`() {
+        val spiedFileHelper = spyk(fileHelper)
+        eventsFileHelper = EventsFileHelper(
+            spiedFileHelper,
+            testFilePath,
+            { it.toString() },
+            { TestEvent(it) },
+        )
+
+        eventsFileHelper.appendEvents(listOf(TestEvent("first"), TestEvent("second"), TestEvent("third")))
+
+        var result: List<TestEvent?> = emptyList()
+        eventsFileHelper.readFile { sequence ->
+            result = sequence.toList()
+        }
+        assertThat(result).containsExactly(TestEvent("first"), TestEvent("second"), TestEvent("third"))
+        verify(exactly = 1) { spiedFileHelper.appendToFile(any(), "first\nsecond\nthird\n") }
+    }
+
     @OptIn(InternalRevenueCatAPI::class)
     @Test
     fun `readFile returns empty sequence when eventDeserializer is null`() {
@@ -152,7 +175,8 @@ class EventsFileHelperTest {
     fun `debugEventCallback message is truncated to 80 characters`() {
         val receivedEvents = mutableListOf<DebugEvent>()
         val longMessage = "A".repeat(120)
-        val badFileHelper = mockk<FileHelper>().apply {
+        val badFileHelper = mockk<FileHelper>(relaxed = true).apply {
+            every { listFileNames(any()) } returns emptyList()
             every { appendToFile(any(), any()) } throws RuntimeException(longMessage)
         }
         eventsFileHelper = EventsFileHelper(
@@ -18,6 +18,7 @@ import com.revenuecat.purchases.paywalls.components.properties.SizeConstraint
 import com.revenuecat.purchases.paywalls.components.properties.ThemeVideoUrls
 import com.revenuecat.purchases.paywalls.components.properties.VideoUrls
 import com.revenuecat.purchases.storage.FileRepository
+import com.revenuecat.purchases.storage.PrefetchPriority
 import io.mockk.every
 import io.mockk.mockk
 import io.mockk.verify
@@ -49,7 +50,7 @@ class OfferingVideoPredownloaderTest {
             mockk<Offering>().apply { every { paywallComponents } returns null },
         )
 
-        verify(exactly = 0) { fileRepository.prefetch(any()) }
+        verify(exactly = 0) { fileRepository.prefetch(any(), any()) }
     }
 
     @Test
@@ -67,7 +68,7 @@ class OfferingVideoPredownloaderTest {
         // offerings success/caching path that invokes this.
         predownloader.downloadVideos(offering)
 
-        verify(exactly = 0) { fileRepository.prefetch(any()) }
+        verify(exactly = 0) { fileRepository.prefetch(any(), any()) }
     }
 
     @Test
@@ -120,6 +121,6 @@ class OfferingVideoPredownloaderTest {
 
         predownloader.downloadVideos(offering)
 
-        verify(exactly = 1) { fileRepository.prefetch(any()) }
+        verify(exactly = 1) { fileRepository.prefetch(any(), PrefetchPriority.DEFAULT) }
     }
 }
@@ -0,0 +1,207 @@
+package com.revenuecat.purchases.utils
+
+import android.content.Context
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.common.FileHelper
+import io.mockk.clearMocks
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.spyk
+import io.mockk.verify
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.annotation.Config
+import java.io.File
+
+@RunWith(AndroidJUnit4::class)
+@Config(manifest = Config.NONE)
+class SegmentedEventLogTest {
+
+    private val testFolder = "temp_segmented_event_log_test_folder"
+    private val testFilePath = "RevenueCat/events/test_events.jsonl"
+
+    // Each record used in these tests is 8 bytes, so segments hold 2 records.
+    private val segmentSizeBytes = 16L
+
+    private lateinit var fileHelper: FileHelper
+    private lateinit var eventLog: SegmentedEventLog
+
+    @Before
+    fun setUp() {
+        val tempTestFolder = File(testFolder)
+        if (tempTestFolder.exists()) {
+            error("Temp test folder should not exist before starting tests")
+        }
+        tempTestFolder.mkdirs()
+
+        val context = mockk<Context>().apply {
+            every { filesDir } returns tempTestFolder
+        }
+        fileHelper = FileHelper(context)
+        eventLog = SegmentedEventLog(fileHelper, testFilePath, segmentSizeBytes)
+    }
+
+    @After
+    fun tearDown() {
+        File(testFolder).deleteRecursively()
+    }
+
+    @Test
+    fun `reads appended records in order across segments`() {
+        appendRecords(5)
+
+        assertThat(readLines()).containsExactly("event_0", "event_1", "event_2", "event_3", "event_4")
+        assertThat(segmentFileNames()).containsExactly("0.jsonl", "1.jsonl", "2.jsonl")
+    }
+
+    @Test
+    fun `removeFirst skips removed records`() {
+        appendRecords(3)
+
+        eventLog.removeFirst(1)
+
+        assertThat(readLines()).containsExactly("event_1", "event_2")
+        assertThat(eventLog.sizeInBytes()).isEqualTo(16L)
+    }
+
+    @Test
+    fun `removeFirst deletes fully consumed segments`() {
+        appendRecords(5)
+
+        eventLog.removeFirst(3)
+
+        assertThat(readLines()).containsExactly("event_3", "event_4")
+        assertThat(segmentFileNames()).containsExactly("1.jsonl", "2.jsonl")
+    }
+
+    @Test
+    fun `removeFirst with more records than stored empties the log`() {
+        appendRecords(3)
+
+        eventLog.removeFirst(10)
+
+        assertThat(readLines()).isEmpty()
+        assertThat(eventLog.isEmpty()).isTrue
+        assertThat(segmentFileNames()).isEmpty()
+    }
+
+    @Test
+    fun `appending after emptying the log continues after the consumed segments`() {
+        appendRecords(2)
+        eventLog.removeFirst(2)
+
+        appendRecords(1)
+
+        assertThat(readLines()).containsExactly("event_0")
+        assertThat(segmentFileNames()).containsExactly("1.jsonl")
+    }
+
+    @Test
+    fun `read cursor is persisted across instances`() {
+        appendRecords(3)
+        eventLog.removeFirst(1)
+
+        val newEventLog = SegmentedEventLog(fileHelper, testFilePath, segmentSizeBytes)
+
+        var lines: List<String> = emptyList()
+        newEventLog.readLines { lines = it.toList() }
+        assertThat(lines).containsExactly("event_1", "event_2")
+    }
+
+    @Test
+    fun `segments behind the persisted cursor are deleted when loading`() {
+        appendRecords(3)
+        fileHelper.writeToFile("${eventLog.directoryPath}/cursor", "1 0\n")
+
+        val newEventLog = SegmentedEventLog(fileHelper, testFilePath, segmentSizeBytes)
+
+        var lines: List<String> = emptyList()
+        newEventLog.readLines { lines = it.toList() }
+        assertThat(lines).containsExactly("event_2")
+        assertThat(segmentFileNames()).containsExactly("1.jsonl")
+    }
+
+    @Test
+    fun `unreadable cursor drops the first segment instead of reading its records again`() {
+        appendRecords(5)
+        eventLog.removeFirst(1)
+        fileHelper.writeToFile("${eventLog.directoryPath}/cursor", "garbage\n")
+
+        val newEventLog = SegmentedEventLog(fileHelper, testFilePath, segmentSizeBytes)
+
+        var lines: List<String> = emptyList()
+        newEventLog.readLines { lines = it.toList() }
+        assertThat(lines).containsExactly("event_2", "event_3", "event_4")
+        assertThat(segmentFileNames()).containsExactly("1.jsonl", "2.jsonl")
+    }
+
+    @Test
+    fun `appends do not read the log back from disk`() {
+        val spiedFileHelper = spyk(fileHelper)
+        val newEventLog = SegmentedEventLog(spiedFileHelper, testFilePath, segmentSizeBytes)
+        newEventLog.append("event_0\n")
+        clearMocks(spiedFileHelper, answers = false)
+
+        repeat(4) { newEventLog.append("event_${it + 1}\n") }
+
+        verify(exactly = 0) {
+            spiedFileHelper.listFileNames(any())
+            spiedFileHelper.fileSizeInBytes(any())
+            spiedFileHelper.readFilePerLines(any(), any())
+        }
+        assertThat(newEventLog.sizeInBytes()).isEqualTo(40L)
+        assertThat(segmentFileNames()).containsExactly("0.jsonl", "1.jsonl", "2.jsonl")
+    }
+
+    @Test
+    fun `partially written record at the end of the log is dropped on load`() {
+        appendRecords(1)
+        fileHelper.appendToFile("${eventLog.directoryPath}/0.jsonl", "event_")
+
+        val newEventLog = SegmentedEventLog(fileHelper, testFilePath, segmentSizeBytes)
+        newEventLog.append("event_1\n")
+
+        var lines: List<String> = emptyList()
+        newEventLog.readLines { lines = it.toList() }
+        assertThat(lines).containsExactly("event_0", "event_1")
+    }
+
+    @Test
+    fun `records in the legacy single file are moved into the log`() {
+        fileHelper.appendToFile(testFilePath, "legacy_0\nlegacy_1\n")
+
+        appendRecords(1)
+
+        assertThat(readLines()).containsExactly("legacy_0", "legacy_1", "event_0")
+        assertThat(fileHelper.fileExists(testFilePath)).isFalse
+    }
+
+    @Test
+    fun `delete removes every record and the legacy file`() {
+        appendRecords(3)
+        fileHelper.appendToFile(testFilePath, "legacy_0\n")
+
+        assertThat(eventLog.delete()).isTrue
+
+        assertThat(readLines()).isEmpty()
+        assertThat(fileHelper.fileExists(testFilePath)).isFalse
+        assertThat(File(testFolder, eventLog.directoryPath).exists()).isFalse
+    }
+
+    private fun appendRecords(count: Int) {
+        repeat(count) { eventLog.append("event_$it\n") }
+    }
+
+    private fun readLines(): List<String> {
+        var lines: List<String> = emptyList()
+        eventLog.readLines { lines = it.toList() }
+        return lines
+    }
+
+    private fun segmentFileNames(): List<String> {
+        return fileHelper.listFileNames(eventLog.directoryPath).filter { it.endsWith(".jsonl") }.sorted()
+    }
+}
@@ -0,0 +1,72 @@
+package com.revenuecat.purchases.rules
+
+import com.revenuecat.purchases.rules.RulesEngine.EvaluationException
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.Rule
+import org.junit.Test
+
+class CompiledPredicateCacheTest {
+
+    @get:Rule
+    internal val loggerRule = CapturingLoggerRule()
+
+    private val predicate = """{"==":[{"var":"subscriber.country"},"US"]}"""
+
+    @Test
+    fun `same predicate is compiled once`() {
+        val cache = CompiledPredicateCache(maxSize = 2)
+
+        val compiled = cache.getOrCompile(predicate)
+
+        assertThat(cache.getOrCompile(predicate)).isSameAs(compiled)
+        assertThat(cache.size).isEqualTo(1)
+    }
+
+    @Test
+    fun `compiled predicate is reusable across variable scopes`() {
+        val compiled = CompiledPredicateCache(maxSize = 2).getOrCompile(predicate)
+
+        assertThat(compiled.matches(subscriber("US"))).isTrue
+        assertThat(compiled.matches(subscriber("ES"))).isFalse
+        assertThat(compiled.matches(emptyMap())).isFalse
+        assertThat(loggerRule.warnings).containsExactly("missing variable: subscriber.country")
+    }
+
+    @Test
+    fun `least recently used predicate is evicted when full`() {
+        val cache = CompiledPredicateCache(maxSize = 2)
+        val first = cache.getOrCompile("true")
+        val second = cache.getOrCompile("false")
+
+        cache.getOrCompile("true")
+        cache.getOrCompile(predicate)
+
+        assertThat(cache.size).isEqualTo(2)
+        assertThat(cache.getOrCompile("true")).isSameAs(first)
+        assertThat(cache.getOrCompile("false")).isNotSameAs(second)
+    }
+
+    @Test
+    fun `predicate that fails to parse is not cached`() {
+        val cache = CompiledPredicateCache(maxSize = 2)
+
+        assertThatThrownBy { cache.getOrCompile("{not json") }
+            .isInstanceOf(EvaluationException.Parse::class.java)
+        assertThat(cache.size).isEqualTo(0)
+    }
+
+    @Test
+    fun `unsupported operator only fails when it is evaluated`() {
+        val compiled = CompiledPredicateCache(maxSize = 2).getOrCompile(
+            """{"or":[{"var":"flag"},{"nope":[]}]}""",
+        )
+
+        assertThat(compiled.matches(mapOf("flag" to Value.BoolValue(true)))).isTrue
+        assertThatThrownBy { compiled.matches(mapOf("flag" to Value.BoolValue(false))) }
+            .isInstanceOf(EvaluationException.UnsupportedOperator::class.java)
+    }
+
+    private fun subscriber(country: String): Map<String, Value> =
+        mapOf("subscriber" to Value.ObjectValue(mapOf("country" to Value.StringValue(country))))
+}
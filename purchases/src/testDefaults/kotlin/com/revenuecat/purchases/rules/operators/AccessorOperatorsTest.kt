@@ -29,7 +29,7 @@ class AccessorOperatorsTest {
     @Test
     fun `var empty path returns entire data`() {
         val vars = obj("x" to Value.IntValue(1))
-        val out = AccessorOperators.opVar(s(""), vars)
+        val out = AccessorOperators.opVar(Operators.compileArgs(s("")), vars)
         assertThat(out).isEqualTo(vars)
     }
 
@@ -38,7 +38,7 @@ class AccessorOperatorsTest {
         // json-logic-js treats `undefined`, null, and "" as “return the
         // whole data object”.
         val vars = obj("x" to Value.IntValue(1))
-        val out = AccessorOperators.opVar(Value.Null, vars)
+        val out = AccessorOperators.opVar(Operators.compileArgs(Value.Null), vars)
         assertThat(out).isEqualTo(vars)
     }
 
@@ -46,7 +46,7 @@ class AccessorOperatorsTest {
     fun `var with numeric path arg is coerced to string`() {
         // {"var": 0} on array data
         val vars = Value.ArrayValue(listOf(s("zero"), s("one")))
-        val out = AccessorOperators.opVar(Value.IntValue(0), vars)
+        val out = AccessorOperators.opVar(Operators.compileArgs(Value.IntValue(0)), vars)
         assertThat(out).isEqualTo(s("zero"))
     }
 
@@ -55,7 +55,7 @@ class AccessorOperatorsTest {
         // {"var": 1.0} on array data must render as "1" (not "1.0") so the
         // path resolves to array index 1 — same lookup as `{"var": 1}`.
         val vars = Value.ArrayValue(listOf(s("zero"), s("one"), s("two")))
-        val out = AccessorOperators.opVar(Value.FloatValue(1.0), vars)
+        val out = AccessorOperators.opVar(Operators.compileArgs(Value.FloatValue(1.0)), vars)
         assertThat(out).isEqualTo(s("one"))
         assertThat(warnings).isEmpty()
     }
@@ -67,7 +67,7 @@ class AccessorOperatorsTest {
         // misses and warns. Guards against an over-eager rounding fix to
         // `formatNumber`.
         val vars = Value.ArrayValue(listOf(s("zero"), s("one"), s("two")))
-        val out = AccessorOperators.opVar(Value.FloatValue(1.5), vars)
+        val out = AccessorOperators.opVar(Operators.compileArgs(Value.FloatValue(1.5)), vars)
         assertThat(out).isEqualTo(Value.Null)
         assertThat(warnings).hasSize(1)
         assertThat(warnings[0]).contains("1.5")
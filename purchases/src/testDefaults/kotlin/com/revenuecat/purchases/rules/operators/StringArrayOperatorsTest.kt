@@ -18,7 +18,7 @@ class StringArrayOperatorsTest {
     fun `merge does not recurse on nested arrays`() {
         // Only one level of flattening — inner arrays remain.
         val out = StringArrayOperators.opMerge(
-            arr(arr(arr(Value.IntValue(1)), Value.IntValue(2))),
+            Operators.compileArgs(arr(arr(arr(Value.IntValue(1)), Value.IntValue(2)))),
             Value.Null,
         )
         assertThat(out).isEqualTo(arr(arr(Value.IntValue(1)), Value.IntValue(2)))
@@ -72,6 +72,7 @@ include(":examples:vanilla-ad-tracker-sample")
 include(":detekt-rules")
 include(":dokka-hide-internal")
 include(":baselineprofile")
+include(":jvm-benchmarks")
 include(":test-apps:e2etests")
 include(":examples:rcttester")
 include(":examples:checkpointtester")
@@ -0,0 +1,42 @@
+package com.revenuecat.purchases.ui.revenuecatui
+
+import android.content.Context
+import android.content.res.Configuration
+import com.revenuecat.purchases.Offerings
+import com.revenuecat.purchases.Purchases
+import com.revenuecat.purchases.ui.revenuecatui.helpers.ComponentsPaywallCache
+import com.revenuecat.purchases.ui.revenuecatui.helpers.paywallLocaleList
+import com.revenuecat.purchases.ui.revenuecatui.helpers.toResourceProvider
+
+/**
+ * Builds the paywalls of [offerings] in the background, so presenting any of them afterwards displays it right away
+ * instead of building it first.
+ *
+ * Paywalls are built for the current locale and dark mode setting of [context], and are built again when presented
+ * with a different one.
+ *
+ * Only offerings whose paywall components are part of [offerings] are built, which is not the case when paywalls are
+ * served through workflows: offerings are then fetched without their paywall components, so this does nothing for
+ * them. Workflow paywalls are built when presented, after the SDK pre-downloads their images and fonts. Legacy
+ * paywalls aren't built ahead of time either.
+ *
+ * Example:
+ * ```kotlin
+ * Purchases.sharedInstance.getOfferingsWith { offerings ->
+ *     Purchases.sharedInstance.prebuildPaywalls(context, offerings)
+ * }
+ * ```
+ *
+ * @param context A [Context] to build the paywalls with.
+ * @param offerings The [Offerings] whose paywalls to build, as returned by [Purchases.getOfferings].
+ */
+@ExperimentalPreviewRevenueCatUIPurchasesAPI
+public fun Purchases.prebuildPaywalls(context: Context, offerings: Offerings) {
+    val uiMode = context.resources.configuration.uiMode and Configuration.UI_MODE_NIGHT_MASK
+    ComponentsPaywallCache.shared.prebuild(
+        offerings = offerings.all.values,
+        resourceProvider = context.applicationContext.toResourceProvider(),
+        localeIdentifier = paywallLocaleList(preferredUILocaleOverride).toLanguageTags(),
+        darkMode = uiMode == Configuration.UI_MODE_NIGHT_YES,
+    )
+}
@@ -153,9 +153,8 @@ private fun rememberProcessedText(
             }
 
             VariableProcessorV2.processVariables(
-                template = textState.text,
+                template = state.variableTemplates[textState.text],
                 localizedVariableKeys = textState.localizedVariableKeys,
-                variableConfig = state.variableConfig,
                 variableDataProvider = state.variableDataProvider,
                 packageContext = variableContext,
                 rcPackage = packageToUse,
@@ -10,6 +10,7 @@ import androidx.compose.foundation.layout.padding
 import androidx.compose.material3.MaterialTheme
 import androidx.compose.material3.Text
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.remember
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.draw.drawBehind
@@ -58,6 +59,23 @@ private val parser = Parser.builder()
     .extensions(listOf(StrikethroughExtension.create()))
     .build()
 
+private val markdownCache = MarkdownCache(parser)
+
+/**
+ * Identifies an [AnnotatedString] built from the children of a node, so it can be served from [markdownCache].
+ *
+ * @param content The node, compared by identity, or the text of its only child when that's a [Text]. Documents of
+ * plain strings aren't cached, so their nodes are new instances every time they're composed.
+ */
+private data class AnnotatedStringKey(
+    val content: Any,
+    val spanStyle: SpanStyle?,
+    val prefix: String,
+    val color: Color,
+    val allowLinks: Boolean,
+    val baseFontWeight: FontWeight?,
+)
+
 /**
  * @param allowLinks If true, links will be decorated and clickable.
  * @param textFillMaxWidth If true, the text will fill the maximum width available. This was used by paywalls V1 and
@@ -83,7 +101,7 @@ internal fun Markdown(
     textFillMaxWidth: Boolean = false,
     applyFontSizeToParagraph: Boolean = true,
 ) {
-    val root = parser.parse(text) as Document
+    val root = remember(text) { markdownCache.document(text) }
 
     val density = LocalDensity.current
     val paragraphPadding = with(density) {
@@ -184,9 +202,7 @@ private fun MDHeading(
 
     val padding = if (heading.parent is Document) 8.dp else 0.dp
     Box(modifier = modifier.padding(bottom = padding)) {
-        val text = buildAnnotatedString {
-            appendMarkdownChildren(heading, color, allowLinks, baseFontWeight = fontWeight)
-        }
+        val text = markdownAnnotatedString(heading, spanStyle = null, color, allowLinks, baseFontWeight = fontWeight)
         val resolvedTextStyle = resolveMarkdownTextStyle(
             style = overriddenStyle,
             overrides = TextStyle(
@@ -230,11 +246,13 @@ private fun MDParagraph(
                 textAlign = textAlign ?: TextAlign.Unspecified,
             ),
         )
-        val styledText = buildAnnotatedString {
-            pushStyle(resolvedTextStyle.toSpanStyle())
-            appendMarkdownChildren(paragraph as Node, color, allowLinks, baseFontWeight = fontWeight)
-            pop()
-        }
+        val styledText = markdownAnnotatedString(
+            paragraph,
+            resolvedTextStyle.toSpanStyle(),
+            color,
+            allowLinks,
+            baseFontWeight = fontWeight,
+        )
         MarkdownText(
             text = styledText,
             style = resolvedTextStyle,
@@ -278,12 +296,14 @@ private fun MDBulletList(
         allowLinks = allowLinks,
         textFillMaxWidth = textFillMaxWidth,
     ) {
-        val text = buildAnnotatedString {
-            pushStyle(resolvedTextStyle.toSpanStyle())
-            append("$marker ")
-            appendMarkdownChildren(it, color, allowLinks, baseFontWeight = fontWeight)
-            pop()
-        }
+        val text = markdownAnnotatedString(
+            it,
+            resolvedTextStyle.toSpanStyle(),
+            color,
+            allowLinks,
+            baseFontWeight = fontWeight,
+            prefix = "$marker ",
+        )
         MarkdownText(
             text = text,
             style = resolvedTextStyle,
@@ -328,12 +348,14 @@ private fun MDOrderedList(
         allowLinks = allowLinks,
         textFillMaxWidth = textFillMaxWidth,
     ) {
-        val text = buildAnnotatedString {
-            pushStyle(resolvedTextStyle.toSpanStyle())
-            append("${number++}$delimiter ")
-            appendMarkdownChildren(it, color, allowLinks, baseFontWeight = fontWeight)
-            pop()
-        }
+        val text = markdownAnnotatedString(
+            it,
+            resolvedTextStyle.toSpanStyle(),
+            color,
+            allowLinks,
+            baseFontWeight = fontWeight,
+            prefix = "${number++}$delimiter ",
+        )
         MarkdownText(
             text = text,
             style = resolvedTextStyle,
@@ -418,14 +440,14 @@ private fun MDBlockQuote(
             }
             .padding(start = 16.dp, top = 4.dp, bottom = 4.dp),
     ) {
-        val text = buildAnnotatedString {
-            pushStyle(
-                MaterialTheme.typography.bodyLarge.toSpanStyle()
-                    .plus(SpanStyle(fontStyle = FontStyle.Italic)),
-            )
-            appendMarkdownChildren(blockQuote, color, allowLinks, baseFontWeight)
-            pop()
-        }
+        val text = markdownAnnotatedString(
+            blockQuote,
+            MaterialTheme.typography.bodyLarge.toSpanStyle()
+                .plus(SpanStyle(fontStyle = FontStyle.Italic)),
+            color,
+            allowLinks,
+            baseFontWeight,
+        )
         Text(text, modifier)
     }
 }
@@ -512,6 +534,31 @@ private fun MDBlockChildren(
     }
 }
 
+/**
+ * The children of [node] as an [AnnotatedString] styled with [spanStyle] and starting with [prefix], served from
+ * [markdownCache] when it was built before.
+ */
+@Suppress("LongParameterList")
+private fun markdownAnnotatedString(
+    node: Node,
+    spanStyle: SpanStyle?,
+    color: Color,
+    allowLinks: Boolean,
+    baseFontWeight: FontWeight?,
+    prefix: String = "",
+): AnnotatedString {
+    val content = (node.firstChild as? Text)?.takeIf { it.next == null }?.literal ?: node
+    val key = AnnotatedStringKey(content, spanStyle, prefix, color, allowLinks, baseFontWeight)
+    return markdownCache.annotatedString(key) {
+        buildAnnotatedString {
+            spanStyle?.let { pushStyle(it) }
+            append(prefix)
+            appendMarkdownChildren(node, color, allowLinks, baseFontWeight)
+            if (spanStyle != null) pop()
+        }
+    }
+}
+
 private fun AnnotatedString.Builder.appendMarkdownChildren(
     parent: Node,
     color: Color,
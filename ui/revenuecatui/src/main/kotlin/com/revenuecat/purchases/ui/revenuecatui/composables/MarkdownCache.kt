@@ -0,0 +1,89 @@
+package com.revenuecat.purchases.ui.revenuecatui.composables
+
+import androidx.compose.ui.text.AnnotatedString
+import org.commonmark.node.Document
+import org.commonmark.node.Paragraph
+import org.commonmark.node.Text
+import org.commonmark.parser.Parser
+
+/**
+ * Bounded caches of what [Markdown] renders, so recomposing text (on package selection, countdown ticks, locale or
+ * color changes) doesn't parse its Markdown and build its [AnnotatedString]s again.
+ *
+ * Parsed [Document]s are cached by text. Strings without any Markdown syntax skip commonmark entirely: they become a
+ * single paragraph, which is what commonmark would parse them into, and are not cached since building one costs less
+ * than a lookup. [Markdown] remembers the document of its text across recompositions either way.
+ *
+ * Built [AnnotatedString]s are cached by a key made of the node they were built from and their style inputs; nodes of
+ * a cached [Document] stay the same instances, so their keys keep matching as long as their document is cached. Nodes
+ * only holding plain text, like the paragraph of a plain string, are keyed by that text instead. Both caches evict
+ * their least recently used entries.
+ *
+ * Cached documents are shared, so they must only be read.
+ */
+internal class MarkdownCache(
+    private val parser: Parser,
+    maxDocuments: Int = DEFAULT_MAX_DOCUMENTS,
+    maxAnnotatedStrings: Int = DEFAULT_MAX_ANNOTATED_STRINGS,
+) {
+
+    private val documents = lruMap<String, Document>(maxDocuments)
+    private val annotatedStrings = lruMap<Any, AnnotatedString>(maxAnnotatedStrings)
+
+    fun document(text: String): Document {
+        if (!hasMarkdownSyntax(text)) return plainDocument(text)
+        synchronized(documents) { documents[text] }?.let { return it }
+        val document = parser.parse(text) as Document
+        synchronized(documents) { documents[text] = document }
+        return document
+    }
+
+    fun annotatedString(key: Any, build: () -> AnnotatedString): AnnotatedString {
+        synchronized(annotatedStrings) { annotatedStrings[key] }?.let { return it }
+        val annotatedString = build()
+        synchronized(annotatedStrings) { annotatedStrings[key] = annotatedString }
+        return annotatedString
+    }
+
+    private fun plainDocument(text: String): Document {
+        return Document().apply {
+            appendChild(Paragraph().apply { appendChild(Text(text)) })
+        }
+    }
+
+    internal companion object {
+        private const val DEFAULT_MAX_DOCUMENTS = 256
+        private const val DEFAULT_MAX_ANNOTATED_STRINGS = 512
+        private const val LOAD_FACTOR = 0.75f
+
+        /**
+         * Characters that can start Markdown syntax anywhere in a line: emphasis, strikethrough, code spans, links,
+         * images, autolinks, HTML, entities and escapes.
+         */
+        private const val INLINE_SYNTAX_CHARACTERS = "*_~`[]<>&\\"
+
+        /**
+         * Characters that can start Markdown syntax at the beginning of a line: headings, block quotes, lists and
+         * thematic breaks. Ordered lists start with a digit.
+         */
+        private const val LINE_START_SYNTAX_CHARACTERS = "#>-+="
+
+        /**
+         * Whether commonmark could parse [text] into anything but a single paragraph holding [text] as is. Errs on the
+         * side of `true`: blank text, multiple lines, tabs and surrounding spaces are left to commonmark too.
+         */
+        fun hasMarkdownSyntax(text: String): Boolean {
+            if (text.isBlank() || text.first() == ' ' || text.last() == ' ') return true
+            val first = text.first()
+            return first.isDigit() ||
+                first in LINE_START_SYNTAX_CHARACTERS ||
+                text.any { it == '\n' || it == '\r' || it == '\t' || it in INLINE_SYNTAX_CHARACTERS }
+        }
+
+        private fun <K, V> lruMap(maxSize: Int): LinkedHashMap<K, V> {
+            return object : LinkedHashMap<K, V>(maxSize, LOAD_FACTOR, true) {
+                override fun removeEldestEntry(eldest: MutableMap.MutableEntry<K, V>?): Boolean = size > maxSize
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.revenuecat.purchases.ui.revenuecatui.composables.SimpleSheetState
 import com.revenuecat.purchases.ui.revenuecatui.data.processed.ProcessedLocalizedConfiguration
 import com.revenuecat.purchases.ui.revenuecatui.data.processed.TemplateConfiguration
 import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableDataProvider
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableTemplates
 import com.revenuecat.purchases.ui.revenuecatui.extensions.calculateOfferEligibility
 import com.revenuecat.purchases.ui.revenuecatui.helpers.Logger
 import com.revenuecat.purchases.ui.revenuecatui.helpers.NonEmptySet
@@ -100,6 +101,10 @@ internal sealed interface PaywallState {
             val showPricesWithDecimals: Boolean,
             val variableConfig: VariableConfig,
             val variableDataProvider: VariableDataProvider,
+            /**
+             * The compiled templates of this paywall's localized strings.
+             */
+            val variableTemplates: VariableTemplates = VariableTemplates(variableConfig),
             override val offering: Offering,
             /**
              * All locales that this paywall supports, with `locales.head` being the default one.
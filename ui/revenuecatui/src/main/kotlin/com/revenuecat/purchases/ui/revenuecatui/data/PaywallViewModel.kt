@@ -53,12 +53,13 @@ import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableDataProvi
 import com.revenuecat.purchases.ui.revenuecatui.emptyUiConfig
 import com.revenuecat.purchases.ui.revenuecatui.errors.PaywallValidationError
 import com.revenuecat.purchases.ui.revenuecatui.extensions.calculateOfferEligibility
+import com.revenuecat.purchases.ui.revenuecatui.helpers.ComponentsPaywallCache
 import com.revenuecat.purchases.ui.revenuecatui.helpers.Logger
 import com.revenuecat.purchases.ui.revenuecatui.helpers.PaywallValidationResult
 import com.revenuecat.purchases.ui.revenuecatui.helpers.ResolvedOffer
 import com.revenuecat.purchases.ui.revenuecatui.helpers.ResourceProvider
-import com.revenuecat.purchases.ui.revenuecatui.helpers.createLocaleFromString
 import com.revenuecat.purchases.ui.revenuecatui.helpers.fallbackPaywall
+import com.revenuecat.purchases.ui.revenuecatui.helpers.paywallLocaleList
 import com.revenuecat.purchases.ui.revenuecatui.helpers.paywallProductIdentifier
 import com.revenuecat.purchases.ui.revenuecatui.helpers.resolveWebCheckoutUrlForInteraction
 import com.revenuecat.purchases.ui.revenuecatui.helpers.safeResume
@@ -168,6 +169,9 @@ internal class PaywallViewModelImpl(
     preview: Boolean = false,
     private val productChangeCalculator: ProductChangeCalculator = ProductChangeCalculator(purchases),
     private val backgroundDispatcher: CoroutineDispatcher = Dispatchers.Default,
+    // Builds the paywall state on this dispatcher when set, instead of on the main thread.
+    private val stateConstructionDispatcher: CoroutineDispatcher? = null,
+    private val paywallCache: ComponentsPaywallCache? = null,
 ) : ViewModel(), PaywallViewModel {
     private val variableDataProvider = VariableDataProvider(resourceProvider, preview)
 
@@ -315,7 +319,7 @@ internal class PaywallViewModelImpl(
 
     override fun refreshStateIfColorsChanged(colorScheme: ColorScheme, isDark: Boolean) {
         if (isDarkMode != isDark) {
-            // This is only used for events so no need to update the state here currently.
+            // This is only used for events and the paywall cache key so no need to update the state here currently.
             isDarkMode = isDark
         }
         if (_colorScheme.value != colorScheme) {
@@ -1026,7 +1030,7 @@ internal class PaywallViewModelImpl(
             }
         }
 
-    private fun updatePaywallState(currentOffering: Offering?) {
+    private suspend fun updatePaywallState(currentOffering: Offering?) {
         if (currentOffering == null) {
             _state.value = PaywallState.Error(
                 "You do not have a current offering configured in the RevenueCat dashboard.",
@@ -1034,13 +1038,23 @@ internal class PaywallViewModelImpl(
         } else {
             val stateStore = standaloneStateStore
                 ?: PaywallStateStore(emptyMap()).also { standaloneStateStore = it }
-            _state.value = calculateState(
-                currentOffering,
-                _colorScheme.value,
-                purchases.storefrontCountryCode,
-                options.mode,
-                stateStore = stateStore,
-            )
+            val colorScheme = _colorScheme.value
+            val storefrontCountryCode = purchases.storefrontCountryCode
+            val mode = options.mode
+            val calculate = {
+                calculateState(
+                    currentOffering,
+                    colorScheme,
+                    storefrontCountryCode,
+                    mode,
+                    stateStore = stateStore,
+                    paywallCache = paywallCache,
+                )
+            }
+            // A cached paywall goes straight to the loaded state. Building one is moved off the main thread.
+            val isCached = paywallCache?.get(currentOffering, localeIdentifier, isDarkMode) != null
+            val dispatcher = stateConstructionDispatcher?.takeUnless { isCached }
+            _state.value = if (dispatcher != null) withContext(dispatcher) { calculate() } else calculate()
         }
     }
 
@@ -1518,17 +1532,11 @@ internal class PaywallViewModelImpl(
         return screenType.contains(WorkflowScreenType.PAYWALL)
     }
 
-    private fun getCurrentLocaleList(): LocaleListCompat {
-        val preferredLocale = purchases.preferredUILocaleOverride ?: return LocaleListCompat.getDefault()
+    private val localeIdentifier: String
+        get() = _lastLocaleList.value.toLanguageTags()
 
-        return try {
-            val locale = createLocaleFromString(preferredLocale)
-            val localeList = LocaleListCompat.create(locale)
-            localeList
-        } catch (e: IllegalArgumentException) {
-            Logger.e("Invalid preferred locale format: $preferredLocale. Using system default.", e)
-            LocaleListCompat.getDefault()
-        }
+    private fun getCurrentLocaleList(): LocaleListCompat {
+        return paywallLocaleList(purchases.preferredUILocaleOverride)
     }
 
     @Suppress("SpreadOperator")
@@ -1543,12 +1551,26 @@ internal class PaywallViewModelImpl(
         storefrontCountryCode: String?,
         mode: PaywallMode,
         stateStore: PaywallStateStore? = null,
+        paywallCache: ComponentsPaywallCache? = null,
     ): PaywallState {
         if (offering.availablePackages.isEmpty()) {
             return PaywallState.Error("No packages available")
         }
 
-        var validationResult = offering.validatedPaywall(colorScheme, resourceProvider)
+        var validationResult = paywallCache
+            ?.getOrBuild(offering, localeIdentifier, isDarkMode) {
+                offering.validatedPaywall(colorScheme, resourceProvider)
+            }
+            ?.let { cachedResult ->
+                // Cached paywalls may have been built with another resource provider, like the application context one
+                // prebuilt paywalls use, so variables are resolved with this paywall's own.
+                if (cachedResult is PaywallValidationResult.Components) {
+                    cachedResult.copy(variableDataProvider = variableDataProvider)
+                } else {
+                    cachedResult
+                }
+            }
+            ?: offering.validatedPaywall(colorScheme, resourceProvider)
         if (validationResult is PaywallValidationResult.Components && !mode.isFullScreen) {
             validationResult = offering.fallbackPaywall(
                 colorScheme,
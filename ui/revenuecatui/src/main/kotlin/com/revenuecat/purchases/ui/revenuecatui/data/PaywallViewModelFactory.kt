@@ -5,7 +5,9 @@ import androidx.lifecycle.ViewModel
 import androidx.lifecycle.ViewModelProvider
 import com.revenuecat.purchases.CustomerInfo
 import com.revenuecat.purchases.ui.revenuecatui.PaywallOptions
+import com.revenuecat.purchases.ui.revenuecatui.helpers.ComponentsPaywallCache
 import com.revenuecat.purchases.ui.revenuecatui.helpers.ResourceProvider
+import kotlinx.coroutines.Dispatchers
 
 internal class PaywallViewModelFactory(
     private val resourceProvider: ResourceProvider,
@@ -24,6 +26,9 @@ internal class PaywallViewModelFactory(
             isDarkMode = isDarkMode,
             preview = preview,
             shouldDisplayBlock = shouldDisplayBlock,
+            // Previews render their first frame, so they build the paywall state right away.
+            stateConstructionDispatcher = Dispatchers.Default.takeUnless { preview },
+            paywallCache = ComponentsPaywallCache.shared.takeUnless { preview },
         ) as T
     }
 }
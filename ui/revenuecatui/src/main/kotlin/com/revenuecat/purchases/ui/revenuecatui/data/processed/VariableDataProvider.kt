@@ -28,6 +28,22 @@ internal class VariableDataProvider(
     private val resourceProvider: ResourceProvider,
     private val preview: Boolean = false,
 ) {
+
+    private enum class PriceUnit { TOTAL, DAY, WEEK, MONTH, YEAR }
+
+    private data class FormattedPriceKey(
+        val unit: PriceUnit,
+        val productId: String,
+        val price: Price,
+        val locale: Locale,
+        val showZeroDecimalPlacePrices: Boolean,
+    )
+
+    /**
+     * Formatted prices per product, as paywall texts format the same prices every time they're processed.
+     */
+    private val formattedPrices = mutableMapOf<FormattedPriceKey, String?>()
+
     val applicationName: String
         get() = if (!preview) {
             resourceProvider.getApplicationName()
@@ -39,17 +55,17 @@ internal class VariableDataProvider(
         rcPackage: Package,
         locale: Locale,
         showZeroDecimalPlacePrices: Boolean,
-    ): String {
-        return rcPackage.product.price.localized(locale, showZeroDecimalPlacePrices)
+    ): String = formattedPrice(PriceUnit.TOTAL, rcPackage, locale, showZeroDecimalPlacePrices) {
+        rcPackage.product.price.localized(locale, showZeroDecimalPlacePrices)
     }
 
     fun localizedPricePerDay(
         rcPackage: Package,
         locale: Locale,
         showZeroDecimalPlacePrices: Boolean,
-    ): String? {
-        val pricePerDay = rcPackage.product.pricePerDay(locale) ?: return null
-        return if (showZeroDecimalPlacePrices && pricePerDay.endsIn00Cents()) {
+    ): String? = formattedPrice(PriceUnit.DAY, rcPackage, locale, showZeroDecimalPlacePrices) {
+        val pricePerDay = rcPackage.product.pricePerDay(locale) ?: return@formattedPrice null
+        if (showZeroDecimalPlacePrices && pricePerDay.endsIn00Cents()) {
             pricePerDay.getTruncatedFormatted(locale)
         } else {
             pricePerDay.getFormatted(locale)
@@ -60,10 +76,9 @@ internal class VariableDataProvider(
         rcPackage: Package,
         locale: Locale,
         showZeroDecimalPlacePrices: Boolean,
-    ): String? {
-        val pricePerWeek = rcPackage.product.pricePerWeek(locale) ?: return null
-
-        return if (showZeroDecimalPlacePrices && pricePerWeek.endsIn00Cents()) {
+    ): String? = formattedPrice(PriceUnit.WEEK, rcPackage, locale, showZeroDecimalPlacePrices) {
+        val pricePerWeek = rcPackage.product.pricePerWeek(locale) ?: return@formattedPrice null
+        if (showZeroDecimalPlacePrices && pricePerWeek.endsIn00Cents()) {
             pricePerWeek.getTruncatedFormatted(locale)
         } else {
             pricePerWeek.getFormatted(locale)
@@ -74,9 +89,9 @@ internal class VariableDataProvider(
         rcPackage: Package,
         locale: Locale,
         showZeroDecimalPlacePrices: Boolean,
-    ): String? {
-        val pricePerMonth = rcPackage.product.pricePerMonth(locale) ?: return null
-        return if (showZeroDecimalPlacePrices && pricePerMonth.endsIn00Cents()) {
+    ): String? = formattedPrice(PriceUnit.MONTH, rcPackage, locale, showZeroDecimalPlacePrices) {
+        val pricePerMonth = rcPackage.product.pricePerMonth(locale) ?: return@formattedPrice null
+        if (showZeroDecimalPlacePrices && pricePerMonth.endsIn00Cents()) {
             pricePerMonth.getTruncatedFormatted(locale)
         } else {
             pricePerMonth.getFormatted(locale)
@@ -87,9 +102,9 @@ internal class VariableDataProvider(
         rcPackage: Package,
         locale: Locale,
         showZeroDecimalPlacePrices: Boolean,
-    ): String? {
-        val pricePerYear = rcPackage.product.pricePerYear(locale) ?: return null
-        return if (showZeroDecimalPlacePrices && pricePerYear.endsIn00Cents()) {
+    ): String? = formattedPrice(PriceUnit.YEAR, rcPackage, locale, showZeroDecimalPlacePrices) {
+        val pricePerYear = rcPackage.product.pricePerYear(locale) ?: return@formattedPrice null
+        if (showZeroDecimalPlacePrices && pricePerYear.endsIn00Cents()) {
             pricePerYear.getTruncatedFormatted(locale)
         } else {
             pricePerYear.getFormatted(locale)
@@ -234,6 +249,30 @@ internal class VariableDataProvider(
         return resourceProvider.localizedDiscount(discountRelativeToMostExpensivePerMonth)
     }
 
+    @Suppress("UNCHECKED_CAST")
+    private inline fun <T : String?> formattedPrice(
+        unit: PriceUnit,
+        rcPackage: Package,
+        locale: Locale,
+        showZeroDecimalPlacePrices: Boolean,
+        format: () -> T,
+    ): T {
+        val key = FormattedPriceKey(
+            unit = unit,
+            productId = rcPackage.product.id,
+            price = rcPackage.product.price,
+            locale = locale,
+            showZeroDecimalPlacePrices = showZeroDecimalPlacePrices,
+        )
+        return synchronized(formattedPrices) {
+            if (formattedPrices.containsKey(key)) {
+                formattedPrices[key] as T
+            } else {
+                format().also { formattedPrices[key] = it }
+            }
+        }
+    }
+
     private fun getFirstIntroOfferToApply(rcPackage: Package): PricingPhase? {
         val option = rcPackage.product.defaultOption
         return option?.freePhase ?: option?.introPhase
@@ -103,6 +103,58 @@ internal object VariableProcessorV2 {
      */
     private val customVariablePrefixes = listOf("custom.", "\$custom.")
 
+    /**
+     * A template compiled by [compile]: its literal text split from its variables, with every variable and function
+     * already resolved, so processing it only concatenates its literal text with the values of its variables.
+     */
+    internal data class CompiledTemplate(val segments: List<Segment>) {
+
+        internal sealed interface Segment {
+            data class Literal(val text: String) : Segment
+
+            data class VariableReference(
+                val identifier: String,
+                val variable: Variable,
+                val functions: List<Function>,
+            ) : Segment
+
+            data class CustomVariableReference(val key: String, val functions: List<Function>) : Segment
+        }
+    }
+
+    /**
+     * Splits [template] into literal text and variables, resolving every variable and function once. Unsupported
+     * variables are logged here, and left out of the compiled template.
+     */
+    fun compile(template: String, variableConfig: UiConfig.VariableConfig): CompiledTemplate {
+        val segments = mutableListOf<CompiledTemplate.Segment>()
+        var lastIndex = 0
+
+        regex.findAll(template).forEach { match ->
+            // Add everything between the previous match and this match.
+            if (match.range.first > lastIndex) {
+                segments.add(CompiledTemplate.Segment.Literal(template.substring(lastIndex, match.range.first)))
+            }
+
+            val (variableString) = match.destructured
+            val parts = variableString.split("|").map { it.trim() }
+
+            compileVariable(
+                variableIdentifier = parts[0],
+                functionIdentifiers = parts.drop(1),
+                variableConfig = variableConfig,
+            )?.let { segments.add(it) }
+
+            lastIndex = match.range.last + 1
+        }
+
+        // Add the remainder of the template.
+        if (lastIndex < template.length) {
+            segments.add(CompiledTemplate.Segment.Literal(template.substring(lastIndex)))
+        }
+        return CompiledTemplate(segments)
+    }
+
     @Suppress("LongParameterList")
     fun processVariables(
         template: String,
@@ -119,58 +171,96 @@ internal object VariableProcessorV2 {
         countFrom: CountdownComponent.CountFrom = CountdownComponent.CountFrom.DAYS,
         customVariables: Map<String, CustomVariableValue> = emptyMap(),
         defaultCustomVariables: Map<String, CustomVariableValue> = emptyMap(),
-    ): String = template.replaceVariablesWithValues { variable, functions ->
-        getVariableValue(
-            variableIdentifier = variable,
-            functionIdentifiers = functions,
-            localizedVariableKeys = localizedVariableKeys,
-            variableConfig = variableConfig,
-            variableDataProvider = variableDataProvider,
-            packageContext = packageContext,
-            rcPackage = rcPackage,
-            subscriptionOption = subscriptionOption,
-            currencyLocale = currencyLocale,
-            dateLocale = dateLocale,
-            date = date,
-            countdownTime = countdownTime,
-            countFrom = countFrom,
-            customVariables = customVariables,
-            defaultCustomVariables = defaultCustomVariables,
-        )
-    }
-
-    private fun String.replaceVariablesWithValues(
-        getValue: (variable: String, functions: List<String>) -> String,
-    ): String = buildString {
-        val template = this@replaceVariablesWithValues
-        var lastIndex = 0
-
-        regex.findAll(template).forEach { match ->
-            // Append everything between the previous match and this match.
-            append(template, lastIndex, match.range.first)
-
-            val (variableString) = match.destructured
-            val parts = variableString.split("|").map { it.trim() }
+    ): String = processVariables(
+        template = compile(template, variableConfig),
+        localizedVariableKeys = localizedVariableKeys,
+        variableDataProvider = variableDataProvider,
+        packageContext = packageContext,
+        rcPackage = rcPackage,
+        subscriptionOption = subscriptionOption,
+        currencyLocale = currencyLocale,
+        dateLocale = dateLocale,
+        date = date,
+        countdownTime = countdownTime,
+        countFrom = countFrom,
+        customVariables = customVariables,
+        defaultCustomVariables = defaultCustomVariables,
+    )
 
-            val variable = parts[0]
-            val functions = if (parts.size > 1) parts.drop(1) else emptyList()
+    @Suppress("LongParameterList")
+    fun processVariables(
+        template: CompiledTemplate,
+        localizedVariableKeys: Map<VariableLocalizationKey, String> = emptyMap(),
+        variableDataProvider: VariableDataProvider? = null,
+        packageContext: PackageContext? = null,
+        rcPackage: Package? = null,
+        subscriptionOption: SubscriptionOption? = null,
+        currencyLocale: Locale = Locale.getDefault(),
+        dateLocale: Locale,
+        date: Date = Date(),
+        countdownTime: CountdownTime? = null,
+        countFrom: CountdownComponent.CountFrom = CountdownComponent.CountFrom.DAYS,
+        customVariables: Map<String, CustomVariableValue> = emptyMap(),
+        defaultCustomVariables: Map<String, CustomVariableValue> = emptyMap(),
+    ): String {
+        // Most texts don't have any variables.
+        (template.segments.singleOrNull() as? CompiledTemplate.Segment.Literal)?.let { return it.text }
+
+        return buildString {
+            template.segments.forEach { segment ->
+                when (segment) {
+                    is CompiledTemplate.Segment.Literal -> append(segment.text)
+                    is CompiledTemplate.Segment.CustomVariableReference -> append(
+                        resolveCustomVariable(
+                            key = segment.key,
+                            customVariables = customVariables,
+                            defaultCustomVariables = defaultCustomVariables,
+                            functions = segment.functions,
+                            currencyLocale = currencyLocale,
+                        ),
+                    )
+                    is CompiledTemplate.Segment.VariableReference -> append(
+                        getVariableValue(
+                            reference = segment,
+                            localizedVariableKeys = localizedVariableKeys,
+                            variableDataProvider = variableDataProvider,
+                            packageContext = packageContext,
+                            rcPackage = rcPackage,
+                            subscriptionOption = subscriptionOption,
+                            currencyLocale = currencyLocale,
+                            dateLocale = dateLocale,
+                            date = date,
+                            countdownTime = countdownTime,
+                            countFrom = countFrom,
+                        ),
+                    )
+                }
+            }
+        }
+    }
 
-            // Append the value of this variable.
-            append(getValue(variable, functions))
+    private fun compileVariable(
+        variableIdentifier: String,
+        functionIdentifiers: List<String>,
+        variableConfig: UiConfig.VariableConfig,
+    ): CompiledTemplate.Segment? {
+        val functions = functionIdentifiers.mapNotNull { findFunction(it, variableConfig.functionCompatibilityMap) }
 
-            lastIndex = match.range.last + 1
+        // Check if this is a custom variable
+        val customVariableKey = extractCustomVariableKey(variableIdentifier)
+        if (customVariableKey != null) {
+            return CompiledTemplate.Segment.CustomVariableReference(customVariableKey, functions)
         }
 
-        // Append the remainder of the template.
-        append(template, lastIndex, template.length)
+        return findVariable(variableIdentifier, variableConfig.variableCompatibilityMap)?.let { variable ->
+            CompiledTemplate.Segment.VariableReference(variableIdentifier, variable, functions)
+        }
     }
 
     @Suppress("LongParameterList")
     private fun getVariableValue(
-        variableIdentifier: String,
-        functionIdentifiers: List<String>,
+        reference: CompiledTemplate.Segment.VariableReference,
         localizedVariableKeys: Map<VariableLocalizationKey, String>,
-        variableConfig: UiConfig.VariableConfig,
         variableDataProvider: VariableDataProvider?,
         packageContext: PackageContext?,
         rcPackage: Package?,
@@ -180,52 +270,31 @@ internal object VariableProcessorV2 {
         date: Date,
         countdownTime: CountdownTime?,
         countFrom: CountdownComponent.CountFrom,
-        customVariables: Map<String, CustomVariableValue>,
-        defaultCustomVariables: Map<String, CustomVariableValue>,
     ): String {
-        val functions = functionIdentifiers.mapNotNull { findFunction(it, variableConfig.functionCompatibilityMap) }
-
-        // Check if this is a custom variable
-        val customVariableKey = extractCustomVariableKey(variableIdentifier)
-        if (customVariableKey != null) {
-            return resolveCustomVariable(
-                key = customVariableKey,
-                customVariables = customVariables,
-                defaultCustomVariables = defaultCustomVariables,
-                functions = functions,
-                currencyLocale = currencyLocale,
-            )
+        val result = reference.variable.getValue(
+            localizedVariableKeys = localizedVariableKeys,
+            variableDataProvider = variableDataProvider,
+            packageContext = packageContext,
+            rcPackage = rcPackage,
+            subscriptionOption = subscriptionOption,
+            currencyLocale = currencyLocale,
+            dateLocale = dateLocale,
+            date = date,
+            countdownTime = countdownTime,
+            countFrom = countFrom,
+        )?.let { processedVariable ->
+            reference.functions.fold(processedVariable) { accumulator, function ->
+                accumulator.processFunction(function, currencyLocale)
+            }
         }
 
-        val variable = findVariable(variableIdentifier, variableConfig.variableCompatibilityMap)
-        return if (variable == null) {
-            ""
+        return if (result != null) {
+            result
         } else {
-            val result = variable.getValue(
-                localizedVariableKeys = localizedVariableKeys,
-                variableDataProvider = variableDataProvider,
-                packageContext = packageContext,
-                rcPackage = rcPackage,
-                subscriptionOption = subscriptionOption,
-                currencyLocale = currencyLocale,
-                dateLocale = dateLocale,
-                date = date,
-                countdownTime = countdownTime,
-                countFrom = countFrom,
-            )?.let { processedVariable ->
-                functions.fold(processedVariable) { accumulator, function ->
-                    accumulator.processFunction(function, currencyLocale)
-                }
-            }
-
-            if (result != null) {
-                result
-            } else {
-                if (rcPackage != null) {
-                    Logger.failedToGetValue(variableIdentifier, rcPackage)
-                }
-                ""
+            if (rcPackage != null) {
+                Logger.failedToGetValue(reference.identifier, rcPackage)
             }
+            ""
         }
     }
 
@@ -0,0 +1,24 @@
+package com.revenuecat.purchases.ui.revenuecatui.data.processed
+
+import com.revenuecat.purchases.UiConfig
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableProcessorV2.CompiledTemplate
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * The templates of a paywall's localized strings, compiled by [VariableProcessorV2.compile] once when its state is
+ * created instead of every time a text is processed. Strings that weren't compiled up front are compiled on first use.
+ */
+internal class VariableTemplates(
+    private val variableConfig: UiConfig.VariableConfig,
+    templates: Iterable<String> = emptyList(),
+) {
+
+    private val compiledTemplates = ConcurrentHashMap<String, CompiledTemplate>()
+
+    init {
+        templates.forEach { get(it) }
+    }
+
+    operator fun get(template: String): CompiledTemplate =
+        compiledTemplates.getOrPut(template) { VariableProcessorV2.compile(template, variableConfig) }
+}
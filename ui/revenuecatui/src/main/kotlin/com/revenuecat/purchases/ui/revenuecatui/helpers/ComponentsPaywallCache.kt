@@ -0,0 +1,106 @@
+package com.revenuecat.purchases.ui.revenuecatui.helpers
+
+import androidx.compose.material3.darkColorScheme
+import androidx.compose.material3.lightColorScheme
+import com.revenuecat.purchases.Offering
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableDataProvider
+import kotlinx.coroutines.CoroutineExceptionHandler
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+
+/**
+ * Process-wide cache of validated components paywalls, so presenting a paywall again, or after [prebuild] built it,
+ * doesn't build its component style tree again.
+ *
+ * Entries are keyed by offering identifier, paywall revision, locale and dark mode, and are only reused for an equal
+ * [Offering]: refreshed packages or another presented offering context build the paywall again. Only paywalls that
+ * validated as components paywalls are cached, fallback paywalls are built every time. The least recently used entries
+ * are evicted.
+ *
+ * Cached paywalls keep the [VariableDataProvider] they were built with, so callers replace it with one bound to their
+ * own resources before displaying them.
+ */
+internal class ComponentsPaywallCache(
+    private val maxSize: Int = DEFAULT_MAX_SIZE,
+    private val prebuildScope: CoroutineScope = CoroutineScope(
+        SupervisorJob() + Dispatchers.Default + CoroutineExceptionHandler { _, throwable ->
+            Logger.e("Failed to pre-build paywall", throwable)
+        },
+    ),
+) {
+
+    private data class Key(
+        val offeringIdentifier: String,
+        val paywallRevision: Int,
+        val localeIdentifier: String,
+        val darkMode: Boolean,
+    )
+
+    private class Entry(val offering: Offering, val validationResult: PaywallValidationResult.Components)
+
+    private val entries = object : LinkedHashMap<Key, Entry>(maxSize, LOAD_FACTOR, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, Entry>?): Boolean = size > maxSize
+    }
+
+    fun get(offering: Offering, localeIdentifier: String, darkMode: Boolean): PaywallValidationResult.Components? {
+        val key = keyOf(offering, localeIdentifier, darkMode) ?: return null
+        return synchronized(entries) { entries[key] }
+            ?.takeIf { it.offering == offering }
+            ?.validationResult
+    }
+
+    fun getOrBuild(
+        offering: Offering,
+        localeIdentifier: String,
+        darkMode: Boolean,
+        build: () -> PaywallValidationResult,
+    ): PaywallValidationResult {
+        get(offering, localeIdentifier, darkMode)?.let { return it }
+        val validationResult = build()
+        val key = keyOf(offering, localeIdentifier, darkMode)
+        if (key != null && validationResult is PaywallValidationResult.Components) {
+            synchronized(entries) { entries[key] = Entry(offering, validationResult) }
+        }
+        return validationResult
+    }
+
+    /**
+     * Builds the components paywalls of [offerings] in the background, and caches them for [localeIdentifier] and
+     * [darkMode].
+     */
+    fun prebuild(
+        offerings: Collection<Offering>,
+        resourceProvider: ResourceProvider,
+        localeIdentifier: String,
+        darkMode: Boolean,
+    ) {
+        val offeringsToBuild = offerings.filter { it.paywallComponents != null && it.availablePackages.isNotEmpty() }
+        if (offeringsToBuild.isEmpty()) {
+            Logger.d("No offerings with paywall components to pre-build.")
+            return
+        }
+        // The color scheme is only used by fallback paywalls, which aren't cached.
+        val colorScheme = if (darkMode) darkColorScheme() else lightColorScheme()
+        prebuildScope.launch {
+            offeringsToBuild.forEach { offering ->
+                getOrBuild(offering, localeIdentifier, darkMode) {
+                    offering.validatedPaywall(colorScheme, resourceProvider)
+                }
+            }
+        }
+    }
+
+    private fun keyOf(offering: Offering, localeIdentifier: String, darkMode: Boolean): Key? {
+        val paywallRevision = offering.paywallComponents?.dataOrNull?.revision ?: return null
+        return Key(offering.identifier, paywallRevision, localeIdentifier, darkMode)
+    }
+
+    internal companion object {
+        private const val DEFAULT_MAX_SIZE = 8
+        private const val LOAD_FACTOR = 0.75f
+
+        val shared: ComponentsPaywallCache by lazy { ComponentsPaywallCache() }
+    }
+}
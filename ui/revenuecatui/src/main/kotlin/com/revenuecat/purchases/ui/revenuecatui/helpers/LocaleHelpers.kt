@@ -3,6 +3,7 @@ package com.revenuecat.purchases.ui.revenuecatui.helpers
 import android.content.res.Configuration
 import android.view.View
 import androidx.compose.ui.unit.LayoutDirection
+import androidx.core.os.LocaleListCompat
 import java.util.Locale
 
 /**
@@ -28,6 +29,22 @@ internal fun createLocaleFromString(localeString: String): Locale {
     }
 }
 
+/**
+ * Returns the locales paywalls are displayed in: [preferredLocaleOverride] if set, or the default locales otherwise.
+ */
+internal fun paywallLocaleList(preferredLocaleOverride: String?): LocaleListCompat {
+    val preferredLocale = preferredLocaleOverride ?: return LocaleListCompat.getDefault()
+
+    return try {
+        val locale = createLocaleFromString(preferredLocale)
+        val localeList = LocaleListCompat.create(locale)
+        localeList
+    } catch (e: IllegalArgumentException) {
+        Logger.e("Invalid preferred locale format: $preferredLocale. Using system default.", e)
+        LocaleListCompat.getDefault()
+    }
+}
+
 /**
  * Returns the Compose [LayoutDirection] matching this locale's character direction.
  */
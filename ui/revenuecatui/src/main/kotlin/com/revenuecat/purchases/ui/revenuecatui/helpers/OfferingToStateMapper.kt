@@ -51,6 +51,7 @@ import com.revenuecat.purchases.ui.revenuecatui.data.processed.PaywallTemplate
 import com.revenuecat.purchases.ui.revenuecatui.data.processed.TemplateConfigurationFactory
 import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableDataProvider
 import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableProcessor
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableTemplates
 import com.revenuecat.purchases.ui.revenuecatui.errors.PaywallValidationError
 import com.revenuecat.purchases.ui.revenuecatui.extensions.createDefault
 import com.revenuecat.purchases.ui.revenuecatui.extensions.createDefaultForIdentifiers
@@ -236,6 +237,13 @@ internal fun Offering.validatePaywallComponentsDataOrNull(
             zeroDecimalPlaceCountries = componentsData.zeroDecimalPlaceCountries.toSet(),
             variableConfig = paywallComponents.uiConfig.variableConfig,
             variableDataProvider = VariableDataProvider(resourceProvider),
+            // Compile every localized string once, instead of every time a text is processed.
+            variableTemplates = VariableTemplates(
+                variableConfig = paywallComponents.uiConfig.variableConfig,
+                templates = localizations.values
+                    .flatMap { it.values }
+                    .mapNotNull { (it as? LocalizationData.Text)?.value },
+            ),
             packages = backendRootComponentResult.availablePackages
                 .merge(with = headerResult?.availablePackages)
                 .merge(with = stickyFooterResult?.availablePackages),
@@ -386,6 +394,7 @@ internal fun Offering.toComponentsPaywallState(
         showPricesWithDecimals = showPricesWithDecimals,
         variableConfig = validationResult.variableConfig,
         variableDataProvider = validationResult.variableDataProvider,
+        variableTemplates = validationResult.variableTemplates,
         offering = this,
         locales = validationResult.locales,
         storefrontCountryCode = storefrontCountryCode,
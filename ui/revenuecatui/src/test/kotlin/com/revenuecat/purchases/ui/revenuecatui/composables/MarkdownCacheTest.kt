@@ -0,0 +1,150 @@
+package com.revenuecat.purchases.ui.revenuecatui.composables
+
+import androidx.compose.ui.text.AnnotatedString
+import org.assertj.core.api.Assertions.assertThat
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension
+import org.commonmark.node.Document
+import org.commonmark.node.Node
+import org.commonmark.node.Paragraph
+import org.commonmark.node.Text
+import org.commonmark.parser.Parser
+import org.junit.Test
+
+class MarkdownCacheTest {
+
+    private val parser = Parser.builder()
+        .extensions(listOf(StrikethroughExtension.create()))
+        .build()
+
+    @Test
+    fun `plain strings are documents commonmark would parse them into`() {
+        val plainStrings = listOf(
+            "Unlock everything",
+            "Try it free for 7 days, then $9.99/month.",
+            "Save 30% - cancel anytime!",
+            "Only {{ product.price_per_month }} per month",
+            "Ends in 01:02:03",
+        )
+
+        plainStrings.forEach { text ->
+            assertThat(MarkdownCache.hasMarkdownSyntax(text)).isFalse
+            assertThat(describe(MarkdownCache(parser).document(text)))
+                .isEqualTo(describe(parser.parse(text) as Document))
+        }
+    }
+
+    @Test
+    fun `strings that may contain markdown syntax are left to commonmark`() {
+        val markdownStrings = listOf(
+            "",
+            "**Bold**",
+            "_Italic_",
+            "~~Struck~~",
+            "`code`",
+            "[Terms](https://revenuecat.com)",
+            "<b>html</b>",
+            "Fish &amp; chips",
+            "Escaped \\*",
+            "# Heading",
+            "> Quote",
+            "- Item",
+            "+ Item",
+            "1. Item",
+            "First line\nSecond line",
+            "Tab\tseparated",
+            " Leading space",
+            "Trailing space ",
+        )
+
+        markdownStrings.forEach { text ->
+            assertThat(MarkdownCache.hasMarkdownSyntax(text)).`as`(text).isTrue
+        }
+    }
+
+    @Test
+    fun `document is cached by text`() {
+        val cache = MarkdownCache(parser)
+
+        val document = cache.document("**Bold**")
+
+        assertThat(cache.document("**Bold**")).isSameAs(document)
+        assertThat(cache.document("**Other**")).isNotSameAs(document)
+    }
+
+    @Test
+    fun `plain documents are not cached`() {
+        val cache = MarkdownCache(parser, maxDocuments = 1)
+        val document = cache.document("**Bold**")
+
+        cache.document("Plain")
+
+        assertThat(cache.document("Plain")).isNotSameAs(cache.document("Plain"))
+        assertThat(cache.document("**Bold**")).isSameAs(document)
+    }
+
+    @Test
+    fun `least recently used documents are evicted`() {
+        val cache = MarkdownCache(parser, maxDocuments = 2)
+        val first = cache.document("**first**")
+        val second = cache.document("**second**")
+        cache.document("**first**")
+
+        cache.document("**third**")
+
+        assertThat(cache.document("**first**")).isSameAs(first)
+        assertThat(cache.document("**second**")).isNotSameAs(second)
+    }
+
+    @Test
+    fun `annotated string is only built once per key`() {
+        val cache = MarkdownCache(parser)
+        var builds = 0
+        val build = {
+            builds++
+            AnnotatedString("text")
+        }
+
+        val first = cache.annotatedString("key", build)
+        val second = cache.annotatedString("key", build)
+        cache.annotatedString("other_key", build)
+
+        assertThat(second).isSameAs(first)
+        assertThat(builds).isEqualTo(2)
+    }
+
+    @Test
+    fun `least recently used annotated strings are evicted`() {
+        val cache = MarkdownCache(parser, maxAnnotatedStrings = 1)
+        var builds = 0
+        val build = {
+            builds++
+            AnnotatedString("text")
+        }
+        cache.annotatedString("key", build)
+        cache.annotatedString("other_key", build)
+
+        cache.annotatedString("key", build)
+
+        assertThat(builds).isEqualTo(3)
+    }
+
+    /**
+     * The block structure of [document] and the text of each paragraph, which is what [Markdown] renders of it.
+     */
+    private fun describe(document: Document): List<String> {
+        val blocks = mutableListOf<String>()
+        var block: Node? = document.firstChild
+        while (block != null) {
+            val text = StringBuilder()
+            var child = block.firstChild
+            while (child != null) {
+                text.append((child as? Text)?.literal ?: child.javaClass.simpleName)
+                child = child.next
+            }
+            blocks.add("${block.javaClass.simpleName}: $text")
+            assertThat(block).isInstanceOf(Paragraph::class.java)
+            block = block.next
+        }
+        return blocks
+    }
+}
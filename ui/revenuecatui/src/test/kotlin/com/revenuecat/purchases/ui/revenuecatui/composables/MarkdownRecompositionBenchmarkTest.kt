@@ -0,0 +1,68 @@
+package com.revenuecat.purchases.ui.revenuecatui.composables
+
+import android.util.Log
+import androidx.compose.foundation.layout.Column
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableIntStateOf
+import androidx.compose.runtime.setValue
+import androidx.compose.ui.graphics.Color
+import androidx.compose.ui.test.junit4.createComposeRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Ignore
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Recomposes a paywall-like column of [Markdown] texts the way a countdown tick or a package selection does, and logs
+ * the average time per recomposition.
+ */
+@RunWith(AndroidJUnit4::class)
+class MarkdownRecompositionBenchmarkTest {
+
+    @get:Rule
+    val composeTestRule = createComposeRule()
+
+    private val texts = listOf(
+        "# Unlock **Premium**",
+        "Try it free for 7 days, then $9.99/month.",
+        "- Unlimited projects\n- ~~Ads~~ No ads\n- Priority support",
+        "Cancel anytime. By subscribing you agree to our [Terms](https://revenuecat.com/terms).",
+        "Offer ends in 01:02:03",
+    )
+
+    @Ignore("Test is for checking performance only")
+    @Test
+    fun `Recompose markdown texts`() {
+        var tick by mutableIntStateOf(0)
+        composeTestRule.setContent {
+            Column {
+                // Only the countdown text changes, as on every countdown tick. Every text recomposes with a new color,
+                // as on a package selection.
+                val color = if (tick % 2 == 0) Color.Black else Color.DarkGray
+                texts.forEach { Markdown(text = it, color = color) }
+                Markdown(text = "Offer ends in 00:00:${tick % SECONDS_PER_MINUTE}", color = color)
+            }
+        }
+        composeTestRule.waitForIdle()
+
+        val startTime = System.nanoTime()
+        repeat(ITERATIONS) {
+            tick++
+            composeTestRule.waitForIdle()
+        }
+        val totalTimeMillis = (System.nanoTime() - startTime) / NANOS_PER_MILLI
+        Log.d(
+            TAG,
+            "Markdown recomposition:\nTotal time: $totalTimeMillis ms, " +
+                "Average time: ${totalTimeMillis.toDouble() / ITERATIONS} ms",
+        )
+    }
+
+    private companion object {
+        const val TAG = "MarkdownBenchmark"
+        const val ITERATIONS = 200
+        const val SECONDS_PER_MINUTE = 60
+        const val NANOS_PER_MILLI = 1_000_000L
+    }
+}
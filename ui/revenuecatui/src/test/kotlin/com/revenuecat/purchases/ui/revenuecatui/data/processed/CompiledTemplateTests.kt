@@ -0,0 +1,169 @@
+package com.revenuecat.purchases.ui.revenuecatui.data.processed
+
+import com.revenuecat.purchases.InternalRevenueCatAPI
+import com.revenuecat.purchases.Package
+import com.revenuecat.purchases.PackageType
+import com.revenuecat.purchases.PresentedOfferingContext
+import com.revenuecat.purchases.UiConfig
+import com.revenuecat.purchases.models.Period
+import com.revenuecat.purchases.models.Price
+import com.revenuecat.purchases.models.TestStoreProduct
+import com.revenuecat.purchases.ui.revenuecatui.CustomVariableValue
+import com.revenuecat.purchases.ui.revenuecatui.components.variableLocalizationKeysForEnUs
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableProcessor.PackageContext
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableProcessorV2.CompiledTemplate.Segment
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableProcessorV2.Function
+import com.revenuecat.purchases.ui.revenuecatui.data.processed.VariableProcessorV2.Variable
+import com.revenuecat.purchases.ui.revenuecatui.data.testdata.MockResourceProvider
+import com.revenuecat.purchases.ui.revenuecatui.helpers.Logger
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockkObject
+import io.mockk.runs
+import io.mockk.unmockkObject
+import io.mockk.verify
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.util.Locale
+
+@OptIn(InternalRevenueCatAPI::class)
+class CompiledTemplateTests {
+
+    private val variableConfig = UiConfig.VariableConfig(
+        variableCompatibilityMap = mapOf("product.old_price" to "product.price"),
+        functionCompatibilityMap = mapOf("old_uppercase" to "uppercase"),
+    )
+
+    @Before
+    fun setUp() {
+        mockkObject(Logger)
+        every { Logger.w(any()) } just runs
+        every { Logger.e(any()) } just runs
+    }
+
+    @After
+    fun tearDown() {
+        unmockkObject(Logger)
+    }
+
+    @Test
+    fun `compile splits literal text from resolved variables`() {
+        val template = VariableProcessorV2.compile(
+            "Only {{ product.price | uppercase }} for {{ custom.name }}!",
+            variableConfig,
+        )
+
+        assertThat(template.segments).containsExactly(
+            Segment.Literal("Only "),
+            Segment.VariableReference("product.price", Variable.PRODUCT_PRICE, listOf(Function.UPPERCASE)),
+            Segment.Literal(" for "),
+            Segment.CustomVariableReference("name", emptyList()),
+            Segment.Literal("!"),
+        )
+    }
+
+    @Test
+    fun `compile resolves backwards compatible variables and functions`() {
+        val template = VariableProcessorV2.compile("{{ product.old_price | old_uppercase }}", variableConfig)
+
+        assertThat(template.segments).containsExactly(
+            Segment.VariableReference("product.old_price", Variable.PRODUCT_PRICE, listOf(Function.UPPERCASE)),
+        )
+    }
+
+    @Test
+    fun `unsupported variables are logged once when compiling and left out`() {
+        val template = VariableProcessorV2.compile("Hello {{ product.unknown }}!", variableConfig)
+
+        repeat(3) { assertThat(process(template)).isEqualTo("Hello !") }
+
+        assertThat(template.segments).containsExactly(Segment.Literal("Hello "), Segment.Literal("!"))
+        verify(exactly = 1) { Logger.e(match { it.contains("product.unknown") }) }
+    }
+
+    @Test
+    fun `compiled templates process to the same text as their source`() {
+        val source = "{{ custom.name | capitalize }}, get {{ product.price_per_period }} " +
+            "or {{ product.price_per_month }} per month."
+        val customVariables = mapOf("name" to CustomVariableValue.String("john"))
+
+        val fromCompiled = process(VariableProcessorV2.compile(source, variableConfig), customVariables)
+        val fromSource = VariableProcessorV2.processVariables(
+            template = source,
+            localizedVariableKeys = variableLocalizationKeysForEnUs(),
+            variableConfig = variableConfig,
+            variableDataProvider = VariableDataProvider(MockResourceProvider()),
+            packageContext = packageContext,
+            rcPackage = packageYearlyUsd,
+            currencyLocale = Locale.US,
+            dateLocale = Locale.US,
+            customVariables = customVariables,
+        )
+
+        assertThat(fromCompiled).startsWith("John, get $24.00/")
+        assertThat(fromCompiled).isEqualTo(fromSource)
+    }
+
+    @Test
+    fun `templates are only compiled once`() {
+        val templates = VariableTemplates(variableConfig, listOf("{{ product.price }}"))
+
+        assertThat(templates["{{ product.price }}"]).isSameAs(templates["{{ product.price }}"])
+        assertThat(templates["Not compiled up front"]).isSameAs(templates["Not compiled up front"])
+        assertThat(templates["Not compiled up front"].segments).containsExactly(
+            Segment.Literal("Not compiled up front"),
+        )
+    }
+
+    @Test
+    fun `formatted prices are cached per product`() {
+        val variableDataProvider = VariableDataProvider(MockResourceProvider())
+
+        val price = variableDataProvider.localizedPrice(packageYearlyUsd, Locale.US, false)
+        val pricePerMonth = variableDataProvider.localizedPricePerMonth(packageYearlyUsd, Locale.US, false)
+
+        assertThat(variableDataProvider.localizedPrice(packageYearlyUsd, Locale.US, false)).isSameAs(price)
+        assertThat(variableDataProvider.localizedPricePerMonth(packageYearlyUsd, Locale.US, false))
+            .isSameAs(pricePerMonth)
+            .isEqualTo("$2.00")
+    }
+
+    private fun process(
+        template: VariableProcessorV2.CompiledTemplate,
+        customVariables: Map<String, CustomVariableValue> = emptyMap(),
+    ): String = VariableProcessorV2.processVariables(
+        template = template,
+        localizedVariableKeys = variableLocalizationKeysForEnUs(),
+        variableDataProvider = VariableDataProvider(MockResourceProvider()),
+        packageContext = packageContext,
+        rcPackage = packageYearlyUsd,
+        currencyLocale = Locale.US,
+        dateLocale = Locale.US,
+        customVariables = customVariables,
+    )
+
+    private companion object {
+        private val packageContext = PackageContext(
+            discountRelativeToMostExpensivePerMonth = null,
+            showZeroDecimalPlacePrices = false,
+        )
+
+        private val packageYearlyUsd = Package(
+            identifier = "package_yearly",
+            packageType = PackageType.ANNUAL,
+            product = TestStoreProduct(
+                id = "com.revenuecat.annual_product",
+                name = "Annual",
+                title = "Annual (App name)",
+                description = "Annual",
+                price = Price(amountMicros = 24_000_000, currencyCode = "USD", formatted = "$24.00"),
+                period = Period(value = 1, unit = Period.Unit.YEAR, iso8601 = "P1Y"),
+                freeTrialPricingPhase = null,
+                introPricePricingPhase = null,
+            ),
+            presentedOfferingContext = PresentedOfferingContext(offeringIdentifier = "offering_identifier"),
+        )
+    }
+}
@@ -0,0 +1,143 @@
+package com.revenuecat.purchases.ui.revenuecatui.helpers
+
+import androidx.compose.ui.graphics.Color
+import androidx.compose.ui.graphics.toArgb
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.revenuecat.purchases.Offering
+import com.revenuecat.purchases.Package
+import com.revenuecat.purchases.UiConfig
+import com.revenuecat.purchases.paywalls.components.StackComponent
+import com.revenuecat.purchases.paywalls.components.common.Background
+import com.revenuecat.purchases.paywalls.components.common.ComponentsConfig
+import com.revenuecat.purchases.paywalls.components.common.LocaleId
+import com.revenuecat.purchases.paywalls.components.common.LocalizationData
+import com.revenuecat.purchases.paywalls.components.common.LocalizationKey
+import com.revenuecat.purchases.paywalls.components.common.PaywallComponentsConfig
+import com.revenuecat.purchases.paywalls.components.common.PaywallComponentsData
+import com.revenuecat.purchases.paywalls.components.properties.ColorInfo
+import com.revenuecat.purchases.paywalls.components.properties.ColorScheme
+import com.revenuecat.purchases.ui.revenuecatui.data.testdata.MockResourceProvider
+import com.revenuecat.purchases.ui.revenuecatui.data.testdata.TestData
+import io.mockk.mockk
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.UnconfinedTestDispatcher
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.net.URL
+
+@OptIn(ExperimentalCoroutinesApi::class)
+@RunWith(AndroidJUnit4::class)
+class ComponentsPaywallCacheTest {
+
+    private val cache = ComponentsPaywallCache(prebuildScope = CoroutineScope(UnconfinedTestDispatcher()))
+
+    @Test
+    fun `builds a paywall once per offering, locale and dark mode`() {
+        val offering = offering()
+        var builds = 0
+        val build = {
+            builds++
+            mockk<PaywallValidationResult.Components>()
+        }
+
+        val first = cache.getOrBuild(offering, "en-US", darkMode = false, build)
+        val second = cache.getOrBuild(offering(), "en-US", darkMode = false, build)
+        cache.getOrBuild(offering, "de-DE", darkMode = false, build)
+        cache.getOrBuild(offering, "en-US", darkMode = true, build)
+
+        assertThat(second).isSameAs(first)
+        assertThat(builds).isEqualTo(3)
+    }
+
+    @Test
+    fun `builds the paywall again for a different revision or different packages`() {
+        var builds = 0
+        val build = {
+            builds++
+            mockk<PaywallValidationResult.Components>()
+        }
+        cache.getOrBuild(offering(), "en-US", darkMode = false, build)
+
+        cache.getOrBuild(offering(revision = 2), "en-US", darkMode = false, build)
+        cache.getOrBuild(offering(packages = listOf(TestData.Packages.monthly)), "en-US", darkMode = false, build)
+
+        assertThat(builds).isEqualTo(3)
+        assertThat(cache.get(offering(), "en-US", darkMode = false)).isNull()
+    }
+
+    @Test
+    fun `does not cache fallback paywalls`() {
+        val offering = offering()
+        var builds = 0
+        val build = {
+            builds++
+            mockk<PaywallValidationResult.Legacy>()
+        }
+
+        cache.getOrBuild(offering, "en-US", darkMode = false, build)
+        cache.getOrBuild(offering, "en-US", darkMode = false, build)
+
+        assertThat(builds).isEqualTo(2)
+        assertThat(cache.get(offering, "en-US", darkMode = false)).isNull()
+    }
+
+    @Test
+    fun `evicts the least recently used paywalls`() {
+        val cache = ComponentsPaywallCache(maxSize = 1)
+        cache.getOrBuild(offering(), "en-US", darkMode = false) { mockk<PaywallValidationResult.Components>() }
+
+        cache.getOrBuild(offering(), "de-DE", darkMode = false) { mockk<PaywallValidationResult.Components>() }
+
+        assertThat(cache.get(offering(), "en-US", darkMode = false)).isNull()
+        assertThat(cache.get(offering(), "de-DE", darkMode = false)).isNotNull
+    }
+
+    @Test
+    fun `prebuild caches the components paywalls of the offerings`() {
+        val offering = offering()
+        val offeringWithoutComponents = Offering(
+            identifier = "legacy",
+            serverDescription = "",
+            metadata = emptyMap(),
+            availablePackages = listOf(TestData.Packages.annual),
+        )
+
+        cache.prebuild(listOf(offering, offeringWithoutComponents), MockResourceProvider(), "en-US", darkMode = false)
+
+        assertThat(cache.get(offering, "en-US", darkMode = false)).isNotNull
+        assertThat(cache.get(offering, "en-US", darkMode = true)).isNull()
+        assertThat(cache.get(offeringWithoutComponents, "en-US", darkMode = false)).isNull()
+    }
+
+    private fun offering(
+        revision: Int = 1,
+        packages: List<Package> = listOf(TestData.Packages.annual),
+    ): Offering {
+        val data = PaywallComponentsData(
+            id = "paywall_id",
+            templateName = "template",
+            assetBaseURL = URL("https://assets.pawwalls.com"),
+            componentsConfig = ComponentsConfig(
+                base = PaywallComponentsConfig(
+                    stack = StackComponent(components = emptyList()),
+                    background = Background.Color(ColorScheme(light = ColorInfo.Hex(Color.White.toArgb()))),
+                    stickyFooter = null,
+                ),
+            ),
+            componentsLocalizations = mapOf(
+                LocaleId("en_US") to mapOf(LocalizationKey("key") to LocalizationData.Text("text")),
+            ),
+            defaultLocaleIdentifier = LocaleId("en_US"),
+            revision = revision,
+        )
+        return Offering(
+            identifier = "offering",
+            serverDescription = "",
+            metadata = emptyMap(),
+            availablePackages = packages,
+            paywallComponents = Offering.PaywallComponents(UiConfig(), data),
+        )
+    }
+}